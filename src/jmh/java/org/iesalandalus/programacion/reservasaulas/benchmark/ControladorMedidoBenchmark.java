@@ -0,0 +1,123 @@
+package org.iesalandalus.programacion.reservasaulas.benchmark;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.iesalandalus.programacion.reservasaulas.controlador.ControladorReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.controlador.ControladorReservasAulasMedido;
+import org.iesalandalus.programacion.reservasaulas.controlador.IControladorReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.vista.IVista;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ *
+ * Pruebas de rendimiento de ControladorReservasAulasMedido frente al
+ * controlador que envuelve. Cada operación se mide directamente y a través del
+ * controlador medido, y la diferencia entre las dos es lo que cuesta medirla,
+ * que no debe llegar a 100 ns: una consulta sencilla y una consulta por
+ * periodo, cuyo stream se envuelve para medirlo al terminar de recorrerlo.
+ * Con una sola CPU en una máquina virtual cada lectura del reloj puede costar
+ * más de 40 ns, la mayor parte de lo que se permite.
+ *
+ * @see ControladorReservasAulasMedido
+ * @see GeneradorReservas
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControladorMedidoBenchmark {
+
+	private static final int NUM_RESERVAS = 10000;
+
+	private IControladorReservasAulas directo;
+	private IControladorReservasAulas medido;
+	private Aula aula;
+	private Permanencia permanencia;
+	private LocalDate dia;
+
+	/**
+	 * Carga los datos generados en un modelo y crea los dos controladores sobre
+	 * él, con una vista que no hace nada
+	 */
+	@Setup(Level.Trial)
+	public void preparar() {
+		GeneradorReservas generador = new GeneradorReservas(NUM_RESERVAS);
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		modelo.cargar(generador.getAulas(), generador.getProfesores(), generador.getReservas());
+		IVista vista = new IVista() {
+			public void setControlador(IControladorReservasAulas controlador) {
+			}
+
+			public void comenzar() {
+			}
+
+			public void salir() {
+			}
+		};
+		directo = new ControladorReservasAulas(modelo, vista);
+		medido = new ControladorReservasAulasMedido(directo, vista);
+		Reserva reserva = generador.getReservas().get(NUM_RESERVAS / 2);
+		aula = reserva.getAula();
+		permanencia = reserva.getPermanencia();
+		dia = permanencia.getDia();
+	}
+
+	@Benchmark
+	public boolean consultarDisponibilidadDirecto() {
+		return directo.consultarDisponibilidad(aula, permanencia);
+	}
+
+	@Benchmark
+	public boolean consultarDisponibilidadMedido() {
+		return medido.consultarDisponibilidad(aula, permanencia);
+	}
+
+	@Benchmark
+	public void getReservasAulaPeriodoDirecto(Blackhole agujero) {
+		recorrer(directo.getReservasAula(aula, dia, dia), agujero);
+	}
+
+	@Benchmark
+	public void getReservasAulaPeriodoMedido(Blackhole agujero) {
+		recorrer(medido.getReservasAula(aula, dia, dia), agujero);
+	}
+
+	/**
+	 * Recorre las reservas como lo hace la vista HTTP. No se usa count, que en
+	 * el stream de una lista devuelve su tamaño sin recorrerlo
+	 *
+	 * @param reservas
+	 *            las reservas
+	 * @param agujero
+	 *            donde se consumen las reservas
+	 */
+	private static void recorrer(Stream<Reserva> reservas, Blackhole agujero) {
+		Iterator<Reserva> iterador = reservas.iterator();
+		while (iterador.hasNext())
+			agujero.consume(iterador.next());
+	}
+
+}
@@ -0,0 +1,156 @@
+package org.iesalandalus.programacion.reservasaulas.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Compara la memoria reservada por las consultas de Reservas, que devuelven las
+ * instancias guardadas, con la que reservaban cuando se copiaba cada reserva al
+ * leerla. Las pruebas que acaban en Copiando hacen la consulta y después copian
+ * cada reserva con su profesor, su aula y su permanencia, comprobando otra vez
+ * sus datos como hacían los constructores, y sirven de referencia para las
+ * demás. La diferencia se ve en gc.alloc.rate.norm (bytes por llamada) al
+ * ejecutarlas con el perfilador gc, como hace "gradlew jmh
+ * -Pjmh.incluir=CopiaReservasBenchmark".
+ *
+ * @see GeneradorReservas
+ * @see ReservasBenchmark
+ * @author Juan Antonio Manzano Plaza
+ * @version 1
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CopiaReservasBenchmark {
+
+	// Debe ser una potencia de 2
+	private static final int MUESTRAS = 1024;
+	private static final long SEMILLA = 42;
+
+	@Param({ "10000", "100000" })
+	public int numReservas;
+
+	private Reservas reservas;
+	private Reserva[] existentes;
+	private int posicion;
+
+	/**
+	 * Carga las reservas generadas y elige la muestra de reservas existentes
+	 */
+	@Setup(Level.Trial)
+	public void preparar() {
+		GeneradorReservas generador = new GeneradorReservas(numReservas);
+		List<Reserva> generadas = generador.getReservas();
+		reservas = new Reservas();
+		reservas.cargar(generadas);
+		Random aleatorio = new Random(SEMILLA);
+		existentes = new Reserva[MUESTRAS];
+		for (int i = 0; i < MUESTRAS; i++)
+			existentes[i] = generadas.get(aleatorio.nextInt(generadas.size()));
+	}
+
+	/**
+	 * Avanza a la siguiente posición de las muestras
+	 *
+	 * @return la posición
+	 */
+	private int siguiente() {
+		posicion = (posicion + 1) & (MUESTRAS - 1);
+		return posicion;
+	}
+
+	/**
+	 * Copia una lista de reservas como se hacía al leerlas
+	 *
+	 * @param originales
+	 *            las reservas guardadas
+	 * @return una lista con una copia de cada reserva
+	 */
+	private static List<Reserva> copiar(List<Reserva> originales) {
+		List<Reserva> copias = new ArrayList<Reserva>(originales.size());
+		for (Reserva r : originales)
+			copias.add(copiar(r));
+		return copias;
+	}
+
+	/**
+	 * Copia una reserva con su profesor, su aula y su permanencia, pasando por los
+	 * constructores que comprueban los datos
+	 *
+	 * @param reserva
+	 *            la reserva a copiar
+	 * @return la copia
+	 */
+	private static Reserva copiar(Reserva reserva) {
+		Profesor profesor = reserva.getProfesor();
+		Profesor copiaProfesor = profesor.getTelefono() == null
+				? new Profesor(profesor.getNombre(), profesor.getCorreo())
+				: new Profesor(profesor.getNombre(), profesor.getCorreo(), profesor.getTelefono());
+		Aula aula = reserva.getAula();
+		Permanencia permanencia = reserva.getPermanencia();
+		Permanencia copiaPermanencia;
+		if (permanencia instanceof PermanenciaPorHora)
+			copiaPermanencia = new PermanenciaPorHora((PermanenciaPorHora) permanencia);
+		else
+			copiaPermanencia = new PermanenciaPorTramo((PermanenciaPorTramo) permanencia);
+		return new Reserva(copiaProfesor, new Aula(aula.getNombre(), aula.getPuestos()), copiaPermanencia);
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasAula() {
+		return reservas.getReservasAula(existentes[siguiente()].getAula());
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasAulaCopiando() {
+		return copiar(reservas.getReservasAula(existentes[siguiente()].getAula()));
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasProfesor() {
+		return reservas.getReservasProfesor(existentes[siguiente()].getProfesor());
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasProfesorCopiando() {
+		return copiar(reservas.getReservasProfesor(existentes[siguiente()].getProfesor()));
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasPermanencia() {
+		return reservas.getReservasPermanencia(existentes[siguiente()].getPermanencia());
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasPermanenciaCopiando() {
+		return copiar(reservas.getReservasPermanencia(existentes[siguiente()].getPermanencia()));
+	}
+
+}
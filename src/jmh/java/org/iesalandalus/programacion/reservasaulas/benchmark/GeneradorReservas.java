@@ -0,0 +1,113 @@
+package org.iesalandalus.programacion.reservasaulas.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+
+/**
+ *
+ * Genera los datos de las pruebas de rendimiento: un número de reservas por
+ * horas repartidas entre NUM_AULAS aulas y días consecutivos a partir del mes
+ * siguiente, de forma que todas cumplen las restricciones de la aplicación. Los
+ * datos son siempre los mismos para el mismo número de reservas.
+ *
+ * @see ReservasBenchmark
+ * @see ModeloReservasAulasBenchmark
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class GeneradorReservas {
+
+	public static final int NUM_AULAS = 100;
+	// Cada profesor tiene como mucho este número de reservas seguidas, que con
+	// aulas de 10 puestos suman 160 puntos y no superan el máximo del mes
+	private static final int RESERVAS_POR_PROFESOR = 20;
+	private static final int PUESTOS = 10;
+	private static final int HORAS_POR_DIA = PermanenciaPorHora.HORA_FIN - PermanenciaPorHora.HORA_INICIO;
+
+	private final List<Aula> aulas;
+	private final List<Profesor> profesores;
+	private final List<Reserva> reservas;
+	private final LocalDate primerDia;
+
+	/**
+	 * Constructor de la clase. Genera las aulas, los profesores y las reservas
+	 *
+	 * @param numReservas
+	 *            el número de reservas a generar
+	 * @throws IllegalArgumentException
+	 *             si el número de reservas es negativo
+	 */
+	public GeneradorReservas(int numReservas) throws IllegalArgumentException {
+		if (numReservas < 0)
+			throw new IllegalArgumentException("El número de reservas no puede ser negativo.");
+		primerDia = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+		aulas = new ArrayList<Aula>(NUM_AULAS);
+		for (int i = 0; i < NUM_AULAS; i++)
+			aulas.add(new Aula("Aula " + i, PUESTOS));
+		profesores = new ArrayList<Profesor>(numReservas / RESERVAS_POR_PROFESOR + 1);
+		for (int i = 0; i <= numReservas / RESERVAS_POR_PROFESOR; i++)
+			profesores.add(new Profesor("Profesor " + i, "profesor" + i + "@iesalandalus.org"));
+		reservas = new ArrayList<Reserva>(numReservas);
+		for (int i = 0; i < numReservas; i++)
+			reservas.add(crearReserva(i));
+	}
+
+	/**
+	 * Crea la reserva que ocupa la posición indicada. Las posiciones se reparten
+	 * entre las aulas y después por horas y días, así que las reservas de
+	 * posiciones distintas nunca coinciden, tampoco las de posiciones mayores que
+	 * el número de reservas generadas
+	 *
+	 * @param posicion
+	 *            la posición de la reserva
+	 * @return la reserva
+	 */
+	public Reserva crearReserva(int posicion) {
+		int hueco = posicion / NUM_AULAS;
+		LocalDate dia = primerDia.plusDays(hueco / HORAS_POR_DIA);
+		LocalTime hora = LocalTime.of(PermanenciaPorHora.HORA_INICIO + hueco % HORAS_POR_DIA, 0);
+		int numProfesor = posicion / RESERVAS_POR_PROFESOR;
+		Profesor profesor;
+		if (numProfesor < profesores.size())
+			profesor = profesores.get(numProfesor);
+		else
+			profesor = new Profesor("Profesor " + numProfesor, "profesor" + numProfesor + "@iesalandalus.org");
+		return new Reserva(profesor, aulas.get(posicion % NUM_AULAS), new PermanenciaPorHora(dia, hora));
+	}
+
+	/**
+	 * Obtiene las aulas generadas
+	 *
+	 * @return las aulas
+	 */
+	public List<Aula> getAulas() {
+		return aulas;
+	}
+
+	/**
+	 * Obtiene los profesores generados
+	 *
+	 * @return los profesores
+	 */
+	public List<Profesor> getProfesores() {
+		return profesores;
+	}
+
+	/**
+	 * Obtiene las reservas generadas
+	 *
+	 * @return las reservas
+	 */
+	public List<Reserva> getReservas() {
+		return reservas;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+package org.iesalandalus.programacion.reservasaulas.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.IReservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ReservasColumnar;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ReservasMapeadas;
+
+/**
+ *
+ * Compara la memoria que ocupan las mismas reservas guardadas en Reservas,
+ * ReservasColumnar y ReservasMapeadas. No es una prueba de JMH: carga las reservas de
+ * GeneradorReservas en cada colección, suelta todo lo demás y mide la memoria
+ * ocupada después de liberar la que no se usa. Cada colección se mide sola y
+ * dentro de un ModeloReservasAulas completo, que con Reservas versiona además
+ * las reservas y con las otras dos no. En ReservasMapeadas sólo se
+ * cuenta el montón, no los ficheros proyectados, que se crean en un directorio
+ * temporal y se borran al terminar. Se ejecuta con "gradlew memoria"
+ * y se puede indicar el número de reservas con -Pmemoria.reservas=1000000
+ *
+ * @see GeneradorReservas
+ * @see Reservas
+ * @see ReservasColumnar
+ * @see ReservasMapeadas
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class MemoriaReservas {
+
+	private static final int NUM_RESERVAS = 1000000;
+	private static final int BYTES_MB = 1024 * 1024;
+
+	/**
+	 * Método principal. Mide cada colección por separado y muestra los resultados
+	 *
+	 * @param args
+	 *            el número de reservas, opcional
+	 * @throws IOException
+	 *             si no se pueden crear los ficheros de ReservasMapeadas
+	 */
+	public static void main(String[] args) throws IOException {
+		int numReservas = args.length > 0 ? Integer.parseInt(args[0]) : NUM_RESERVAS;
+		System.out.println("Reservas: " + numReservas);
+		long porObjetos = medir(new Reservas(), numReservas);
+		long modeloPorObjetos = medir(new ModeloReservasAulas(), numReservas);
+		long porColumnas = medir(new ReservasColumnar(), numReservas);
+		long modeloPorColumnas = medir(ModeloReservasAulas.conReservas(new ReservasColumnar()), numReservas);
+		long enFicheros = medirMapeadas(false, numReservas);
+		long modeloEnFicheros = medirMapeadas(true, numReservas);
+		mostrar("Reservas", porObjetos, modeloPorObjetos, numReservas);
+		mostrar("ReservasColumnar", porColumnas, modeloPorColumnas, numReservas);
+		mostrar("ReservasMapeadas (montón)", enFicheros, modeloEnFicheros, numReservas);
+	}
+
+	/**
+	 * Mide ReservasMapeadas, sola o dentro de un modelo, en un directorio
+	 * temporal que se borra al terminar
+	 *
+	 * @param enModelo
+	 *            si se mide dentro de un modelo completo
+	 * @param numReservas
+	 *            el número de reservas a cargar
+	 * @return los bytes ocupados en el montón
+	 * @throws IOException
+	 *             si no se pueden crear los ficheros
+	 */
+	private static long medirMapeadas(boolean enModelo, int numReservas) throws IOException {
+		Path directorio = Files.createTempDirectory("reservas");
+		ReservasMapeadas mapeadas = new ReservasMapeadas(directorio);
+		try {
+			if (enModelo)
+				return medir(ModeloReservasAulas.conReservas(mapeadas), numReservas);
+			return medir(mapeadas, numReservas);
+		} finally {
+			mapeadas.cerrar();
+			for (String fichero : new String[] { "reservas.dat", "ocupacion.dat", "puntos.dat", "diccionario.dat" })
+				Files.deleteIfExists(directorio.resolve(fichero));
+			Files.deleteIfExists(directorio);
+		}
+	}
+
+	/**
+	 * Muestra lo que ocupa una colección sola y dentro de un modelo
+	 *
+	 * @param nombre
+	 *            el nombre de la colección
+	 * @param sola
+	 *            los bytes ocupados por la colección sola
+	 * @param enModelo
+	 *            los bytes ocupados por el modelo completo
+	 * @param numReservas
+	 *            el número de reservas cargadas
+	 */
+	private static void mostrar(String nombre, long sola, long enModelo, int numReservas) {
+		System.out.printf("%s: %.1f MB (%d bytes por reserva), en el modelo: %.1f MB (%d bytes por reserva)%n",
+				nombre, (double) sola / BYTES_MB, sola / numReservas, (double) enModelo / BYTES_MB,
+				enModelo / numReservas);
+	}
+
+	/**
+	 * Carga las reservas generadas en una colección vacía y mide la memoria que
+	 * ocupa. Las aulas y los profesores se cuentan en las dos colecciones, ya que
+	 * las reservas guardan referencias a ellos
+	 *
+	 * @param reservas
+	 *            la colección vacía
+	 * @param numReservas
+	 *            el número de reservas a cargar
+	 * @return los bytes ocupados por la colección
+	 */
+	private static long medir(IReservas reservas, int numReservas) {
+		long antes = getMemoriaOcupada();
+		reservas.cargar(new GeneradorReservas(numReservas).getReservas());
+		long despues = getMemoriaOcupada();
+		if (reservas.getNumReservas() != numReservas)
+			throw new IllegalStateException("No se han cargado todas las reservas.");
+		return despues - antes;
+	}
+
+	/**
+	 * Carga las reservas generadas, con sus aulas y profesores, en un modelo
+	 * vacío y mide la memoria que ocupa todo el modelo: las colecciones y, si
+	 * versiona las reservas, su versión
+	 *
+	 * @param modelo
+	 *            el modelo vacío
+	 * @param numReservas
+	 *            el número de reservas a cargar
+	 * @return los bytes ocupados por el modelo
+	 */
+	private static long medir(ModeloReservasAulas modelo, int numReservas) {
+		long antes = getMemoriaOcupada();
+		cargar(modelo, numReservas);
+		long despues = getMemoriaOcupada();
+		if (modelo.getNumReservas() != numReservas)
+			throw new IllegalStateException("No se han cargado todas las reservas.");
+		return despues - antes;
+	}
+
+	/**
+	 * Carga en un modelo las reservas generadas. El generador se suelta al
+	 * volver, para que no cuente en la memoria del modelo
+	 *
+	 * @param modelo
+	 *            el modelo vacío
+	 * @param numReservas
+	 *            el número de reservas a cargar
+	 */
+	private static void cargar(ModeloReservasAulas modelo, int numReservas) {
+		GeneradorReservas generador = new GeneradorReservas(numReservas);
+		modelo.cargar(generador.getAulas(), generador.getProfesores(), generador.getReservas());
+	}
+
+	/**
+	 * Obtiene la memoria ocupada después de pedir varias veces que se libere la
+	 * que no se usa
+	 *
+	 * @return los bytes ocupados
+	 */
+	private static long getMemoriaOcupada() {
+		Runtime runtime = Runtime.getRuntime();
+		long ocupada = Long.MAX_VALUE;
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+			try {
+				Thread.sleep(100);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			ocupada = Math.min(ocupada, runtime.totalMemory() - runtime.freeMemory());
+		}
+		return ocupada;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package org.iesalandalus.programacion.reservasaulas.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Prueba de rendimiento del borrado de un aula junto con todas sus reservas.
+ * Después de cada llamada se vuelven a insertar el aula y sus reservas, fuera
+ * de la medición, para que todas las llamadas trabajen con el mismo número de
+ * reservas.
+ *
+ * @see GeneradorReservas
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ModeloReservasAulasBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	public int numReservas;
+
+	private ModeloReservasAulas modelo;
+	private List<Aula> aulas;
+	private List<List<Reserva>> reservasPorAula;
+	private int borrada;
+
+	/**
+	 * Carga en el modelo los datos generados y agrupa las reservas por aula para
+	 * poder restaurarlas
+	 */
+	@Setup(Level.Trial)
+	public void preparar() {
+		GeneradorReservas generador = new GeneradorReservas(numReservas);
+		modelo = new ModeloReservasAulas();
+		modelo.cargar(generador.getAulas(), generador.getProfesores(), generador.getReservas());
+		aulas = generador.getAulas();
+		reservasPorAula = new ArrayList<List<Reserva>>(aulas.size());
+		for (int i = 0; i < aulas.size(); i++)
+			reservasPorAula.add(new ArrayList<Reserva>());
+		// El generador reparte las reservas entre las aulas por orden
+		List<Reserva> reservas = generador.getReservas();
+		for (int i = 0; i < reservas.size(); i++)
+			reservasPorAula.get(i % aulas.size()).add(reservas.get(i));
+	}
+
+	/**
+	 * Vuelve a insertar el aula borrada en la última llamada y sus reservas
+	 *
+	 * @throws OperationNotSupportedException
+	 *             si el aula o alguna reserva ya existen
+	 */
+	@TearDown(Level.Invocation)
+	public void restaurar() throws OperationNotSupportedException {
+		modelo.insertarAula(aulas.get(borrada));
+		for (Reserva reserva : reservasPorAula.get(borrada))
+			modelo.realizarReserva(reserva);
+		borrada = (borrada + 1) % aulas.size();
+	}
+
+	@Benchmark
+	public int borrarAula() throws OperationNotSupportedException {
+		return modelo.borrarAula(aulas.get(borrada));
+	}
+
+}
\ No newline at end of file
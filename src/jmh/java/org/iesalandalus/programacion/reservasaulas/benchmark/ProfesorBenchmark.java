@@ -0,0 +1,78 @@
+package org.iesalandalus.programacion.reservasaulas.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Validador;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Pruebas de rendimiento de la comprobación de los datos de un profesor. Las
+ * pruebas que acaban en Compilando comprueban los datos como se hacía antes de
+ * Validador, compilando la expresión regular en cada llamada, y sirven de
+ * referencia para las demás.
+ *
+ * @see Validador
+ * @see ReservasBenchmark#getReservasProfesorPorNombre()
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProfesorBenchmark {
+
+	private static final String ER_TELEFONO = "^[69][0-9]{8}$";
+	private static final String ER_CORREO = "^[a-z0-9]+(\\.[a-z0-9]+)*@[a-z]+(\\.[a-z]+)*(\\.[a-z]{1,4})$";
+
+	public String nombre = "Profesor 1";
+	public String correo = "profesor1@iesalandalus.org";
+	public String telefono = "950112233";
+
+	private Profesor profesor = new Profesor(nombre, correo, telefono);
+
+	@Benchmark
+	public boolean comprobarCorreoCompilando() {
+		return Pattern.compile(ER_CORREO).matcher(correo).matches();
+	}
+
+	@Benchmark
+	public boolean comprobarCorreo() {
+		return Validador.esCorreoValido(correo);
+	}
+
+	@Benchmark
+	public boolean comprobarTelefonoCompilando() {
+		return Pattern.compile(ER_TELEFONO).matcher(telefono).matches();
+	}
+
+	@Benchmark
+	public boolean comprobarTelefono() {
+		return Validador.esTelefonoValido(telefono);
+	}
+
+	@Benchmark
+	public Profesor crearProfesor() {
+		return new Profesor(nombre, correo, telefono);
+	}
+
+	@Benchmark
+	public Profesor copiarProfesor() {
+		return new Profesor(profesor);
+	}
+
+}
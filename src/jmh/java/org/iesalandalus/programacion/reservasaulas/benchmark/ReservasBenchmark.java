@@ -0,0 +1,157 @@
+package org.iesalandalus.programacion.reservasaulas.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * Pruebas de rendimiento de las operaciones de Reservas más usadas, con
+ * colecciones de distintos tamaños. Las consultas recorren una muestra de
+ * reservas existentes elegida al azar (siempre la misma), para que no se
+ * repita siempre la misma búsqueda.
+ *
+ * @see GeneradorReservas
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ReservasBenchmark {
+
+	// Debe ser una potencia de 2
+	private static final int MUESTRAS = 1024;
+	private static final long SEMILLA = 42;
+
+	@Param({ "1000", "100000", "1000000" })
+	public int numReservas;
+
+	private Reservas reservas;
+	private Reserva[] existentes;
+	private Reserva[] nuevas;
+	private int posicion;
+
+	/**
+	 * Guarda la última reserva insertada para borrarla después de cada llamada,
+	 * de forma que la colección no crece durante la prueba
+	 */
+	@State(Scope.Thread)
+	public static class Insercion {
+
+		private Reserva insertada;
+
+		/**
+		 * Borra la reserva insertada en la última llamada
+		 *
+		 * @param prueba
+		 *            la prueba que contiene la colección
+		 * @throws OperationNotSupportedException
+		 *             si la reserva no se llegó a insertar
+		 */
+		@TearDown(Level.Invocation)
+		public void deshacer(ReservasBenchmark prueba) throws OperationNotSupportedException {
+			prueba.reservas.borrar(insertada);
+		}
+
+	}
+
+	/**
+	 * Carga las reservas generadas y prepara las muestras de reservas existentes
+	 * y nuevas
+	 */
+	@Setup(Level.Trial)
+	public void preparar() {
+		GeneradorReservas generador = new GeneradorReservas(numReservas);
+		List<Reserva> generadas = generador.getReservas();
+		reservas = new Reservas();
+		reservas.cargar(generadas);
+		Random aleatorio = new Random(SEMILLA);
+		existentes = new Reserva[MUESTRAS];
+		nuevas = new Reserva[MUESTRAS];
+		for (int i = 0; i < MUESTRAS; i++) {
+			existentes[i] = generadas.get(aleatorio.nextInt(generadas.size()));
+			nuevas[i] = generador.crearReserva(numReservas + i);
+		}
+	}
+
+	/**
+	 * Avanza a la siguiente posición de las muestras
+	 *
+	 * @return la posición
+	 */
+	private int siguiente() {
+		posicion = (posicion + 1) & (MUESTRAS - 1);
+		return posicion;
+	}
+
+	@Benchmark
+	public void insertar(Insercion insercion) throws OperationNotSupportedException {
+		Reserva reserva = nuevas[siguiente()];
+		reservas.insertar(reserva);
+		insercion.insertada = reserva;
+	}
+
+	@Benchmark
+	public boolean consultarDisponibilidad() {
+		Reserva reserva = existentes[siguiente()];
+		return reservas.consultarDisponibilidad(reserva.getAula(), reserva.getPermanencia());
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasProfesor() {
+		return reservas.getReservasProfesor(existentes[siguiente()].getProfesor());
+	}
+
+	/**
+	 * Busca las reservas de un profesor creándolo a partir de su nombre y su
+	 * correo, como hacen las vistas, de forma que incluye la comprobación de sus
+	 * datos
+	 *
+	 * @return las reservas del profesor
+	 */
+	@Benchmark
+	public List<Reserva> getReservasProfesorPorNombre() {
+		Profesor profesor = existentes[siguiente()].getProfesor();
+		return reservas.getReservasProfesor(new Profesor(profesor.getNombre(), profesor.getCorreo()));
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasAula() {
+		return reservas.getReservasAula(existentes[siguiente()].getAula());
+	}
+
+	@Benchmark
+	public List<Reserva> getReservasPermanencia() {
+		return reservas.getReservasPermanencia(existentes[siguiente()].getPermanencia());
+	}
+
+	@Benchmark
+	public List<String> representar() {
+		return reservas.representar();
+	}
+
+}
\ No newline at end of file
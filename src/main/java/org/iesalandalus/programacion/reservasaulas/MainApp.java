@@ -1,18 +1,51 @@
 package org.iesalandalus.programacion.reservasaulas;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import org.iesalandalus.programacion.reservasaulas.controlador.ControladorReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.controlador.ControladorReservasAulasMedido;
+import org.iesalandalus.programacion.reservasaulas.controlador.Estadisticas;
 import org.iesalandalus.programacion.reservasaulas.controlador.IControladorReservasAulas;
 import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
 import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
-import org.iesalandalus.programacion.reservasaulas.vista.IVistaReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulasCache;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulasConcurrente;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.ArchivoReservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.CompactadorDiario;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.Diario;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.Instantanea;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.ImportacionCsv;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.PoliticaSincronizacion;
+import org.iesalandalus.programacion.reservasaulas.vista.IVista;
 import org.iesalandalus.programacion.reservasaulas.vista.VistaReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.vista.VistaReservasAulasLotes;
+import org.iesalandalus.programacion.reservasaulas.vista.http.VistaReservasAulasHttp;
 
 /**
  *
  * Clase principal del programa. Se encarga de hacer la primera llamada y
- * comenzar la ejecucin.
+ * comenzar la ejecución. Con el argumento --http [puerto] atiende las
+ * operaciones a través de HTTP en lugar de por consola, y con --batch fichero
+ * ejecuta las órdenes del fichero y escribe sus resultados en JSON. Con
+ * --importar aulas|profesores|reservas fichero importa un CSV y deja las filas
+ * rechazadas en el mismo fichero terminado en .rechazadas.
  * 
  * @see VistaReservasAulas
+ * @see VistaReservasAulasLotes
+ * @see ImportacionCsv
  * @see ControladorReservasAulas
  * @see ModeloReservasAulas
  * @author Juan Antonio Manzano Plaza
@@ -21,12 +54,232 @@ import org.iesalandalus.programacion.reservasaulas.vista.VistaReservasAulas;
  */
 public class MainApp {
 
+	private static final String FICHERO_DIARIO = "reservasaulas.diario";
+	private static final String FICHERO_INSTANTANEA = "reservasaulas.instantanea";
+	private static final String DIRECTORIO_ARCHIVO = "reservasaulas.archivo";
+	private static final long INTERVALO_SINCRONIZACION = 100;
+	private static final long TAMANO_MINIMO_COMPACTAR = 1024 * 1024;
+	private static final long INTERVALO_COMPACTACION = 60000;
+	private static final String ARGUMENTO_HTTP = "--http";
+	private static final String ARGUMENTO_LOTES = "--batch";
+	private static final String ARGUMENTO_IMPORTAR = "--importar";
+	private static final String EXTENSION_RECHAZADAS = ".rechazadas";
+	private static final int PUERTO_HTTP = 8080;
+	private static final int BANDAS_HTTP = 16;
+	private static final long ESPERA_CIERRE = 30;
+
 	public static void main(String[] args) {
-		System.out.println("Programa para la gestin de reservas de espacios del IES Al-ndalus.");
-		IVistaReservasAulas vista = new VistaReservasAulas();
-		IModeloReservasAulas modelo = new ModeloReservasAulas();
-		IControladorReservasAulas controlador = new ControladorReservasAulas(modelo, vista);
-		controlador.comenzar();
+		boolean http = args.length > 0 && args[0].equals(ARGUMENTO_HTTP);
+		boolean lotes = args.length > 0 && args[0].equals(ARGUMENTO_LOTES);
+		boolean importar = args.length > 0 && args[0].equals(ARGUMENTO_IMPORTAR);
+		// En modo por lotes la salida estándar sólo lleva los resultados
+		if (!lotes)
+			System.out.println("Programa para la gestión de reservas de espacios del IES Al-Ándalus.");
+		final IVista vista;
+		if (http) {
+			int puerto = PUERTO_HTTP;
+			if (args.length > 1) {
+				try {
+					puerto = Integer.parseInt(args[1]);
+				} catch (NumberFormatException e) {
+					System.out.println("ERROR: El puerto debe ser un número entero.");
+					return;
+				}
+			}
+			vista = new VistaReservasAulasHttp(new InetSocketAddress(puerto));
+		} else if (lotes) {
+			if (args.length < 2) {
+				System.out.println("ERROR: Hay que indicar el fichero de órdenes.");
+				return;
+			}
+			try {
+				vista = new VistaReservasAulasLotes(Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8),
+						new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+			} catch (IOException e) {
+				System.out.println("ERROR: No se ha podido abrir el fichero de órdenes. " + e.getMessage());
+				return;
+			}
+		} else if (importar) {
+			if (args.length < 3) {
+				System.out.println("ERROR: Hay que indicar qué se importa (aulas, profesores o reservas) y el fichero.");
+				return;
+			}
+			vista = null;
+		} else
+			vista = new VistaReservasAulas();
+		Diario diario = null;
+		CompactadorDiario compactador = null;
+		IModeloReservasAulas modelo;
+		try {
+			diario = new Diario(Paths.get(FICHERO_DIARIO), PoliticaSincronizacion.AGRUPADA,
+					INTERVALO_SINCRONIZACION);
+			// Al arrancar se carga la instantánea y sólo se reproduce el diario posterior
+			Instantanea instantanea = new Instantanea(Paths.get(FICHERO_INSTANTANEA));
+			if (http) {
+				modelo = new ModeloReservasAulasConcurrente(BANDAS_HTTP, diario, instantanea);
+			} else {
+				// El diario se compacta guardando en la instantánea las versiones del
+				// modelo
+				ModeloReservasAulas versionado = new ModeloReservasAulas(diario, instantanea);
+				archivar(versionado);
+				compactador = new CompactadorDiario(versionado, diario, instantanea, TAMANO_MINIMO_COMPACTAR,
+						INTERVALO_COMPACTACION);
+				modelo = versionado;
+			}
+		} catch (IOException e) {
+			System.out.println("ERROR: No se ha podido abrir el diario, los cambios no se guardarán. " + e.getMessage());
+			modelo = http ? new ModeloReservasAulasConcurrente(BANDAS_HTTP) : new ModeloReservasAulas();
+		}
+		// Los clientes HTTP consultan muchas veces la disponibilidad de las mismas
+		// aulas
+		ModeloReservasAulasCache cache = null;
+		if (http) {
+			cache = new ModeloReservasAulasCache(modelo);
+			modelo = cache;
+		}
+		// Se abre cuando el diario ya está cerrado
+		final CountDownLatch cerrado = new CountDownLatch(1);
+		if (importar) {
+			importar(modelo, args[1], Paths.get(args[2]));
+		} else {
+			// Cada operación se mide para poder consultar sus estadísticas
+			IControladorReservasAulas controlador = new ControladorReservasAulasMedido(
+					new ControladorReservasAulas(modelo, vista), vista);
+			if (diario != null)
+				controlador.getEstadisticas().anadirFuente("diario", medidasDiario(diario, compactador));
+			if (cache != null)
+				controlador.getEstadisticas().anadirFuente("cache", medidasCache(cache));
+			if (http) {
+				// El servidor se detiene al interrumpir el programa. La máquina virtual
+				// termina en cuanto acaba este hilo, así que espera a que el hilo
+				// principal vuelque y cierre el diario
+				Runtime.getRuntime().addShutdownHook(new Thread() {
+					public void run() {
+						vista.salir();
+						try {
+							if (!cerrado.await(ESPERA_CIERRE, TimeUnit.SECONDS))
+								System.out.println("ERROR: No se ha podido cerrar el diario a tiempo.");
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+				});
+			}
+			controlador.comenzar();
+		}
+		try {
+			if (compactador != null)
+				compactador.detener();
+			if (diario != null) {
+				try {
+					diario.cerrar();
+				} catch (IOException e) {
+					System.out.println("ERROR: No se ha podido cerrar el diario. " + e.getMessage());
+				}
+			}
+		} finally {
+			cerrado.countDown();
+		}
+	}
+
+	/**
+	 * Obtiene la fuente de las estadísticas con el tamaño del diario y, si se
+	 * compacta, las medidas de sus compactaciones
+	 *
+	 * @param diario
+	 *            el diario
+	 * @param compactador
+	 *            el compactador del diario, o null si no se compacta
+	 * @return la fuente de estadísticas
+	 */
+	private static Estadisticas.Fuente medidasDiario(final Diario diario, final CompactadorDiario compactador) {
+		return new Estadisticas.Fuente() {
+			public Map<String, Long> getValores() {
+				Map<String, Long> valores = new LinkedHashMap<String, Long>();
+				valores.put("tamano", diario.getTamano());
+				if (compactador != null) {
+					valores.put("compactaciones", (long) compactador.getCompactaciones());
+					valores.put("errores", (long) compactador.getErrores());
+					valores.put("tamanoAntes", compactador.getTamanoAntes());
+					valores.put("tamanoDespues", compactador.getTamanoDespues());
+					valores.put("ultimaNanos", compactador.getUltimaDuracion());
+					valores.put("maximaNanos", compactador.getDuracionMaxima());
+					valores.put("totalNanos", compactador.getDuracionTotal());
+				}
+				return valores;
+			}
+		};
+	}
+
+	/**
+	 * Obtiene la fuente de las estadísticas con los aciertos, fallos,
+	 * invalidaciones y expulsiones de la caché de consultas
+	 *
+	 * @param cache
+	 *            el modelo con caché
+	 * @return la fuente de estadísticas
+	 */
+	private static Estadisticas.Fuente medidasCache(final ModeloReservasAulasCache cache) {
+		return new Estadisticas.Fuente() {
+			public Map<String, Long> getValores() {
+				Map<String, Long> valores = new LinkedHashMap<String, Long>();
+				valores.put("aciertos", cache.getAciertos());
+				valores.put("fallos", cache.getFallos());
+				valores.put("invalidaciones", cache.getInvalidaciones());
+				valores.put("expulsiones", cache.getExpulsiones());
+				valores.put("consultas", (long) cache.getNumConsultas());
+				return valores;
+			}
+		};
+	}
+
+	/**
+	 * Pasa al archivo las reservas de los meses ya cerrados, para que no sigan
+	 * ocupando el modelo. Si no se puede, las reservas se quedan en el modelo
+	 *
+	 * @param modelo
+	 *            el modelo recuperado del diario
+	 */
+	private static void archivar(ModeloReservasAulas modelo) {
+		try {
+			modelo.archivar(new ArchivoReservas(Paths.get(DIRECTORIO_ARCHIVO)));
+		} catch (IOException e) {
+			System.out.println("ERROR: No se han podido archivar las reservas de los meses cerrados. " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Importa en el modelo un fichero CSV de aulas, profesores o reservas y
+	 * muestra cuántas filas se han importado y cuántas se han rechazado
+	 *
+	 * @param modelo
+	 *            el modelo en el que importar
+	 * @param tipo
+	 *            aulas, profesores o reservas
+	 * @param fichero
+	 *            el fichero CSV
+	 */
+	private static void importar(IModeloReservasAulas modelo, String tipo, Path fichero) {
+		if (!tipo.equals("aulas") && !tipo.equals("profesores") && !tipo.equals("reservas")) {
+			System.out.println("ERROR: Sólo se pueden importar aulas, profesores o reservas.");
+			return;
+		}
+		ImportacionCsv importacion = new ImportacionCsv(modelo);
+		Path rechazadas = Paths.get(fichero + EXTENSION_RECHAZADAS);
+		try (Reader csv = Files.newBufferedReader(fichero, StandardCharsets.UTF_8);
+				Writer informe = Files.newBufferedWriter(rechazadas, StandardCharsets.UTF_8)) {
+			int importadas;
+			if (tipo.equals("aulas"))
+				importadas = importacion.importarAulas(csv, informe);
+			else if (tipo.equals("profesores"))
+				importadas = importacion.importarProfesores(csv, informe);
+			else
+				importadas = importacion.importarReservas(csv, informe);
+			System.out.println("Filas importadas: " + importadas + ". Filas rechazadas: "
+					+ importacion.getNumRechazadas() + ".");
+		} catch (IOException e) {
+			System.out.println("ERROR: No se ha podido importar el fichero. " + e.getMessage());
+		}
 	}
 
 }
@@ -1,21 +1,26 @@
 package org.iesalandalus.programacion.reservasaulas.controlador;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.stream.Stream;
 
 import javax.naming.OperationNotSupportedException;
 
 import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
 import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
-import org.iesalandalus.programacion.reservasaulas.vista.IVistaReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.vista.IVista;
 import org.iesalandalus.programacion.reservasaulas.vista.VistaReservasAulas;
 
 /**
- * Clase controlador. Tiene el modelo y la vista de la aplicacin como
- * atributos, y llama a los mtodos del que corresponda de cada uno.
+ * Clase controlador. Tiene el modelo y la vista de la aplicación como
+ * atributos, y llama a los métodos del que corresponda de cada uno.
  * 
  * @see ModeloReservasAulas
  * @see VistaReservasAulas
@@ -26,39 +31,39 @@ import org.iesalandalus.programacion.reservasaulas.vista.VistaReservasAulas;
 public class ControladorReservasAulas implements IControladorReservasAulas {
 
 	private IModeloReservasAulas modelo;
-	private IVistaReservasAulas vista;
+	private IVista vista;
 
 	/**
 	 * Inicializa el controlador y guarda en los atributos la vsita y el modelo
-	 * obtenidos como parmetros
+	 * obtenidos como parámetros
 	 * 
 	 * @param modelo
-	 *            el modelo de la aplicacin
+	 *            el modelo de la aplicación
 	 * @param vista
-	 *            la vista de la aplicacin
+	 *            la vista de la aplicación
 	 */
-	public ControladorReservasAulas(IModeloReservasAulas modelo, IVistaReservasAulas vista) {
+	public ControladorReservasAulas(IModeloReservasAulas modelo, IVista vista) {
 		this.modelo = modelo;
 		this.vista = vista;
 		vista.setControlador(this);
 	}
 
 	/**
-	 * Llama al mtodo comenzar de la vista
+	 * Llama al método comenzar de la vista
 	 */
 	public void comenzar() {
 		vista.comenzar();
 	}
 
 	/**
-	 * Llama al mtodo salir de la vista
+	 * Llama al método salir de la vista
 	 */
 	public void salir() {
 		vista.salir();
 	}
 
 	/**
-	 * Llama al mtodo insertarAula del modelo con el aula obtenida por parmetro
+	 * Llama al método insertarAula del modelo con el aula obtenida por parámetro
 	 * 
 	 * @param insertar
 	 *            el aula que queremos insertar
@@ -72,21 +77,22 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo borrarAula del modelo con el aula obtenida por parmetro
+	 * Llama al método borrarAula del modelo con el aula obtenida por parámetro
 	 * 
 	 * @param borrar
 	 *            el aula a borrar
+	 * @return el número de reservas anuladas junto con el aula
 	 * @throws IllegalArgumentException
 	 *             si el aula es nula
 	 * @throws OperationNotSupportedException
 	 *             si el aula a borrar no existe
 	 */
-	public void borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException {
-		modelo.borrarAula(borrar);
+	public int borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		return modelo.borrarAula(borrar);
 	}
 
 	/**
-	 * Llama al mtodo buscarAula del modelo con el aula obtenida por parmetro
+	 * Llama al método buscarAula del modelo con el aula obtenida por parámetro
 	 * 
 	 * @param buscar
 	 *            el aula a buscar
@@ -97,17 +103,41 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo representarAulas del modelo
+	 * Llama al método getAulas del modelo
 	 * 
-	 * @return una coleccin con las representaciones de todas las aulas guardadas
+	 * @return todas las aulas guardadas
+	 */
+	public List<Aula> getAulas() {
+		return modelo.getAulas();
+	}
+
+	/**
+	 * Llama al método representarAulas del modelo
+	 * 
+	 * @return una colección con las representaciones de todas las aulas guardadas
 	 */
 	public List<String> representarAulas() {
 		return modelo.representarAulas();
 	}
 
 	/**
-	 * Llama al mtodo insertarProfesor del modelo con el profesor obtenido por
-	 * parmetro
+	 * Llama al método representarAulas del modelo con una página
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return las representaciones de las aulas guardadas de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarAulas(int desde, int cantidad) throws IllegalArgumentException {
+		return modelo.representarAulas(desde, cantidad);
+	}
+
+	/**
+	 * Llama al método insertarProfesor del modelo con el profesor obtenido por
+	 * parámetro
 	 * 
 	 * @param insertar
 	 *            el profesor a insertar
@@ -121,23 +151,24 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo borrarProfesor del modelo con el profesor obtenido por
-	 * parmetro
+	 * Llama al método borrarProfesor del modelo con el profesor obtenido por
+	 * parámetro
 	 * 
 	 * @param borrar
 	 *            el profesor a borrar
+	 * @return el número de reservas anuladas junto con el profesor
 	 * @throws IllegalArgumentException
 	 *             si el profesor es nulo
 	 * @throws OperationNotSupportedException
 	 *             si el profesor no existe
 	 */
-	public void borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException {
-		modelo.borrarProfesor(borrar);
+	public int borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		return modelo.borrarProfesor(borrar);
 	}
 
 	/**
-	 * Llama al mtodo buscarProfesor del modelo con el profesor obtenido por
-	 * parmetro
+	 * Llama al método buscarProfesor del modelo con el profesor obtenido por
+	 * parámetro
 	 * 
 	 * @param buscar
 	 *            el profesor a buscar
@@ -148,9 +179,18 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo representarProfesores del modelo
+	 * Llama al método getProfesores del modelo
 	 * 
-	 * @return una coleccin con la representacin de cada profesor en forma de
+	 * @return todos los profesores guardados
+	 */
+	public List<Profesor> getProfesores() {
+		return modelo.getProfesores();
+	}
+
+	/**
+	 * Llama al método representarProfesores del modelo
+	 * 
+	 * @return una colección con la representación de cada profesor en forma de
 	 *         cadena
 	 */
 	public List<String> representarProfesores() {
@@ -158,7 +198,22 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo realizarReserva del modelo
+	 * Llama al método representarProfesores del modelo con una página
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return las representaciones de los profesores guardados de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarProfesores(int desde, int cantidad) throws IllegalArgumentException {
+		return modelo.representarProfesores(desde, cantidad);
+	}
+
+	/**
+	 * Llama al método realizarReserva del modelo
 	 * 
 	 * @param realizar
 	 *            la reserva a realizar
@@ -172,7 +227,23 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo anularReserva del modelo
+	 * Llama al método realizarReservaPeriodica del modelo
+	 * 
+	 * @param realizar
+	 *            la reserva periódica a realizar
+	 * @return el número de reservas realizadas
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 * @throws OperationNotSupportedException
+	 *             si alguna reserva de la serie no se puede realizar
+	 */
+	public int realizarReservaPeriodica(ReservaPeriodica realizar)
+			throws OperationNotSupportedException, IllegalArgumentException {
+		return modelo.realizarReservaPeriodica(realizar);
+	}
+
+	/**
+	 * Llama al método anularReserva del modelo
 	 * 
 	 * @param anular
 	 *            la reserva a anular
@@ -186,9 +257,9 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo representarReservas del modelo
+	 * Llama al método representarReservas del modelo
 	 * 
-	 * @return una coleccin con la representacin de cada reserva en forma de
+	 * @return una colección con la representación de cada reserva en forma de
 	 *         cadena
 	 */
 	public List<String> representarReservas() {
@@ -196,12 +267,36 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo getReservasAula del modelo
+	 * Llama al método representarReservas del modelo con una página
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return las representaciones de las reservas realizadas de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarReservas(int desde, int cantidad) throws IllegalArgumentException {
+		return modelo.representarReservas(desde, cantidad);
+	}
+
+	/**
+	 * Llama al método getReservas del modelo
+	 * 
+	 * @return todas las reservas realizadas
+	 */
+	public List<Reserva> getReservas() {
+		return modelo.getReservas();
+	}
+
+	/**
+	 * Llama al método getReservasAula del modelo
 	 * 
 	 * @param aula
 	 *            el aula reservada
-	 * @return una coleccin con las reservas realizadas sobre el aula recibida como
-	 *         parmetro
+	 * @return una colección con las reservas realizadas sobre el aula recibida como
+	 *         parámetro
 	 * @throws IllegalArgumentException
 	 *             si el aula es nula
 	 */
@@ -210,12 +305,12 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo getReservasProfesor del modelo
+	 * Llama al método getReservasProfesor del modelo
 	 * 
 	 * @param profesor
-	 *            el profesor a nombre del que estn las reservas
-	 * @return una coleccin con las reservas realizadas a nombre del profesor
-	 *         recibido como parmetro
+	 *            el profesor a nombre del que están las reservas
+	 * @return una colección con las reservas realizadas a nombre del profesor
+	 *         recibido como parámetro
 	 * @throws IllegalArgumentException
 	 *             si el profesor es nulo
 	 */
@@ -224,12 +319,12 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo getReservasPermanencia del modelo
+	 * Llama al método getReservasPermanencia del modelo
 	 * 
 	 * @param permanencia
-	 *            la permanencia para la que estn hechas las reservas
-	 * @return una coleccin con las reservas realizadas durante la permanencia
-	 *         recibida como parmetro
+	 *            la permanencia para la que están hechas las reservas
+	 * @return una colección con las reservas realizadas durante la permanencia
+	 *         recibida como parámetro
 	 * @throws IllegalArgumentException
 	 *             si la permanencia es nula
 	 */
@@ -238,21 +333,138 @@ public class ControladorReservasAulas implements IControladorReservasAulas {
 	}
 
 	/**
-	 * Llama al mtodo consultarDisponibilidad del modelo
+	 * Obtiene las reservas realizadas entre dos días, ambos incluidos, ordenadas
+	 * por día. Llama al método getReservas del
+	 * modelo
+	 * 
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas de esos días
+	 * @throws IllegalArgumentException
+	 *             si algún día es nulo o el último es anterior al primero
+	 */
+	public Stream<Reserva> getReservas(LocalDate desde, LocalDate hasta) throws IllegalArgumentException {
+		return modelo.getReservas(desde, hasta);
+	}
+
+	/**
+	 * Obtiene las reservas de un aula realizadas entre dos días, ambos incluidos,
+	 * ordenadas por día. Llama al método getReservasAula
+	 * del modelo
+	 * 
+	 * @param aula
+	 *            el aula reservada
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del aula esos días
+	 * @throws IllegalArgumentException
+	 *             si el aula o algún día son nulos, o el último día es anterior
+	 *             al primero
+	 */
+	public Stream<Reserva> getReservasAula(Aula aula, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		return modelo.getReservasAula(aula, desde, hasta);
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor realizadas entre dos días, ambos
+	 * incluidos, ordenadas por día. Llama al método
+	 * getReservasProfesor del modelo
+	 * 
+	 * @param profesor
+	 *            el profesor que ha reservado
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del profesor esos días
+	 * @throws IllegalArgumentException
+	 *             si el profesor o algún día son nulos, o el último día es
+	 *             anterior al primero
+	 */
+	public Stream<Reserva> getReservasProfesor(Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		return modelo.getReservasProfesor(profesor, desde, hasta);
+	}
+
+	/**
+	 * Llama al método consultarDisponibilidad del modelo
 	 * 
 	 * @param aula
-	 *            el aula que queremos comprobar si est disponible
+	 *            el aula que queremos comprobar si está disponible
 	 * @param permanencia
 	 *            la permanencia sobre la que queremos consultar la disponibilidad
-	 * @return true si el aula est disponible para esa permanencia, false si no lo
-	 *         est
+	 * @return true si el aula está disponible para esa permanencia, false si no lo
+	 *         está
 	 * @throws IllegalArgumentException
 	 *             si el aula o la permanencia son nulas, o si el tipo de
 	 *             permanencia consultado no coincide con el de las reservas
-	 *             realizaddas sobre ese aula ese da
+	 *             realizaddas sobre ese aula ese día
 	 */
 	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
 		return modelo.consultarDisponibilidad(aula, permanencia);
 	}
 
-}
+	/**
+	 * Llama al método getAulasLibres del modelo
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param permanencia
+	 *            el día y la hora o tramo en que deben estar libres
+	 * @return las aulas libres, de menor a mayor número de puestos
+	 * @throws IllegalArgumentException
+	 *             si los puestos son negativos o la permanencia es nula
+	 */
+	public List<Aula> getAulasLibres(int puestos, Permanencia permanencia) throws IllegalArgumentException {
+		return modelo.getAulasLibres(puestos, permanencia);
+	}
+
+	/**
+	 * Llama al método buscarHueco del modelo
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param desde
+	 *            el primer día y la hora o tramo a buscar
+	 * @param hasta
+	 *            el último día en que buscar
+	 * @return el primer hueco libre o null si no hay ninguno
+	 * @throws IllegalArgumentException
+	 *             si los puestos son negativos, la permanencia o el día final
+	 *             son nulos, o el día final es anterior al de la permanencia
+	 */
+	public Hueco buscarHueco(int puestos, Permanencia desde, LocalDate hasta) throws IllegalArgumentException {
+		return modelo.buscarHueco(puestos, desde, hasta);
+	}
+
+	/**
+	 * Llama al método getPuntosGastados del modelo
+	 * 
+	 * @param profesor
+	 *            el profesor del que queremos conocer los puntos gastados
+	 * @param mes
+	 *            el mes del que queremos conocer los puntos gastados
+	 * @return los puntos gastados por el profesor durante ese mes
+	 * @throws IllegalArgumentException
+	 *             si el profesor o el mes son nulos
+	 */
+	public float getPuntosGastados(Profesor profesor, YearMonth mes) throws IllegalArgumentException {
+		return modelo.getPuntosGastados(profesor, mes);
+	}
+
+	/**
+	 * Este controlador no mide sus operaciones
+	 * 
+	 * @return null, porque no hay estadísticas
+	 * @see ControladorReservasAulasMedido
+	 */
+	public Estadisticas getEstadisticas() {
+		return null;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,872 @@
+package org.iesalandalus.programacion.reservasaulas.controlador;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.vista.IVista;
+
+/**
+ * Controlador que envuelve a otro y mide cada una de sus operaciones: cuántas
+ * veces se llaman, cuántas terminan con cada tipo de error y cuánto tardan. Las
+ * medidas se consultan con getEstadisticas. Cada llamada sólo añade dos
+ * lecturas del reloj y unas pocas sumas atómicas. Las consultas por periodo
+ * devuelven el stream del controlador medido envuelto, sin recorrerlo, y su
+ * medida se registra cuando se termina de recorrer o se cierra.
+ *
+ * @see Estadisticas
+ * @see ControladorReservasAulas
+ * @author Juan Antonio Manzano Plaza
+ * @version 3
+ *
+ */
+public class ControladorReservasAulasMedido implements IControladorReservasAulas {
+
+	// Operaciones medidas, en el orden en que se muestran sus medidas
+	private static final String[] OPERACIONES = {
+			"insertarAula", "borrarAula", "buscarAula", "getAulas", "representarAulas", "representarAulasPagina",
+			"insertarProfesor", "borrarProfesor", "buscarProfesor", "getProfesores", "representarProfesores",
+			"representarProfesoresPagina", "realizarReserva", "realizarReservaPeriodica", "anularReserva",
+			"representarReservas", "representarReservasPagina", "getReservas", "getReservasAula",
+			"getReservasProfesor", "getReservasPermanencia", "getReservasPeriodo", "getReservasAulaPeriodo",
+			"getReservasProfesorPeriodo", "consultarDisponibilidad", "getAulasLibres", "buscarHueco",
+			"getPuntosGastados" };
+
+	private IControladorReservasAulas controlador;
+	private IVista vista;
+	private Estadisticas estadisticas;
+	// Medidor de cada operación. No cambia después del constructor, así que
+	// se puede leer desde varios hilos sin bloquearlos
+	private final Map<String, Medidor> medidores;
+
+	/**
+	 * Envuelve un controlador y se pone en su lugar en la vista, para que las
+	 * operaciones de la vista pasen por las medidas
+	 * 
+	 * @param controlador
+	 *            el controlador a medir
+	 * @param vista
+	 *            la vista de la aplicación
+	 * @throws IllegalArgumentException
+	 *             si el controlador o la vista son nulos
+	 */
+	public ControladorReservasAulasMedido(IControladorReservasAulas controlador, IVista vista)
+			throws IllegalArgumentException {
+		if (controlador == null)
+			throw new IllegalArgumentException("El controlador a medir no puede ser nulo.");
+		if (vista == null)
+			throw new IllegalArgumentException("La vista no puede ser nula.");
+		this.controlador = controlador;
+		this.vista = vista;
+		this.estadisticas = new Estadisticas();
+		this.medidores = new HashMap<String, Medidor>();
+		for (String operacion : OPERACIONES)
+			medidores.put(operacion, estadisticas.medidor(operacion));
+		vista.setControlador(this);
+	}
+
+	/**
+	 * Método get que devuelve las medidas de las operaciones
+	 * 
+	 * @return las estadísticas de las operaciones
+	 */
+	public Estadisticas getEstadisticas() {
+		return estadisticas;
+	}
+
+	/**
+	 * Llama al método comenzar de la vista. No se mide porque dura lo que dure
+	 * la aplicación
+	 */
+	public void comenzar() {
+		vista.comenzar();
+	}
+
+	/**
+	 * Llama al método salir de la vista
+	 */
+	public void salir() {
+		vista.salir();
+	}
+
+	/**
+	 * Llama al método insertarAula del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param insertar
+	 *            el aula a insertar
+	 * @throws OperationNotSupportedException
+	 *             si el controlador medido la lanza
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public void insertarAula(final Aula insertar) throws OperationNotSupportedException, IllegalArgumentException {
+		medir("insertarAula", new Operacion<Void, OperationNotSupportedException>() {
+			public Void realizar() throws OperationNotSupportedException {
+				controlador.insertarAula(insertar);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Llama al método borrarAula del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param borrar
+	 *            el aula a borrar
+	 * @return lo que devuelva el controlador medido
+	 * @throws OperationNotSupportedException
+	 *             si el controlador medido la lanza
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public int borrarAula(final Aula borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		return medir("borrarAula", new Operacion<Integer, OperationNotSupportedException>() {
+			public Integer realizar() throws OperationNotSupportedException {
+				return controlador.borrarAula(borrar);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método buscarAula del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param buscar
+	 *            el aula a buscar
+	 * @return lo que devuelva el controlador medido
+	 */
+	public Aula buscarAula(final Aula buscar) {
+		return medir("buscarAula", new Supplier<Aula>() {
+			public Aula get() {
+				return controlador.buscarAula(buscar);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getAulas del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @return lo que devuelva el controlador medido
+	 */
+	public List<Aula> getAulas() {
+		return medir("getAulas", new Supplier<List<Aula>>() {
+			public List<Aula> get() {
+				return controlador.getAulas();
+			}
+		});
+	}
+
+	/**
+	 * Llama al método representarAulas del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @return lo que devuelva el controlador medido
+	 */
+	public List<String> representarAulas() {
+		return medir("representarAulas", new Supplier<List<String>>() {
+			public List<String> get() {
+				return controlador.representarAulas();
+			}
+		});
+	}
+
+	/**
+	 * Llama al método representarAulas del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public List<String> representarAulas(final int desde, final int cantidad) throws IllegalArgumentException {
+		return medir("representarAulasPagina", new Supplier<List<String>>() {
+			public List<String> get() {
+				return controlador.representarAulas(desde, cantidad);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método insertarProfesor del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param insertar
+	 *            el profesor a insertar
+	 * @throws OperationNotSupportedException
+	 *             si el controlador medido la lanza
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public void insertarProfesor(final Profesor insertar)
+			throws OperationNotSupportedException, IllegalArgumentException {
+		medir("insertarProfesor", new Operacion<Void, OperationNotSupportedException>() {
+			public Void realizar() throws OperationNotSupportedException {
+				controlador.insertarProfesor(insertar);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Llama al método borrarProfesor del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param borrar
+	 *            el profesor a borrar
+	 * @return lo que devuelva el controlador medido
+	 * @throws OperationNotSupportedException
+	 *             si el controlador medido la lanza
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public int borrarProfesor(final Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		return medir("borrarProfesor", new Operacion<Integer, OperationNotSupportedException>() {
+			public Integer realizar() throws OperationNotSupportedException {
+				return controlador.borrarProfesor(borrar);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método buscarProfesor del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param buscar
+	 *            el profesor a buscar
+	 * @return lo que devuelva el controlador medido
+	 */
+	public Profesor buscarProfesor(final Profesor buscar) {
+		return medir("buscarProfesor", new Supplier<Profesor>() {
+			public Profesor get() {
+				return controlador.buscarProfesor(buscar);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getProfesores del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @return lo que devuelva el controlador medido
+	 */
+	public List<Profesor> getProfesores() {
+		return medir("getProfesores", new Supplier<List<Profesor>>() {
+			public List<Profesor> get() {
+				return controlador.getProfesores();
+			}
+		});
+	}
+
+	/**
+	 * Llama al método representarProfesores del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @return lo que devuelva el controlador medido
+	 */
+	public List<String> representarProfesores() {
+		return medir("representarProfesores", new Supplier<List<String>>() {
+			public List<String> get() {
+				return controlador.representarProfesores();
+			}
+		});
+	}
+
+	/**
+	 * Llama al método representarProfesores del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public List<String> representarProfesores(final int desde, final int cantidad) throws IllegalArgumentException {
+		return medir("representarProfesoresPagina", new Supplier<List<String>>() {
+			public List<String> get() {
+				return controlador.representarProfesores(desde, cantidad);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método realizarReserva del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param realizada
+	 *            la reserva a realizar
+	 * @throws OperationNotSupportedException
+	 *             si el controlador medido la lanza
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public void realizarReserva(final Reserva realizada)
+			throws OperationNotSupportedException, IllegalArgumentException {
+		medir("realizarReserva", new Operacion<Void, OperationNotSupportedException>() {
+			public Void realizar() throws OperationNotSupportedException {
+				controlador.realizarReserva(realizada);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Llama al método realizarReservaPeriodica del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param realizada
+	 *            la reserva a realizar
+	 * @return lo que devuelva el controlador medido
+	 * @throws OperationNotSupportedException
+	 *             si el controlador medido la lanza
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public int realizarReservaPeriodica(final ReservaPeriodica realizada)
+			throws OperationNotSupportedException, IllegalArgumentException {
+		return medir("realizarReservaPeriodica", new Operacion<Integer, OperationNotSupportedException>() {
+			public Integer realizar() throws OperationNotSupportedException {
+				return controlador.realizarReservaPeriodica(realizada);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método anularReserva del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param anulada
+	 *            la reserva a anular
+	 * @throws OperationNotSupportedException
+	 *             si el controlador medido la lanza
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public void anularReserva(final Reserva anulada) throws OperationNotSupportedException, IllegalArgumentException {
+		medir("anularReserva", new Operacion<Void, OperationNotSupportedException>() {
+			public Void realizar() throws OperationNotSupportedException {
+				controlador.anularReserva(anulada);
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Llama al método representarReservas del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @return lo que devuelva el controlador medido
+	 */
+	public List<String> representarReservas() {
+		return medir("representarReservas", new Supplier<List<String>>() {
+			public List<String> get() {
+				return controlador.representarReservas();
+			}
+		});
+	}
+
+	/**
+	 * Llama al método representarReservas del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public List<String> representarReservas(final int desde, final int cantidad) throws IllegalArgumentException {
+		return medir("representarReservasPagina", new Supplier<List<String>>() {
+			public List<String> get() {
+				return controlador.representarReservas(desde, cantidad);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getReservas del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @return lo que devuelva el controlador medido
+	 */
+	public List<Reserva> getReservas() {
+		return medir("getReservas", new Supplier<List<Reserva>>() {
+			public List<Reserva> get() {
+				return controlador.getReservas();
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getReservasAula del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param aula
+	 *            el aula
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public List<Reserva> getReservasAula(final Aula aula) throws IllegalArgumentException {
+		return medir("getReservasAula", new Supplier<List<Reserva>>() {
+			public List<Reserva> get() {
+				return controlador.getReservasAula(aula);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getReservasProfesor del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param profesor
+	 *            el profesor
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public List<Reserva> getReservasProfesor(final Profesor profesor) throws IllegalArgumentException {
+		return medir("getReservasProfesor", new Supplier<List<Reserva>>() {
+			public List<Reserva> get() {
+				return controlador.getReservasProfesor(profesor);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getReservasPermanencia del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param permanencia
+	 *            la permanencia
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public List<Reserva> getReservasPermanencia(final Permanencia permanencia) throws IllegalArgumentException {
+		return medir("getReservasPermanencia", new Supplier<List<Reserva>>() {
+			public List<Reserva> get() {
+				return controlador.getReservasPermanencia(permanencia);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getReservas del controlador medido y registra cuánto
+	 * tarda y si termina con error. La medida se registra cuando se termina de
+	 * recorrer o se cierra el stream, para que cuente lo que se tarda en obtener
+	 * las reservas y no sólo en crearlo
+	 * 
+	 * @param desde
+	 *            el primer día, incluido
+	 * @param hasta
+	 *            el último día, incluido
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public Stream<Reserva> getReservas(final LocalDate desde, final LocalDate hasta) throws IllegalArgumentException {
+		return medirRecorrido("getReservasPeriodo", new Supplier<Stream<Reserva>>() {
+			public Stream<Reserva> get() {
+				return controlador.getReservas(desde, hasta);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getReservasAula del controlador medido y registra cuánto
+	 * tarda y si termina con error. La medida se registra cuando se termina de
+	 * recorrer o se cierra el stream, para que cuente lo que se tarda en obtener
+	 * las reservas y no sólo en crearlo
+	 * 
+	 * @param aula
+	 *            el aula
+	 * @param desde
+	 *            el primer día, incluido
+	 * @param hasta
+	 *            el último día, incluido
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public Stream<Reserva> getReservasAula(final Aula aula, final LocalDate desde, final LocalDate hasta)
+			throws IllegalArgumentException {
+		return medirRecorrido("getReservasAulaPeriodo", new Supplier<Stream<Reserva>>() {
+			public Stream<Reserva> get() {
+				return controlador.getReservasAula(aula, desde, hasta);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getReservasProfesor del controlador medido y registra cuánto
+	 * tarda y si termina con error. La medida se registra cuando se termina de
+	 * recorrer o se cierra el stream, para que cuente lo que se tarda en obtener
+	 * las reservas y no sólo en crearlo
+	 * 
+	 * @param profesor
+	 *            el profesor
+	 * @param desde
+	 *            el primer día, incluido
+	 * @param hasta
+	 *            el último día, incluido
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public Stream<Reserva> getReservasProfesor(final Profesor profesor, final LocalDate desde, final LocalDate hasta)
+			throws IllegalArgumentException {
+		return medirRecorrido("getReservasProfesorPeriodo", new Supplier<Stream<Reserva>>() {
+			public Stream<Reserva> get() {
+				return controlador.getReservasProfesor(profesor, desde, hasta);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método consultarDisponibilidad del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param aula
+	 *            el aula
+	 * @param permanencia
+	 *            la permanencia
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public boolean consultarDisponibilidad(final Aula aula, final Permanencia permanencia)
+			throws IllegalArgumentException {
+		return medir("consultarDisponibilidad", new Supplier<Boolean>() {
+			public Boolean get() {
+				return controlador.consultarDisponibilidad(aula, permanencia);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getAulasLibres del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param permanencia
+	 *            la permanencia
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public List<Aula> getAulasLibres(final int puestos, final Permanencia permanencia) throws IllegalArgumentException {
+		return medir("getAulasLibres", new Supplier<List<Aula>>() {
+			public List<Aula> get() {
+				return controlador.getAulasLibres(puestos, permanencia);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método buscarHueco del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param desde
+	 *            la permanencia desde la que buscar
+	 * @param hasta
+	 *            el último día, incluido
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public Hueco buscarHueco(final int puestos, final Permanencia desde, final LocalDate hasta)
+			throws IllegalArgumentException {
+		return medir("buscarHueco", new Supplier<Hueco>() {
+			public Hueco get() {
+				return controlador.buscarHueco(puestos, desde, hasta);
+			}
+		});
+	}
+
+	/**
+	 * Llama al método getPuntosGastados del controlador medido y registra cuánto
+	 * tarda y si termina con error
+	 * 
+	 * @param profesor
+	 *            el profesor
+	 * @param mes
+	 *            el mes
+	 * @return lo que devuelva el controlador medido
+	 * @throws IllegalArgumentException
+	 *             si el controlador medido la lanza
+	 */
+	public float getPuntosGastados(final Profesor profesor, final YearMonth mes) throws IllegalArgumentException {
+		return medir("getPuntosGastados", new Supplier<Float>() {
+			public Float get() {
+				return controlador.getPuntosGastados(profesor, mes);
+			}
+		});
+	}
+
+	/**
+	 * Llamada a una operación del controlador, para medir igual las que lanzan
+	 * excepciones comprobadas y las que no
+	 *
+	 * @param <T>
+	 *            el tipo del resultado
+	 * @param <E>
+	 *            la excepción comprobada que puede lanzar
+	 */
+	private interface Operacion<T, E extends Exception> {
+
+		/**
+		 * Realiza la operación
+		 *
+		 * @return el resultado de la operación
+		 * @throws E
+		 *             si la operación no se puede realizar
+		 */
+		T realizar() throws E;
+
+	}
+
+	/**
+	 * Realiza una operación que no lanza excepciones comprobadas y registra
+	 * cuánto tarda y si termina con error
+	 *
+	 * @param <T>
+	 *            el tipo del resultado
+	 * @param operacion
+	 *            el nombre de la operación, que debe estar en OPERACIONES
+	 * @param llamada
+	 *            la llamada al controlador medido
+	 * @return lo que devuelva la llamada
+	 */
+	private <T> T medir(String operacion, final Supplier<T> llamada) {
+		return medir(operacion, new Operacion<T, RuntimeException>() {
+			public T realizar() {
+				return llamada.get();
+			}
+		});
+	}
+
+	/**
+	 * Realiza una operación y registra cuánto tarda y si termina con error
+	 *
+	 * @param <T>
+	 *            el tipo del resultado
+	 * @param <E>
+	 *            la excepción comprobada que puede lanzar la operación
+	 * @param operacion
+	 *            el nombre de la operación, que debe estar en OPERACIONES
+	 * @param llamada
+	 *            la llamada al controlador medido
+	 * @return lo que devuelva la llamada
+	 * @throws E
+	 *             si la llamada la lanza
+	 */
+	private <T, E extends Exception> T medir(String operacion, Operacion<T, E> llamada) throws E {
+		Medidor medidor = medidores.get(operacion);
+		long inicio = System.nanoTime();
+		try {
+			return llamada.realizar();
+		} catch (Exception e) {
+			medidor.registrarError(e);
+			throw e;
+		} finally {
+			medidor.registrar(System.nanoTime() - inicio);
+		}
+	}
+
+	/**
+	 * Realiza una consulta que devuelve un stream y lo envuelve para registrar
+	 * cuánto tarda cuando se termine de recorrer o se cierre, lo que ocurra
+	 * antes. Las reservas no se juntan en ninguna lista, así que el tiempo
+	 * incluye lo que tarde quien recorre el stream con cada una. Si no se
+	 * recorre entero ni se cierra, la llamada no se registra
+	 *
+	 * @param operacion
+	 *            el nombre de la operación, que debe estar en OPERACIONES
+	 * @param llamada
+	 *            la llamada al controlador medido
+	 * @return el stream envuelto
+	 */
+	private Stream<Reserva> medirRecorrido(String operacion, Supplier<Stream<Reserva>> llamada) {
+		Medidor medidor = medidores.get(operacion);
+		long inicio = System.nanoTime();
+		Stream<Reserva> reservas;
+		try {
+			reservas = llamada.get();
+		} catch (RuntimeException e) {
+			medidor.registrarError(e);
+			medidor.registrar(System.nanoTime() - inicio);
+			throw e;
+		}
+		RecorridoMedido recorrido = new RecorridoMedido(reservas, medidor, inicio);
+		return StreamSupport.stream(recorrido, false).onClose(recorrido);
+	}
+
+	/**
+	 * Recorre el stream de una consulta y registra su medida una sola vez: al
+	 * llegar al final, al fallar el recorrido o al cerrarse. No se divide, así que
+	 * el stream envuelto es secuencial
+	 */
+	private static class RecorridoMedido implements Spliterator<Reserva>, Runnable {
+
+		private final Stream<Reserva> reservas;
+		private final Spliterator<Reserva> recorrido;
+		private final Medidor medidor;
+		private final long inicio;
+		private boolean registrado;
+
+		/**
+		 * Constructor de la clase
+		 *
+		 * @param reservas
+		 *            el stream devuelto por el controlador medido
+		 * @param medidor
+		 *            el medidor de la operación
+		 * @param inicio
+		 *            el instante en que empezó la llamada, de System.nanoTime
+		 */
+		RecorridoMedido(Stream<Reserva> reservas, Medidor medidor, long inicio) {
+			this.reservas = reservas;
+			this.recorrido = reservas.spliterator();
+			this.medidor = medidor;
+			this.inicio = inicio;
+		}
+
+		/**
+		 * Pasa la siguiente reserva a la acción, o registra la medida si no quedan
+		 *
+		 * @param accion
+		 *            la acción que recibe la reserva
+		 * @return true si quedaba alguna reserva, false si no
+		 */
+		public boolean tryAdvance(Consumer<? super Reserva> accion) {
+			boolean avanzado;
+			try {
+				avanzado = recorrido.tryAdvance(accion);
+			} catch (RuntimeException e) {
+				fallar(e);
+				throw e;
+			}
+			if (!avanzado)
+				registrar();
+			return avanzado;
+		}
+
+		/**
+		 * Pasa todas las reservas que quedan a la acción y registra la medida
+		 *
+		 * @param accion
+		 *            la acción que recibe las reservas
+		 */
+		public void forEachRemaining(Consumer<? super Reserva> accion) {
+			try {
+				recorrido.forEachRemaining(accion);
+			} catch (RuntimeException e) {
+				fallar(e);
+				throw e;
+			}
+			registrar();
+		}
+
+		/**
+		 * No se divide, para que haya un solo final que medir
+		 *
+		 * @return siempre null
+		 */
+		public Spliterator<Reserva> trySplit() {
+			return null;
+		}
+
+		/**
+		 * Obtiene las reservas que quedan según el stream medido
+		 *
+		 * @return la estimación del stream medido
+		 */
+		public long estimateSize() {
+			return recorrido.estimateSize();
+		}
+
+		/**
+		 * Obtiene las características del stream medido salvo las de tamaño
+		 * conocido, con las que count no recorrería el stream y no habría final
+		 * que medir
+		 *
+		 * @return las características del stream medido
+		 */
+		public int characteristics() {
+			return recorrido.characteristics() & ~(Spliterator.SIZED | Spliterator.SUBSIZED);
+		}
+
+		/**
+		 * Obtiene el orden de las reservas del stream medido
+		 *
+		 * @return el comparador del stream medido
+		 */
+		public Comparator<? super Reserva> getComparator() {
+			return recorrido.getComparator();
+		}
+
+		/**
+		 * Registra la medida, si no se había registrado, y cierra el stream medido.
+		 * Se llama al cerrar el stream envuelto
+		 */
+		public void run() {
+			registrar();
+			reservas.close();
+		}
+
+		/**
+		 * Registra el error del recorrido y su medida
+		 *
+		 * @param error
+		 *            el error
+		 */
+		private void fallar(RuntimeException error) {
+			if (!registrado)
+				medidor.registrarError(error);
+			registrar();
+		}
+
+		/**
+		 * Registra lo que ha tardado la llamada, sólo la primera vez
+		 */
+		private void registrar() {
+			if (registrado)
+				return;
+			registrado = true;
+			medidor.registrar(System.nanoTime() - inicio);
+		}
+
+	}
+
+}
\ No newline at end of file
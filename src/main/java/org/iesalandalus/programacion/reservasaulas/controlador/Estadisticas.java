@@ -0,0 +1,150 @@
+package org.iesalandalus.programacion.reservasaulas.controlador;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Conjunto de los medidores de las operaciones del controlador, en el orden
+ * en que se crearon, y de las fuentes de otros valores que se muestran con
+ * ellos, como el tamaño del diario o los aciertos de la caché.
+ *
+ * @see Medidor
+ * @see ControladorReservasAulasMedido
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class Estadisticas {
+
+	private Map<String, Medidor> medidores;
+	private Map<String, Fuente> fuentes;
+
+	/**
+	 * Parte del programa que aporta valores a las estadísticas. Los valores se
+	 * leen cada vez que se muestran
+	 */
+	public interface Fuente {
+
+		/**
+		 * Obtiene los valores actuales de la fuente
+		 *
+		 * @return los valores por nombre, en el orden en que se muestran
+		 */
+		Map<String, Long> getValores();
+
+	}
+
+	/**
+	 * Constructor por defecto. Inicializa el conjunto sin medidores ni fuentes
+	 */
+	public Estadisticas() {
+		medidores = new LinkedHashMap<String, Medidor>();
+		fuentes = new LinkedHashMap<String, Fuente>();
+	}
+
+	/**
+	 * Obtiene el medidor de una operación, creándolo si todavía no existe
+	 *
+	 * @param operacion
+	 *            el nombre de la operación
+	 * @return el medidor de la operación
+	 * @throws IllegalArgumentException
+	 *             si el nombre es nulo o está vacío
+	 */
+	public synchronized Medidor medidor(String operacion) throws IllegalArgumentException {
+		Medidor medidor = medidores.get(operacion);
+		if (medidor == null) {
+			medidor = new Medidor(operacion);
+			medidores.put(operacion, medidor);
+		}
+		return medidor;
+	}
+
+	/**
+	 * Añade una fuente de valores, que se muestra después de las operaciones.
+	 * Si ya había una con el mismo nombre, la sustituye
+	 *
+	 * @param nombre
+	 *            el nombre con el que se muestran sus valores
+	 * @param fuente
+	 *            la fuente
+	 * @throws IllegalArgumentException
+	 *             si el nombre o la fuente son nulos o el nombre está vacío
+	 */
+	public synchronized void anadirFuente(String nombre, Fuente fuente) throws IllegalArgumentException {
+		if (nombre == null || nombre.isEmpty())
+			throw new IllegalArgumentException("El nombre de la fuente no puede ser nulo ni estar vacío.");
+		if (fuente == null)
+			throw new IllegalArgumentException("La fuente no puede ser nula.");
+		fuentes.put(nombre, fuente);
+	}
+
+	/**
+	 * Obtiene las fuentes de valores añadidas
+	 *
+	 * @return las fuentes por nombre, en el orden en que se añadieron
+	 */
+	private synchronized Map<String, Fuente> getFuentes() {
+		return new LinkedHashMap<String, Fuente>(fuentes);
+	}
+
+	/**
+	 * Obtiene los medidores de las operaciones que se han llamado alguna vez
+	 *
+	 * @return los medidores usados
+	 */
+	public synchronized List<Medidor> getMedidores() {
+		List<Medidor> usados = new ArrayList<Medidor>();
+		for (Medidor m : medidores.values())
+			if (m.getLlamadas() > 0)
+				usados.add(m);
+		return usados;
+	}
+
+	/**
+	 * Obtiene la salida de las medidas de cada operación llamada y de los
+	 * valores de cada fuente
+	 *
+	 * @return una línea por operación y otra por fuente
+	 */
+	public List<String> representar() {
+		List<String> representar = new ArrayList<String>();
+		for (Medidor m : getMedidores())
+			representar.add(m.toString());
+		for (Map.Entry<String, Fuente> f : getFuentes().entrySet()) {
+			StringBuilder linea = new StringBuilder(f.getKey()).append(':');
+			String separador = " ";
+			for (Map.Entry<String, Long> v : f.getValue().getValores().entrySet()) {
+				linea.append(separador).append(v.getKey()).append('=').append(v.getValue());
+				separador = ", ";
+			}
+			representar.add(linea.toString());
+		}
+		return representar;
+	}
+
+	/**
+	 * Escribe las medidas de cada operación llamada como un array JSON. Detrás de
+	 * las operaciones va un objeto por fuente, con su nombre en "fuente" y sus
+	 * valores
+	 *
+	 * @return el array JSON
+	 */
+	public String aJson() {
+		StringBuilder json = new StringBuilder("[");
+		for (Medidor m : getMedidores())
+			m.aJson(json.length() > 1 ? json.append(',') : json);
+		for (Map.Entry<String, Fuente> f : getFuentes().entrySet()) {
+			if (json.length() > 1)
+				json.append(',');
+			json.append("{\"fuente\":\"").append(f.getKey()).append('"');
+			for (Map.Entry<String, Long> v : f.getValue().getValores().entrySet())
+				json.append(",\"").append(v.getKey()).append("\":").append(v.getValue());
+			json.append('}');
+		}
+		return json.append(']').toString();
+	}
+
+}
@@ -1,12 +1,17 @@
 package org.iesalandalus.programacion.reservasaulas.controlador;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.stream.Stream;
 
 import javax.naming.OperationNotSupportedException;
 
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
 
 /**
@@ -26,32 +31,61 @@ public interface IControladorReservasAulas {
 
 	void insertarAula(Aula insertar) throws OperationNotSupportedException, IllegalArgumentException;
 
-	void borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException;
+	int borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException;
 
 	Aula buscarAula(Aula buscar);
 
+	List<Aula> getAulas();
+
 	List<String> representarAulas();
 
+	List<String> representarAulas(int desde, int cantidad) throws IllegalArgumentException;
+
 	void insertarProfesor(Profesor insertar) throws OperationNotSupportedException, IllegalArgumentException;
 
-	void borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException;
+	int borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException;
 
 	Profesor buscarProfesor(Profesor buscar);
 
+	List<Profesor> getProfesores();
+
 	List<String> representarProfesores();
 
+	List<String> representarProfesores(int desde, int cantidad) throws IllegalArgumentException;
+
 	void realizarReserva(Reserva realizada) throws OperationNotSupportedException, IllegalArgumentException;
 
+	int realizarReservaPeriodica(ReservaPeriodica realizada) throws OperationNotSupportedException, IllegalArgumentException;
+
 	void anularReserva(Reserva anulada) throws OperationNotSupportedException, IllegalArgumentException;
 
 	List<String> representarReservas();
 
+	List<String> representarReservas(int desde, int cantidad) throws IllegalArgumentException;
+
+	List<Reserva> getReservas();
+
 	List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException;
 
 	List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException;
 
 	List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException;
 
+	Stream<Reserva> getReservas(LocalDate desde, LocalDate hasta) throws IllegalArgumentException;
+
+	Stream<Reserva> getReservasAula(Aula aula, LocalDate desde, LocalDate hasta) throws IllegalArgumentException;
+
+	Stream<Reserva> getReservasProfesor(Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException;
+
 	boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException;
 
+	List<Aula> getAulasLibres(int puestos, Permanencia permanencia) throws IllegalArgumentException;
+
+	Hueco buscarHueco(int puestos, Permanencia desde, LocalDate hasta) throws IllegalArgumentException;
+
+	float getPuntosGastados(Profesor profesor, YearMonth mes) throws IllegalArgumentException;
+
+	Estadisticas getEstadisticas();
+
 }
\ No newline at end of file
@@ -1,12 +1,17 @@
 package org.iesalandalus.programacion.reservasaulas.modelo;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.stream.Stream;
 
 import javax.naming.OperationNotSupportedException;
 
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
 
 /**
@@ -26,11 +31,13 @@ public interface IModeloReservasAulas {
 
 	List<String> representarAulas();
 
+	List<String> representarAulas(int desde, int cantidad) throws IllegalArgumentException;
+
 	Aula buscarAula(Aula buscar);
 
 	void insertarAula(Aula insertar) throws OperationNotSupportedException, IllegalArgumentException;
 
-	void borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException;
+	int borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException;
 
 	List<Profesor> getProfesores();
 
@@ -38,11 +45,13 @@ public interface IModeloReservasAulas {
 
 	List<String> representarProfesores();
 
+	List<String> representarProfesores(int desde, int cantidad) throws IllegalArgumentException;
+
 	Profesor buscarProfesor(Profesor buscar);
 
 	void insertarProfesor(Profesor insertar) throws OperationNotSupportedException, IllegalArgumentException;
 
-	void borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException;
+	int borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException;
 
 	List<Reserva> getReservas();
 
@@ -50,10 +59,14 @@ public interface IModeloReservasAulas {
 
 	List<String> representarReservas();
 
+	List<String> representarReservas(int desde, int cantidad) throws IllegalArgumentException;
+
 	Reserva buscarReserva(Reserva buscar);
 
 	void realizarReserva(Reserva realizar) throws OperationNotSupportedException, IllegalArgumentException;
 
+	int realizarReservaPeriodica(ReservaPeriodica realizar) throws OperationNotSupportedException, IllegalArgumentException;
+
 	void anularReserva(Reserva anular) throws OperationNotSupportedException, IllegalArgumentException;
 
 	List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException;
@@ -62,6 +75,19 @@ public interface IModeloReservasAulas {
 
 	List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException;
 
+	Stream<Reserva> getReservas(LocalDate desde, LocalDate hasta) throws IllegalArgumentException;
+
+	Stream<Reserva> getReservasAula(Aula aula, LocalDate desde, LocalDate hasta) throws IllegalArgumentException;
+
+	Stream<Reserva> getReservasProfesor(Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException;
+
 	boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException;
 
+	List<Aula> getAulasLibres(int puestos, Permanencia permanencia) throws IllegalArgumentException;
+
+	Hueco buscarHueco(int puestos, Permanencia desde, LocalDate hasta) throws IllegalArgumentException;
+
+	float getPuntosGastados(Profesor profesor, YearMonth mes) throws IllegalArgumentException;
+
 }
\ No newline at end of file
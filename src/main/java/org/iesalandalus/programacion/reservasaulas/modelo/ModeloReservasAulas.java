@@ -1,27 +1,65 @@
 package org.iesalandalus.programacion.reservasaulas.modelo;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.naming.OperationNotSupportedException;
 
 import org.iesalandalus.programacion.reservasaulas.controlador.ControladorReservasAulas;
 import org.iesalandalus.programacion.reservasaulas.controlador.IControladorReservasAulas;
 import org.iesalandalus.programacion.reservasaulas.modelo.dao.Aulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ConflictosReservaPeriodicaException;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.IReservas;
 import org.iesalandalus.programacion.reservasaulas.modelo.dao.Profesores;
 import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.ArchivoReservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.Diario;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.Instantanea;
 
 /**
  *
  * Clase modelo utilizada como intermediaria entre el controlador y las clases
- * del modelo. Llama a todas las funciones de la aplicacin.
+ * del modelo. Llama a todas las funciones de la aplicación.
  * 
+ * Las operaciones que modifican el modelo se hacen de una en una y, al
+ * terminar cada una, publican una VersionModelo inmutable con las aulas,
+ * profesores y reservas resultantes. Los listados y los recuentos se leen de
+ * la última versión publicada sin bloquearse, y quien necesite varios datos
+ * coherentes entre sí puede quedarse con una versión mediante getVersion.
+ * 
+ * Los modelos creados con conReservas guardan las reservas en una colección
+ * compacta y no las versionan, ya que la versión tendría una copia de cada
+ * reserva como objeto y anularía el ahorro de memoria. En ellos las consultas
+ * de reservas se hacen sobre la colección, con el monitor del modelo, y
+ * getVersion devuelve null.
+ * 
+ * @see VersionModelo
  * @see Profesores
  * @see Aulas
+ * @see IReservas
  * @see Reservas
+ * @see Diario
+ * @see Instantanea
+ * @see ArchivoReservas
  * @see ControladorReservasAulas
  * @see IControladorReservasAulas
  * @author Juan Antonio Manzano Plaza
@@ -32,7 +70,21 @@ public class ModeloReservasAulas implements IModeloReservasAulas {
 
 	private Profesores profesores;
 	private Aulas aulas;
-	private Reservas reservas;
+	private IReservas reservas;
+	private Diario diario;
+	// Mientras se reproduce el diario no se vuelven a registrar las operaciones
+	// ni se comprueba el mes de las reservas
+	private boolean recuperando;
+	// La última versión publicada y, para poder quitar elementos de la siguiente,
+	// la clave con la que se guardó cada uno en ella
+	private volatile VersionModelo version;
+	private Map<String, Long> clavesAulas;
+	private Map<String, Long> clavesProfesores;
+	private Map<SimpleImmutableEntry<String, Permanencia>, Long> clavesReservas;
+	private long siguienteClave;
+	// Si las reservas forman parte de las versiones. Si no, la secuencia de
+	// reservas de las versiones está siempre vacía
+	private boolean versionarReservas;
 
 	/**
 	 * Constructor de la clase. Crea los distintos atributos de la clase.
@@ -41,50 +93,198 @@ public class ModeloReservasAulas implements IModeloReservasAulas {
 		this.profesores = new Profesores();
 		this.aulas = new Aulas();
 		this.reservas = new Reservas();
+		this.version = VersionModelo.vacia();
+		this.clavesAulas = new HashMap<String, Long>();
+		this.clavesProfesores = new HashMap<String, Long>();
+		this.clavesReservas = new HashMap<SimpleImmutableEntry<String, Permanencia>, Long>();
+		this.versionarReservas = true;
+	}
+
+	/**
+	 * Crea un modelo vacío que guarda las reservas en otra colección, por ejemplo
+	 * ReservasColumnar o ReservasMapeadas. Las reservas no se versionan, así que
+	 * sólo están en esa colección
+	 * 
+	 * @param reservas
+	 *            la colección vacía en la que guardar las reservas
+	 * @return el modelo
+	 * @throws IllegalArgumentException
+	 *             si la colección de reservas es nula
+	 */
+	public static ModeloReservasAulas conReservas(IReservas reservas) throws IllegalArgumentException {
+		if (reservas == null)
+			throw new IllegalArgumentException("La colección de reservas no puede ser nula.");
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		modelo.reservas = reservas;
+		modelo.versionarReservas = false;
+		return modelo;
+	}
+
+	/**
+	 * Constructor de la clase con diario. Recupera el estado guardado en el diario
+	 * reproduciendo sus operaciones y, a partir de ahí, registra en él cada
+	 * operación que modifique el modelo.
+	 * 
+	 * @param diario
+	 *            el diario en el que se guardan las operaciones
+	 * @throws IllegalArgumentException
+	 *             si el diario es nulo
+	 * @throws IOException
+	 *             si no se puede leer el diario
+	 */
+	public ModeloReservasAulas(Diario diario) throws IllegalArgumentException, IOException {
+		this(diario, null);
+	}
+
+	/**
+	 * Constructor de la clase con diario e instantánea. Recupera el estado
+	 * cargando la instantánea, si existe, y reproduciendo las operaciones del
+	 * diario posteriores a ella, y a partir de ahí registra en el diario cada
+	 * operación que modifique el modelo.
+	 * 
+	 * @param diario
+	 *            el diario en el que se guardan las operaciones
+	 * @param instantanea
+	 *            la instantánea en la que empieza el diario, o null si el diario
+	 *            se compacta sin ella
+	 * @throws IllegalArgumentException
+	 *             si el diario es nulo
+	 * @throws IOException
+	 *             si no se pueden leer el diario o la instantánea, o no se
+	 *             corresponden
+	 */
+	public ModeloReservasAulas(Diario diario, Instantanea instantanea) throws IllegalArgumentException, IOException {
+		this();
+		if (diario == null)
+			throw new IllegalArgumentException("El diario no puede ser nulo.");
+		recuperando = true;
+		try {
+			if (instantanea == null)
+				diario.reproducir(this);
+			else
+				diario.reproducir(this, instantanea);
+		} finally {
+			recuperando = false;
+		}
+		this.diario = diario;
+	}
+
+	/**
+	 * Sustituye todo el contenido del modelo por las aulas, profesores y reservas
+	 * indicados, sin comprobar ninguna restricción. Se usa para cargar una
+	 * instantánea guardada con Instantanea, cuyos datos ya se validaron al
+	 * guardarse. Las operaciones cargadas no se registran en el diario
+	 * 
+	 * @param aulas
+	 *            las aulas a cargar
+	 * @param profesores
+	 *            los profesores a cargar
+	 * @param reservas
+	 *            las reservas a cargar
+	 * @throws IllegalArgumentException
+	 *             si alguna de las colecciones es nula
+	 */
+	public synchronized void cargar(Collection<Aula> aulas, Collection<Profesor> profesores,
+			Collection<Reserva> reservas) throws IllegalArgumentException {
+		if (aulas == null || profesores == null || reservas == null)
+			throw new IllegalArgumentException("No se puede cargar el modelo a partir de colecciones nulas.");
+		this.aulas.cargar(aulas);
+		this.profesores.cargar(profesores);
+		this.reservas.cargar(reservas);
+		// La nueva versión se construye de una vez, ya equilibrada
+		List<Aula> cargadasAulas = this.aulas.getAulas();
+		List<Profesor> cargadosProfesores = this.profesores.getProfesores();
+		List<Reserva> cargadasReservas = versionarReservas ? this.reservas.getReservas()
+				: Collections.<Reserva>emptyList();
+		clavesAulas.clear();
+		clavesProfesores.clear();
+		clavesReservas.clear();
+		long primeraAula = siguienteClave;
+		for (Aula a : cargadasAulas)
+			clavesAulas.put(a.getNombre(), siguienteClave++);
+		long primerProfesor = siguienteClave;
+		for (Profesor p : cargadosProfesores)
+			clavesProfesores.put(p.getNombre(), siguienteClave++);
+		SecuenciaPersistente<Reserva> secuenciaReservas = SecuenciaPersistente.vacia();
+		if (versionarReservas) {
+			long primeraReserva = siguienteClave;
+			for (Reserva r : cargadasReservas)
+				clavesReservas.put(clave(r), siguienteClave++);
+			secuenciaReservas = SecuenciaPersistente.construir(cargadasReservas, primeraReserva);
+		}
+		version = new VersionModelo(version.getNumero() + 1, SecuenciaPersistente.construir(cargadasAulas, primeraAula),
+				SecuenciaPersistente.construir(cargadosProfesores, primerProfesor), secuenciaReservas);
+	}
+
+	/**
+	 * Obtiene la última versión publicada del modelo. No se bloquea ni copia nada,
+	 * y la versión obtenida no cambia aunque después se modifique el modelo
+	 * 
+	 * @return la versión actual, o null si el modelo no versiona las reservas
+	 */
+	public VersionModelo getVersion() {
+		return versionarReservas ? version : null;
 	}
 
 	/**
-	 * Obtiene todas las aulas registradas. Llama al mtodo getAulas de Aulas
+	 * Obtiene todas las aulas registradas, de la versión actual del modelo. La
+	 * lista no se puede modificar
 	 * 
 	 * @return todas las aulas guardadas
 	 */
 	public List<Aula> getAulas() {
-		return aulas.getAulas();
+		return version.getAulas();
 	}
 
 	/**
-	 * Obtiene el nmero de aulas registradas. Llama al mtodo getNumAulas de Aulas
+	 * Obtiene el número de aulas registradas en la versión actual del modelo
 	 * 
-	 * @return el nmero de aulas guardadas
+	 * @return el número de aulas guardadas
 	 */
 	public int getNumAulas() {
-		return aulas.getNumAulas();
+		return version.getNumAulas();
 	}
 
 	/**
-	 * Obtiene la salida de todas las aulas registradas. Llama al mtodo representar
-	 * de Aulas
+	 * Obtiene la salida de todas las aulas registradas en la versión actual del
+	 * modelo
 	 * 
-	 * @return una coleccin con la representacin de cada aula en forma de cadena
+	 * @return una colección con la representación de cada aula en forma de cadena
 	 */
 	public List<String> representarAulas() {
-		return aulas.representar();
+		return version.representarAulas(0, Integer.MAX_VALUE);
 	}
 
 	/**
-	 * Busca el aula indicada entre las que han sido registradas. Llama al mtodo
+	 * Obtiene la salida de una página de aulas, en el mismo orden que la
+	 * de todas las aulas, de la versión actual del modelo
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return una colección con la representación de cada aula de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarAulas(int desde, int cantidad) throws IllegalArgumentException {
+		return version.representarAulas(desde, cantidad);
+	}
+
+	/**
+	 * Busca el aula indicada entre las que han sido registradas. Llama al método
 	 * buscar de Aulas
 	 * 
 	 * @param buscar
 	 *            el aula que estamos buscando
 	 * @return el aula buscada o null si no la encuentra
 	 */
-	public Aula buscarAula(Aula buscar) {
+	public synchronized Aula buscarAula(Aula buscar) {
 		return aulas.buscar(buscar);
 	}
 
 	/**
-	 * Guarda el aula indicada. Llama al mtodo insertar de Aulas
+	 * Guarda el aula indicada. Llama al método insertar de Aulas
 	 * 
 	 * @param insertar
 	 *            el aula que queremos guardar
@@ -93,74 +293,113 @@ public class ModeloReservasAulas implements IModeloReservasAulas {
 	 * @throws OperationNotSupportedException
 	 *             si el aula ya existe
 	 */
-	public void insertarAula(Aula insertar) throws OperationNotSupportedException, IllegalArgumentException {
+	public synchronized void insertarAula(Aula insertar)
+			throws OperationNotSupportedException, IllegalArgumentException {
 		aulas.insertar(insertar);
+		if (diario != null) {
+			try {
+				diario.insertarAula(insertar);
+			} catch (UncheckedIOException e) {
+				aulas.borrar(insertar);
+				throw e;
+			}
+		}
+		clavesAulas.put(insertar.getNombre(), siguienteClave);
+		version = version.conAulas(version.getSecuenciaAulas().poner(siguienteClave++, insertar));
 	}
 
 	/**
-	 * Borra el aula indicada si existe entre las guardadas. Llama al mtodo borrar
+	 * Borra el aula indicada si existe entre las guardadas. Llama al método borrar
 	 * de Aulas
 	 * 
 	 * @param borrar
 	 *            el aula que queremos borrar
+	 * @return el número de reservas sobre el aula que se han anulado con ella
 	 * @throws IllegalArgumentException
 	 *             si el aula es nula
 	 * @throws OperationNotSupportedException
 	 *             si el aula no existe
 	 */
-	public void borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException {
+	public synchronized int borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		Aula borrada = aulas.buscar(borrar);
 		aulas.borrar(borrar);
 		// borrar reservas sobre ese aula
-		List<Reserva> reservasAula = reservas.getReservasAula(borrar);
-		for (Reserva r : reservasAula)
-			reservas.borrar(r);
+		List<Reserva> anuladasReservas = reservas.borrarReservasAula(borrar);
+		if (diario != null) {
+			try {
+				diario.borrarAula(borrar);
+			} catch (UncheckedIOException e) {
+				aulas.insertar(borrada);
+				restaurarReservas(anuladasReservas);
+				throw e;
+			}
+		}
+		int anuladas = anuladasReservas.size();
+		version = version.conAulas(version.getSecuenciaAulas().quitar(clavesAulas.remove(borrar.getNombre())),
+				quitarReservas(anuladasReservas));
+		return anuladas;
 	}
 
 	/**
-	 * Obtiene todos los profesores registrados. Llama al mtodo getProfesores de
-	 * Profesores
+	 * Obtiene todos los profesores registrados, de la versión actual del modelo.
+	 * La lista no se puede modificar
 	 * 
 	 * @return todos los profesores guardados
 	 */
 	public List<Profesor> getProfesores() {
-		return profesores.getProfesores();
+		return version.getProfesores();
 	}
 
 	/**
-	 * Obtiene el nmero de profesores registrados. Llama al mtodo getNumProfesores
-	 * de Profesores
+	 * Obtiene el número de profesores registrados en la versión actual del modelo
 	 * 
-	 * @return el nmero de profesores guardados
+	 * @return el número de profesores guardados
 	 */
 	public int getNumProfesores() {
-		return profesores.getNumProfesores();
+		return version.getNumProfesores();
 	}
 
 	/**
-	 * Obtiene la salida de todos los profesores registrados. Llama al mtodo
-	 * representar de Profesores
+	 * Obtiene la salida de todos los profesores registrados en la versión actual
+	 * del modelo
 	 * 
-	 * @return una coleccin con la representacin de cada profesor en forma de
+	 * @return una colección con la representación de cada profesor en forma de
 	 *         cadena
 	 */
 	public List<String> representarProfesores() {
-		return profesores.representar();
+		return version.representarProfesores(0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Obtiene la salida de una página de profesores, en el mismo orden que la
+	 * de todos los profesores, de la versión actual del modelo
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return una colección con la representación de cada profesor de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarProfesores(int desde, int cantidad) throws IllegalArgumentException {
+		return version.representarProfesores(desde, cantidad);
 	}
 
 	/**
 	 * Busca el profesor indicado entre los que han sido registrados. Llama al
-	 * mtodo buscar de Profesores
+	 * método buscar de Profesores
 	 * 
 	 * @param buscar
 	 *            el profesor que buscamos
 	 * @return el profesor buscado o null si no lo encuentra
 	 */
-	public Profesor buscarProfesor(Profesor buscar) {
+	public synchronized Profesor buscarProfesor(Profesor buscar) {
 		return profesores.buscar(buscar);
 	}
 
 	/**
-	 * Guarda el profesor indicado. Llama al mtodo insertar de Profesores
+	 * Guarda el profesor indicado. Llama al método insertar de Profesores
 	 * 
 	 * @param insertar
 	 *            el profesor que queremos guardar
@@ -169,74 +408,132 @@ public class ModeloReservasAulas implements IModeloReservasAulas {
 	 * @throws OperationNotSupportedException
 	 *             si el profesor ya existe
 	 */
-	public void insertarProfesor(Profesor insertar) throws OperationNotSupportedException, IllegalArgumentException {
+	public synchronized void insertarProfesor(Profesor insertar)
+			throws OperationNotSupportedException, IllegalArgumentException {
 		profesores.insertar(insertar);
+		if (diario != null) {
+			try {
+				diario.insertarProfesor(insertar);
+			} catch (UncheckedIOException e) {
+				profesores.borrar(insertar);
+				throw e;
+			}
+		}
+		clavesProfesores.put(insertar.getNombre(), siguienteClave);
+		version = version.conProfesores(version.getSecuenciaProfesores().poner(siguienteClave++, insertar));
 	}
 
 	/**
 	 * Borra el profesor indicado si existe entre los que han sido registrados.
-	 * Llama al mtodo borrar de Profesores
+	 * Llama al método borrar de Profesores
 	 * 
 	 * @param borrar
 	 *            el profesor que queremos borrar
+	 * @return el número de reservas del profesor que se han anulado con él
 	 * @throws IllegalArgumentException
 	 *             si el profesor es nulo
 	 * @throws OperationNotSupportedException
 	 *             si el profesor no existe
 	 */
-	public void borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException {
+	public synchronized int borrarProfesor(Profesor borrar)
+			throws OperationNotSupportedException, IllegalArgumentException {
+		Profesor borrado = profesores.buscar(borrar);
 		profesores.borrar(borrar);
 		// borrar reservas a nombre de ese profesor
-		List<Reserva> reservasProfesor = reservas.getReservasProfesor(borrar);
-		for (Reserva r : reservasProfesor)
-			reservas.borrar(r);
+		List<Reserva> anuladasReservas = reservas.borrarReservasProfesor(borrar);
+		if (diario != null) {
+			try {
+				diario.borrarProfesor(borrar);
+			} catch (UncheckedIOException e) {
+				profesores.insertar(borrado);
+				restaurarReservas(anuladasReservas);
+				throw e;
+			}
+		}
+		int anuladas = anuladasReservas.size();
+		version = version.conProfesores(
+				version.getSecuenciaProfesores().quitar(clavesProfesores.remove(borrar.getNombre())),
+				quitarReservas(anuladasReservas));
+		return anuladas;
 	}
 
 	/**
-	 * Obtiene todas las reservas realizadas. Llama al mtodo getReservas de
-	 * Reservas
+	 * Obtiene todas las reservas realizadas, de la versión actual del modelo. La
+	 * lista no se puede modificar y no se copia, así que se puede recorrer aunque
+	 * mientras tanto se sigan haciendo reservas. Si el modelo no versiona las
+	 * reservas, es una copia de las de su colección
 	 * 
 	 * @return todas las reservas realizadas
 	 */
 	public List<Reserva> getReservas() {
-		return reservas.getReservas();
+		if (!versionarReservas) {
+			synchronized (this) {
+				return reservas.getReservas();
+			}
+		}
+		return version.getReservas();
 	}
 
 	/**
-	 * Obtiene el nmero de reservas realizadas. Llama al mtodo getNumReservas de
-	 * Reservas
+	 * Obtiene el número de reservas realizadas en la versión actual del modelo
 	 * 
-	 * @return el nmero de reservas guardadas
+	 * @return el número de reservas guardadas
 	 */
 	public int getNumReservas() {
-		return reservas.getNumReservas();
+		if (!versionarReservas) {
+			synchronized (this) {
+				return reservas.getNumReservas();
+			}
+		}
+		return version.getNumReservas();
 	}
 
 	/**
-	 * Obtiene la salida de todas las reservas realizadas. Llama al mtodo
-	 * representar de Reservas
+	 * Obtiene la salida de todas las reservas realizadas en la versión actual del
+	 * modelo
 	 * 
-	 * @return una coleccin con la representacin de cada reserva en forma de
+	 * @return una colección con la representación de cada reserva en forma de
 	 *         cadena
 	 */
 	public List<String> representarReservas() {
-		return reservas.representar();
+		return representarReservas(0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Obtiene la salida de una página de reservas, en el mismo orden que la
+	 * de todas las reservas, de la versión actual del modelo
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return una colección con la representación de cada reserva de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarReservas(int desde, int cantidad) throws IllegalArgumentException {
+		if (!versionarReservas) {
+			synchronized (this) {
+				return reservas.representar(desde, cantidad);
+			}
+		}
+		return version.representarReservas(desde, cantidad);
 	}
 
 	/**
-	 * Busca la reserva indicada entre las que se han realizado. Llama al mtodo
+	 * Busca la reserva indicada entre las que se han realizado. Llama al método
 	 * buscar de Reservas
 	 * 
 	 * @param buscar
 	 *            la reserva que buscamos
 	 * @return la reserva buscada o null si no la encuentra
 	 */
-	public Reserva buscarReserva(Reserva buscar) {
+	public synchronized Reserva buscarReserva(Reserva buscar) {
 		return reservas.buscar(buscar);
 	}
 
 	/**
-	 * Guarda la reserva indicada. Llama al mtodo insertar de Reservas
+	 * Guarda la reserva indicada. Llama al método insertar de Reservas
 	 * 
 	 * @param realizar
 	 *            la reserva a realizar
@@ -245,12 +542,63 @@ public class ModeloReservasAulas implements IModeloReservasAulas {
 	 * @throws OperationNotSupportedException
 	 *             si la reserva ya existe
 	 */
-	public void realizarReserva(Reserva realizar) throws OperationNotSupportedException, IllegalArgumentException {
-		reservas.insertar(realizar);
+	public synchronized void realizarReserva(Reserva realizar)
+			throws OperationNotSupportedException, IllegalArgumentException {
+		if (recuperando)
+			reservas.recuperar(realizar);
+		else
+			reservas.insertar(realizar);
+		if (diario != null) {
+			try {
+				diario.realizarReserva(realizar);
+			} catch (UncheckedIOException e) {
+				reservas.borrar(realizar);
+				throw e;
+			}
+		}
+		version = version.conReservas(ponerReserva(version.getSecuenciaReservas(), realizar));
 	}
 
 	/**
-	 * Borra la reserva indicada si existe entre las realizadas. Llama al mtodo
+	 * Realiza todas las reservas de una reserva periódica, o ninguna si alguna no
+	 * se puede realizar. Llama al método insertarPeriodica de Reservas
+	 * 
+	 * @param realizar
+	 *            la reserva periódica a realizar
+	 * @return el número de reservas realizadas
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 * @throws ConflictosReservaPeriodicaException
+	 *             si alguna reserva de la serie no se puede realizar, con el
+	 *             motivo de cada día
+	 */
+	public synchronized int realizarReservaPeriodica(ReservaPeriodica realizar)
+			throws ConflictosReservaPeriodicaException, IllegalArgumentException {
+		List<Reserva> realizadas;
+		if (recuperando)
+			realizadas = reservas.recuperarPeriodica(realizar);
+		else
+			realizadas = reservas.insertarPeriodica(realizar);
+		// La serie entera va en un solo registro del diario, para que no se pueda
+		// recuperar sólo una parte
+		if (diario != null) {
+			try {
+				diario.realizarReservaPeriodica(realizar);
+			} catch (UncheckedIOException e) {
+				deshacerReservas(realizadas);
+				throw e;
+			}
+		}
+		// Toda la serie se publica en una sola versión
+		SecuenciaPersistente<Reserva> nuevas = version.getSecuenciaReservas();
+		for (Reserva r : realizadas)
+			nuevas = ponerReserva(nuevas, r);
+		version = version.conReservas(nuevas);
+		return realizadas.size();
+	}
+
+	/**
+	 * Borra la reserva indicada si existe entre las realizadas. Llama al método
 	 * borrar de Reserva
 	 * 
 	 * @param anular
@@ -260,69 +608,385 @@ public class ModeloReservasAulas implements IModeloReservasAulas {
 	 * @throws OperationNotSupportedException
 	 *             si la reserva no existe
 	 */
-	public void anularReserva(Reserva anular) throws OperationNotSupportedException, IllegalArgumentException {
+	public synchronized void anularReserva(Reserva anular)
+			throws OperationNotSupportedException, IllegalArgumentException {
+		Reserva anulada = reservas.buscar(anular);
 		reservas.borrar(anular);
+		if (diario != null) {
+			try {
+				diario.anularReserva(anular);
+			} catch (UncheckedIOException e) {
+				reservas.recuperar(anulada);
+				throw e;
+			}
+		}
+		version = version.conReservas(quitarReservas(Collections.singletonList(anular)));
+	}
+
+	/**
+	 * Pasa al archivo las reservas de los meses ya cerrados, los anteriores al
+	 * actual, que ya no se pueden modificar. Primero se escribe el segmento de
+	 * cada mes y sólo después se quitan las reservas del modelo y se registran
+	 * como anuladas en el diario, así que si algo falla a mitad las reservas
+	 * siguen en el modelo y se pueden volver a archivar
+	 * 
+	 * @param archivo
+	 *            el archivo en el que guardar las reservas
+	 * @return el número de reservas archivadas
+	 * @throws IllegalArgumentException
+	 *             si el archivo es nulo
+	 * @throws IOException
+	 *             si no se puede escribir algún segmento
+	 */
+	public synchronized int archivar(ArchivoReservas archivo) throws IllegalArgumentException, IOException {
+		if (archivo == null)
+			throw new IllegalArgumentException("El archivo no puede ser nulo.");
+		LocalDate primerDiaAbierto = YearMonth.now().atDay(1);
+		// La versión actual permite agrupar las reservas por mes sin copiarlas
+		SortedMap<YearMonth, List<Reserva>> porMes = new TreeMap<YearMonth, List<Reserva>>();
+		for (Reserva r : versionarReservas ? version.getReservas() : reservas.getReservas()) {
+			LocalDate dia = r.getPermanencia().getDia();
+			if (dia.isBefore(primerDiaAbierto)) {
+				YearMonth mes = YearMonth.from(dia);
+				List<Reserva> reservasMes = porMes.get(mes);
+				if (reservasMes == null) {
+					reservasMes = new ArrayList<Reserva>();
+					porMes.put(mes, reservasMes);
+				}
+				reservasMes.add(r);
+			}
+		}
+		if (porMes.isEmpty())
+			return 0;
+		for (Map.Entry<YearMonth, List<Reserva>> mes : porMes.entrySet())
+			archivo.archivar(mes.getKey(), mes.getValue());
+		List<Reserva> archivadas = reservas.borrarReservasAnteriores(primerDiaAbierto);
+		// Si el diario falla las reservas vuelven al modelo; las que ya consten como
+		// anuladas en el diario están en el archivo, así que no se pierden
+		if (diario != null) {
+			try {
+				for (Reserva r : archivadas)
+					diario.anularReserva(r);
+			} catch (UncheckedIOException e) {
+				restaurarReservas(archivadas);
+				throw e;
+			}
+		}
+		version = version.conReservas(quitarReservas(archivadas));
+		return archivadas.size();
 	}
 
 	/**
-	 * Obtiene todas las reservas correspondientes al aula indicada. Llama al mtodo
+	 * Obtiene todas las reservas correspondientes al aula indicada. Llama al método
 	 * getReservasAula de Reservas
 	 * 
 	 * @param aula
-	 *            el aula sobre la que estn hechas las reservas
+	 *            el aula sobre la que están hechas las reservas
 	 * @return un array con todas las reservas sobre el aula indicada
 	 * @throws IllegalArgumentException
 	 *             si el aula es nula
 	 */
-	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
+	public synchronized List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
 		return reservas.getReservasAula(aula);
 	}
 
 	/**
 	 * Obtiene todas las reservas realizadas por el profesor indicado. Llama al
-	 * mtodo getReservasProfesor de Reservas
+	 * método getReservasProfesor de Reservas
 	 * 
 	 * @param profesor
-	 *            el profesor a nombre del que estn hechas las reservas
+	 *            el profesor a nombre del que están hechas las reservas
 	 * @return un array con todas las reservas a nombre del profesor indicado
 	 * @throws IllegalArgumentException
 	 *             si el profesor es nulo
 	 */
-	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+	public synchronized List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
 		return reservas.getReservasProfesor(profesor);
 	}
 
 	/**
-	 * Obtiene todas las reservas realizadas en un da y tramo indicados. Llama al
-	 * mtodo getReservasPermanencia de Reservas
+	 * Obtiene todas las reservas realizadas en un día y tramo indicados. Llama al
+	 * método getReservasPermanencia de Reservas
 	 * 
 	 * @param permanencia
 	 *            la fecha de las reservas
-	 * @return un array con todas las reservas de ese da y tramo
+	 * @return un array con todas las reservas de ese día y tramo
 	 * @throws IllegalArgumentException
 	 *             si la permanencia es nula
 	 */
-	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+	public synchronized List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
 		return reservas.getReservasPermanencia(permanencia);
 	}
 
+	/**
+	 * Obtiene las reservas realizadas entre dos días, ambos incluidos, ordenadas
+	 * por día. Llama al método getReservas de Reservas, que recorre su índice
+	 * por día, y copia las reservas mientras tiene el monitor, de forma que la
+	 * secuencia se puede consumir aunque otro hilo modifique el modelo
+	 * 
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas de esos días
+	 * @throws IllegalArgumentException
+	 *             si algún día es nulo o el último es anterior al primero
+	 */
+	public synchronized Stream<Reserva> getReservas(LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		return reservas.getReservas(desde, hasta).collect(Collectors.toList()).stream();
+	}
+
+	/**
+	 * Obtiene las reservas de un aula realizadas entre dos días, ambos incluidos,
+	 * ordenadas por día. Llama al método getReservasAula de Reservas y copia
+	 * las reservas, como getReservas
+	 * 
+	 * @param aula
+	 *            el aula reservada
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del aula esos días
+	 * @throws IllegalArgumentException
+	 *             si el aula o algún día son nulos, o el último día es anterior
+	 *             al primero
+	 */
+	public synchronized Stream<Reserva> getReservasAula(Aula aula, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		return reservas.getReservasAula(aula, desde, hasta).collect(Collectors.toList()).stream();
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor realizadas entre dos días, ambos
+	 * incluidos, ordenadas por día. Llama al método getReservasProfesor de
+	 * Reservas y copia las reservas, como getReservas
+	 * 
+	 * @param profesor
+	 *            el profesor que ha reservado
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del profesor esos días
+	 * @throws IllegalArgumentException
+	 *             si el profesor o algún día son nulos, o el último día es
+	 *             anterior al primero
+	 */
+	public synchronized Stream<Reserva> getReservasProfesor(Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		return reservas.getReservasProfesor(profesor, desde, hasta).collect(Collectors.toList()).stream();
+	}
+
 	/**
 	 * Comprueba si hay alguna reserva realizada sobre un aula en una permanencia
-	 * indicadas. Llama al mtodo consultarDisponibilidad de Reservas
+	 * indicadas. Llama al método consultarDisponibilidad de Reservas
 	 * 
 	 * @param aula
 	 *            el aula sobre la que queremos consultar la disponibilidad
 	 * @param permanencia
-	 *            el da que queremos comprobar si est reservada el aula
-	 * @return True si est disponible (no est reservada) y False si no est
-	 *         disponible (est reservada)
+	 *            el día que queremos comprobar si está reservada el aula
+	 * @return True si está disponible (no está reservada) y False si no está
+	 *         disponible (está reservada)
 	 * @throws IllegalArgumentException
 	 *             si el aula o la permanencia son nulas, o si el tipo de
 	 *             permanencia consultado no coincide con el de las reservas
-	 *             realizadas sobre ese aula ese da
+	 *             realizadas sobre ese aula ese día
 	 */
-	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+	public synchronized boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
 		return reservas.consultarDisponibilidad(aula, permanencia);
 	}
 
+	/**
+	 * Obtiene las aulas con al menos los puestos indicados que se pueden reservar
+	 * en una permanencia, de menor a mayor número de puestos. Las aulas
+	 * candidatas salen del índice por puestos de Aulas y cada una se comprueba
+	 * con la ocupación de ese día en Reservas
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param permanencia
+	 *            el día y la hora o tramo en que deben estar libres
+	 * @return las aulas libres
+	 * @throws IllegalArgumentException
+	 *             si los puestos son negativos o la permanencia es nula
+	 */
+	public synchronized List<Aula> getAulasLibres(int puestos, Permanencia permanencia) throws IllegalArgumentException {
+		comprobarBusqueda(puestos, permanencia);
+		List<Aula> libres = new ArrayList<Aula>();
+		for (Aula a : aulas.getAulasConPuestos(puestos)) {
+			if (reservas.estaLibre(a, permanencia))
+				libres.add(a);
+		}
+		return libres;
+	}
+
+	/**
+	 * Busca el primer hueco libre en un aula con al menos los puestos indicados, a
+	 * la misma hora o tramo que la permanencia, desde el día de la permanencia
+	 * hasta el día indicado. Entre las aulas libres del primer día con hueco
+	 * elige la de menos puestos
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param desde
+	 *            el primer día y la hora o tramo a buscar
+	 * @param hasta
+	 *            el último día en que buscar
+	 * @return el primer hueco libre o null si no hay ninguno
+	 * @throws IllegalArgumentException
+	 *             si los puestos son negativos, la permanencia o el día final
+	 *             son nulos, o el día final es anterior al de la permanencia
+	 */
+	public synchronized Hueco buscarHueco(int puestos, Permanencia desde, LocalDate hasta) throws IllegalArgumentException {
+		comprobarBusqueda(puestos, desde, hasta);
+		List<Aula> candidatas = aulas.getAulasConPuestos(puestos);
+		for (LocalDate dia = desde.getDia(); !dia.isAfter(hasta); dia = dia.plusDays(1)) {
+			Permanencia permanencia = dia.equals(desde.getDia()) ? desde : desde.enDia(dia);
+			for (Aula a : candidatas) {
+				if (reservas.estaLibre(a, permanencia))
+					return new Hueco(a, permanencia);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Pone una reserva al final de una secuencia de reservas, guardando su clave
+	 * 
+	 * @param secuencia
+	 *            las reservas
+	 * @param reserva
+	 *            la reserva a poner
+	 * @return las reservas con la nueva
+	 */
+	private SecuenciaPersistente<Reserva> ponerReserva(SecuenciaPersistente<Reserva> secuencia, Reserva reserva) {
+		if (!versionarReservas)
+			return secuencia;
+		clavesReservas.put(clave(reserva), siguienteClave);
+		return secuencia.poner(siguienteClave++, reserva);
+	}
+
+	/**
+	 * Vuelve a guardar unas reservas quitadas cuando no se ha podido registrar en
+	 * el diario la operación que las quitó
+	 * 
+	 * @param quitadas
+	 *            las reservas a guardar de nuevo
+	 */
+	private void restaurarReservas(List<Reserva> quitadas) {
+		for (Reserva r : quitadas) {
+			try {
+				reservas.recuperar(r);
+			} catch (OperationNotSupportedException e) {
+				// Se acaban de quitar, así que no pueden chocar con ninguna otra
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * Quita unas reservas recién realizadas cuando no se ha podido registrar en el
+	 * diario la operación que las realizó
+	 * 
+	 * @param realizadas
+	 *            las reservas a quitar
+	 */
+	private void deshacerReservas(List<Reserva> realizadas) {
+		for (Reserva r : realizadas) {
+			try {
+				reservas.borrar(r);
+			} catch (OperationNotSupportedException e) {
+				// Se acaban de realizar, así que existen
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * Quita unas reservas de las de la versión actual, olvidando sus claves
+	 * 
+	 * @param quitar
+	 *            las reservas a quitar
+	 * @return las reservas que quedan
+	 */
+	private SecuenciaPersistente<Reserva> quitarReservas(List<Reserva> quitar) {
+		SecuenciaPersistente<Reserva> quedan = version.getSecuenciaReservas();
+		if (!versionarReservas)
+			return quedan;
+		for (Reserva r : quitar) {
+			Long clave = clavesReservas.remove(clave(r));
+			if (clave != null)
+				quedan = quedan.quitar(clave);
+		}
+		return quedan;
+	}
+
+	/**
+	 * Obtiene lo que identifica a una reserva, que es lo mismo que compara su
+	 * método equals: el nombre del aula y la permanencia
+	 * 
+	 * @param reserva
+	 *            la reserva
+	 * @return el aula y la permanencia de la reserva
+	 */
+	private static SimpleImmutableEntry<String, Permanencia> clave(Reserva reserva) {
+		return new SimpleImmutableEntry<String, Permanencia>(reserva.getAula().getNombre(), reserva.getPermanencia());
+	}
+
+	/**
+	 * Comprueba los parámetros de una búsqueda de aulas libres
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param permanencia
+	 *            la permanencia a buscar
+	 * @throws IllegalArgumentException
+	 *             si los puestos son negativos o la permanencia es nula
+	 */
+	static void comprobarBusqueda(int puestos, Permanencia permanencia) throws IllegalArgumentException {
+		if (puestos < 0)
+			throw new IllegalArgumentException("El número de puestos no puede ser negativo.");
+		if (permanencia == null)
+			throw new IllegalArgumentException("No se pueden buscar aulas libres en una permanencia nula.");
+	}
+
+	/**
+	 * Comprueba los parámetros de una búsqueda de huecos libres entre dos días
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param desde
+	 *            la permanencia desde la que buscar
+	 * @param hasta
+	 *            el último día en que buscar
+	 * @throws IllegalArgumentException
+	 *             si los puestos son negativos, la permanencia o el día final
+	 *             son nulos, o el día final es anterior al de la permanencia
+	 */
+	static void comprobarBusqueda(int puestos, Permanencia desde, LocalDate hasta) throws IllegalArgumentException {
+		comprobarBusqueda(puestos, desde);
+		if (hasta == null)
+			throw new IllegalArgumentException("No se pueden buscar huecos libres hasta un día nulo.");
+		if (hasta.isBefore(desde.getDia()))
+			throw new IllegalArgumentException("El día final de la búsqueda no puede ser anterior al inicial.");
+	}
+
+	/**
+	 * Obtiene los puntos gastados por un profesor durante un mes. Llama al método
+	 * getPuntosGastados de Reservas
+	 * 
+	 * @param profesor
+	 *            el profesor a nombre del que están hechas las reservas
+	 * @param mes
+	 *            el mes del que queremos conocer los puntos gastados
+	 * @return los puntos gastados por el profesor ese mes
+	 * @throws IllegalArgumentException
+	 *             si el profesor o el mes son nulos
+	 */
+	public synchronized float getPuntosGastados(Profesor profesor, YearMonth mes) throws IllegalArgumentException {
+		return reservas.getPuntosGastados(profesor, mes);
+	}
+
 }
@@ -0,0 +1,797 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+
+/**
+ *
+ * Modelo que envuelve a otro y guarda las respuestas de consultarDisponibilidad,
+ * para no repetir la consulta cuando se pregunta muchas veces por las mismas
+ * aulas y permanencias. Se guardan como mucho las consultas indicadas en la
+ * capacidad y, cuando no caben más, se descarta la que lleva más tiempo sin
+ * usarse (LRU).
+ *
+ * Cada reserva realizada o anulada descarta sólo las consultas guardadas de su
+ * aula y su día, y al borrar un aula se descartan todas las de esa aula. Al
+ * borrar un profesor se descartan todas, porque sus reservas pueden estar en
+ * cualquier aula. Las consultas con error no se guardan. Se puede usar desde
+ * varios hilos si el modelo envuelto también se puede: las consultas guardadas
+ * se descartan antes de que vuelva la operación que cambia el modelo, y una
+ * respuesta que se obtiene mientras cambia el modelo no se guarda.
+ *
+ * @see IModeloReservasAulas
+ * @see ModeloReservasAulasConcurrente
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class ModeloReservasAulasCache implements IModeloReservasAulas {
+
+	public static final int CAPACIDAD_POR_DEFECTO = 1024;
+
+	private IModeloReservasAulas modelo;
+	private int capacidad;
+	// Consultas guardadas, de la que lleva más tiempo sin usarse a la última usada
+	private LinkedHashMap<Consulta, Boolean> consultas;
+	// Consultas guardadas de cada aula y día, para descartarlas juntas
+	private Map<AulaDia, Set<Consulta>> consultasDia;
+	// Aumenta con cada cambio en el modelo. Una respuesta obtenida mientras ha
+	// cambiado el modelo no se guarda, porque puede ser anterior al cambio
+	private long version;
+	private long aciertos;
+	private long fallos;
+	private long invalidaciones;
+	private long expulsiones;
+
+	/**
+	 * Consulta de la disponibilidad de un aula en una permanencia
+	 */
+	private static final class Consulta {
+
+		private final String aula;
+		private final Permanencia permanencia;
+
+		/**
+		 * Constructor de la clase
+		 *
+		 * @param aula
+		 *            el nombre del aula
+		 * @param permanencia
+		 *            la permanencia consultada
+		 */
+		private Consulta(String aula, Permanencia permanencia) {
+			this.aula = aula;
+			this.permanencia = permanencia;
+		}
+
+		/**
+		 * Método hashCode de la clase
+		 *
+		 * @return el código hash de la consulta
+		 */
+		public int hashCode() {
+			return Objects.hash(aula, permanencia);
+		}
+
+		/**
+		 * Método equals de la clase
+		 *
+		 * @return true si son la misma consulta, false si no
+		 */
+		public boolean equals(Object o) {
+			if (!(o instanceof Consulta))
+				return false;
+			Consulta otra = (Consulta) o;
+			return aula.equals(otra.aula) && permanencia.equals(otra.permanencia);
+		}
+
+	}
+
+	/**
+	 * Un aula en un día, al que afectan las reservas que se realizan o anulan
+	 */
+	private static final class AulaDia {
+
+		private final String aula;
+		private final LocalDate dia;
+
+		/**
+		 * Constructor de la clase
+		 *
+		 * @param aula
+		 *            el nombre del aula
+		 * @param dia
+		 *            el día
+		 */
+		private AulaDia(String aula, LocalDate dia) {
+			this.aula = aula;
+			this.dia = dia;
+		}
+
+		/**
+		 * Método hashCode de la clase
+		 *
+		 * @return el código hash del aula y día
+		 */
+		public int hashCode() {
+			return Objects.hash(aula, dia);
+		}
+
+		/**
+		 * Método equals de la clase
+		 *
+		 * @return true si son el mismo aula y día, false si no
+		 */
+		public boolean equals(Object o) {
+			if (!(o instanceof AulaDia))
+				return false;
+			AulaDia otro = (AulaDia) o;
+			return aula.equals(otro.aula) && dia.equals(otro.dia);
+		}
+
+	}
+
+	/**
+	 * Envuelve un modelo guardando como mucho CAPACIDAD_POR_DEFECTO consultas
+	 *
+	 * @param modelo
+	 *            el modelo a envolver
+	 * @throws IllegalArgumentException
+	 *             si el modelo es nulo
+	 */
+	public ModeloReservasAulasCache(IModeloReservasAulas modelo) throws IllegalArgumentException {
+		this(modelo, CAPACIDAD_POR_DEFECTO);
+	}
+
+	/**
+	 * Envuelve un modelo guardando como mucho las consultas indicadas
+	 *
+	 * @param modelo
+	 *            el modelo a envolver
+	 * @param capacidad
+	 *            el número máximo de consultas guardadas
+	 * @throws IllegalArgumentException
+	 *             si el modelo es nulo o la capacidad no es mayor que cero
+	 */
+	public ModeloReservasAulasCache(IModeloReservasAulas modelo, int capacidad) throws IllegalArgumentException {
+		if (modelo == null)
+			throw new IllegalArgumentException("El modelo no puede ser nulo.");
+		if (capacidad <= 0)
+			throw new IllegalArgumentException("La capacidad de la caché debe ser mayor que cero.");
+		this.modelo = modelo;
+		this.capacidad = capacidad;
+		this.consultasDia = new HashMap<AulaDia, Set<Consulta>>();
+		this.consultas = new LinkedHashMap<Consulta, Boolean>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			protected boolean removeEldestEntry(Map.Entry<Consulta, Boolean> mayor) {
+				if (size() <= ModeloReservasAulasCache.this.capacidad)
+					return false;
+				quitarDelDia(mayor.getKey());
+				expulsiones++;
+				return true;
+			}
+		};
+	}
+
+	/**
+	 * Comprueba si un aula está disponible en una permanencia. Si la consulta está
+	 * guardada se responde sin preguntar al modelo envuelto
+	 *
+	 * @param aula
+	 *            el aula a consultar
+	 * @param permanencia
+	 *            la permanencia a consultar
+	 * @return true si está disponible, false si no
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		if (aula == null || permanencia == null)
+			return modelo.consultarDisponibilidad(aula, permanencia);
+		Consulta consulta = new Consulta(aula.getNombre(), permanencia);
+		long versionLeida;
+		synchronized (this) {
+			Boolean guardada = consultas.get(consulta);
+			if (guardada != null) {
+				aciertos++;
+				return guardada;
+			}
+			fallos++;
+			versionLeida = version;
+		}
+		boolean disponible = modelo.consultarDisponibilidad(aula, permanencia);
+		synchronized (this) {
+			if (version == versionLeida && !consultas.containsKey(consulta)) {
+				consultas.put(consulta, disponible);
+				AulaDia aulaDia = new AulaDia(consulta.aula, permanencia.getDia());
+				Set<Consulta> delDia = consultasDia.get(aulaDia);
+				if (delDia == null) {
+					delDia = new HashSet<Consulta>();
+					consultasDia.put(aulaDia, delDia);
+				}
+				delDia.add(consulta);
+			}
+		}
+		return disponible;
+	}
+
+	/**
+	 * Quita una consulta de las guardadas de su aula y día. Debe llamarse con el
+	 * cerrojo del objeto tomado
+	 *
+	 * @param consulta
+	 *            la consulta
+	 */
+	private void quitarDelDia(Consulta consulta) {
+		AulaDia aulaDia = new AulaDia(consulta.aula, consulta.permanencia.getDia());
+		Set<Consulta> delDia = consultasDia.get(aulaDia);
+		if (delDia != null) {
+			delDia.remove(consulta);
+			if (delDia.isEmpty())
+				consultasDia.remove(aulaDia);
+		}
+	}
+
+	/**
+	 * Descarta las consultas guardadas de un aula en unos días
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param dias
+	 *            los días
+	 */
+	private synchronized void invalidar(Aula aula, Iterable<LocalDate> dias) {
+		version++;
+		for (LocalDate dia : dias) {
+			Set<Consulta> delDia = consultasDia.remove(new AulaDia(aula.getNombre(), dia));
+			if (delDia != null) {
+				consultas.keySet().removeAll(delDia);
+				invalidaciones += delDia.size();
+			}
+		}
+	}
+
+	/**
+	 * Descarta todas las consultas guardadas de un aula
+	 *
+	 * @param aula
+	 *            el aula
+	 */
+	private synchronized void invalidarAula(Aula aula) {
+		version++;
+		Iterator<Map.Entry<AulaDia, Set<Consulta>>> iterador = consultasDia.entrySet().iterator();
+		while (iterador.hasNext()) {
+			Map.Entry<AulaDia, Set<Consulta>> delDia = iterador.next();
+			if (delDia.getKey().aula.equals(aula.getNombre())) {
+				consultas.keySet().removeAll(delDia.getValue());
+				invalidaciones += delDia.getValue().size();
+				iterador.remove();
+			}
+		}
+	}
+
+	/**
+	 * Descarta todas las consultas guardadas
+	 */
+	private synchronized void invalidarTodo() {
+		version++;
+		invalidaciones += consultas.size();
+		consultas.clear();
+		consultasDia.clear();
+	}
+
+	/**
+	 * Obtiene el número de consultas respondidas con una consulta guardada
+	 *
+	 * @return el número de aciertos
+	 */
+	public synchronized long getAciertos() {
+		return aciertos;
+	}
+
+	/**
+	 * Obtiene el número de consultas que se han tenido que hacer al modelo
+	 * envuelto
+	 *
+	 * @return el número de fallos
+	 */
+	public synchronized long getFallos() {
+		return fallos;
+	}
+
+	/**
+	 * Obtiene el número de consultas guardadas descartadas por un cambio en el
+	 * modelo
+	 *
+	 * @return el número de invalidaciones
+	 */
+	public synchronized long getInvalidaciones() {
+		return invalidaciones;
+	}
+
+	/**
+	 * Obtiene el número de consultas guardadas descartadas por falta de sitio
+	 *
+	 * @return el número de expulsiones
+	 */
+	public synchronized long getExpulsiones() {
+		return expulsiones;
+	}
+
+	/**
+	 * Obtiene el número de consultas guardadas ahora mismo
+	 *
+	 * @return el número de consultas guardadas
+	 */
+	public synchronized int getNumConsultas() {
+		return consultas.size();
+	}
+
+	/**
+	 * Realiza una reserva en el modelo envuelto y descarta las consultas
+	 * guardadas de su aula y día
+	 *
+	 * @param realizar
+	 *            la reserva a realizar
+	 * @throws OperationNotSupportedException
+	 *             si el modelo envuelto la lanza
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public void realizarReserva(Reserva realizar) throws OperationNotSupportedException, IllegalArgumentException {
+		try {
+			modelo.realizarReserva(realizar);
+		} finally {
+			if (realizar != null)
+				invalidar(realizar.getAula(), Collections.singleton(realizar.getPermanencia().getDia()));
+		}
+	}
+
+	/**
+	 * Realiza una reserva periódica en el modelo envuelto y descarta las
+	 * consultas guardadas de su aula en cada día de la serie
+	 *
+	 * @param realizar
+	 *            la reserva periódica a realizar
+	 * @return el número de reservas realizadas
+	 * @throws OperationNotSupportedException
+	 *             si el modelo envuelto la lanza
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public int realizarReservaPeriodica(ReservaPeriodica realizar)
+			throws OperationNotSupportedException, IllegalArgumentException {
+		try {
+			return modelo.realizarReservaPeriodica(realizar);
+		} finally {
+			if (realizar != null) {
+				List<LocalDate> dias = new ArrayList<LocalDate>();
+				for (Reserva r : realizar.getReservas())
+					dias.add(r.getPermanencia().getDia());
+				invalidar(realizar.getAula(), dias);
+			}
+		}
+	}
+
+	/**
+	 * Anula una reserva en el modelo envuelto y descarta las consultas guardadas
+	 * de su aula y día
+	 *
+	 * @param anular
+	 *            la reserva a anular
+	 * @throws OperationNotSupportedException
+	 *             si el modelo envuelto la lanza
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public void anularReserva(Reserva anular) throws OperationNotSupportedException, IllegalArgumentException {
+		try {
+			modelo.anularReserva(anular);
+		} finally {
+			if (anular != null)
+				invalidar(anular.getAula(), Collections.singleton(anular.getPermanencia().getDia()));
+		}
+	}
+
+	/**
+	 * Borra un aula en el modelo envuelto y descarta todas las consultas
+	 * guardadas del aula
+	 *
+	 * @param borrar
+	 *            el aula a borrar
+	 * @return el número de reservas anuladas con el aula
+	 * @throws OperationNotSupportedException
+	 *             si el modelo envuelto la lanza
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public int borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		try {
+			return modelo.borrarAula(borrar);
+		} finally {
+			if (borrar != null)
+				invalidarAula(borrar);
+		}
+	}
+
+	/**
+	 * Borra un profesor en el modelo envuelto y descarta todas las consultas
+	 * guardadas, porque sus reservas anuladas pueden ser de cualquier aula y día
+	 *
+	 * @param borrar
+	 *            el profesor a borrar
+	 * @return el número de reservas anuladas con el profesor
+	 * @throws OperationNotSupportedException
+	 *             si el modelo envuelto la lanza
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public int borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		try {
+			return modelo.borrarProfesor(borrar);
+		} finally {
+			if (borrar != null)
+				invalidarTodo();
+		}
+	}
+
+	/**
+	 * Representa las estadísticas de la caché
+	 *
+	 * @return la representación de las estadísticas
+	 */
+	public synchronized String toString() {
+		long consultadas = aciertos + fallos;
+		return String.format("Caché de disponibilidad: consultas=%d, aciertos=%d (%.1f%%), fallos=%d, "
+				+ "invalidaciones=%d, expulsiones=%d, guardadas=%d/%d", consultadas, aciertos,
+				consultadas == 0 ? 0.0 : 100.0 * aciertos / consultadas, fallos, invalidaciones, expulsiones,
+				consultas.size(), capacidad);
+	}
+
+	/**
+	 * Llama al método getAulas del modelo envuelto
+	 * 
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public List<Aula> getAulas() {
+		return modelo.getAulas();
+	}
+
+	/**
+	 * Llama al método getNumAulas del modelo envuelto
+	 * 
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public int getNumAulas() {
+		return modelo.getNumAulas();
+	}
+
+	/**
+	 * Llama al método representarAulas del modelo envuelto
+	 * 
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public List<String> representarAulas() {
+		return modelo.representarAulas();
+	}
+
+	/**
+	 * Llama al método representarAulas del modelo envuelto
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public List<String> representarAulas(int desde, int cantidad) throws IllegalArgumentException {
+		return modelo.representarAulas(desde, cantidad);
+	}
+
+	/**
+	 * Llama al método buscarAula del modelo envuelto
+	 * 
+	 * @param buscar
+	 *            el aula a buscar
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public Aula buscarAula(Aula buscar) {
+		return modelo.buscarAula(buscar);
+	}
+
+	/**
+	 * Llama al método insertarAula del modelo envuelto
+	 * 
+	 * @param insertar
+	 *            el aula a insertar
+	 * @throws OperationNotSupportedException
+	 *             si el modelo envuelto la lanza
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public void insertarAula(Aula insertar) throws OperationNotSupportedException, IllegalArgumentException {
+		modelo.insertarAula(insertar);
+	}
+
+	/**
+	 * Llama al método getProfesores del modelo envuelto
+	 * 
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public List<Profesor> getProfesores() {
+		return modelo.getProfesores();
+	}
+
+	/**
+	 * Llama al método getNumProfesores del modelo envuelto
+	 * 
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public int getNumProfesores() {
+		return modelo.getNumProfesores();
+	}
+
+	/**
+	 * Llama al método representarProfesores del modelo envuelto
+	 * 
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public List<String> representarProfesores() {
+		return modelo.representarProfesores();
+	}
+
+	/**
+	 * Llama al método representarProfesores del modelo envuelto
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public List<String> representarProfesores(int desde, int cantidad) throws IllegalArgumentException {
+		return modelo.representarProfesores(desde, cantidad);
+	}
+
+	/**
+	 * Llama al método buscarProfesor del modelo envuelto
+	 * 
+	 * @param buscar
+	 *            el profesor a buscar
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public Profesor buscarProfesor(Profesor buscar) {
+		return modelo.buscarProfesor(buscar);
+	}
+
+	/**
+	 * Llama al método insertarProfesor del modelo envuelto
+	 * 
+	 * @param insertar
+	 *            el profesor a insertar
+	 * @throws OperationNotSupportedException
+	 *             si el modelo envuelto la lanza
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public void insertarProfesor(Profesor insertar) throws OperationNotSupportedException, IllegalArgumentException {
+		modelo.insertarProfesor(insertar);
+	}
+
+	/**
+	 * Llama al método getReservas del modelo envuelto
+	 * 
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public List<Reserva> getReservas() {
+		return modelo.getReservas();
+	}
+
+	/**
+	 * Llama al método getNumReservas del modelo envuelto
+	 * 
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public int getNumReservas() {
+		return modelo.getNumReservas();
+	}
+
+	/**
+	 * Llama al método representarReservas del modelo envuelto
+	 * 
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public List<String> representarReservas() {
+		return modelo.representarReservas();
+	}
+
+	/**
+	 * Llama al método representarReservas del modelo envuelto
+	 * 
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public List<String> representarReservas(int desde, int cantidad) throws IllegalArgumentException {
+		return modelo.representarReservas(desde, cantidad);
+	}
+
+	/**
+	 * Llama al método buscarReserva del modelo envuelto
+	 * 
+	 * @param buscar
+	 *            la reserva a buscar
+	 * @return lo que devuelva el modelo envuelto
+	 */
+	public Reserva buscarReserva(Reserva buscar) {
+		return modelo.buscarReserva(buscar);
+	}
+
+	/**
+	 * Llama al método getReservasAula del modelo envuelto
+	 * 
+	 * @param aula
+	 *            el aula
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
+		return modelo.getReservasAula(aula);
+	}
+
+	/**
+	 * Llama al método getReservasProfesor del modelo envuelto
+	 * 
+	 * @param profesor
+	 *            el profesor
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+		return modelo.getReservasProfesor(profesor);
+	}
+
+	/**
+	 * Llama al método getReservasPermanencia del modelo envuelto
+	 * 
+	 * @param permanencia
+	 *            la permanencia
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+		return modelo.getReservasPermanencia(permanencia);
+	}
+
+	/**
+	 * Llama al método getReservas del modelo envuelto
+	 * 
+	 * @param desde
+	 *            el primer día, incluido
+	 * @param hasta
+	 *            el último día, incluido
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public Stream<Reserva> getReservas(LocalDate desde, LocalDate hasta) throws IllegalArgumentException {
+		return modelo.getReservas(desde, hasta);
+	}
+
+	/**
+	 * Llama al método getReservasAula del modelo envuelto
+	 * 
+	 * @param aula
+	 *            el aula
+	 * @param desde
+	 *            el primer día, incluido
+	 * @param hasta
+	 *            el último día, incluido
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public Stream<Reserva> getReservasAula(Aula aula, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		return modelo.getReservasAula(aula, desde, hasta);
+	}
+
+	/**
+	 * Llama al método getReservasProfesor del modelo envuelto
+	 * 
+	 * @param profesor
+	 *            el profesor
+	 * @param desde
+	 *            el primer día, incluido
+	 * @param hasta
+	 *            el último día, incluido
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public Stream<Reserva> getReservasProfesor(Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		return modelo.getReservasProfesor(profesor, desde, hasta);
+	}
+
+	/**
+	 * Llama al método getAulasLibres del modelo envuelto
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param permanencia
+	 *            la permanencia
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public List<Aula> getAulasLibres(int puestos, Permanencia permanencia) throws IllegalArgumentException {
+		return modelo.getAulasLibres(puestos, permanencia);
+	}
+
+	/**
+	 * Llama al método buscarHueco del modelo envuelto
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param desde
+	 *            la permanencia desde la que buscar
+	 * @param hasta
+	 *            el último día, incluido
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public Hueco buscarHueco(int puestos, Permanencia desde, LocalDate hasta) throws IllegalArgumentException {
+		return modelo.buscarHueco(puestos, desde, hasta);
+	}
+
+	/**
+	 * Llama al método getPuntosGastados del modelo envuelto
+	 * 
+	 * @param profesor
+	 *            el profesor
+	 * @param mes
+	 *            el mes
+	 * @return lo que devuelva el modelo envuelto
+	 * @throws IllegalArgumentException
+	 *             si el modelo envuelto la lanza
+	 */
+	public float getPuntosGastados(Profesor profesor, YearMonth mes) throws IllegalArgumentException {
+		return modelo.getPuntosGastados(profesor, mes);
+	}
+
+}
@@ -0,0 +1,1228 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Aulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ConflictosReservaPeriodicaException;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Profesores;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.Diario;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.Instantanea;
+
+/**
+ *
+ * Modelo que puede usarse desde varios hilos a la vez. Las reservas se reparten
+ * en bandas según el nombre del aula, cada una con su propio cerrojo, de forma
+ * que las operaciones sobre aulas de bandas distintas se realizan en paralelo.
+ * Los puntos gastados por cada profesor se llevan aparte, protegidos por otro
+ * conjunto de cerrojos repartidos según el nombre del profesor, para que el
+ * límite mensual se respete aunque el profesor reserve a la vez aulas de
+ * bandas distintas.
+ *
+ * Para evitar interbloqueos los cerrojos se toman siempre en este orden: los
+ * de las bandas de reservas (de menor a mayor), el de los puntos del profesor
+ * y, por último, el de las aulas o el de los profesores, mientras se tiene
+ * alguno de estos dos no se toma ningún otro.
+ *
+ * Si se usa con un diario, cada operación se registra sin soltar los cerrojos
+ * que la protegen, de forma que dos operaciones que dependen una de la otra
+ * (sobre la misma banda o con los puntos del mismo profesor) quedan en el
+ * diario en el mismo orden en que se realizaron.
+ *
+ * @see ModeloReservasAulas
+ * @see Diario
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class ModeloReservasAulasConcurrente implements IModeloReservasAulas {
+
+	private static final int NUM_BANDAS = 16;
+	// Ordena las reservas por día, manteniendo el orden de las del mismo día
+	private static final Comparator<Reserva> POR_DIA = new Comparator<Reserva>() {
+		public int compare(Reserva una, Reserva otra) {
+			return una.getPermanencia().getDia().compareTo(otra.getPermanencia().getDia());
+		}
+	};
+
+	private Aulas aulas;
+	private Profesores profesores;
+	private ReadWriteLock cerrojoAulas;
+	private ReadWriteLock cerrojoProfesores;
+	private Reservas[] bandas;
+	private ReentrantLock[] cerrojosBandas;
+	private ReentrantLock[] cerrojosPuntos;
+	// nombre del profesor -> mes -> puntos gastados entre todas las bandas
+	private ConcurrentMap<String, Map<YearMonth, Float>> puntosProfesorMes;
+	private Diario diario;
+	// Mientras se reproduce el diario no se vuelven a registrar las operaciones
+	// ni se comprueba el mes de las reservas
+	private boolean recuperando;
+
+	/**
+	 * Constructor por defecto. Crea el modelo con el número de bandas por defecto.
+	 */
+	public ModeloReservasAulasConcurrente() {
+		this(NUM_BANDAS);
+	}
+
+	/**
+	 * Constructor de la clase
+	 *
+	 * @param numBandas
+	 *            el número de bandas en que se reparten las reservas y los
+	 *            puntos de los profesores
+	 * @throws IllegalArgumentException
+	 *             si el número de bandas no es positivo
+	 */
+	public ModeloReservasAulasConcurrente(int numBandas) throws IllegalArgumentException {
+		if (numBandas <= 0)
+			throw new IllegalArgumentException("El número de bandas debe ser positivo.");
+		this.aulas = new Aulas();
+		this.profesores = new Profesores();
+		this.cerrojoAulas = new ReentrantReadWriteLock();
+		this.cerrojoProfesores = new ReentrantReadWriteLock();
+		this.bandas = new Reservas[numBandas];
+		this.cerrojosBandas = new ReentrantLock[numBandas];
+		this.cerrojosPuntos = new ReentrantLock[numBandas];
+		for (int i = 0; i < numBandas; i++) {
+			bandas[i] = new Reservas();
+			cerrojosBandas[i] = new ReentrantLock();
+			cerrojosPuntos[i] = new ReentrantLock();
+		}
+		this.puntosProfesorMes = new ConcurrentHashMap<String, Map<YearMonth, Float>>();
+	}
+
+	/**
+	 * Constructor de la clase con diario. Recupera el estado guardado en el diario
+	 * reproduciendo sus operaciones y, a partir de ahí, registra en él cada
+	 * operación que modifique el modelo.
+	 *
+	 * @param numBandas
+	 *            el número de bandas en que se reparten las reservas y los
+	 *            puntos de los profesores
+	 * @param diario
+	 *            el diario en el que se guardan las operaciones
+	 * @throws IllegalArgumentException
+	 *             si el número de bandas no es positivo o el diario es nulo
+	 * @throws IOException
+	 *             si no se puede leer el diario
+	 */
+	public ModeloReservasAulasConcurrente(int numBandas, Diario diario) throws IllegalArgumentException, IOException {
+		this(numBandas, diario, null);
+	}
+
+	/**
+	 * Constructor de la clase con diario e instantánea. Recupera el estado
+	 * cargando la instantánea, si existe, y reproduciendo las operaciones del
+	 * diario posteriores a ella, y a partir de ahí registra en el diario cada
+	 * operación que modifique el modelo.
+	 *
+	 * @param numBandas
+	 *            el número de bandas en que se reparten las reservas y los
+	 *            puntos de los profesores
+	 * @param diario
+	 *            el diario en el que se guardan las operaciones
+	 * @param instantanea
+	 *            la instantánea en la que empieza el diario, o null si el diario
+	 *            se compacta sin ella
+	 * @throws IllegalArgumentException
+	 *             si el número de bandas no es positivo o el diario es nulo
+	 * @throws IOException
+	 *             si no se pueden leer el diario o la instantánea, o no se
+	 *             corresponden
+	 */
+	public ModeloReservasAulasConcurrente(int numBandas, Diario diario, Instantanea instantanea) throws IllegalArgumentException, IOException {
+		this(numBandas);
+		if (diario == null)
+			throw new IllegalArgumentException("El diario no puede ser nulo.");
+		recuperando = true;
+		try {
+			if (instantanea == null)
+				diario.reproducir(this);
+			else
+				diario.reproducir(this, instantanea);
+		} finally {
+			recuperando = false;
+		}
+		this.diario = diario;
+	}
+
+	/**
+	 * Obtiene la banda en la que se guardan las reservas de un aula
+	 *
+	 * @param aula
+	 *            el aula
+	 * @return el número de banda
+	 */
+	private int getBanda(Aula aula) {
+		return (aula.getNombre().hashCode() & Integer.MAX_VALUE) % bandas.length;
+	}
+
+	/**
+	 * Obtiene el cerrojo que protege los puntos de un profesor
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @return el cerrojo de sus puntos
+	 */
+	private ReentrantLock getCerrojoPuntos(Profesor profesor) {
+		return cerrojosPuntos[(profesor.getNombre().hashCode() & Integer.MAX_VALUE) % cerrojosPuntos.length];
+	}
+
+	/**
+	 * Toma los cerrojos de todas las bandas, de menor a mayor
+	 */
+	private void bloquearBandas() {
+		for (ReentrantLock cerrojo : cerrojosBandas)
+			cerrojo.lock();
+	}
+
+	/**
+	 * Libera los cerrojos de todas las bandas
+	 */
+	private void desbloquearBandas() {
+		for (int i = cerrojosBandas.length - 1; i >= 0; i--)
+			cerrojosBandas[i].unlock();
+	}
+
+	/**
+	 * Obtiene todas las aulas registradas
+	 *
+	 * @return todas las aulas guardadas
+	 */
+	public List<Aula> getAulas() {
+		cerrojoAulas.readLock().lock();
+		try {
+			return aulas.getAulas();
+		} finally {
+			cerrojoAulas.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene el número de aulas registradas
+	 *
+	 * @return el número de aulas guardadas
+	 */
+	public int getNumAulas() {
+		cerrojoAulas.readLock().lock();
+		try {
+			return aulas.getNumAulas();
+		} finally {
+			cerrojoAulas.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene la salida de todas las aulas registradas
+	 *
+	 * @return una colección con la representación de cada aula en forma de cadena
+	 */
+	public List<String> representarAulas() {
+		cerrojoAulas.readLock().lock();
+		try {
+			return aulas.representar();
+		} finally {
+			cerrojoAulas.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene la salida de una página de aulas registrados, en el mismo orden
+	 * que representarAulas
+	 *
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return una colección con la representación de cada elemento de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarAulas(int desde, int cantidad) throws IllegalArgumentException {
+		cerrojoAulas.readLock().lock();
+		try {
+			return aulas.representar(desde, cantidad);
+		} finally {
+			cerrojoAulas.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Busca el aula indicada entre las que han sido registradas
+	 *
+	 * @param buscar
+	 *            el aula que estamos buscando
+	 * @return el aula buscada o null si no la encuentra
+	 */
+	public Aula buscarAula(Aula buscar) {
+		cerrojoAulas.readLock().lock();
+		try {
+			return aulas.buscar(buscar);
+		} finally {
+			cerrojoAulas.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda el aula indicada
+	 *
+	 * @param insertar
+	 *            el aula que queremos guardar
+	 * @throws IllegalArgumentException
+	 *             si el aula es nula
+	 * @throws OperationNotSupportedException
+	 *             si el aula ya existe
+	 */
+	public void insertarAula(Aula insertar) throws OperationNotSupportedException, IllegalArgumentException {
+		cerrojoAulas.writeLock().lock();
+		try {
+			aulas.insertar(insertar);
+			if (diario != null) {
+				try {
+					diario.insertarAula(insertar);
+				} catch (UncheckedIOException e) {
+					aulas.borrar(insertar);
+					throw e;
+				}
+			}
+		} finally {
+			cerrojoAulas.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra el aula indicada y sus reservas. Mientras dura el borrado nadie puede
+	 * reservar en la banda del aula, por lo que no puede quedar ninguna reserva
+	 * sobre el aula borrada
+	 *
+	 * @param borrar
+	 *            el aula que queremos borrar
+	 * @return el número de reservas sobre el aula que se han anulado con ella
+	 * @throws IllegalArgumentException
+	 *             si el aula es nula
+	 * @throws OperationNotSupportedException
+	 *             si el aula no existe
+	 */
+	public int borrarAula(Aula borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		if (borrar == null)
+			throw new IllegalArgumentException("No se puede borrar un aula nula.");
+		int banda = getBanda(borrar);
+		cerrojosBandas[banda].lock();
+		try {
+			cerrojoAulas.writeLock().lock();
+			try {
+				Aula borrada = aulas.buscar(borrar);
+				aulas.borrar(borrar);
+				if (diario != null) {
+					try {
+						diario.borrarAula(borrar);
+					} catch (UncheckedIOException e) {
+						aulas.insertar(borrada);
+						throw e;
+					}
+				}
+			} finally {
+				cerrojoAulas.writeLock().unlock();
+			}
+			List<Reserva> anuladas = bandas[banda].borrarReservasAula(borrar);
+			devolverPuntos(anuladas);
+			return anuladas.size();
+		} finally {
+			cerrojosBandas[banda].unlock();
+		}
+	}
+
+	/**
+	 * Obtiene todos los profesores registrados
+	 *
+	 * @return todos los profesores guardados
+	 */
+	public List<Profesor> getProfesores() {
+		cerrojoProfesores.readLock().lock();
+		try {
+			return profesores.getProfesores();
+		} finally {
+			cerrojoProfesores.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene el número de profesores registrados
+	 *
+	 * @return el número de profesores guardados
+	 */
+	public int getNumProfesores() {
+		cerrojoProfesores.readLock().lock();
+		try {
+			return profesores.getNumProfesores();
+		} finally {
+			cerrojoProfesores.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene la salida de todos los profesores registrados
+	 *
+	 * @return una colección con la representación de cada profesor en forma de
+	 *         cadena
+	 */
+	public List<String> representarProfesores() {
+		cerrojoProfesores.readLock().lock();
+		try {
+			return profesores.representar();
+		} finally {
+			cerrojoProfesores.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Obtiene la salida de una página de profesores registrados, en el mismo orden
+	 * que representarProfesores
+	 *
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return una colección con la representación de cada elemento de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarProfesores(int desde, int cantidad) throws IllegalArgumentException {
+		cerrojoProfesores.readLock().lock();
+		try {
+			return profesores.representar(desde, cantidad);
+		} finally {
+			cerrojoProfesores.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Busca el profesor indicado entre los que han sido registrados
+	 *
+	 * @param buscar
+	 *            el profesor que buscamos
+	 * @return el profesor buscado o null si no lo encuentra
+	 */
+	public Profesor buscarProfesor(Profesor buscar) {
+		cerrojoProfesores.readLock().lock();
+		try {
+			return profesores.buscar(buscar);
+		} finally {
+			cerrojoProfesores.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Guarda el profesor indicado
+	 *
+	 * @param insertar
+	 *            el profesor que queremos guardar
+	 * @throws IllegalArgumentException
+	 *             si el profesor es nulo
+	 * @throws OperationNotSupportedException
+	 *             si el profesor ya existe
+	 */
+	public void insertarProfesor(Profesor insertar) throws OperationNotSupportedException, IllegalArgumentException {
+		cerrojoProfesores.writeLock().lock();
+		try {
+			profesores.insertar(insertar);
+			if (diario != null) {
+				try {
+					diario.insertarProfesor(insertar);
+				} catch (UncheckedIOException e) {
+					profesores.borrar(insertar);
+					throw e;
+				}
+			}
+		} finally {
+			cerrojoProfesores.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Borra el profesor indicado y sus reservas. Como sus reservas pueden estar
+	 * en cualquier banda, se bloquean todas mientras dura el borrado
+	 *
+	 * @param borrar
+	 *            el profesor que queremos borrar
+	 * @return el número de reservas del profesor que se han anulado con él
+	 * @throws IllegalArgumentException
+	 *             si el profesor es nulo
+	 * @throws OperationNotSupportedException
+	 *             si el profesor no existe
+	 */
+	public int borrarProfesor(Profesor borrar) throws OperationNotSupportedException, IllegalArgumentException {
+		if (borrar == null)
+			throw new IllegalArgumentException("No se puede borrar un profesor nulo.");
+		bloquearBandas();
+		try {
+			cerrojoProfesores.writeLock().lock();
+			try {
+				Profesor borrado = profesores.buscar(borrar);
+				profesores.borrar(borrar);
+				if (diario != null) {
+					try {
+						diario.borrarProfesor(borrar);
+					} catch (UncheckedIOException e) {
+						profesores.insertar(borrado);
+						throw e;
+					}
+				}
+			} finally {
+				cerrojoProfesores.writeLock().unlock();
+			}
+			int anuladas = 0;
+			for (int i = 0; i < bandas.length; i++) {
+				List<Reserva> anuladasBanda = bandas[i].borrarReservasProfesor(borrar);
+				devolverPuntos(anuladasBanda);
+				anuladas += anuladasBanda.size();
+			}
+			return anuladas;
+		} finally {
+			desbloquearBandas();
+		}
+	}
+
+	/**
+	 * Obtiene todas las reservas realizadas, agrupadas por banda
+	 *
+	 * @return todas las reservas realizadas
+	 */
+	public List<Reserva> getReservas() {
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		bloquearBandas();
+		try {
+			for (Reservas banda : bandas)
+				reservas.addAll(banda.getReservas());
+		} finally {
+			desbloquearBandas();
+		}
+		return reservas;
+	}
+
+	/**
+	 * Obtiene el número de reservas realizadas
+	 *
+	 * @return el número de reservas guardadas
+	 */
+	public int getNumReservas() {
+		int numReservas = 0;
+		bloquearBandas();
+		try {
+			for (Reservas banda : bandas)
+				numReservas += banda.getNumReservas();
+		} finally {
+			desbloquearBandas();
+		}
+		return numReservas;
+	}
+
+	/**
+	 * Obtiene la salida de todas las reservas realizadas, agrupadas por banda
+	 *
+	 * @return una colección con la representación de cada reserva en forma de
+	 *         cadena
+	 */
+	public List<String> representarReservas() {
+		List<String> representar = new ArrayList<String>();
+		bloquearBandas();
+		try {
+			for (Reservas banda : bandas)
+				representar.addAll(banda.representar());
+		} finally {
+			desbloquearBandas();
+		}
+		return representar;
+	}
+
+	/**
+	 * Obtiene la salida de una página de reservas, en el mismo orden que
+	 * representarReservas: se saltan las bandas que quedan enteras antes de la
+	 * página y se sigue por las siguientes hasta completarla
+	 *
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return una colección con la representación de cada reserva de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarReservas(int desde, int cantidad) throws IllegalArgumentException {
+		if (desde < 0)
+			throw new IllegalArgumentException("La posición de la página no puede ser negativa.");
+		if (cantidad < 0)
+			throw new IllegalArgumentException("El tamaño de la página no puede ser negativo.");
+		List<String> representar = new ArrayList<String>();
+		bloquearBandas();
+		try {
+			for (Reservas banda : bandas) {
+				if (representar.size() == cantidad)
+					break;
+				int numReservas = banda.getNumReservas();
+				if (desde >= numReservas) {
+					desde -= numReservas;
+					continue;
+				}
+				representar.addAll(banda.representar(desde, cantidad - representar.size()));
+				desde = 0;
+			}
+		} finally {
+			desbloquearBandas();
+		}
+		return representar;
+	}
+
+	/**
+	 * Busca la reserva indicada entre las que se han realizado
+	 *
+	 * @param buscar
+	 *            la reserva que buscamos
+	 * @return la reserva buscada o null si no la encuentra
+	 */
+	public Reserva buscarReserva(Reserva buscar) {
+		if (buscar == null)
+			return null;
+		int banda = getBanda(buscar.getAula());
+		cerrojosBandas[banda].lock();
+		try {
+			return bandas[banda].buscar(buscar);
+		} finally {
+			cerrojosBandas[banda].unlock();
+		}
+	}
+
+	/**
+	 * Guarda la reserva indicada. Con los cerrojos de la banda del aula y de los
+	 * puntos del profesor tomados comprueba que el aula y el profesor siguen
+	 * registrados y las restricciones en el mismo orden que Reservas: que la
+	 * reserva no exista, que sea para el mes siguiente o posteriores, el límite de
+	 * puntos del profesor entre todas las bandas y, en la banda del aula, el resto
+	 *
+	 * @param realizar
+	 *            la reserva a realizar
+	 * @throws IllegalArgumentException
+	 *             si la reserva es nula
+	 * @throws OperationNotSupportedException
+	 *             si el aula o el profesor no están registrados, o si la reserva
+	 *             ya existe o no cumple alguna restricción
+	 */
+	public void realizarReserva(Reserva realizar) throws OperationNotSupportedException, IllegalArgumentException {
+		if (realizar == null)
+			throw new IllegalArgumentException("No se puede realizar una reserva nula.");
+		int banda = getBanda(realizar.getAula());
+		ReentrantLock cerrojoPuntos = getCerrojoPuntos(realizar.getProfesor());
+		cerrojosBandas[banda].lock();
+		try {
+			cerrojoPuntos.lock();
+			try {
+				String conflicto = comprobarRegistrados(realizar);
+				if (conflicto != null)
+					throw new OperationNotSupportedException(conflicto);
+				if (bandas[banda].buscar(realizar) != null)
+					throw new OperationNotSupportedException("La reserva ya existe.");
+				if (!recuperando && !Reservas.esMesSiguienteOPosterior(realizar))
+					throw new OperationNotSupportedException(
+							"Sólo se pueden hacer reservas para el mes que viene o posteriores.");
+				YearMonth mes = YearMonth.from(realizar.getPermanencia().getDia());
+				if (leerPuntos(realizar.getProfesor(), mes) + realizar.getPuntos() > Reservas.MAX_PUNTOS_PROFESOR_MES)
+					throw new OperationNotSupportedException(
+							"Esta reserva excede los puntos máximos por mes para dicho profesor.");
+				if (recuperando)
+					bandas[banda].recuperar(realizar);
+				else
+					bandas[banda].insertar(realizar);
+				if (diario != null) {
+					try {
+						diario.realizarReserva(realizar);
+					} catch (UncheckedIOException e) {
+						bandas[banda].borrar(realizar);
+						throw e;
+					}
+				}
+				sumarPuntos(realizar, realizar.getPuntos());
+			} finally {
+				cerrojoPuntos.unlock();
+			}
+		} finally {
+			cerrojosBandas[banda].unlock();
+		}
+	}
+
+	/**
+	 * Comprueba que el aula y el profesor de una reserva siguen registrados. Debe
+	 * llamarse con el cerrojo de la banda del aula tomado: borrarAula necesita ese
+	 * cerrojo y borrarProfesor los de todas las bandas, así que ninguno de los dos
+	 * puede borrarlos hasta que se guarde la reserva y se suelte
+	 *
+	 * @param reserva
+	 *            la reserva
+	 * @return el motivo por el que no se puede realizar la reserva, o null si el
+	 *         aula y el profesor están registrados
+	 */
+	private String comprobarRegistrados(Reserva reserva) {
+		cerrojoAulas.readLock().lock();
+		try {
+			if (aulas.buscar(reserva.getAula()) == null)
+				return "El aula de la reserva no existe.";
+		} finally {
+			cerrojoAulas.readLock().unlock();
+		}
+		cerrojoProfesores.readLock().lock();
+		try {
+			if (profesores.buscar(reserva.getProfesor()) == null)
+				return "El profesor de la reserva no existe.";
+		} finally {
+			cerrojoProfesores.readLock().unlock();
+		}
+		return null;
+	}
+
+	/**
+	 * Realiza todas las reservas de una reserva periódica, o ninguna si alguna no
+	 * se puede realizar. Todas las reservas de la serie son del mismo aula, así
+	 * que basta con el cerrojo de su banda y el de los puntos del profesor. Como
+	 * en realizarReserva, antes se comprueba que el aula y el profesor siguen
+	 * registrados
+	 *
+	 * @param realizar
+	 *            la reserva periódica a realizar
+	 * @return el número de reservas realizadas
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 * @throws ConflictosReservaPeriodicaException
+	 *             si alguna reserva de la serie no se puede realizar, con el
+	 *             motivo de cada día
+	 */
+	public int realizarReservaPeriodica(ReservaPeriodica realizar)
+			throws ConflictosReservaPeriodicaException, IllegalArgumentException {
+		if (realizar == null)
+			throw new IllegalArgumentException("No se puede realizar una reserva periódica nula.");
+		int banda = getBanda(realizar.getAula());
+		ReentrantLock cerrojoPuntos = getCerrojoPuntos(realizar.getProfesor());
+		cerrojosBandas[banda].lock();
+		try {
+			cerrojoPuntos.lock();
+			try {
+				String registrados = comprobarRegistrados(realizar.getReservas().get(0));
+				if (registrados != null) {
+					SortedMap<LocalDate, String> conflictos = new TreeMap<LocalDate, String>();
+					for (Reserva r : realizar.getReservas())
+						conflictos.put(r.getPermanencia().getDia(), registrados);
+					throw new ConflictosReservaPeriodicaException(conflictos);
+				}
+				// La banda sólo conoce los puntos gastados en sus aulas, así que los
+				// puntos se vuelven a comprobar con los de todas las bandas
+				// Al recuperar no se comprueba el mes, y el resto de restricciones de la
+				// banda las comprueba recuperarPeriodica
+				SortedMap<LocalDate, String> conflictos = recuperando ? new TreeMap<LocalDate, String>()
+						: bandas[banda].comprobarPeriodica(realizar);
+				Map<YearMonth, Float> puntosPendientes = new HashMap<YearMonth, Float>();
+				for (Reserva r : realizar.getReservas()) {
+					YearMonth mes = YearMonth.from(r.getPermanencia().getDia());
+					Float pendientes = puntosPendientes.get(mes);
+					float total = leerPuntos(r.getProfesor(), mes) + (pendientes == null ? 0f : pendientes)
+							+ r.getPuntos();
+					if (total > Reservas.MAX_PUNTOS_PROFESOR_MES && !conflictos.containsKey(r.getPermanencia().getDia()))
+						conflictos.put(r.getPermanencia().getDia(),
+								"Esta reserva excede los puntos máximos por mes para dicho profesor.");
+					puntosPendientes.put(mes, (pendientes == null ? 0f : pendientes) + r.getPuntos());
+				}
+				if (!conflictos.isEmpty())
+					throw new ConflictosReservaPeriodicaException(conflictos);
+				List<Reserva> realizadas;
+				if (recuperando)
+					realizadas = bandas[banda].recuperarPeriodica(realizar);
+				else
+					realizadas = bandas[banda].insertarPeriodica(realizar);
+				if (diario != null) {
+					try {
+						diario.realizarReservaPeriodica(realizar);
+					} catch (UncheckedIOException e) {
+						deshacerReservas(banda, realizadas);
+						throw e;
+					}
+				}
+				for (Reserva r : realizadas)
+					sumarPuntos(r, r.getPuntos());
+				return realizadas.size();
+			} finally {
+				cerrojoPuntos.unlock();
+			}
+		} finally {
+			cerrojosBandas[banda].unlock();
+		}
+	}
+
+	/**
+	 * Quita de su banda unas reservas recién realizadas cuando no se ha podido
+	 * registrar en el diario la operación que las realizó. Debe llamarse con el
+	 * cerrojo de la banda tomado
+	 *
+	 * @param banda
+	 *            la banda de las reservas
+	 * @param realizadas
+	 *            las reservas a quitar
+	 */
+	private void deshacerReservas(int banda, List<Reserva> realizadas) {
+		for (Reserva r : realizadas) {
+			try {
+				bandas[banda].borrar(r);
+			} catch (OperationNotSupportedException e) {
+				// Se acaban de realizar, así que existen
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+
+	/**
+	 * Borra la reserva indicada si existe entre las realizadas
+	 *
+	 * @param anular
+	 *            la reserva a anular
+	 * @throws IllegalArgumentException
+	 *             si la reserva es nula
+	 * @throws OperationNotSupportedException
+	 *             si la reserva no existe
+	 */
+	public void anularReserva(Reserva anular) throws OperationNotSupportedException, IllegalArgumentException {
+		if (anular == null)
+			throw new IllegalArgumentException("No se puede anular una reserva nula.");
+		int banda = getBanda(anular.getAula());
+		cerrojosBandas[banda].lock();
+		try {
+			// Los puntos a devolver son los de la reserva guardada, que puede ser de otro
+			// profesor
+			Reserva almacenada = bandas[banda].buscar(anular);
+			if (almacenada == null)
+				throw new OperationNotSupportedException("La reserva a anular no existe.");
+			borrarReserva(banda, almacenada);
+		} finally {
+			cerrojosBandas[banda].unlock();
+		}
+	}
+
+	/**
+	 * Borra una reserva guardada de su banda, devuelve sus puntos al profesor y
+	 * registra la anulación en el diario. Debe llamarse con el cerrojo de la banda
+	 * tomado
+	 *
+	 * @param banda
+	 *            la banda de la reserva
+	 * @param almacenada
+	 *            la reserva guardada
+	 * @throws OperationNotSupportedException
+	 *             si la reserva no existe
+	 */
+	private void borrarReserva(int banda, Reserva almacenada) throws OperationNotSupportedException {
+		ReentrantLock cerrojoPuntos = getCerrojoPuntos(almacenada.getProfesor());
+		cerrojoPuntos.lock();
+		try {
+			bandas[banda].borrar(almacenada);
+			if (diario != null) {
+				try {
+					diario.anularReserva(almacenada);
+				} catch (UncheckedIOException e) {
+					bandas[banda].recuperar(almacenada);
+					throw e;
+				}
+			}
+			sumarPuntos(almacenada, -almacenada.getPuntos());
+		} finally {
+			cerrojoPuntos.unlock();
+		}
+	}
+
+	/**
+	 * Devuelve a sus profesores los puntos de unas reservas borradas en cascada.
+	 * Debe llamarse con el cerrojo de la banda de las reservas tomado. Hasta que
+	 * termina, otra banda puede ver todavía gastados los puntos, lo que como mucho
+	 * rechaza una reserva que cabía, nunca acepta una que supera el límite
+	 *
+	 * @param anuladas
+	 *            las reservas borradas
+	 */
+	private void devolverPuntos(List<Reserva> anuladas) {
+		for (Reserva r : anuladas) {
+			ReentrantLock cerrojoPuntos = getCerrojoPuntos(r.getProfesor());
+			cerrojoPuntos.lock();
+			try {
+				sumarPuntos(r, -r.getPuntos());
+			} finally {
+				cerrojoPuntos.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Obtiene todas las reservas correspondientes al aula indicada
+	 *
+	 * @param aula
+	 *            el aula sobre la que están hechas las reservas
+	 * @return todas las reservas sobre el aula indicada
+	 * @throws IllegalArgumentException
+	 *             si el aula es nula
+	 */
+	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		int banda = getBanda(aula);
+		cerrojosBandas[banda].lock();
+		try {
+			return bandas[banda].getReservasAula(aula);
+		} finally {
+			cerrojosBandas[banda].unlock();
+		}
+	}
+
+	/**
+	 * Obtiene todas las reservas realizadas por el profesor indicado
+	 *
+	 * @param profesor
+	 *            el profesor a nombre del que están hechas las reservas
+	 * @return todas las reservas a nombre del profesor indicado
+	 * @throws IllegalArgumentException
+	 *             si el profesor es nulo
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+		if (profesor == null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		bloquearBandas();
+		try {
+			for (Reservas banda : bandas)
+				reservas.addAll(banda.getReservasProfesor(profesor));
+		} finally {
+			desbloquearBandas();
+		}
+		return reservas;
+	}
+
+	/**
+	 * Obtiene todas las reservas realizadas en un día y tramo indicados
+	 *
+	 * @param permanencia
+	 *            la fecha de las reservas
+	 * @return todas las reservas de ese día y tramo
+	 * @throws IllegalArgumentException
+	 *             si la permanencia es nula
+	 */
+	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+		if (permanencia == null)
+			throw new IllegalArgumentException("No se pueden consultar las reservas de una permanencia nula.");
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		bloquearBandas();
+		try {
+			for (Reservas banda : bandas)
+				reservas.addAll(banda.getReservasPermanencia(permanencia));
+		} finally {
+			desbloquearBandas();
+		}
+		return reservas;
+	}
+
+	/**
+	 * Obtiene las reservas realizadas entre dos días, ambos incluidos, ordenadas
+	 * por día. Cada banda ya las tiene ordenadas, pero
+	 * hay que juntarlas, así que sólo se copian las de esos días antes de soltar
+	 * los cerrojos
+	 * 
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas de esos días
+	 * @throws IllegalArgumentException
+	 *             si algún día es nulo o el último es anterior al primero
+	 */
+	public Stream<Reserva> getReservas(LocalDate desde, LocalDate hasta) throws IllegalArgumentException {
+		Reservas.comprobarDias(desde, hasta);
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		bloquearBandas();
+		try {
+			for (Reservas banda : bandas)
+				reservas.addAll(banda.getReservas(desde, hasta).collect(Collectors.toList()));
+		} finally {
+			desbloquearBandas();
+		}
+		reservas.sort(POR_DIA);
+		return reservas.stream();
+	}
+
+	/**
+	 * Obtiene las reservas de un aula realizadas entre dos días, ambos incluidos,
+	 * ordenadas por día. Se copian las de esos días antes de
+	 * soltar el cerrojo de la banda
+	 * 
+	 * @param aula
+	 *            el aula reservada
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del aula esos días
+	 * @throws IllegalArgumentException
+	 *             si el aula o algún día son nulos, o el último día es anterior
+	 *             al primero
+	 */
+	public Stream<Reserva> getReservasAula(Aula aula, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		int banda = getBanda(aula);
+		cerrojosBandas[banda].lock();
+		try {
+			return bandas[banda].getReservasAula(aula, desde, hasta).collect(Collectors.toList()).stream();
+		} finally {
+			cerrojosBandas[banda].unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor realizadas entre dos días, ambos
+	 * incluidos, ordenadas por día. Como en getReservas, sólo se copian
+	 * las de esos días
+	 * 
+	 * @param profesor
+	 *            el profesor que ha reservado
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del profesor esos días
+	 * @throws IllegalArgumentException
+	 *             si el profesor o algún día son nulos, o el último día es
+	 *             anterior al primero
+	 */
+	public Stream<Reserva> getReservasProfesor(Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		if (profesor == null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		Reservas.comprobarDias(desde, hasta);
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		bloquearBandas();
+		try {
+			for (Reservas banda : bandas)
+				reservas.addAll(banda.getReservasProfesor(profesor, desde, hasta).collect(Collectors.toList()));
+		} finally {
+			desbloquearBandas();
+		}
+		reservas.sort(POR_DIA);
+		return reservas.stream();
+	}
+
+	/**
+	 * Comprueba si hay alguna reserva realizada sobre un aula en una permanencia
+	 * indicadas
+	 *
+	 * @param aula
+	 *            el aula sobre la que queremos consultar la disponibilidad
+	 * @param permanencia
+	 *            el día que queremos comprobar si está reservada el aula
+	 * @return True si está disponible (no está reservada) y False si no está
+	 *         disponible (está reservada)
+	 * @throws IllegalArgumentException
+	 *             si el aula o la permanencia son nulas, o si el tipo de
+	 *             permanencia consultado no coincide con el de las reservas
+	 *             realizadas sobre ese aula ese día
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de un aula nula.");
+		int banda = getBanda(aula);
+		cerrojosBandas[banda].lock();
+		try {
+			return bandas[banda].consultarDisponibilidad(aula, permanencia);
+		} finally {
+			cerrojosBandas[banda].unlock();
+		}
+	}
+
+	/**
+	 * Obtiene las aulas con al menos los puestos indicados que se pueden reservar
+	 * en una permanencia, de menor a mayor número de puestos. Las candidatas se
+	 * obtienen con el cerrojo de las aulas y después cada una se comprueba con el
+	 * cerrojo de su banda, así que el resultado es orientativo: otro hilo puede
+	 * reservar un aula justo después de comprobarla
+	 *
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param permanencia
+	 *            el día y la hora o tramo en que deben estar libres
+	 * @return las aulas libres
+	 * @throws IllegalArgumentException
+	 *             si los puestos son negativos o la permanencia es nula
+	 */
+	public List<Aula> getAulasLibres(int puestos, Permanencia permanencia) throws IllegalArgumentException {
+		ModeloReservasAulas.comprobarBusqueda(puestos, permanencia);
+		List<Aula> libres = new ArrayList<Aula>();
+		for (Aula a : getAulasConPuestos(puestos)) {
+			if (estaLibre(a, permanencia))
+				libres.add(a);
+		}
+		return libres;
+	}
+
+	/**
+	 * Busca el primer hueco libre en un aula con al menos los puestos indicados, a
+	 * la misma hora o tramo que la permanencia, desde el día de la permanencia
+	 * hasta el día indicado. Como en getAulasLibres, el resultado es orientativo
+	 *
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @param desde
+	 *            el primer día y la hora o tramo a buscar
+	 * @param hasta
+	 *            el último día en que buscar
+	 * @return el primer hueco libre o null si no hay ninguno
+	 * @throws IllegalArgumentException
+	 *             si los puestos son negativos, la permanencia o el día final
+	 *             son nulos, o el día final es anterior al de la permanencia
+	 */
+	public Hueco buscarHueco(int puestos, Permanencia desde, LocalDate hasta) throws IllegalArgumentException {
+		ModeloReservasAulas.comprobarBusqueda(puestos, desde, hasta);
+		List<Aula> candidatas = getAulasConPuestos(puestos);
+		for (LocalDate dia = desde.getDia(); !dia.isAfter(hasta); dia = dia.plusDays(1)) {
+			Permanencia permanencia = dia.equals(desde.getDia()) ? desde : desde.enDia(dia);
+			for (Aula a : candidatas) {
+				if (estaLibre(a, permanencia))
+					return new Hueco(a, permanencia);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Obtiene las aulas con al menos los puestos indicados
+	 *
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @return las aulas, de menor a mayor número de puestos
+	 */
+	private List<Aula> getAulasConPuestos(int puestos) {
+		cerrojoAulas.readLock().lock();
+		try {
+			return aulas.getAulasConPuestos(puestos);
+		} finally {
+			cerrojoAulas.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Comprueba con el cerrojo de su banda si un aula se puede reservar en una
+	 * permanencia
+	 *
+	 * @param aula
+	 *            el aula a comprobar
+	 * @param permanencia
+	 *            la permanencia a comprobar
+	 * @return true si se puede reservar, false si no
+	 */
+	private boolean estaLibre(Aula aula, Permanencia permanencia) {
+		int banda = getBanda(aula);
+		cerrojosBandas[banda].lock();
+		try {
+			return bandas[banda].estaLibre(aula, permanencia);
+		} finally {
+			cerrojosBandas[banda].unlock();
+		}
+	}
+
+	/**
+	 * Obtiene los puntos gastados por un profesor durante un mes entre todas las
+	 * bandas
+	 *
+	 * @param profesor
+	 *            el profesor a nombre del que están hechas las reservas
+	 * @param mes
+	 *            el mes del que queremos conocer los puntos gastados
+	 * @return los puntos gastados por el profesor ese mes
+	 * @throws IllegalArgumentException
+	 *             si el profesor o el mes son nulos
+	 */
+	public float getPuntosGastados(Profesor profesor, YearMonth mes) throws IllegalArgumentException {
+		if (profesor == null)
+			throw new IllegalArgumentException("El profesor no puede ser nulo.");
+		if (mes == null)
+			throw new IllegalArgumentException("El mes no puede ser nulo.");
+		ReentrantLock cerrojoPuntos = getCerrojoPuntos(profesor);
+		cerrojoPuntos.lock();
+		try {
+			return leerPuntos(profesor, mes);
+		} finally {
+			cerrojoPuntos.unlock();
+		}
+	}
+
+	/**
+	 * Lee los puntos gastados por un profesor en un mes. Debe llamarse con el
+	 * cerrojo de los puntos del profesor tomado
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @param mes
+	 *            el mes
+	 * @return los puntos gastados
+	 */
+	private float leerPuntos(Profesor profesor, YearMonth mes) {
+		Map<YearMonth, Float> puntosProfesor = puntosProfesorMes.get(profesor.getNombre());
+		if (puntosProfesor == null || !puntosProfesor.containsKey(mes))
+			return 0f;
+		return puntosProfesor.get(mes);
+	}
+
+	/**
+	 * Suma (o resta si son negativos) los puntos indicados a los gastados por el
+	 * profesor de la reserva en el mes de la reserva. Debe llamarse con el cerrojo
+	 * de los puntos del profesor tomado
+	 *
+	 * @param reserva
+	 *            la reserva que se añade o se quita
+	 * @param puntos
+	 *            los puntos a sumar
+	 */
+	private void sumarPuntos(Reserva reserva, float puntos) {
+		String nombreProfesor = reserva.getProfesor().getNombre();
+		Map<YearMonth, Float> puntosProfesor = puntosProfesorMes.get(nombreProfesor);
+		if (puntosProfesor == null) {
+			puntosProfesor = new HashMap<YearMonth, Float>();
+			puntosProfesorMes.put(nombreProfesor, puntosProfesor);
+		}
+		YearMonth mes = YearMonth.from(reserva.getPermanencia().getDia());
+		float total = leerPuntos(reserva.getProfesor(), mes) + puntos;
+		if (total > 0f)
+			puntosProfesor.put(mes, total);
+		else
+			puntosProfesor.remove(mes);
+		if (puntosProfesor.isEmpty())
+			puntosProfesorMes.remove(nombreProfesor);
+	}
+
+}
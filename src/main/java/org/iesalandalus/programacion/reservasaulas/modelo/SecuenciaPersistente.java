@@ -0,0 +1,361 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Secuencia inmutable de elementos ordenados por una clave numérica, guardada
+ * en un árbol AVL persistente. Poner o quitar un elemento no modifica la
+ * secuencia, sino que devuelve otra nueva que comparte con ella todos los nodos
+ * salvo los del camino hasta el elemento, así que cuesta O(log n) en tiempo y
+ * en memoria. Cada nodo guarda el tamaño de su subárbol para obtener el
+ * elemento de una posición en O(log n).
+ *
+ * @param <E>
+ *            el tipo de los elementos
+ * @see VersionModelo
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+final class SecuenciaPersistente<E> {
+
+	private static final SecuenciaPersistente<Object> VACIA = new SecuenciaPersistente<Object>(null);
+
+	private final Nodo<E> raiz;
+
+	/**
+	 * Nodo inmutable del árbol
+	 *
+	 * @param <E>
+	 *            el tipo de los elementos
+	 */
+	private static final class Nodo<E> {
+
+		private final long clave;
+		private final E valor;
+		private final Nodo<E> izquierdo;
+		private final Nodo<E> derecho;
+		private final int altura;
+		private final int tamano;
+
+		/**
+		 * Constructor de la clase. Calcula la altura y el tamaño a partir de los
+		 * hijos
+		 *
+		 * @param clave
+		 *            la clave del elemento
+		 * @param valor
+		 *            el elemento
+		 * @param izquierdo
+		 *            el subárbol con las claves menores, o null
+		 * @param derecho
+		 *            el subárbol con las claves mayores, o null
+		 */
+		private Nodo(long clave, E valor, Nodo<E> izquierdo, Nodo<E> derecho) {
+			this.clave = clave;
+			this.valor = valor;
+			this.izquierdo = izquierdo;
+			this.derecho = derecho;
+			this.altura = Math.max(altura(izquierdo), altura(derecho)) + 1;
+			this.tamano = tamano(izquierdo) + tamano(derecho) + 1;
+		}
+
+	}
+
+	/**
+	 * Constructor de la clase
+	 *
+	 * @param raiz
+	 *            la raíz del árbol, o null si está vacío
+	 */
+	private SecuenciaPersistente(Nodo<E> raiz) {
+		this.raiz = raiz;
+	}
+
+	/**
+	 * Obtiene la secuencia vacía
+	 *
+	 * @param <E>
+	 *            el tipo de los elementos
+	 * @return la secuencia vacía
+	 */
+	@SuppressWarnings("unchecked")
+	static <E> SecuenciaPersistente<E> vacia() {
+		return (SecuenciaPersistente<E>) VACIA;
+	}
+
+	/**
+	 * Crea una secuencia equilibrada con unos elementos, cuyas claves son
+	 * consecutivas a partir de la indicada. Cuesta O(n)
+	 *
+	 * @param <E>
+	 *            el tipo de los elementos
+	 * @param elementos
+	 *            los elementos, en orden
+	 * @param primeraClave
+	 *            la clave del primer elemento
+	 * @return la secuencia
+	 */
+	static <E> SecuenciaPersistente<E> construir(List<E> elementos, long primeraClave) {
+		return new SecuenciaPersistente<E>(construir(elementos, primeraClave, 0, elementos.size()));
+	}
+
+	/**
+	 * Construye el subárbol equilibrado de un tramo de elementos
+	 *
+	 * @param elementos
+	 *            los elementos
+	 * @param primeraClave
+	 *            la clave del primer elemento de la lista
+	 * @param desde
+	 *            la posición del primer elemento del tramo
+	 * @param hasta
+	 *            la posición siguiente al último elemento del tramo
+	 * @return la raíz del subárbol, o null si el tramo está vacío
+	 */
+	private static <E> Nodo<E> construir(List<E> elementos, long primeraClave, int desde, int hasta) {
+		if (desde >= hasta)
+			return null;
+		int medio = (desde + hasta) >>> 1;
+		return new Nodo<E>(primeraClave + medio, elementos.get(medio), construir(elementos, primeraClave, desde, medio),
+				construir(elementos, primeraClave, medio + 1, hasta));
+	}
+
+	/**
+	 * Obtiene el número de elementos de la secuencia
+	 *
+	 * @return el número de elementos
+	 */
+	int getTamano() {
+		return tamano(raiz);
+	}
+
+	/**
+	 * Obtiene la secuencia con un elemento más, o con el elemento de esa clave
+	 * sustituido si ya había uno
+	 *
+	 * @param clave
+	 *            la clave del elemento
+	 * @param valor
+	 *            el elemento
+	 * @return la nueva secuencia
+	 */
+	SecuenciaPersistente<E> poner(long clave, E valor) {
+		return new SecuenciaPersistente<E>(poner(raiz, clave, valor));
+	}
+
+	/**
+	 * Obtiene la secuencia sin el elemento de una clave
+	 *
+	 * @param clave
+	 *            la clave del elemento
+	 * @return la nueva secuencia, o esta misma si no había ningún elemento con
+	 *         esa clave
+	 */
+	SecuenciaPersistente<E> quitar(long clave) {
+		Nodo<E> nuevaRaiz = quitar(raiz, clave);
+		return nuevaRaiz == raiz ? this : new SecuenciaPersistente<E>(nuevaRaiz);
+	}
+
+	/**
+	 * Obtiene el elemento de una posición, en orden de clave
+	 *
+	 * @param posicion
+	 *            la posición, empezando en 0
+	 * @return el elemento
+	 * @throws IndexOutOfBoundsException
+	 *             si la posición no existe
+	 */
+	E get(int posicion) throws IndexOutOfBoundsException {
+		if (posicion < 0 || posicion >= getTamano())
+			throw new IndexOutOfBoundsException("La posición " + posicion + " no existe.");
+		Nodo<E> nodo = raiz;
+		while (true) {
+			int izquierda = tamano(nodo.izquierdo);
+			if (posicion < izquierda) {
+				nodo = nodo.izquierdo;
+			} else if (posicion == izquierda) {
+				return nodo.valor;
+			} else {
+				posicion -= izquierda + 1;
+				nodo = nodo.derecho;
+			}
+		}
+	}
+
+	/**
+	 * Recorre los elementos en orden de clave a partir de una posición
+	 *
+	 * @param desde
+	 *            la posición del primer elemento
+	 * @return el iterador
+	 */
+	Iterator<E> iterator(int desde) {
+		final Deque<Nodo<E>> pendientes = new ArrayDeque<Nodo<E>>();
+		// Se baja hasta el elemento de la posición guardando los nodos por los que se
+		// sigue por la izquierda, que son los que vienen después
+		Nodo<E> nodo = raiz;
+		while (nodo != null) {
+			int izquierda = tamano(nodo.izquierdo);
+			if (desde <= izquierda) {
+				pendientes.push(nodo);
+				nodo = nodo.izquierdo;
+			} else {
+				desde -= izquierda + 1;
+				nodo = nodo.derecho;
+			}
+		}
+		return new Iterator<E>() {
+			public boolean hasNext() {
+				return !pendientes.isEmpty();
+			}
+
+			public E next() {
+				if (pendientes.isEmpty())
+					throw new NoSuchElementException();
+				Nodo<E> siguiente = pendientes.pop();
+				for (Nodo<E> n = siguiente.derecho; n != null; n = n.izquierdo)
+					pendientes.push(n);
+				return siguiente.valor;
+			}
+		};
+	}
+
+	/**
+	 * Obtiene una vista de la secuencia como lista no modificable. Crearla cuesta
+	 * O(1) y recorrerla O(n)
+	 *
+	 * @return la lista
+	 */
+	List<E> aLista() {
+		return new AbstractList<E>() {
+			public E get(int posicion) {
+				return SecuenciaPersistente.this.get(posicion);
+			}
+
+			public int size() {
+				return getTamano();
+			}
+
+			public Iterator<E> iterator() {
+				return SecuenciaPersistente.this.iterator(0);
+			}
+		};
+	}
+
+	/**
+	 * Obtiene la altura de un subárbol
+	 *
+	 * @param nodo
+	 *            la raíz del subárbol, o null
+	 * @return la altura
+	 */
+	private static int altura(Nodo<?> nodo) {
+		return nodo == null ? 0 : nodo.altura;
+	}
+
+	/**
+	 * Obtiene el número de elementos de un subárbol
+	 *
+	 * @param nodo
+	 *            la raíz del subárbol, o null
+	 * @return el número de elementos
+	 */
+	private static int tamano(Nodo<?> nodo) {
+		return nodo == null ? 0 : nodo.tamano;
+	}
+
+	/**
+	 * Pone un elemento en un subárbol
+	 *
+	 * @param nodo
+	 *            la raíz del subárbol, o null
+	 * @param clave
+	 *            la clave del elemento
+	 * @param valor
+	 *            el elemento
+	 * @return la raíz del nuevo subárbol
+	 */
+	private static <E> Nodo<E> poner(Nodo<E> nodo, long clave, E valor) {
+		if (nodo == null)
+			return new Nodo<E>(clave, valor, null, null);
+		if (clave < nodo.clave)
+			return equilibrar(nodo.clave, nodo.valor, poner(nodo.izquierdo, clave, valor), nodo.derecho);
+		if (clave > nodo.clave)
+			return equilibrar(nodo.clave, nodo.valor, nodo.izquierdo, poner(nodo.derecho, clave, valor));
+		return new Nodo<E>(clave, valor, nodo.izquierdo, nodo.derecho);
+	}
+
+	/**
+	 * Quita un elemento de un subárbol
+	 *
+	 * @param nodo
+	 *            la raíz del subárbol, o null
+	 * @param clave
+	 *            la clave del elemento
+	 * @return la raíz del nuevo subárbol, o la misma si la clave no estaba
+	 */
+	private static <E> Nodo<E> quitar(Nodo<E> nodo, long clave) {
+		if (nodo == null)
+			return null;
+		if (clave < nodo.clave) {
+			Nodo<E> izquierdo = quitar(nodo.izquierdo, clave);
+			return izquierdo == nodo.izquierdo ? nodo : equilibrar(nodo.clave, nodo.valor, izquierdo, nodo.derecho);
+		}
+		if (clave > nodo.clave) {
+			Nodo<E> derecho = quitar(nodo.derecho, clave);
+			return derecho == nodo.derecho ? nodo : equilibrar(nodo.clave, nodo.valor, nodo.izquierdo, derecho);
+		}
+		if (nodo.izquierdo == null)
+			return nodo.derecho;
+		if (nodo.derecho == null)
+			return nodo.izquierdo;
+		// Se sustituye por el menor del subárbol derecho
+		Nodo<E> menor = nodo.derecho;
+		while (menor.izquierdo != null)
+			menor = menor.izquierdo;
+		return equilibrar(menor.clave, menor.valor, nodo.izquierdo, quitar(nodo.derecho, menor.clave));
+	}
+
+	/**
+	 * Crea un nodo con sus hijos, rotándolo si las alturas de los hijos se
+	 * diferencian en más de uno
+	 *
+	 * @param clave
+	 *            la clave del nodo
+	 * @param valor
+	 *            el elemento del nodo
+	 * @param izquierdo
+	 *            el subárbol izquierdo
+	 * @param derecho
+	 *            el subárbol derecho
+	 * @return la raíz del subárbol equilibrado
+	 */
+	private static <E> Nodo<E> equilibrar(long clave, E valor, Nodo<E> izquierdo, Nodo<E> derecho) {
+		int diferencia = altura(izquierdo) - altura(derecho);
+		if (diferencia > 1) {
+			if (altura(izquierdo.izquierdo) >= altura(izquierdo.derecho))
+				return new Nodo<E>(izquierdo.clave, izquierdo.valor, izquierdo.izquierdo,
+						new Nodo<E>(clave, valor, izquierdo.derecho, derecho));
+			Nodo<E> centro = izquierdo.derecho;
+			return new Nodo<E>(centro.clave, centro.valor,
+					new Nodo<E>(izquierdo.clave, izquierdo.valor, izquierdo.izquierdo, centro.izquierdo),
+					new Nodo<E>(clave, valor, centro.derecho, derecho));
+		}
+		if (diferencia < -1) {
+			if (altura(derecho.derecho) >= altura(derecho.izquierdo))
+				return new Nodo<E>(derecho.clave, derecho.valor, new Nodo<E>(clave, valor, izquierdo, derecho.izquierdo),
+						derecho.derecho);
+			Nodo<E> centro = derecho.izquierdo;
+			return new Nodo<E>(centro.clave, centro.valor, new Nodo<E>(clave, valor, izquierdo, centro.izquierdo),
+					new Nodo<E>(derecho.clave, derecho.valor, centro.derecho, derecho.derecho));
+		}
+		return new Nodo<E>(clave, valor, izquierdo, derecho);
+	}
+
+}
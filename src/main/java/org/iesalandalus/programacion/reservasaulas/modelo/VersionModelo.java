@@ -0,0 +1,299 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+
+/**
+ * Versión inmutable del contenido de ModeloReservasAulas: sus aulas, profesores
+ * y reservas tal como quedaron tras una operación. El modelo publica una
+ * versión nueva cada vez que se modifica, que comparte con la anterior todo lo
+ * que no ha cambiado, así que quien lee una versión ve siempre un estado
+ * coherente sin bloquear a quien escribe ni esperarlo.
+ *
+ * @see ModeloReservasAulas#getVersion()
+ * @see SecuenciaPersistente
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public final class VersionModelo {
+
+	private static final VersionModelo VACIA = new VersionModelo(0, SecuenciaPersistente.<Aula>vacia(),
+			SecuenciaPersistente.<Profesor>vacia(), SecuenciaPersistente.<Reserva>vacia());
+
+	private final long numero;
+	private final SecuenciaPersistente<Aula> aulas;
+	private final SecuenciaPersistente<Profesor> profesores;
+	private final SecuenciaPersistente<Reserva> reservas;
+
+	/**
+	 * Constructor de la clase
+	 *
+	 * @param numero
+	 *            el número de la versión
+	 * @param aulas
+	 *            las aulas, en orden de inserción
+	 * @param profesores
+	 *            los profesores, en orden de inserción
+	 * @param reservas
+	 *            las reservas, en orden de inserción
+	 */
+	VersionModelo(long numero, SecuenciaPersistente<Aula> aulas, SecuenciaPersistente<Profesor> profesores,
+			SecuenciaPersistente<Reserva> reservas) {
+		this.numero = numero;
+		this.aulas = aulas;
+		this.profesores = profesores;
+		this.reservas = reservas;
+	}
+
+	/**
+	 * Obtiene la versión de un modelo vacío
+	 *
+	 * @return la versión vacía
+	 */
+	static VersionModelo vacia() {
+		return VACIA;
+	}
+
+	/**
+	 * Obtiene la versión siguiente con otras aulas
+	 *
+	 * @param aulas
+	 *            las nuevas aulas
+	 * @return la nueva versión
+	 */
+	VersionModelo conAulas(SecuenciaPersistente<Aula> aulas) {
+		return new VersionModelo(numero + 1, aulas, profesores, reservas);
+	}
+
+	/**
+	 * Obtiene la versión siguiente con otros profesores
+	 *
+	 * @param profesores
+	 *            los nuevos profesores
+	 * @return la nueva versión
+	 */
+	VersionModelo conProfesores(SecuenciaPersistente<Profesor> profesores) {
+		return new VersionModelo(numero + 1, aulas, profesores, reservas);
+	}
+
+	/**
+	 * Obtiene la versión siguiente con otras reservas
+	 *
+	 * @param reservas
+	 *            las nuevas reservas
+	 * @return la nueva versión
+	 */
+	VersionModelo conReservas(SecuenciaPersistente<Reserva> reservas) {
+		return new VersionModelo(numero + 1, aulas, profesores, reservas);
+	}
+
+	/**
+	 * Obtiene la versión siguiente con otras aulas y reservas
+	 *
+	 * @param aulas
+	 *            las nuevas aulas
+	 * @param reservas
+	 *            las nuevas reservas
+	 * @return la nueva versión
+	 */
+	VersionModelo conAulas(SecuenciaPersistente<Aula> aulas, SecuenciaPersistente<Reserva> reservas) {
+		return new VersionModelo(numero + 1, aulas, profesores, reservas);
+	}
+
+	/**
+	 * Obtiene la versión siguiente con otros profesores y reservas
+	 *
+	 * @param profesores
+	 *            los nuevos profesores
+	 * @param reservas
+	 *            las nuevas reservas
+	 * @return la nueva versión
+	 */
+	VersionModelo conProfesores(SecuenciaPersistente<Profesor> profesores, SecuenciaPersistente<Reserva> reservas) {
+		return new VersionModelo(numero + 1, aulas, profesores, reservas);
+	}
+
+	/**
+	 * Obtiene la secuencia de aulas de la versión
+	 *
+	 * @return las aulas
+	 */
+	SecuenciaPersistente<Aula> getSecuenciaAulas() {
+		return aulas;
+	}
+
+	/**
+	 * Obtiene la secuencia de profesores de la versión
+	 *
+	 * @return los profesores
+	 */
+	SecuenciaPersistente<Profesor> getSecuenciaProfesores() {
+		return profesores;
+	}
+
+	/**
+	 * Obtiene la secuencia de reservas de la versión
+	 *
+	 * @return las reservas
+	 */
+	SecuenciaPersistente<Reserva> getSecuenciaReservas() {
+		return reservas;
+	}
+
+	/**
+	 * Obtiene el número de la versión, que aumenta con cada operación que
+	 * modifica el modelo
+	 *
+	 * @return el número de la versión
+	 */
+	public long getNumero() {
+		return numero;
+	}
+
+	/**
+	 * Obtiene las aulas de la versión en orden de inserción. La lista no se
+	 * puede modificar y no se copia
+	 *
+	 * @return las aulas
+	 */
+	public List<Aula> getAulas() {
+		return aulas.aLista();
+	}
+
+	/**
+	 * Obtiene el número de aulas de la versión
+	 *
+	 * @return el número de aulas
+	 */
+	public int getNumAulas() {
+		return aulas.getTamano();
+	}
+
+	/**
+	 * Obtiene los profesores de la versión en orden de inserción. La lista no se
+	 * puede modificar y no se copia
+	 *
+	 * @return los profesores
+	 */
+	public List<Profesor> getProfesores() {
+		return profesores.aLista();
+	}
+
+	/**
+	 * Obtiene el número de profesores de la versión
+	 *
+	 * @return el número de profesores
+	 */
+	public int getNumProfesores() {
+		return profesores.getTamano();
+	}
+
+	/**
+	 * Obtiene las reservas de la versión en orden de inserción. La lista no se
+	 * puede modificar y no se copia
+	 *
+	 * @return las reservas
+	 */
+	public List<Reserva> getReservas() {
+		return reservas.aLista();
+	}
+
+	/**
+	 * Obtiene el número de reservas de la versión
+	 *
+	 * @return el número de reservas
+	 */
+	public int getNumReservas() {
+		return reservas.getTamano();
+	}
+
+	/**
+	 * Obtiene la salida de una página de elementos de una secuencia
+	 *
+	 * @param secuencia
+	 *            la secuencia
+	 * @param desde
+	 *            la posición del primer elemento de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de elementos de la página
+	 * @return la representación de cada elemento de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	private static List<String> representar(SecuenciaPersistente<?> secuencia, int desde, int cantidad)
+			throws IllegalArgumentException {
+		if (desde < 0)
+			throw new IllegalArgumentException("La posición de la página no puede ser negativa.");
+		if (cantidad < 0)
+			throw new IllegalArgumentException("El tamaño de la página no puede ser negativo.");
+		List<String> representar = new ArrayList<String>();
+		// El iterador baja directamente hasta la posición, sin recorrer las anteriores
+		Iterator<?> iterador = secuencia.iterator(desde);
+		while (representar.size() < cantidad && iterador.hasNext())
+			representar.add(iterador.next().toString());
+		return representar;
+	}
+
+	/**
+	 * Obtiene la salida de una página de aulas de la versión
+	 *
+	 * @param desde
+	 *            la posición de la primera aula de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de aulas de la página
+	 * @return la representación de cada aula de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarAulas(int desde, int cantidad) throws IllegalArgumentException {
+		return representar(aulas, desde, cantidad);
+	}
+
+	/**
+	 * Obtiene la salida de una página de profesores de la versión
+	 *
+	 * @param desde
+	 *            la posición del primer profesor de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de profesores de la página
+	 * @return la representación de cada profesor de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarProfesores(int desde, int cantidad) throws IllegalArgumentException {
+		return representar(profesores, desde, cantidad);
+	}
+
+	/**
+	 * Obtiene la salida de una página de reservas de la versión
+	 *
+	 * @param desde
+	 *            la posición de la primera reserva de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de reservas de la página
+	 * @return la representación de cada reserva de la página
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representarReservas(int desde, int cantidad) throws IllegalArgumentException {
+		return representar(reservas, desde, cantidad);
+	}
+
+	/**
+	 * Método toString de la clase
+	 *
+	 * @return el número de la versión y de cada tipo de elemento
+	 */
+	@Override
+	public String toString() {
+		return "Versión " + numero + " [aulas=" + getNumAulas() + ", profesores=" + getNumProfesores() + ", reservas="
+				+ getNumReservas() + "]";
+	}
+
+}
@@ -1,7 +1,14 @@
 package org.iesalandalus.programacion.reservasaulas.modelo.dao;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 
 import javax.naming.OperationNotSupportedException;
 
@@ -18,13 +25,21 @@ import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
  */
 public class Aulas {
 
-	private List<Aula> coleccionAulas;
+	// Indexadas por nombre
+	private Map<String, Aula> coleccionAulas;
+	// Las mismas aulas en el orden en que se insertaron, con acceso por posición
+	private ListaIndexada<Aula> ordenAulas;
+	// Las mismas aulas agrupadas por número de puestos, para buscar las que tienen
+	// capacidad suficiente sin recorrer todas
+	private NavigableMap<Integer, Map<String, Aula>> aulasPorPuestos;
 
 	/**
-	 * Constructor por defecto. Inicializa la coleccin.
+	 * Constructor por defecto. Inicializa la colección.
 	 */
 	public Aulas() {
-		coleccionAulas = new ArrayList<Aula>();
+		coleccionAulas = new HashMap<String, Aula>();
+		ordenAulas = new ListaIndexada<Aula>();
+		aulasPorPuestos = new TreeMap<Integer, Map<String, Aula>>();
 	}
 
 	/**
@@ -40,28 +55,54 @@ public class Aulas {
 	}
 
 	/**
-	 * Guarda en la coleccin actual de aulas los que hay en la recibida como
-	 * parmetro
+	 * Guarda en la colección actual de aulas los que hay en la recibida como
+	 * parámetro
 	 * 
 	 * @param aulas
-	 *            la coleccin a copiar
+	 *            la colección a copiar
 	 * @throws IllegalArgumentException
 	 *             si se intenta copiar un conjunto de aulas nulas
 	 */
 	private void setAulas(Aulas aulas) throws IllegalArgumentException {
 		if (aulas == null)
 			throw new IllegalArgumentException("No se pueden copiar aulas nulas.");
-		this.coleccionAulas = copiaProfundaAulas(aulas.getAulas());
+		this.coleccionAulas = new HashMap<String, Aula>();
+		this.ordenAulas = new ListaIndexada<Aula>();
+		this.aulasPorPuestos = new TreeMap<Integer, Map<String, Aula>>();
+		for (Aula a : aulas.ordenAulas)
+			guardar(new Aula(a));
+	}
+
+	/**
+	 * Guarda un aula en la colección, en la lista ordenada y en el índice por
+	 * puestos. Si ya existía un aula con ese nombre la sustituye
+	 * 
+	 * @param aula
+	 *            el aula a guardar
+	 */
+	private void guardar(Aula aula) {
+		Aula anterior = coleccionAulas.put(aula.getNombre(), aula);
+		if (anterior != null) {
+			ordenAulas.quitar(anterior);
+			quitarDePuestos(anterior);
+		}
+		ordenAulas.add(aula);
+		Map<String, Aula> mismosPuestos = aulasPorPuestos.get(aula.getPuestos());
+		if (mismosPuestos == null) {
+			mismosPuestos = new LinkedHashMap<String, Aula>();
+			aulasPorPuestos.put(aula.getPuestos(), mismosPuestos);
+		}
+		mismosPuestos.put(aula.getNombre(), aula);
 	}
 
 	/**
 	 * Realiza la copia en profundidad de cada profesor para evitar aliasing
 	 * 
 	 * @param coleccionAulas
-	 *            la coleccin de aulas a copiar
-	 * @return una copia de la coleccin
+	 *            la colección de aulas a copiar
+	 * @return una copia de la colección
 	 */
-	private List<Aula> copiaProfundaAulas(List<Aula> aulas) {
+	private List<Aula> copiaProfundaAulas(Collection<Aula> aulas) {
 		List<Aula> copia = new ArrayList<Aula>();
 		for (Aula a : aulas)
 			copia.add(new Aula(a));
@@ -69,25 +110,44 @@ public class Aulas {
 	}
 
 	/**
-	 * Obtiene todas las aulas de la coleccin actual
+	 * Obtiene todas las aulas de la colección actual
 	 * 
-	 * @return una copia de la coleccin
+	 * @return una copia de la colección
 	 */
 	public List<Aula> getAulas() {
-		return copiaProfundaAulas(this.coleccionAulas);
+		return copiaProfundaAulas(this.ordenAulas);
+	}
+
+	/**
+	 * Sustituye las aulas de la colección por las indicadas, sin comprobar si se
+	 * repiten. Se usa al cargar una instantánea
+	 * 
+	 * @param aulas
+	 *            las aulas a cargar
+	 * @throws IllegalArgumentException
+	 *             si la colección es nula
+	 */
+	public void cargar(Collection<Aula> aulas) throws IllegalArgumentException {
+		if (aulas == null)
+			throw new IllegalArgumentException("No se pueden cargar aulas nulas.");
+		this.coleccionAulas = new HashMap<String, Aula>(aulas.size() * 4 / 3 + 1);
+		this.ordenAulas = new ListaIndexada<Aula>();
+		this.aulasPorPuestos = new TreeMap<Integer, Map<String, Aula>>();
+		for (Aula a : aulas)
+			guardar(a);
 	}
 
 	/**
-	 * Obtiene el nmero de aulas que existen en la coleccin actual
+	 * Obtiene el número de aulas que existen en la colección actual
 	 * 
-	 * @return el nmero de aulas
+	 * @return el número de aulas
 	 */
 	public int getNumAulas() {
 		return this.coleccionAulas.size();
 	}
 
 	/**
-	 * Guarda un aula en la coleccin
+	 * Guarda un aula en la colección
 	 * 
 	 * @param aula
 	 *            el aula a guardar
@@ -99,13 +159,13 @@ public class Aulas {
 	public void insertar(Aula aula) throws OperationNotSupportedException, IllegalArgumentException {
 		if (aula == null)
 			throw new IllegalArgumentException("No se puede insertar un aula nula.");
-		if (this.coleccionAulas.contains(aula))
+		if (this.coleccionAulas.containsKey(aula.getNombre()))
 			throw new OperationNotSupportedException("El aula ya existe.");
-		coleccionAulas.add(aula);
+		guardar(aula);
 	}
 
 	/**
-	 * Busca un aula en la coleccin
+	 * Busca un aula en la colección
 	 * 
 	 * @param aula
 	 *            el aula a buscar
@@ -114,13 +174,11 @@ public class Aulas {
 	public Aula buscar(Aula aula) {
 		if (aula == null)
 			return null;
-		if (this.coleccionAulas.indexOf(aula) == -1)
-			return null;
-		return this.coleccionAulas.get(this.coleccionAulas.indexOf(aula));
+		return this.coleccionAulas.get(aula.getNombre());
 	}
 
 	/**
-	 * Borra un aula de la coleccin
+	 * Borra un aula de la colección
 	 * 
 	 * @param aula
 	 *            el aula a borrar
@@ -132,20 +190,78 @@ public class Aulas {
 	public void borrar(Aula aula) throws OperationNotSupportedException, IllegalArgumentException {
 		if (aula == null)
 			throw new IllegalArgumentException("No se puede borrar un aula nula.");
-		if (!this.coleccionAulas.remove(aula))
+		Aula borrada = this.coleccionAulas.remove(aula.getNombre());
+		if (borrada == null)
 			throw new OperationNotSupportedException("El aula a borrar no existe.");
+		ordenAulas.quitar(borrada);
+		quitarDePuestos(borrada);
 	}
 
 	/**
-	 * Obtiene las salidas de todas las aulas de la coleccin
+	 * Quita un aula guardada del índice por puestos
+	 * 
+	 * @param aula
+	 *            el aula guardada
+	 */
+	private void quitarDePuestos(Aula aula) {
+		Map<String, Aula> mismosPuestos = aulasPorPuestos.get(aula.getPuestos());
+		mismosPuestos.remove(aula.getNombre());
+		if (mismosPuestos.isEmpty())
+			aulasPorPuestos.remove(aula.getPuestos());
+	}
+
+	/**
+	 * Obtiene las aulas que tienen al menos el número de puestos indicado,
+	 * ordenadas de menor a mayor número de puestos. Las aulas con los mismos
+	 * puestos aparecen en el orden en que se insertaron
+	 * 
+	 * @param puestos
+	 *            el número mínimo de puestos
+	 * @return una copia de las aulas con capacidad suficiente
+	 */
+	public List<Aula> getAulasConPuestos(int puestos) {
+		List<Aula> conPuestos = new ArrayList<Aula>();
+		for (Map<String, Aula> mismosPuestos : aulasPorPuestos.tailMap(puestos, true).values())
+			conPuestos.addAll(copiaProfundaAulas(mismosPuestos.values()));
+		return conPuestos;
+	}
+
+	/**
+	 * Obtiene las salidas de todas las aulas de la colección
 	 * 
 	 * @return la salida de las aulas
 	 */
 	public List<String> representar() {
 		List<String> representar = new ArrayList<String>();
-		for (Aula a : this.coleccionAulas)
+		for (Aula a : this.ordenAulas)
 			representar.add(a.toString());
 		return representar;
 	}
 
+	/**
+	 * Obtiene las salidas de una página de aulas de la colección, en el mismo
+	 * orden que representar
+	 *
+	 * @param desde
+	 *            la posición de la primera aula de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de aulas de la página
+	 * @return la salida de las aulas de la página, vacía si desde está después
+	 *         del final
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representar(int desde, int cantidad) throws IllegalArgumentException {
+		if (desde < 0)
+			throw new IllegalArgumentException("La posición de la página no puede ser negativa.");
+		if (cantidad < 0)
+			throw new IllegalArgumentException("El tamaño de la página no puede ser negativo.");
+		List<String> representar = new ArrayList<String>();
+		// La lista encuentra la primera aula de la página sin recorrer las anteriores
+		Iterator<Aula> iterador = this.ordenAulas.iterator(desde);
+		while (representar.size() < cantidad && iterador.hasNext())
+			representar.add(iterador.next().toString());
+		return representar;
+	}
+
 }
@@ -0,0 +1,48 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+
+/**
+ * Excepción que se lanza cuando alguna de las reservas de una reserva periódica
+ * no se puede realizar. En ese caso no se realiza ninguna, y la excepción
+ * indica el motivo por el que falla cada día.
+ * 
+ * @see ReservaPeriodica
+ * @see Reservas
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ */
+public class ConflictosReservaPeriodicaException extends OperationNotSupportedException {
+
+	private static final long serialVersionUID = 1L;
+	private final SortedMap<LocalDate, String> conflictos;
+
+	/**
+	 * Constructor de la clase
+	 * 
+	 * @param conflictos
+	 *            el motivo por el que falla la reserva de cada día con conflicto
+	 */
+	public ConflictosReservaPeriodicaException(SortedMap<LocalDate, String> conflictos) {
+		super("No se ha realizado ninguna reserva de la serie: " + conflictos.size()
+				+ (conflictos.size() == 1 ? " día tiene conflictos." : " días tienen conflictos."));
+		this.conflictos = Collections.unmodifiableSortedMap(new TreeMap<LocalDate, String>(conflictos));
+	}
+
+	/**
+	 * Obtiene los días con conflictos y el motivo de cada uno
+	 * 
+	 * @return los conflictos ordenados por día
+	 */
+	public SortedMap<LocalDate, String> getConflictos() {
+		return conflictos;
+	}
+
+}
@@ -0,0 +1,83 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.stream.Stream;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+
+/**
+ *
+ * Interfaz de las colecciones de reservas
+ *
+ * @see Reservas
+ * @see ReservasColumnar
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public interface IReservas {
+
+	List<Reserva> getReservas();
+
+	void cargar(Collection<Reserva> reservas) throws IllegalArgumentException;
+
+	int getNumReservas();
+
+	void insertar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException;
+
+	void recuperar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException;
+
+	List<Reserva> insertarPeriodica(ReservaPeriodica serie)
+			throws ConflictosReservaPeriodicaException, IllegalArgumentException;
+
+	List<Reserva> recuperarPeriodica(ReservaPeriodica serie)
+			throws ConflictosReservaPeriodicaException, IllegalArgumentException;
+
+	SortedMap<LocalDate, String> comprobarPeriodica(ReservaPeriodica serie) throws IllegalArgumentException;
+
+	float getPuntosGastados(Profesor profesor, YearMonth mes) throws IllegalArgumentException;
+
+	Reserva buscar(Reserva reserva);
+
+	void borrar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException;
+
+	List<Reserva> borrarReservasAula(Aula aula) throws IllegalArgumentException;
+
+	List<Reserva> borrarReservasProfesor(Profesor profesor) throws IllegalArgumentException;
+
+	List<Reserva> borrarReservasAnteriores(LocalDate dia) throws IllegalArgumentException;
+
+	List<String> representar();
+
+	List<String> representar(int desde, int cantidad) throws IllegalArgumentException;
+
+	List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException;
+
+	List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException;
+
+	Stream<Reserva> getReservas(LocalDate desde, LocalDate hasta) throws IllegalArgumentException;
+
+	Stream<Reserva> getReservasAula(Aula aula, LocalDate desde, LocalDate hasta) throws IllegalArgumentException;
+
+	Stream<Reserva> getReservasProfesor(Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException;
+
+	List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException;
+
+	boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException;
+
+	boolean estaLibre(Aula aula, Permanencia permanencia) throws IllegalArgumentException;
+
+	List<Permanencia> getPermanenciasLibres(Aula aula, LocalDate dia) throws IllegalArgumentException;
+
+}
\ No newline at end of file
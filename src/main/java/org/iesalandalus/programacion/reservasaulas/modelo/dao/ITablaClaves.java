@@ -0,0 +1,22 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+/**
+ *
+ * Interfaz de las tablas de claves long a valores long que usa
+ * ReservasCodificadas, guardadas en memoria o en un fichero
+ *
+ * @see TablaPrimitiva
+ * @see TablaMapeada
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+interface ITablaClaves {
+
+	long get(long clave, long porDefecto);
+
+	void put(long clave, long valor);
+
+	void remove(long clave);
+
+}
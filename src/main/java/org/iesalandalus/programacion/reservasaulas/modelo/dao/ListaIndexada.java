@@ -0,0 +1,268 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lista de elementos en el orden en que se añadieron que permite quitar
+ * cualquiera de ellos sin recorrerla ni mover los demás. Al quitar un elemento
+ * su hueco se queda vacío, y un árbol de Fenwick cuenta los elementos que hay
+ * hasta cada hueco, así que el elemento de una posición se encuentra en
+ * O(log n). Cuando hay más huecos que elementos la lista se compacta, con lo
+ * que añadir y quitar cuestan O(log n) amortizado.
+ *
+ * Los elementos se quitan por identidad: hay que pasar el mismo objeto que se
+ * añadió. No admite elementos nulos ni repetidos.
+ *
+ * @param <E>
+ *            el tipo de los elementos
+ * @see Reservas
+ * @see Aulas
+ * @see Profesores
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+class ListaIndexada<E> extends AbstractList<E> {
+
+	private static final int CAPACIDAD_INICIAL = 16;
+
+	// Los elementos en orden, con null en los huecos de los quitados
+	private List<E> huecos;
+	// Hueco de cada elemento
+	private Map<E, Integer> indices;
+	// Árbol de Fenwick sobre los huecos, empezando en 1: cada posición cuenta
+	// los elementos de un tramo de huecos
+	private int[] arbol;
+	private int tamano;
+
+	/**
+	 * Constructor por defecto. Crea la lista vacía
+	 */
+	ListaIndexada() {
+		this(new ArrayList<E>());
+	}
+
+	/**
+	 * Constructor con los elementos iniciales. Cuesta O(n)
+	 *
+	 * @param elementos
+	 *            los elementos, en orden
+	 */
+	ListaIndexada(Collection<E> elementos) {
+		huecos = new ArrayList<E>(elementos);
+		compactar();
+	}
+
+	/**
+	 * Obtiene el número de elementos de la lista
+	 *
+	 * @return el número de elementos
+	 */
+	@Override
+	public int size() {
+		return tamano;
+	}
+
+	/**
+	 * Añade un elemento al final de la lista
+	 *
+	 * @param elemento
+	 *            el elemento a añadir
+	 * @return true
+	 * @throws IllegalArgumentException
+	 *             si el elemento es nulo
+	 */
+	@Override
+	public boolean add(E elemento) throws IllegalArgumentException {
+		if (elemento == null)
+			throw new IllegalArgumentException("No se puede añadir un elemento nulo.");
+		int hueco = huecos.size();
+		huecos.add(elemento);
+		indices.put(elemento, hueco);
+		tamano++;
+		modCount++;
+		if (hueco + 1 < arbol.length)
+			sumar(hueco, 1);
+		else
+			construirArbol();
+		return true;
+	}
+
+	/**
+	 * Quita un elemento de la lista sin mover los demás
+	 *
+	 * @param elemento
+	 *            el mismo objeto que se añadió
+	 * @return true si estaba en la lista, false si no
+	 */
+	boolean quitar(E elemento) {
+		Integer hueco = indices.remove(elemento);
+		if (hueco == null)
+			return false;
+		huecos.set(hueco, null);
+		tamano--;
+		modCount++;
+		sumar(hueco, -1);
+		if (huecos.size() - tamano > tamano)
+			compactar();
+		return true;
+	}
+
+	/**
+	 * Obtiene el elemento de una posición en O(log n)
+	 *
+	 * @param posicion
+	 *            la posición, empezando en 0
+	 * @return el elemento
+	 * @throws IndexOutOfBoundsException
+	 *             si la posición no existe
+	 */
+	@Override
+	public E get(int posicion) throws IndexOutOfBoundsException {
+		if (posicion < 0 || posicion >= tamano)
+			throw new IndexOutOfBoundsException("La posición " + posicion + " no existe.");
+		return huecos.get(buscarHueco(posicion));
+	}
+
+	/**
+	 * Obtiene un número que ordena un elemento respecto a los demás como en la
+	 * lista, sin calcular su posición
+	 *
+	 * @param elemento
+	 *            el mismo objeto que se añadió
+	 * @return el orden del elemento, o -1 si no está en la lista
+	 */
+	int getOrden(E elemento) {
+		Integer hueco = indices.get(elemento);
+		return hueco == null ? -1 : hueco;
+	}
+
+	/**
+	 * Recorre los elementos en orden
+	 *
+	 * @return el iterador
+	 */
+	@Override
+	public Iterator<E> iterator() {
+		return iterator(0);
+	}
+
+	/**
+	 * Recorre los elementos en orden a partir de una posición. Encontrar la
+	 * posición cuesta O(log n), así que recorrer una página no depende de
+	 * cuántos elementos hay antes
+	 *
+	 * @param desde
+	 *            la posición del primer elemento
+	 * @return el iterador
+	 */
+	Iterator<E> iterator(int desde) {
+		final int inicio = desde < tamano ? buscarHueco(Math.max(desde, 0)) : huecos.size();
+		return new Iterator<E>() {
+			private int hueco = saltarHuecos(inicio);
+			private int modificaciones = modCount;
+
+			public boolean hasNext() {
+				return hueco < huecos.size();
+			}
+
+			public E next() {
+				if (modificaciones != modCount)
+					throw new ConcurrentModificationException();
+				if (hueco >= huecos.size())
+					throw new NoSuchElementException();
+				E elemento = huecos.get(hueco);
+				hueco = saltarHuecos(hueco + 1);
+				return elemento;
+			}
+		};
+	}
+
+	/**
+	 * Obtiene el primer hueco ocupado a partir de uno
+	 *
+	 * @param hueco
+	 *            el hueco desde el que buscar
+	 * @return el primer hueco ocupado, o el número de huecos si no hay más
+	 */
+	private int saltarHuecos(int hueco) {
+		while (hueco < huecos.size() && huecos.get(hueco) == null)
+			hueco++;
+		return hueco;
+	}
+
+	/**
+	 * Busca en el árbol el hueco del elemento de una posición
+	 *
+	 * @param posicion
+	 *            la posición, que debe existir
+	 * @return el hueco, empezando en 0
+	 */
+	private int buscarHueco(int posicion) {
+		int hueco = 0;
+		int restantes = posicion + 1;
+		for (int paso = Integer.highestOneBit(arbol.length - 1); paso > 0; paso >>= 1) {
+			int siguiente = hueco + paso;
+			if (siguiente < arbol.length && arbol[siguiente] < restantes) {
+				hueco = siguiente;
+				restantes -= arbol[siguiente];
+			}
+		}
+		return hueco;
+	}
+
+	/**
+	 * Suma una cantidad a la cuenta de un hueco en el árbol
+	 *
+	 * @param hueco
+	 *            el hueco, empezando en 0
+	 * @param cantidad
+	 *            la cantidad a sumar
+	 */
+	private void sumar(int hueco, int cantidad) {
+		for (int i = hueco + 1; i < arbol.length; i += i & -i)
+			arbol[i] += cantidad;
+	}
+
+	/**
+	 * Quita los huecos vacíos y vuelve a calcular los índices y el árbol
+	 */
+	private void compactar() {
+		List<E> elementos = new ArrayList<E>(tamano);
+		for (E e : huecos)
+			if (e != null)
+				elementos.add(e);
+		huecos = elementos;
+		indices = new IdentityHashMap<E, Integer>();
+		for (int i = 0; i < huecos.size(); i++)
+			if (indices.put(huecos.get(i), i) != null)
+				throw new IllegalArgumentException("La lista no admite elementos repetidos.");
+		tamano = huecos.size();
+		modCount++;
+		construirArbol();
+	}
+
+	/**
+	 * Crea el árbol con capacidad para el doble de huecos de los que hay, en
+	 * O(n)
+	 */
+	private void construirArbol() {
+		arbol = new int[Math.max(CAPACIDAD_INICIAL, 2 * huecos.size()) + 1];
+		for (int i = 1; i < arbol.length; i++) {
+			if (i <= huecos.size() && huecos.get(i - 1) != null)
+				arbol[i]++;
+			int padre = i + (i & -i);
+			if (padre < arbol.length)
+				arbol[padre] += arbol[i];
+		}
+	}
+
+}
@@ -0,0 +1,245 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+
+/**
+ * Clase que guarda la ocupación de cada aula en cada día como un mapa de bits.
+ * Los bits del 0 al 14 representan las horas de las 8 a las 22 y los dos
+ * siguientes los tramos de mañana y de tarde, por lo que un día entero de un
+ * aula cabe en un int.
+ *
+ * @see Reservas
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class OcupacionAulas {
+
+	private static final int NUM_HORAS = PermanenciaPorHora.HORA_FIN - PermanenciaPorHora.HORA_INICIO + 1;
+	private static final int MASCARA_HORAS = (1 << NUM_HORAS) - 1;
+	private static final int MASCARA_TRAMOS = ((1 << Tramo.values().length) - 1) << NUM_HORAS;
+	// nombre del aula -> día (epochDay) -> bits ocupados
+	private Map<String, Map<Long, Integer>> ocupacion;
+
+	/**
+	 * Constructor por defecto. Inicializa el mapa de ocupación.
+	 */
+	public OcupacionAulas() {
+		ocupacion = new HashMap<String, Map<Long, Integer>>();
+	}
+
+	/**
+	 * Obtiene el bit que corresponde a una permanencia
+	 *
+	 * @param permanencia
+	 *            la permanencia de la que obtener el bit
+	 * @return el bit de la hora o del tramo de la permanencia
+	 */
+	private static int getBit(Permanencia permanencia) {
+		if (permanencia instanceof PermanenciaPorHora)
+			return 1 << (((PermanenciaPorHora) permanencia).getHora().getHour() - PermanenciaPorHora.HORA_INICIO);
+		return 1 << (NUM_HORAS + ((PermanenciaPorTramo) permanencia).getTramo().ordinal());
+	}
+
+	/**
+	 * Obtiene los bits ocupados de un aula en un día
+	 *
+	 * @param aula
+	 *            el aula a consultar
+	 * @param dia
+	 *            el día a consultar
+	 * @return los bits ocupados, 0 si el aula está libre todo el día
+	 */
+	private int getBits(Aula aula, LocalDate dia) {
+		Map<Long, Integer> ocupacionAula = ocupacion.get(aula.getNombre());
+		if (ocupacionAula == null)
+			return 0;
+		Integer bits = ocupacionAula.get(dia.toEpochDay());
+		if (bits == null)
+			return 0;
+		return bits;
+	}
+
+	/**
+	 * Guarda los bits ocupados de un aula en un día, quitando las entradas que se
+	 * quedan vacías
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param dia
+	 *            el día
+	 * @param bits
+	 *            los nuevos bits ocupados
+	 */
+	private void setBits(Aula aula, LocalDate dia, int bits) {
+		Map<Long, Integer> ocupacionAula = ocupacion.get(aula.getNombre());
+		if (ocupacionAula == null) {
+			if (bits == 0)
+				return;
+			ocupacionAula = new HashMap<Long, Integer>();
+			ocupacion.put(aula.getNombre(), ocupacionAula);
+		}
+		if (bits == 0)
+			ocupacionAula.remove(dia.toEpochDay());
+		else
+			ocupacionAula.put(dia.toEpochDay(), bits);
+		if (ocupacionAula.isEmpty())
+			ocupacion.remove(aula.getNombre());
+	}
+
+	/**
+	 * Marca un aula como ocupada durante una permanencia
+	 *
+	 * @param aula
+	 *            el aula reservada
+	 * @param permanencia
+	 *            la permanencia reservada
+	 * @throws IllegalArgumentException
+	 *             si el aula o la permanencia son nulas
+	 */
+	public void ocupar(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		comprobar(aula, permanencia);
+		setBits(aula, permanencia.getDia(), getBits(aula, permanencia.getDia()) | getBit(permanencia));
+	}
+
+	/**
+	 * Marca un aula como libre durante una permanencia
+	 *
+	 * @param aula
+	 *            el aula que se libera
+	 * @param permanencia
+	 *            la permanencia que se libera
+	 * @throws IllegalArgumentException
+	 *             si el aula o la permanencia son nulas
+	 */
+	public void liberar(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		comprobar(aula, permanencia);
+		setBits(aula, permanencia.getDia(), getBits(aula, permanencia.getDia()) & ~getBit(permanencia));
+	}
+
+	/**
+	 * Comprueba si un aula está ocupada durante una permanencia
+	 *
+	 * @param aula
+	 *            el aula a consultar
+	 * @param permanencia
+	 *            la permanencia a consultar
+	 * @return true si está ocupada, false si no
+	 * @throws IllegalArgumentException
+	 *             si el aula o la permanencia son nulas
+	 */
+	public boolean estaOcupada(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		comprobar(aula, permanencia);
+		return (getBits(aula, permanencia.getDia()) & getBit(permanencia)) != 0;
+	}
+
+	/**
+	 * Comprueba si un aula se puede reservar durante una permanencia: está libre y
+	 * ese día no tiene reservas del otro tipo de permanencia. Sólo necesita leer
+	 * la ocupación de ese día
+	 *
+	 * @param aula
+	 *            el aula a consultar
+	 * @param permanencia
+	 *            la permanencia a consultar
+	 * @return true si se puede reservar, false si no
+	 * @throws IllegalArgumentException
+	 *             si el aula o la permanencia son nulas
+	 */
+	public boolean estaLibre(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		comprobar(aula, permanencia);
+		int bit = getBit(permanencia);
+		int incompatibles = (bit & MASCARA_HORAS) != 0 ? MASCARA_TRAMOS : MASCARA_HORAS;
+		return (getBits(aula, permanencia.getDia()) & (bit | incompatibles)) == 0;
+	}
+
+	/**
+	 * Comprueba si un aula tiene alguna reserva por hora en un día
+	 *
+	 * @param aula
+	 *            el aula a consultar
+	 * @param dia
+	 *            el día a consultar
+	 * @return true si hay alguna hora ocupada ese día, false si no
+	 */
+	public boolean tieneReservasPorHora(Aula aula, LocalDate dia) {
+		return (getBits(aula, dia) & MASCARA_HORAS) != 0;
+	}
+
+	/**
+	 * Comprueba si un aula tiene alguna reserva por tramo en un día
+	 *
+	 * @param aula
+	 *            el aula a consultar
+	 * @param dia
+	 *            el día a consultar
+	 * @return true si hay algún tramo ocupado ese día, false si no
+	 */
+	public boolean tieneReservasPorTramo(Aula aula, LocalDate dia) {
+		return (getBits(aula, dia) & MASCARA_TRAMOS) != 0;
+	}
+
+	/**
+	 * Obtiene las permanencias en las que un aula se puede reservar un día. Si el
+	 * aula ya tiene reservas por hora ese día sólo se devuelven horas, si las tiene
+	 * por tramo sólo tramos, y si está libre se devuelven ambas
+	 *
+	 * @param aula
+	 *            el aula a consultar
+	 * @param dia
+	 *            el día a consultar
+	 * @return las permanencias libres
+	 * @throws IllegalArgumentException
+	 *             si el aula o el día son nulos
+	 */
+	public List<Permanencia> getPermanenciasLibres(Aula aula, LocalDate dia) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se puede consultar la ocupación de un aula nula.");
+		if (dia == null)
+			throw new IllegalArgumentException("No se puede consultar la ocupación de un día nulo.");
+		int bits = getBits(aula, dia);
+		List<Permanencia> libres = new ArrayList<Permanencia>();
+		if ((bits & MASCARA_TRAMOS) == 0) {
+			for (int i = 0; i < NUM_HORAS; i++) {
+				if ((bits & (1 << i)) == 0)
+					libres.add(new PermanenciaPorHora(dia, LocalTime.of(PermanenciaPorHora.HORA_INICIO + i, 0)));
+			}
+		}
+		if ((bits & MASCARA_HORAS) == 0) {
+			for (Tramo tramo : Tramo.values()) {
+				if ((bits & (1 << (NUM_HORAS + tramo.ordinal()))) == 0)
+					libres.add(new PermanenciaPorTramo(dia, tramo));
+			}
+		}
+		return libres;
+	}
+
+	/**
+	 * Comprueba que el aula y la permanencia no son nulas
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param permanencia
+	 *            la permanencia
+	 * @throws IllegalArgumentException
+	 *             si alguna es nula
+	 */
+	private void comprobar(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se puede consultar la ocupación de un aula nula.");
+		if (permanencia == null)
+			throw new IllegalArgumentException("No se puede consultar la ocupación de una permanencia nula.");
+	}
+
+}
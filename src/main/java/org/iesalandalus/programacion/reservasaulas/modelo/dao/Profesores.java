@@ -1,7 +1,11 @@
 package org.iesalandalus.programacion.reservasaulas.modelo.dao;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.naming.OperationNotSupportedException;
 
@@ -18,13 +22,18 @@ import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
  */
 public class Profesores {
 
-	private List<Profesor> coleccionProfesores;
+	// Indexados por nombre
+	private Map<String, Profesor> coleccionProfesores;
+	// Los mismos profesores en el orden en que se insertaron, con acceso por
+	// posición
+	private ListaIndexada<Profesor> ordenProfesores;
 
 	/**
-	 * Constructor por defecto. Inicializa la coleccin de profesores.
+	 * Constructor por defecto. Inicializa la colección de profesores.
 	 */
 	public Profesores() {
-		coleccionProfesores = new ArrayList<Profesor>();
+		coleccionProfesores = new HashMap<String, Profesor>();
+		ordenProfesores = new ListaIndexada<Profesor>();
 	}
 
 	/**
@@ -40,28 +49,45 @@ public class Profesores {
 	}
 
 	/**
-	 * Guarda en la coleccin actual de profesores los que hay en la recibida como
-	 * parmetro
+	 * Guarda en la colección actual de profesores los que hay en la recibida como
+	 * parámetro
 	 * 
 	 * @param profesores
-	 *            la coleccin a copiar
+	 *            la colección a copiar
 	 * @throws IllegalArgumentException
 	 *             si se intenta copiar un conjunto de profesores nulos
 	 */
 	private void setProfesores(Profesores profesores) throws IllegalArgumentException {
 		if (profesores == null)
 			throw new IllegalArgumentException("No se pueden copiar profesores nulos.");
-		this.coleccionProfesores = copiaProfundaProfesores(profesores.getProfesores());
+		this.coleccionProfesores = new HashMap<String, Profesor>();
+		this.ordenProfesores = new ListaIndexada<Profesor>();
+		for (Profesor p : profesores.ordenProfesores)
+			guardar(new Profesor(p));
+	}
+
+	/**
+	 * Guarda un profesor en la colección y en la lista ordenada. Si ya existía un
+	 * profesor con ese nombre lo sustituye
+	 * 
+	 * @param profesor
+	 *            el profesor a guardar
+	 */
+	private void guardar(Profesor profesor) {
+		Profesor anterior = coleccionProfesores.put(profesor.getNombre(), profesor);
+		if (anterior != null)
+			ordenProfesores.quitar(anterior);
+		ordenProfesores.add(profesor);
 	}
 
 	/**
 	 * Realiza la copia en profundidad de cada profesor para evitar aliasing
 	 * 
 	 * @param profesores
-	 *            la coleccin de profesores a copiar
-	 * @return una copia de la coleccin
+	 *            la colección de profesores a copiar
+	 * @return una copia de la colección
 	 */
-	private List<Profesor> copiaProfundaProfesores(List<Profesor> profesores) {
+	private List<Profesor> copiaProfundaProfesores(Collection<Profesor> profesores) {
 		List<Profesor> copia = new ArrayList<Profesor>();
 		for (Profesor p : profesores)
 			copia.add(new Profesor(p));
@@ -69,26 +95,44 @@ public class Profesores {
 	}
 
 	/**
-	 * Obtiene todos los profesores de la coleccin actual. Realiza una copia para
+	 * Obtiene todos los profesores de la colección actual. Realiza una copia para
 	 * evitar aliasing
 	 * 
-	 * @return una copia de la coleccin
+	 * @return una copia de la colección
 	 */
 	public List<Profesor> getProfesores() {
-		return copiaProfundaProfesores(this.coleccionProfesores);
+		return copiaProfundaProfesores(this.ordenProfesores);
+	}
+
+	/**
+	 * Sustituye los profesores de la colección por los indicados, sin comprobar
+	 * si se repiten. Se usa al cargar una instantánea
+	 * 
+	 * @param profesores
+	 *            los profesores a cargar
+	 * @throws IllegalArgumentException
+	 *             si la colección es nula
+	 */
+	public void cargar(Collection<Profesor> profesores) throws IllegalArgumentException {
+		if (profesores == null)
+			throw new IllegalArgumentException("No se pueden cargar profesores nulos.");
+		this.coleccionProfesores = new HashMap<String, Profesor>(profesores.size() * 4 / 3 + 1);
+		this.ordenProfesores = new ListaIndexada<Profesor>();
+		for (Profesor p : profesores)
+			guardar(p);
 	}
 
 	/**
-	 * Obtiene el nmero de profesores que existen en la coleccin actual
+	 * Obtiene el número de profesores que existen en la colección actual
 	 * 
-	 * @return el nmero de profesores
+	 * @return el número de profesores
 	 */
 	public int getNumProfesores() {
 		return this.coleccionProfesores.size();
 	}
 
 	/**
-	 * Guarda un profesor en la coleccin
+	 * Guarda un profesor en la colección
 	 * 
 	 * @param profesor
 	 *            el profesor a guardar
@@ -100,13 +144,13 @@ public class Profesores {
 	public void insertar(Profesor profesor) throws OperationNotSupportedException, IllegalArgumentException {
 		if (profesor == null)
 			throw new IllegalArgumentException("No se puede insertar un profesor nulo.");
-		if (this.coleccionProfesores.contains(profesor))
+		if (this.coleccionProfesores.containsKey(profesor.getNombre()))
 			throw new OperationNotSupportedException("El profesor ya existe.");
-		coleccionProfesores.add(profesor);
+		guardar(profesor);
 	}
 
 	/**
-	 * Busca un profesor en la coleccin
+	 * Busca un profesor en la colección
 	 * 
 	 * @param profesor
 	 *            el profesor a buscar
@@ -115,13 +159,11 @@ public class Profesores {
 	public Profesor buscar(Profesor profesor) {
 		if (profesor == null)
 			return null;
-		if (this.coleccionProfesores.indexOf(profesor) == -1)
-			return null;
-		return this.coleccionProfesores.get(this.coleccionProfesores.indexOf(profesor));
+		return this.coleccionProfesores.get(profesor.getNombre());
 	}
 
 	/**
-	 * Borra un profesor de la coleccin
+	 * Borra un profesor de la colección
 	 * 
 	 * @param profesor
 	 *            el profesor a borrar
@@ -133,20 +175,49 @@ public class Profesores {
 	public void borrar(Profesor profesor) throws OperationNotSupportedException, IllegalArgumentException {
 		if (profesor == null)
 			throw new IllegalArgumentException("No se puede borrar un profesor nulo.");
-		if (!this.coleccionProfesores.remove(profesor))
+		Profesor borrado = this.coleccionProfesores.remove(profesor.getNombre());
+		if (borrado == null)
 			throw new OperationNotSupportedException("El profesor a borrar no existe.");
+		ordenProfesores.quitar(borrado);
 	}
 
 	/**
-	 * Obtiene las salidas de todos los profesores de la coleccin
+	 * Obtiene las salidas de todos los profesores de la colección
 	 * 
 	 * @return la salida de los profesores
 	 */
 	public List<String> representar() {
 		List<String> representar = new ArrayList<String>();
-		for (Profesor p : this.coleccionProfesores)
+		for (Profesor p : this.ordenProfesores)
 			representar.add(p.toString());
 		return representar;
 	}
 
+	/**
+	 * Obtiene las salidas de una página de profesores de la colección, en el mismo
+	 * orden que representar
+	 *
+	 * @param desde
+	 *            la posición del primer profesor de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de profesores de la página
+	 * @return la salida de los profesores de la página, vacía si desde está después
+	 *         del final
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representar(int desde, int cantidad) throws IllegalArgumentException {
+		if (desde < 0)
+			throw new IllegalArgumentException("La posición de la página no puede ser negativa.");
+		if (cantidad < 0)
+			throw new IllegalArgumentException("El tamaño de la página no puede ser negativo.");
+		List<String> representar = new ArrayList<String>();
+		// La lista encuentra el primer profesor de la página sin recorrer los
+		// anteriores
+		Iterator<Profesor> iterador = this.ordenProfesores.iterator(desde);
+		while (representar.size() < cantidad && iterador.hasNext())
+			representar.add(iterador.next().toString());
+		return representar;
+	}
+
 }
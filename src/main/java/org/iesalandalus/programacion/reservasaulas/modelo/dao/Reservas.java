@@ -1,14 +1,28 @@
 package org.iesalandalus.programacion.reservasaulas.modelo.dao;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import javax.naming.OperationNotSupportedException;
 
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
@@ -18,20 +32,43 @@ import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Pe
  * conjunto de reservas.
  *
  * @see Reserva
+ * @see IReservas
  * @author Juan Antonio Manzano Plaza
  * @version 2
  *
  */
-public class Reservas {
+public class Reservas implements IReservas {
 
-	private static final float MAX_PUNTOS_PROFESOR_MES = 200f;
-	private List<Reserva> coleccionReservas;
+	public static final float MAX_PUNTOS_PROFESOR_MES = 200f;
+	// Convierte cada lista de reservas de un día en una secuencia, para recorrer
+	// seguidas las de varios días
+	private static final Function<List<Reserva>, Stream<Reserva>> APLANAR = new Function<List<Reserva>, Stream<Reserva>>() {
+		public Stream<Reserva> apply(List<Reserva> reservasDia) {
+			return reservasDia.stream();
+		}
+	};
+	// En el orden en que se realizaron. Se pueden borrar sin recorrerlas
+	private ListaIndexada<Reserva> coleccionReservas;
+	// Índices secundarios ordenados por día: día -> reservas de ese día, en total,
+	// por nombre del aula y por nombre del profesor
+	private NavigableMap<LocalDate, List<Reserva>> reservasDia;
+	private Map<String, NavigableMap<LocalDate, List<Reserva>>> reservasAulaDia;
+	private Map<String, NavigableMap<LocalDate, List<Reserva>>> reservasProfesorDia;
+	// Puntos gastados: nombre del profesor -> mes -> puntos de sus reservas ese mes
+	private Map<String, Map<YearMonth, Float>> puntosProfesorMes;
+	// Horas y tramos ocupados de cada aula cada día
+	private OcupacionAulas ocupacion;
 
 	/**
-	 * Constructor por defecto. Inicializa la coleccin de profesores
+	 * Constructor por defecto. Inicializa la colección de profesores
 	 */
 	public Reservas() {
-		coleccionReservas = new ArrayList<Reserva>();
+		coleccionReservas = new ListaIndexada<Reserva>();
+		reservasDia = new TreeMap<LocalDate, List<Reserva>>();
+		reservasAulaDia = new HashMap<String, NavigableMap<LocalDate, List<Reserva>>>();
+		reservasProfesorDia = new HashMap<String, NavigableMap<LocalDate, List<Reserva>>>();
+		puntosProfesorMes = new HashMap<String, Map<YearMonth, Float>>();
+		ocupacion = new OcupacionAulas();
 	}
 
 	/**
@@ -47,26 +84,45 @@ public class Reservas {
 	}
 
 	/**
-	 * Guarda en la coleccin actual de reservas los que hay en la coleccin
-	 * recibida como parmetro
+	 * Guarda en la colección actual de reservas los que hay en la colección
+	 * recibida como parámetro
 	 *
 	 * @param reservas
-	 *            la coleccin a copiar
+	 *            la colección a copiar
 	 * @throws IllegalArgumentException
 	 *             si se intenta copiar un conjunto de reservas nulo
 	 */
 	private void setReservas(Reservas reservas) throws IllegalArgumentException {
 		if (reservas == null)
 			throw new IllegalArgumentException("No se pueden copiar reservas nulas.");
-		this.coleccionReservas = copiaProfundaReservas(reservas.getReservas());
+		this.coleccionReservas = new ListaIndexada<Reserva>(copiaProfundaReservas(reservas.coleccionReservas));
+		reconstruirIndices();
 	}
 
 	/**
-	 * Realiza la copia en profundidad de cada reserva para evitar aliasing
+	 * Vuelve a calcular los índices por día, los puntos gastados y la ocupación
+	 * de las aulas a partir de la colección de reservas
+	 */
+	private void reconstruirIndices() {
+		this.reservasDia = new TreeMap<LocalDate, List<Reserva>>();
+		this.reservasAulaDia = new HashMap<String, NavigableMap<LocalDate, List<Reserva>>>();
+		this.reservasProfesorDia = new HashMap<String, NavigableMap<LocalDate, List<Reserva>>>();
+		this.puntosProfesorMes = new HashMap<String, Map<YearMonth, Float>>();
+		this.ocupacion = new OcupacionAulas();
+		for (Reserva r : this.coleccionReservas) {
+			indexar(r);
+			actualizarPuntos(r, r.getPuntos());
+			ocupacion.ocupar(r.getAula(), r.getPermanencia());
+		}
+	}
+
+	/**
+	 * Realiza la copia de cada reserva para evitar aliasing. Como las reservas son
+	 * inmutables la copia no necesita duplicar su profesor, aula ni permanencia
 	 *
 	 * @param reservas
-	 *            la coleccin de reservas a copiar
-	 * @return una copia de la coleccin
+	 *            la colección de reservas a copiar
+	 * @return una copia de la colección
 	 */
 	private List<Reserva> copiaProfundaReservas(List<Reserva> reservas) {
 		List<Reserva> copia = new ArrayList<Reserva>();
@@ -76,26 +132,45 @@ public class Reservas {
 	}
 
 	/**
-	 * Obtiene todas las reservas de la coleccin actual. Realiza una copia para
+	 * Obtiene todas las reservas de la colección actual. Realiza una copia para
 	 * evitar aliasing
 	 *
-	 * @return una copia de la coleccin
+	 * @return una copia de la colección
 	 */
 	public List<Reserva> getReservas() {
 		return copiaProfundaReservas(this.coleccionReservas);
 	}
 
 	/**
-	 * Obtiene el nmero de reservas que existen en la coleccin actual
+	 * Sustituye las reservas de la colección por las indicadas sin comprobar
+	 * ninguna restricción, y recalcula los índices en una sola pasada. Las
+	 * reservas deben haberse aceptado antes, como las de una instantánea, ya que
+	 * dos reservas sobre el mismo aula y permanencia dejarían la colección en un
+	 * estado inconsistente
 	 *
-	 * @return el nmero de reservas
+	 * @param reservas
+	 *            las reservas a cargar
+	 * @throws IllegalArgumentException
+	 *             si la colección es nula
+	 */
+	public void cargar(Collection<Reserva> reservas) throws IllegalArgumentException {
+		if (reservas == null)
+			throw new IllegalArgumentException("No se pueden cargar reservas nulas.");
+		this.coleccionReservas = new ListaIndexada<Reserva>(reservas);
+		reconstruirIndices();
+	}
+
+	/**
+	 * Obtiene el número de reservas que existen en la colección actual
+	 *
+	 * @return el número de reservas
 	 */
 	public int getNumReservas() {
 		return this.coleccionReservas.size();
 	}
 
 	/**
-	 * Guarda una reserva en la coleccin
+	 * Guarda una reserva en la colección
 	 *
 	 * @param reserva
 	 *            la reserva a guardar
@@ -105,31 +180,325 @@ public class Reservas {
 	 *             si la reserva ya existe
 	 */
 	public void insertar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
-		// Comprobamos que es una reserva vlida
+		insertar(reserva, true);
+	}
+
+	/**
+	 * Guarda una reserva que ya fue aceptada anteriormente, por ejemplo al
+	 * recuperar las reservas guardadas en disco. No comprueba que sea para el mes
+	 * siguiente o posteriores, ya que esa restricción depende del día en que se
+	 * realizó la reserva, pero sí el resto de restricciones.
+	 *
+	 * @param reserva
+	 *            la reserva a recuperar
+	 * @throws IllegalArgumentException
+	 *             si la reserva es nula
+	 * @throws OperationNotSupportedException
+	 *             si la reserva ya existe o no cumple el resto de restricciones
+	 */
+	public void recuperar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
+		insertar(reserva, false);
+	}
+
+	/**
+	 * Comprueba las restricciones de una reserva y la guarda en la colección
+	 *
+	 * @param reserva
+	 *            la reserva a guardar
+	 * @param comprobarMes
+	 *            si hay que comprobar que la reserva es para el mes siguiente o
+	 *            posteriores
+	 * @throws IllegalArgumentException
+	 *             si la reserva es nula
+	 * @throws OperationNotSupportedException
+	 *             si la reserva no cumple alguna restricción
+	 */
+	private void insertar(Reserva reserva, boolean comprobarMes)
+			throws OperationNotSupportedException, IllegalArgumentException {
+		// Comprobamos que es una reserva válida
 		if (reserva == null)
 			throw new IllegalArgumentException("No se puede realizar una reserva nula.");
-		if (this.coleccionReservas.contains(reserva))
-			throw new OperationNotSupportedException("La reserva ya existe.");
-		if (!esMesSiguienteOPosterior(reserva))
-			throw new OperationNotSupportedException(
-					"Slo se pueden hacer reservas para el mes que viene o posteriores.");
-		if (getPuntosGastadosReserva(reserva) > MAX_PUNTOS_PROFESOR_MES)
-			throw new OperationNotSupportedException(
-					"Esta reserva excede los puntos mximos por mes para dicho profesor.");
-		Reserva mismoDia = getReservaDia(reserva.getPermanencia().getDia());
-		if (mismoDia != null) {
-			if (mismoDia.getPermanencia() instanceof PermanenciaPorTramo
-					&& reserva.getPermanencia() instanceof PermanenciaPorHora)
-				throw new OperationNotSupportedException(
-						"Ya se ha realizado una reserva por tramo para este da y aula.");
-			if (mismoDia.getPermanencia() instanceof PermanenciaPorHora
-					&& reserva.getPermanencia() instanceof PermanenciaPorTramo)
-				throw new OperationNotSupportedException(
-						"Ya se ha realizado una reserva por hora para este da y aula.");
-		}
+		String conflicto = comprobar(reserva, comprobarMes, 0f);
+		if (conflicto != null)
+			throw new OperationNotSupportedException(conflicto);
+		// Si ha pasado todas las comprobaciones añadimos la reserva
+		guardar(reserva);
+	}
 
-		// Si ha pasado todas las comprobaciones aadimos la reserva
+	/**
+	 * Comprueba las restricciones de una reserva
+	 *
+	 * @param reserva
+	 *            la reserva a comprobar
+	 * @param comprobarMes
+	 *            si hay que comprobar que la reserva es para el mes siguiente o
+	 *            posteriores
+	 * @param puntosPendientes
+	 *            los puntos de otras reservas del profesor ese mes que todavía no
+	 *            se han guardado pero se van a guardar con esta
+	 * @return el motivo por el que no se puede realizar la reserva, o null si se
+	 *         puede realizar
+	 */
+	private String comprobar(Reserva reserva, boolean comprobarMes, float puntosPendientes) {
+		Aula aula = reserva.getAula();
+		Permanencia permanencia = reserva.getPermanencia();
+		if (ocupacion.estaOcupada(aula, permanencia))
+			return "La reserva ya existe.";
+		if (comprobarMes && !esMesSiguienteOPosterior(reserva))
+			return "Sólo se pueden hacer reservas para el mes que viene o posteriores.";
+		if (getPuntosGastadosReserva(reserva) + puntosPendientes > MAX_PUNTOS_PROFESOR_MES)
+			return "Esta reserva excede los puntos máximos por mes para dicho profesor.";
+		if (permanencia instanceof PermanenciaPorHora && ocupacion.tieneReservasPorTramo(aula, permanencia.getDia()))
+			return "Ya se ha realizado una reserva por tramo para este día y aula.";
+		if (permanencia instanceof PermanenciaPorTramo && ocupacion.tieneReservasPorHora(aula, permanencia.getDia()))
+			return "Ya se ha realizado una reserva por hora para este día y aula.";
+		return null;
+	}
+
+	/**
+	 * Añade a la colección una reserva ya comprobada y actualiza los índices, la
+	 * ocupación y los puntos
+	 *
+	 * @param reserva
+	 *            la reserva a guardar
+	 */
+	private void guardar(Reserva reserva) {
 		coleccionReservas.add(reserva);
+		indexar(reserva);
+		ocupacion.ocupar(reserva.getAula(), reserva.getPermanencia());
+		actualizarPuntos(reserva, reserva.getPuntos());
+	}
+
+	/**
+	 * Realiza todas las reservas de una reserva periódica, o ninguna si alguna no
+	 * cumple las restricciones
+	 *
+	 * @param serie
+	 *            la reserva periódica
+	 * @return las reservas realizadas, ordenadas por día
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 * @throws ConflictosReservaPeriodicaException
+	 *             si alguna reserva de la serie no cumple las restricciones, con
+	 *             el motivo de cada una
+	 */
+	public List<Reserva> insertarPeriodica(ReservaPeriodica serie)
+			throws ConflictosReservaPeriodicaException, IllegalArgumentException {
+		return insertarPeriodica(serie, true);
+	}
+
+	/**
+	 * Guarda todas las reservas de una reserva periódica que ya fue aceptada
+	 * anteriormente, por ejemplo al reproducir el diario. Como recuperar, no
+	 * comprueba que sean para el mes siguiente o posteriores
+	 *
+	 * @param serie
+	 *            la reserva periódica
+	 * @return las reservas guardadas, ordenadas por día
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 * @throws ConflictosReservaPeriodicaException
+	 *             si alguna reserva de la serie no cumple el resto de
+	 *             restricciones, con el motivo de cada una
+	 */
+	public List<Reserva> recuperarPeriodica(ReservaPeriodica serie)
+			throws ConflictosReservaPeriodicaException, IllegalArgumentException {
+		return insertarPeriodica(serie, false);
+	}
+
+	/**
+	 * Comprueba todas las reservas de una reserva periódica y, si todas cumplen
+	 * las restricciones, las guarda
+	 *
+	 * @param serie
+	 *            la reserva periódica
+	 * @param comprobarMes
+	 *            si hay que comprobar que las reservas son para el mes siguiente
+	 *            o posteriores
+	 * @return las reservas guardadas, ordenadas por día
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 * @throws ConflictosReservaPeriodicaException
+	 *             si alguna reserva de la serie no cumple las restricciones
+	 */
+	private List<Reserva> insertarPeriodica(ReservaPeriodica serie, boolean comprobarMes)
+			throws ConflictosReservaPeriodicaException, IllegalArgumentException {
+		SortedMap<LocalDate, String> conflictos = comprobarPeriodica(serie, comprobarMes);
+		if (!conflictos.isEmpty())
+			throw new ConflictosReservaPeriodicaException(conflictos);
+		List<Reserva> realizadas = serie.getReservas();
+		for (Reserva r : realizadas)
+			guardar(r);
+		return realizadas;
+	}
+
+	/**
+	 * Comprueba de una vez todas las reservas de una reserva periódica sin
+	 * guardar ninguna. Los puntos de cada reserva se suman a los de las reservas
+	 * anteriores de la serie en el mismo mes, así que si la serie no cabe en los
+	 * puntos del profesor fallan los últimos días de cada mes
+	 *
+	 * @param serie
+	 *            la reserva periódica a comprobar
+	 * @return el motivo por el que falla cada día de la serie que no se puede
+	 *         reservar, ordenados por día. Vacío si se pueden realizar todas
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 */
+	public SortedMap<LocalDate, String> comprobarPeriodica(ReservaPeriodica serie) throws IllegalArgumentException {
+		return comprobarPeriodica(serie, true);
+	}
+
+	/**
+	 * Comprueba todas las reservas de una reserva periódica sin guardar ninguna
+	 *
+	 * @param serie
+	 *            la reserva periódica a comprobar
+	 * @param comprobarMes
+	 *            si hay que comprobar que las reservas son para el mes siguiente
+	 *            o posteriores
+	 * @return el motivo por el que falla cada día de la serie que no se puede
+	 *         reservar, ordenados por día
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 */
+	private SortedMap<LocalDate, String> comprobarPeriodica(ReservaPeriodica serie, boolean comprobarMes)
+			throws IllegalArgumentException {
+		if (serie == null)
+			throw new IllegalArgumentException("No se puede realizar una reserva periódica nula.");
+		SortedMap<LocalDate, String> conflictos = new TreeMap<LocalDate, String>();
+		Map<YearMonth, Float> puntosPendientes = new HashMap<YearMonth, Float>();
+		for (Reserva r : serie.getReservas()) {
+			YearMonth mes = YearMonth.from(r.getPermanencia().getDia());
+			Float pendientes = puntosPendientes.get(mes);
+			String conflicto = comprobar(r, comprobarMes, pendientes == null ? 0f : pendientes);
+			if (conflicto != null)
+				conflictos.put(r.getPermanencia().getDia(), conflicto);
+			puntosPendientes.put(mes, (pendientes == null ? 0f : pendientes) + r.getPuntos());
+		}
+		return conflictos;
+	}
+
+	/**
+	 * Añade una reserva a los índices por día
+	 *
+	 * @param reserva
+	 *            la reserva a indexar
+	 */
+	private void indexar(Reserva reserva) {
+		indexar(reservasDia, reserva);
+		indexar(reservasAulaDia, reserva.getAula().getNombre(), reserva);
+		indexar(reservasProfesorDia, reserva.getProfesor().getNombre(), reserva);
+	}
+
+	/**
+	 * Añade una reserva al índice por día de un aula o un profesor
+	 *
+	 * @param indice
+	 *            el índice
+	 * @param clave
+	 *            el nombre del aula o del profesor
+	 * @param reserva
+	 *            la reserva a indexar
+	 */
+	private static void indexar(Map<String, NavigableMap<LocalDate, List<Reserva>>> indice, String clave,
+			Reserva reserva) {
+		NavigableMap<LocalDate, List<Reserva>> porDia = indice.get(clave);
+		if (porDia == null) {
+			porDia = new TreeMap<LocalDate, List<Reserva>>();
+			indice.put(clave, porDia);
+		}
+		indexar(porDia, reserva);
+	}
+
+	/**
+	 * Añade una reserva a la lista de su día
+	 *
+	 * @param porDia
+	 *            las reservas por día
+	 * @param reserva
+	 *            la reserva a indexar
+	 */
+	private static void indexar(NavigableMap<LocalDate, List<Reserva>> porDia, Reserva reserva) {
+		LocalDate dia = reserva.getPermanencia().getDia();
+		List<Reserva> delDia = porDia.get(dia);
+		if (delDia == null) {
+			delDia = new ArrayList<Reserva>();
+			porDia.put(dia, delDia);
+		}
+		delDia.add(reserva);
+	}
+
+	/**
+	 * Elimina una reserva de los índices por día, quitando las entradas que se
+	 * quedan vacías
+	 *
+	 * @param reserva
+	 *            la reserva a quitar de los índices
+	 */
+	private void desindexar(Reserva reserva) {
+		desindexar(reservasDia, reserva);
+		desindexar(reservasAulaDia, reserva.getAula().getNombre(), reserva);
+		desindexar(reservasProfesorDia, reserva.getProfesor().getNombre(), reserva);
+	}
+
+	/**
+	 * Elimina una reserva del índice por día de un aula o un profesor
+	 *
+	 * @param indice
+	 *            el índice
+	 * @param clave
+	 *            el nombre del aula o del profesor
+	 * @param reserva
+	 *            la reserva a quitar del índice
+	 */
+	private static void desindexar(Map<String, NavigableMap<LocalDate, List<Reserva>>> indice, String clave,
+			Reserva reserva) {
+		NavigableMap<LocalDate, List<Reserva>> porDia = indice.get(clave);
+		if (porDia == null)
+			return;
+		desindexar(porDia, reserva);
+		if (porDia.isEmpty())
+			indice.remove(clave);
+	}
+
+	/**
+	 * Elimina una reserva de la lista de su día
+	 *
+	 * @param porDia
+	 *            las reservas por día
+	 * @param reserva
+	 *            la reserva a quitar
+	 */
+	private static void desindexar(NavigableMap<LocalDate, List<Reserva>> porDia, Reserva reserva) {
+		LocalDate dia = reserva.getPermanencia().getDia();
+		List<Reserva> delDia = porDia.get(dia);
+		if (delDia == null)
+			return;
+		delDia.remove(reserva);
+		if (delDia.isEmpty())
+			porDia.remove(dia);
+	}
+
+	/**
+	 * Obtiene las reservas realizadas sobre un aula en un día concreto a partir
+	 * del índice
+	 *
+	 * @param aula
+	 *            el aula reservada
+	 * @param dia
+	 *            el día de las reservas
+	 * @return las reservas de ese aula ese día. La lista es la del índice, por lo
+	 *         que no debe modificarse
+	 */
+	private List<Reserva> getReservasAulaDia(Aula aula, LocalDate dia) {
+		NavigableMap<LocalDate, List<Reserva>> reservasAula = reservasAulaDia.get(aula.getNombre());
+		if (reservasAula == null)
+			return new ArrayList<Reserva>();
+		List<Reserva> reservasDia = reservasAula.get(dia);
+		if (reservasDia == null)
+			return new ArrayList<Reserva>();
+		return reservasDia;
 	}
 
 	/**
@@ -140,7 +509,7 @@ public class Reservas {
 	 *            la reserva de la que queremos comprobar la fecha
 	 * @return true si la fecha es del mes siguiente o posterior, false si no
 	 */
-	private boolean esMesSiguienteOPosterior(Reserva aInsertar) {
+	public static boolean esMesSiguienteOPosterior(Reserva aInsertar) {
 		if(aInsertar==null)
 			throw new IllegalArgumentException("La reserva no puede ser nula.");
 		LocalDate mesSiguiente = LocalDate.now().plusMonths(1);
@@ -156,67 +525,66 @@ public class Reservas {
 	 * @param aInsertar
 	 *            la reserva de la que queremos obtener los puntos gastados en ese
 	 *            mes por ese profesor
-	 * @return el nmero de puntos gastadods en el mes de la reserva por el profesor
+	 * @return el número de puntos gastadods en el mes de la reserva por el profesor
 	 *         de la reserva
 	 */
 	private float getPuntosGastadosReserva(Reserva aInsertar) {
 		if(aInsertar==null)
 			throw new IllegalArgumentException("La reserva no puede ser nula.");
-		List<Reserva> reservasProfesor = getReservasProfesorMes(aInsertar.getProfesor(),
-				aInsertar.getPermanencia().getDia());
-		float puntosProfesor = 0f;
-		for (Reserva r : reservasProfesor) {
-			puntosProfesor += r.getPuntos();
-		}
-		return puntosProfesor + aInsertar.getPuntos();
+		return getPuntosGastados(aInsertar.getProfesor(), YearMonth.from(aInsertar.getPermanencia().getDia()))
+				+ aInsertar.getPuntos();
 	}
 
 	/**
-	 * Obtiene las reservas correspondientes al profesor y da obtenidos por
-	 * parmetro
+	 * Obtiene los puntos que ha gastado un profesor en sus reservas de un mes
 	 *
-	 * @param reservador
-	 *            el profesor a cuyo nombre estn las reservas
-	 * @param dia
-	 *            la fecha de la que obtener el mes
-	 * @return una lista con las reservas correspondientes a ese profesor durante el
-	 *         mes
+	 * @param profesor
+	 *            el profesor a cuyo nombre están las reservas
+	 * @param mes
+	 *            el mes del que queremos obtener los puntos
+	 * @return los puntos gastados por el profesor durante ese mes
+	 * @throws IllegalArgumentException
+	 *             si el profesor o el mes son nulos
 	 */
-	private List<Reserva> getReservasProfesorMes(Profesor reservador, LocalDate dia) {
-		if(reservador==null)
+	public float getPuntosGastados(Profesor profesor, YearMonth mes) throws IllegalArgumentException {
+		if (profesor == null)
 			throw new IllegalArgumentException("El profesor no puede ser nulo.");
-		if(dia==null)
-			throw new IllegalArgumentException("El da no puede ser nulo.");
-		List<Reserva> devolver = new ArrayList<Reserva>();
-		for (Reserva reserva : coleccionReservas) {
-			if (reserva.getProfesor().equals(reservador)
-					&& reserva.getPermanencia().getDia().getMonthValue() == dia.getMonthValue()
-					&& reserva.getPermanencia().getDia().getYear() == dia.getYear())
-				devolver.add(reserva);
-		}
-		return devolver;
+		if (mes == null)
+			throw new IllegalArgumentException("El mes no puede ser nulo.");
+		Map<YearMonth, Float> puntosProfesor = puntosProfesorMes.get(profesor.getNombre());
+		if (puntosProfesor == null || !puntosProfesor.containsKey(mes))
+			return 0f;
+		return puntosProfesor.get(mes);
 	}
 
 	/**
-	 * Obtiene una reserva realizada el da obtenido como parmetro
+	 * Suma (o resta si son negativos) los puntos indicados a los gastados por el
+	 * profesor de la reserva en el mes de la reserva
 	 *
-	 * @param dia
-	 *            la fecha de la que queremos obtener una reserva
-	 * @return null si no hay reservas para ese da, la primera reserva que
-	 *         encuentra si la hay
-	 */
-	private Reserva getReservaDia(LocalDate dia) {
-		if(dia==null)
-			throw new IllegalArgumentException("El da no puede ser nulo.");
-		for (Reserva reserva : coleccionReservas) {
-			if (reserva.getPermanencia().getDia().equals(dia))
-				return new Reserva(reserva);
+	 * @param reserva
+	 *            la reserva que se añade o se quita
+	 * @param puntos
+	 *            los puntos a sumar
+	 */
+	private void actualizarPuntos(Reserva reserva, float puntos) {
+		String nombreProfesor = reserva.getProfesor().getNombre();
+		Map<YearMonth, Float> puntosProfesor = puntosProfesorMes.get(nombreProfesor);
+		if (puntosProfesor == null) {
+			puntosProfesor = new HashMap<YearMonth, Float>();
+			puntosProfesorMes.put(nombreProfesor, puntosProfesor);
 		}
-		return null;
+		YearMonth mes = YearMonth.from(reserva.getPermanencia().getDia());
+		float total = getPuntosGastados(reserva.getProfesor(), mes) + puntos;
+		if (total > 0f)
+			puntosProfesor.put(mes, total);
+		else
+			puntosProfesor.remove(mes);
+		if (puntosProfesor.isEmpty())
+			puntosProfesorMes.remove(nombreProfesor);
 	}
 
 	/**
-	 * Busca una reserva en la coleccin
+	 * Busca una reserva en la colección
 	 *
 	 * @param reserva
 	 *            la reserva a buscar
@@ -225,13 +593,29 @@ public class Reservas {
 	public Reserva buscar(Reserva reserva) {
 		if (reserva == null)
 			return null;
-		if (this.coleccionReservas.indexOf(reserva) == -1)
-			return null;
-		return new Reserva(this.coleccionReservas.get(this.coleccionReservas.indexOf(reserva)));
+		return buscarAlmacenada(reserva);
 	}
 
 	/**
-	 * Borra una reserva de la coleccin
+	 * Busca en el índice la instancia guardada que es igual a la reserva indicada.
+	 * Puede no ser la misma que la recibida, ya que dos reservas son iguales si lo
+	 * son su aula y su permanencia
+	 *
+	 * @param reserva
+	 *            la reserva a buscar
+	 * @return la reserva guardada o null si no existe
+	 */
+	private Reserva buscarAlmacenada(Reserva reserva) {
+		for (Reserva r : getReservasAulaDia(reserva.getAula(), reserva.getPermanencia().getDia())) {
+			if (r.equals(reserva))
+				return r;
+		}
+		return null;
+	}
+
+	/**
+	 * Borra una reserva de la colección. La reserva se encuentra en el índice y
+	 * se quita de la colección sin recorrerla
 	 *
 	 * @param reserva
 	 *            la reserva a borrar
@@ -243,13 +627,118 @@ public class Reservas {
 	public void borrar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
 		if (reserva == null)
 			throw new IllegalArgumentException("No se puede anular una reserva nula.");
-		// Si no consigue eliminar la reserva lanza la excepcin
-		if (!this.coleccionReservas.remove(reserva))
+		// Si no existe la reserva lanza la excepción
+		Reserva almacenada = buscarAlmacenada(reserva);
+		if (almacenada == null)
 			throw new OperationNotSupportedException("La reserva a anular no existe.");
+		this.coleccionReservas.quitar(almacenada);
+		desindexar(almacenada);
+		// Los puntos a devolver son los de la reserva guardada, que puede ser de otro
+		// profesor
+		actualizarPuntos(almacenada, -almacenada.getPuntos());
+		ocupacion.liberar(almacenada.getAula(), almacenada.getPermanencia());
+	}
+
+	/**
+	 * Borra todas las reservas realizadas sobre un aula recorriendo la colección
+	 * una sola vez
+	 *
+	 * @param aula
+	 *            el aula cuyas reservas se quieren borrar
+	 * @return las reservas borradas
+	 * @throws IllegalArgumentException
+	 *             si el aula es nula
+	 */
+	public List<Reserva> borrarReservasAula(final Aula aula) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se pueden borrar las reservas de un aula nula.");
+		// El índice dice si el aula tiene reservas sin recorrer la colección
+		if (!reservasAulaDia.containsKey(aula.getNombre()))
+			return new ArrayList<Reserva>();
+		return borrarTodas(new Predicate<Reserva>() {
+			public boolean test(Reserva reserva) {
+				return reserva.getAula().equals(aula);
+			}
+		});
+	}
+
+	/**
+	 * Borra todas las reservas a nombre de un profesor recorriendo la colección
+	 * una sola vez
+	 *
+	 * @param profesor
+	 *            el profesor cuyas reservas se quieren borrar
+	 * @return las reservas borradas
+	 * @throws IllegalArgumentException
+	 *             si el profesor es nulo
+	 */
+	public List<Reserva> borrarReservasProfesor(final Profesor profesor) throws IllegalArgumentException {
+		if (profesor == null)
+			throw new IllegalArgumentException("No se pueden borrar las reservas de un profesor nulo.");
+		// Sin puntos gastados el profesor no tiene reservas
+		if (!puntosProfesorMes.containsKey(profesor.getNombre()))
+			return new ArrayList<Reserva>();
+		return borrarTodas(new Predicate<Reserva>() {
+			public boolean test(Reserva reserva) {
+				return reserva.getProfesor().equals(profesor);
+			}
+		});
 	}
 
 	/**
-	 * Obtiene las salidas de todas las reservas de la coleccin
+	 * Borra todas las reservas de los días anteriores al indicado recorriendo la
+	 * colección una sola vez. Se usa para archivar los meses ya cerrados
+	 *
+	 * @param dia
+	 *            el primer día cuyas reservas se conservan
+	 * @return las reservas borradas
+	 * @throws IllegalArgumentException
+	 *             si el día es nulo
+	 */
+	public List<Reserva> borrarReservasAnteriores(final LocalDate dia) throws IllegalArgumentException {
+		if (dia == null)
+			throw new IllegalArgumentException("No se pueden borrar las reservas anteriores a un día nulo.");
+		// El índice por día dice si hay alguna sin recorrer la colección
+		if (reservasDia.headMap(dia).isEmpty())
+			return new ArrayList<Reserva>();
+		return borrarTodas(new Predicate<Reserva>() {
+			public boolean test(Reserva reserva) {
+				return reserva.getPermanencia().getDia().isBefore(dia);
+			}
+		});
+	}
+
+	/**
+	 * Borra las reservas que cumplen un criterio. Separa la colección en las que
+	 * se quedan y las que se borran en una sola pasada, y después actualiza los
+	 * índices, los puntos y la ocupación sólo con las borradas
+	 *
+	 * @param criterio
+	 *            el criterio que cumplen las reservas a borrar
+	 * @return las reservas borradas
+	 */
+	private List<Reserva> borrarTodas(Predicate<Reserva> criterio) {
+		List<Reserva> quedan = new ArrayList<Reserva>(coleccionReservas.size());
+		List<Reserva> borradas = new ArrayList<Reserva>();
+		for (Reserva r : coleccionReservas) {
+			if (criterio.test(r))
+				borradas.add(r);
+			else
+				quedan.add(r);
+		}
+		if (borradas.isEmpty())
+			return borradas;
+		coleccionReservas = new ListaIndexada<Reserva>(quedan);
+		for (Reserva r : borradas) {
+			desindexar(r);
+			actualizarPuntos(r, -r.getPuntos());
+			ocupacion.liberar(r.getAula(), r.getPermanencia());
+		}
+		return borradas;
+	}
+
+	/**
+	 * Obtiene las salidas de todas las reservas de la colección
 	 *
 	 * @return la salida de las reservas
 	 */
@@ -261,7 +750,35 @@ public class Reservas {
 	}
 
 	/**
-	 * Obtiene las reservas a nombre de un profesor indicado
+	 * Obtiene las salidas de una página de reservas de la colección, en el mismo
+	 * orden que representar
+	 *
+	 * @param desde
+	 *            la posición de la primera reserva de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de reservas de la página
+	 * @return la salida de las reservas de la página, vacía si desde está después
+	 *         del final
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representar(int desde, int cantidad) throws IllegalArgumentException {
+		if (desde < 0)
+			throw new IllegalArgumentException("La posición de la página no puede ser negativa.");
+		if (cantidad < 0)
+			throw new IllegalArgumentException("El tamaño de la página no puede ser negativo.");
+		List<String> representar = new ArrayList<String>();
+		// La colección encuentra la primera reserva de la página sin recorrer las
+		// anteriores
+		Iterator<Reserva> iterador = coleccionReservas.iterator(desde);
+		while (representar.size() < cantidad && iterador.hasNext())
+			representar.add(iterador.next().toString());
+		return representar;
+	}
+
+	/**
+	 * Obtiene las reservas a nombre de un profesor indicado a partir de su índice
+	 * por día, en el orden en que se realizaron
 	 *
 	 * @param profesor
 	 *            el profesor que ha reservado
@@ -272,16 +789,12 @@ public class Reservas {
 	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
 		if (profesor == null)
 			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
-		List<Reserva> devolver = new ArrayList<Reserva>();
-		for (Reserva r : this.coleccionReservas) {
-			if (r.getProfesor().equals(profesor))
-				devolver.add(new Reserva(r));
-		}
-		return devolver;
+		return enOrden(reservasProfesorDia.get(profesor.getNombre()));
 	}
 
 	/**
-	 * Obtiene las reservas realizadas a un aula indicada
+	 * Obtiene las reservas realizadas a un aula indicada a partir de su índice por
+	 * día, en el orden en que se realizaron
 	 *
 	 * @param aula
 	 *            el aula reservada
@@ -292,16 +805,139 @@ public class Reservas {
 	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
 		if (aula == null)
 			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		return enOrden(reservasAulaDia.get(aula.getNombre()));
+	}
+
+	/**
+	 * Copia las reservas de un índice por día y las ordena como en la colección,
+	 * así que cuesta lo que ordenar las reservas del índice y no depende del
+	 * tamaño de la colección
+	 *
+	 * @param porDia
+	 *            el índice, o null si no tiene reservas
+	 * @return las reservas del índice en el orden en que se realizaron
+	 */
+	private List<Reserva> enOrden(NavigableMap<LocalDate, List<Reserva>> porDia) {
 		List<Reserva> devolver = new ArrayList<Reserva>();
-		for (Reserva r : this.coleccionReservas) {
-			if (r.getAula().equals(aula))
-				devolver.add(new Reserva(r));
-		}
+		if (porDia == null)
+			return devolver;
+		for (List<Reserva> delDia : porDia.values())
+			devolver.addAll(delDia);
+		Collections.sort(devolver, new Comparator<Reserva>() {
+			public int compare(Reserva una, Reserva otra) {
+				return Integer.compare(coleccionReservas.getOrden(una), coleccionReservas.getOrden(otra));
+			}
+		});
 		return devolver;
 	}
 
 	/**
-	 * Obtiene las reservas realizadas en una fecha y tramo concretos
+	 * Obtiene las reservas realizadas entre dos días, ambos incluidos, ordenadas
+	 * por día. Las reservas de cada día salen en el orden en que se realizaron
+	 *
+	 * La secuencia recorre directamente el índice por día, sin copiar las
+	 * reservas, así que debe consumirse antes de volver a modificar la colección
+	 *
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas de esos días
+	 * @throws IllegalArgumentException
+	 *             si algún día es nulo o el último es anterior al primero
+	 */
+	public Stream<Reserva> getReservas(LocalDate desde, LocalDate hasta) throws IllegalArgumentException {
+		comprobarDias(desde, hasta);
+		return entreDias(reservasDia, desde, hasta);
+	}
+
+	/**
+	 * Obtiene las reservas de un aula realizadas entre dos días, ambos incluidos,
+	 * ordenadas por día. Como en getReservas, la secuencia debe consumirse antes
+	 * de volver a modificar la colección
+	 *
+	 * @param aula
+	 *            el aula reservada
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del aula esos días
+	 * @throws IllegalArgumentException
+	 *             si el aula o algún día son nulos, o el último día es anterior
+	 *             al primero
+	 */
+	public Stream<Reserva> getReservasAula(Aula aula, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		comprobarDias(desde, hasta);
+		return entreDias(reservasAulaDia.get(aula.getNombre()), desde, hasta);
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor realizadas entre dos días, ambos
+	 * incluidos, ordenadas por día. Como en getReservas, la secuencia debe
+	 * consumirse antes de volver a modificar la colección
+	 *
+	 * @param profesor
+	 *            el profesor que ha reservado
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del profesor esos días
+	 * @throws IllegalArgumentException
+	 *             si el profesor o algún día son nulos, o el último día es
+	 *             anterior al primero
+	 */
+	public Stream<Reserva> getReservasProfesor(Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		if (profesor == null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		comprobarDias(desde, hasta);
+		return entreDias(reservasProfesorDia.get(profesor.getNombre()), desde, hasta);
+	}
+
+	/**
+	 * Comprueba los días de una consulta entre dos días
+	 *
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @throws IllegalArgumentException
+	 *             si algún día es nulo o el último es anterior al primero
+	 */
+	public static void comprobarDias(LocalDate desde, LocalDate hasta) throws IllegalArgumentException {
+		if (desde == null || hasta == null)
+			throw new IllegalArgumentException("No se pueden consultar las reservas entre días nulos.");
+		if (hasta.isBefore(desde))
+			throw new IllegalArgumentException("El último día no puede ser anterior al primero.");
+	}
+
+	/**
+	 * Recorre las reservas de un índice por día entre dos días
+	 *
+	 * @param porDia
+	 *            el índice, o null si no tiene reservas
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas de esos días
+	 */
+	private static Stream<Reserva> entreDias(NavigableMap<LocalDate, List<Reserva>> porDia, LocalDate desde,
+			LocalDate hasta) {
+		if (porDia == null)
+			return Stream.empty();
+		return porDia.subMap(desde, true, hasta, true).values().stream().flatMap(APLANAR);
+	}
+
+	/**
+	 * Obtiene las reservas realizadas en una fecha y tramo concretos. Sólo
+	 * recorre las reservas de ese día en el índice por día, que están en el orden
+	 * en que se realizaron
 	 *
 	 * @param permanencia
 	 *            la fecha y el tramo de las reservas
@@ -313,25 +949,28 @@ public class Reservas {
 		if (permanencia == null)
 			throw new IllegalArgumentException("No se pueden consultar las reservas de una permanencia nula.");
 		List<Reserva> devolver = new ArrayList<Reserva>();
-		for (Reserva r : this.coleccionReservas) {
+		List<Reserva> delDia = reservasDia.get(permanencia.getDia());
+		if (delDia == null)
+			return devolver;
+		for (Reserva r : delDia) {
 			if (r.getPermanencia().equals(permanencia))
-				devolver.add(new Reserva(r));
+				devolver.add(r);
 		}
 		return devolver;
 	}
 
 	/**
-	 * Comprueba si un aula est disponible en una fecha y tramos indicados
+	 * Comprueba si un aula está disponible en una fecha y tramos indicados
 	 *
 	 * @param aula
 	 *            el aula a comprobar
 	 * @param permanencia
 	 *            la fecha y tramo en las que comprobar el aula
-	 * @return True si est disponible, False si est reservada
+	 * @return True si está disponible, False si está reservada
 	 * @throws IllegalArgumentException
 	 *             si el aula o la permanencia son nulas, o si el tipo de
 	 *             permanencia consultado no coincide con el de las reservas
-	 *             realizadas sobre ese aula ese da
+	 *             realizadas sobre ese aula ese día
 	 */
 	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
 		if (aula == null)
@@ -340,17 +979,44 @@ public class Reservas {
 			throw new IllegalArgumentException("No se puede consultar la disponibilidad de una permanencia nula.");
 
 		// Diferenciamos el tipo de permanencia
-		for (Reserva r : this.coleccionReservas) {
-			if (r.getAula().equals(aula) && r.getPermanencia().getDia().equals(permanencia.getDia())) {
-				if (r.getPermanencia() instanceof PermanenciaPorTramo && permanencia instanceof PermanenciaPorHora)
-					throw new IllegalArgumentException("Las reservas realizadas para ese aula y da son por tramo.");
-				if (r.getPermanencia() instanceof PermanenciaPorHora && permanencia instanceof PermanenciaPorTramo)
-					throw new IllegalArgumentException("Las reservas realizadas para ese aula y da son por hora.");
-				if (r.getPermanencia().equals(permanencia))
-					return false;
-			}
-		}
-		return true;
+		if (permanencia instanceof PermanenciaPorHora && ocupacion.tieneReservasPorTramo(aula, permanencia.getDia()))
+			throw new IllegalArgumentException("Las reservas realizadas para ese aula y día son por tramo.");
+		if (permanencia instanceof PermanenciaPorTramo && ocupacion.tieneReservasPorHora(aula, permanencia.getDia()))
+			throw new IllegalArgumentException("Las reservas realizadas para ese aula y día son por hora.");
+		return !ocupacion.estaOcupada(aula, permanencia);
+	}
+
+	/**
+	 * Comprueba si un aula se puede reservar en una permanencia. A diferencia de
+	 * consultarDisponibilidad, si ese día el aula tiene reservas del otro tipo de
+	 * permanencia devuelve false en lugar de lanzar una excepción
+	 *
+	 * @param aula
+	 *            el aula a comprobar
+	 * @param permanencia
+	 *            la fecha y hora o tramo en las que comprobar el aula
+	 * @return true si se puede reservar, false si no
+	 * @throws IllegalArgumentException
+	 *             si el aula o la permanencia son nulas
+	 */
+	public boolean estaLibre(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		return ocupacion.estaLibre(aula, permanencia);
+	}
+
+	/**
+	 * Obtiene las horas o tramos en los que todavía se puede reservar un aula un
+	 * día concreto
+	 *
+	 * @param aula
+	 *            el aula a consultar
+	 * @param dia
+	 *            el día a consultar
+	 * @return las permanencias libres de ese aula ese día
+	 * @throws IllegalArgumentException
+	 *             si el aula o el día son nulos
+	 */
+	public List<Permanencia> getPermanenciasLibres(Aula aula, LocalDate dia) throws IllegalArgumentException {
+		return ocupacion.getPermanenciasLibres(aula, dia);
 	}
 
 }
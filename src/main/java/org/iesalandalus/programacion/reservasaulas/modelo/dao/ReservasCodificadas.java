@@ -0,0 +1,1417 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+
+/**
+ * Base de las colecciones de reservas que guardan cada reserva como una fila de
+ * números en lugar de como un objeto Reserva: el número del profesor, el
+ * número del aula, el día como días desde 1970 y la franja (la hora o el
+ * tramo). Los profesores y las aulas se guardan una sola vez en memoria y se
+ * numeran en el orden en que aparecen. Los objetos Reserva sólo se crean al
+ * devolverlos.
+ *
+ * Aquí están todas las restricciones y consultas; las subclases sólo deciden
+ * dónde se guardan las filas y las dos tablas de claves numéricas:
+ * <ul>
+ * <li>ocupación: aula y día -> primera fila (32 bits altos) y franjas ocupadas
+ * (32 bits bajos)</li>
+ * <li>puntos: profesor y mes -> primera fila (32 bits altos) y bits del float
+ * con los puntos gastados (32 bits bajos). Además, en la clave del profesor con
+ * el mes Integer.MIN_VALUE se guardan el primer y el último mes en que ha tenido
+ * reservas</li>
+ * </ul>
+ * Cada fila apunta a la siguiente del mismo aula y día y a la siguiente del
+ * mismo profesor y mes, de forma que las reservas de un aula un día o de un
+ * profesor un mes se encuentran sin recorrer la colección. Al borrar una fila
+ * su hueco se rellena con la última, así que las reservas no se devuelven en el
+ * orden en que se realizaron.
+ *
+ * Cumple las mismas restricciones que Reservas y lanza las mismas excepciones.
+ *
+ * @see Reservas
+ * @see ReservasColumnar
+ * @see ReservasMapeadas
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public abstract class ReservasCodificadas implements IReservas {
+
+	static final int NUM_HORAS = PermanenciaPorHora.HORA_FIN - PermanenciaPorHora.HORA_INICIO + 1;
+	static final int SIN_FILA = -1;
+	private static final int MASCARA_HORAS = (1 << NUM_HORAS) - 1;
+	private static final int MASCARA_TRAMOS = ((1 << Tramo.values().length) - 1) << NUM_HORAS;
+	private static final Tramo[] TRAMOS = Tramo.values();
+	// Mes de la clave con los meses con reservas de cada profesor
+	private static final int MESES_PROFESOR = Integer.MIN_VALUE;
+
+	// Profesores y aulas que aparecen en las reservas, numerados por orden de
+	// aparición
+	private List<Profesor> profesores = new ArrayList<Profesor>();
+	private Map<String, Integer> numerosProfesores = new HashMap<String, Integer>();
+	private List<Aula> aulas = new ArrayList<Aula>();
+	private Map<String, Integer> numerosAulas = new HashMap<String, Integer>();
+
+	/**
+	 * Obtiene el número del profesor de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return el número del profesor
+	 */
+	abstract int leerProfesor(int fila);
+
+	/**
+	 * Obtiene el número del aula de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return el número del aula
+	 */
+	abstract int leerAula(int fila);
+
+	/**
+	 * Obtiene el día de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return el día en días desde 1970
+	 */
+	abstract int leerDia(int fila);
+
+	/**
+	 * Obtiene la franja de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return la franja
+	 */
+	abstract int leerFranja(int fila);
+
+	/**
+	 * Obtiene la siguiente fila del mismo aula y día que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return la siguiente fila o SIN_FILA
+	 */
+	abstract int leerSiguiente(int fila);
+
+	/**
+	 * Obtiene la siguiente fila del mismo profesor y mes que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return la siguiente fila o SIN_FILA
+	 */
+	abstract int leerSiguienteProfesor(int fila);
+
+	/**
+	 * Escribe todos los valores de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @param profesor
+	 *            el número del profesor
+	 * @param aula
+	 *            el número del aula
+	 * @param dia
+	 *            el día en días desde 1970
+	 * @param franja
+	 *            la franja
+	 * @param siguiente
+	 *            la siguiente fila del mismo aula y día o SIN_FILA
+	 * @param siguienteProfesor
+	 *            la siguiente fila del mismo profesor y mes o SIN_FILA
+	 */
+	abstract void escribirFila(int fila, int profesor, int aula, int dia, int franja, int siguiente,
+			int siguienteProfesor);
+
+	/**
+	 * Cambia la siguiente fila del mismo aula y día que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @param siguiente
+	 *            la siguiente fila o SIN_FILA
+	 */
+	abstract void escribirSiguiente(int fila, int siguiente);
+
+	/**
+	 * Cambia la siguiente fila del mismo profesor y mes que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @param siguiente
+	 *            la siguiente fila o SIN_FILA
+	 */
+	abstract void escribirSiguienteProfesor(int fila, int siguiente);
+
+	/**
+	 * Cambia el número de filas ocupadas, después de comprobar con
+	 * asegurarCapacidad que caben
+	 *
+	 * @param numReservas
+	 *            el número de filas
+	 */
+	abstract void setNumReservas(int numReservas);
+
+	/**
+	 * Amplía el espacio de las filas para que quepan al menos las indicadas
+	 *
+	 * @param filas
+	 *            el número de filas
+	 */
+	abstract void asegurarCapacidad(int filas);
+
+	/**
+	 * Obtiene la tabla con la ocupación de cada aula cada día
+	 *
+	 * @return la tabla de ocupación
+	 */
+	abstract ITablaClaves getOcupacion();
+
+	/**
+	 * Obtiene la tabla con los puntos gastados por cada profesor cada mes
+	 *
+	 * @return la tabla de puntos
+	 */
+	abstract ITablaClaves getPuntos();
+
+	/**
+	 * Borra todas las filas y el contenido de las dos tablas
+	 */
+	abstract void vaciarFilas();
+
+	/**
+	 * Avisa de que se ha numerado un aula nueva o ha cambiado la instancia
+	 * guardada de un aula. Por defecto no hace nada
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param numero
+	 *            su número
+	 */
+	void registrar(Aula aula, int numero) {
+	}
+
+	/**
+	 * Avisa de que se ha numerado un profesor nuevo o ha cambiado la instancia
+	 * guardada de un profesor. Por defecto no hace nada
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @param numero
+	 *            su número
+	 */
+	void registrar(Profesor profesor, int numero) {
+	}
+
+	/**
+	 * Avisa de que va a cambiar el contenido de las filas o de las tablas. Por
+	 * defecto no hace nada
+	 */
+	void modificar() {
+	}
+
+	/**
+	 * Deja la colección vacía
+	 */
+	private void vaciar() {
+		modificar();
+		profesores.clear();
+		numerosProfesores.clear();
+		aulas.clear();
+		numerosAulas.clear();
+		vaciarFilas();
+	}
+
+	/**
+	 * Obtiene la franja de una permanencia: la posición de su hora, o la de su
+	 * tramo detrás de las horas
+	 *
+	 * @param permanencia
+	 *            la permanencia
+	 * @return la franja
+	 */
+	private static int getFranja(Permanencia permanencia) {
+		if (permanencia instanceof PermanenciaPorHora)
+			return ((PermanenciaPorHora) permanencia).getHora().getHour() - PermanenciaPorHora.HORA_INICIO;
+		return NUM_HORAS + ((PermanenciaPorTramo) permanencia).getTramo().ordinal();
+	}
+
+	/**
+	 * Crea la permanencia de un día y una franja
+	 *
+	 * @param dia
+	 *            el día en días desde 1970
+	 * @param franja
+	 *            la franja
+	 * @return la permanencia
+	 */
+	private static Permanencia getPermanencia(int dia, int franja) {
+		LocalDate fecha = LocalDate.ofEpochDay(dia);
+		if (franja < NUM_HORAS)
+			return new PermanenciaPorHora(fecha, LocalTime.of(PermanenciaPorHora.HORA_INICIO + franja, 0));
+		return new PermanenciaPorTramo(fecha, TRAMOS[franja - NUM_HORAS]);
+	}
+
+	/**
+	 * Obtiene la clave de un aula y un día en la tabla de ocupación
+	 *
+	 * @param numAula
+	 *            el número del aula
+	 * @param dia
+	 *            el día en días desde 1970
+	 * @return la clave
+	 */
+	private static long getClave(int numAula, int dia) {
+		return ((long) numAula << 32) | (dia & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Obtiene la clave de un profesor y un mes en la tabla de puntos
+	 *
+	 * @param numProfesor
+	 *            el número del profesor
+	 * @param mes
+	 *            el mes
+	 * @return la clave
+	 */
+	private static long getClave(int numProfesor, YearMonth mes) {
+		return getClave(numProfesor, getMes(mes));
+	}
+
+	/**
+	 * Obtiene el número de un mes contando desde el año 0
+	 *
+	 * @param mes
+	 *            el mes
+	 * @return el número del mes
+	 */
+	private static int getMes(YearMonth mes) {
+		return mes.getYear() * 12 + mes.getMonthValue() - 1;
+	}
+
+	/**
+	 * Obtiene el número del mes de un día, como getMes
+	 *
+	 * @param dia
+	 *            el día en días desde 1970
+	 * @return el número del mes
+	 */
+	private static int getMesDia(int dia) {
+		return getMes(YearMonth.from(LocalDate.ofEpochDay(dia)));
+	}
+
+	/**
+	 * Junta una fila y un valor de 32 bits en un valor de las tablas
+	 *
+	 * @param fila
+	 *            la fila, en los 32 bits altos
+	 * @param bits
+	 *            el valor de los 32 bits bajos
+	 * @return el valor
+	 */
+	private static long getValor(int fila, int bits) {
+		return ((long) fila << 32) | (bits & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Obtiene el número de un aula, numerándola si todavía no lo tiene. Se guarda
+	 * la última instancia recibida, ya que un aula borrada y vuelta a crear puede
+	 * tener otros puestos. Las subclases lo usan también para recuperar las aulas
+	 * que tenían guardadas
+	 *
+	 * @param aula
+	 *            el aula
+	 * @return su número
+	 */
+	int numerar(Aula aula) {
+		Integer numero = numerosAulas.get(aula.getNombre());
+		if (numero == null) {
+			numero = aulas.size();
+			numerosAulas.put(aula.getNombre(), numero);
+			aulas.add(aula);
+		} else if (aulas.get(numero) == aula || aulas.get(numero).getPuestos() == aula.getPuestos())
+			return numero;
+		else
+			aulas.set(numero, aula);
+		registrar(aula, numero);
+		return numero;
+	}
+
+	/**
+	 * Obtiene el número de un profesor, numerándolo si todavía no lo tiene. Como
+	 * con las aulas, se guarda la última instancia recibida
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @return su número
+	 */
+	int numerar(Profesor profesor) {
+		Integer numero = numerosProfesores.get(profesor.getNombre());
+		if (numero == null) {
+			numero = profesores.size();
+			numerosProfesores.put(profesor.getNombre(), numero);
+			profesores.add(profesor);
+		} else if (profesores.get(numero) == profesor || mismosDatos(profesores.get(numero), profesor))
+			return numero;
+		else
+			profesores.set(numero, profesor);
+		registrar(profesor, numero);
+		return numero;
+	}
+
+	/**
+	 * Comprueba si dos profesores con el mismo nombre tienen también el mismo
+	 * correo y teléfono
+	 *
+	 * @param profesor
+	 *            un profesor
+	 * @param otro
+	 *            el otro profesor
+	 * @return true si tienen los mismos datos
+	 */
+	private static boolean mismosDatos(Profesor profesor, Profesor otro) {
+		return Objects.equals(profesor.getCorreo(), otro.getCorreo())
+				&& Objects.equals(profesor.getTelefono(), otro.getTelefono());
+	}
+
+	/**
+	 * Obtiene las franjas ocupadas de un aula un día
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param dia
+	 *            el día
+	 * @return los bits de las franjas ocupadas
+	 */
+	private int getBits(Aula aula, LocalDate dia) {
+		Integer numero = numerosAulas.get(aula.getNombre());
+		if (numero == null)
+			return 0;
+		return (int) getOcupacion().get(getClave(numero, (int) dia.toEpochDay()), 0L);
+	}
+
+	/**
+	 * Busca la fila de una reserva recorriendo sólo las de su aula y día
+	 *
+	 * @param reserva
+	 *            la reserva
+	 * @return la fila o SIN_FILA si no existe
+	 */
+	private int buscarFila(Reserva reserva) {
+		Integer numero = numerosAulas.get(reserva.getAula().getNombre());
+		if (numero == null)
+			return SIN_FILA;
+		Permanencia permanencia = reserva.getPermanencia();
+		long valor = getOcupacion().get(getClave(numero, (int) permanencia.getDia().toEpochDay()), 0L);
+		int buscada = getFranja(permanencia);
+		if (((int) valor & (1 << buscada)) == 0)
+			return SIN_FILA;
+		int fila = (int) (valor >>> 32);
+		while (fila != SIN_FILA && leerFranja(fila) != buscada)
+			fila = leerSiguiente(fila);
+		return fila;
+	}
+
+	/**
+	 * Crea la reserva guardada en una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return la reserva
+	 */
+	private Reserva getReserva(int fila) {
+		return new Reserva(profesores.get(leerProfesor(fila)), aulas.get(leerAula(fila)),
+				getPermanencia(leerDia(fila), leerFranja(fila)));
+	}
+
+	/**
+	 * Obtiene todas las reservas de la colección
+	 *
+	 * @return las reservas
+	 */
+	public List<Reserva> getReservas() {
+		int numReservas = getNumReservas();
+		List<Reserva> reservas = new ArrayList<Reserva>(numReservas);
+		for (int i = 0; i < numReservas; i++)
+			reservas.add(getReserva(i));
+		return reservas;
+	}
+
+	/**
+	 * Sustituye las reservas de la colección por las indicadas sin comprobar
+	 * ninguna restricción. Como en Reservas, las reservas deben haberse aceptado
+	 * antes
+	 *
+	 * @param reservas
+	 *            las reservas a cargar
+	 * @throws IllegalArgumentException
+	 *             si la colección es nula
+	 */
+	public void cargar(Collection<Reserva> reservas) throws IllegalArgumentException {
+		if (reservas == null)
+			throw new IllegalArgumentException("No se pueden cargar reservas nulas.");
+		vaciar();
+		asegurarCapacidad(reservas.size());
+		for (Reserva r : reservas)
+			guardar(r);
+	}
+
+	/**
+	 * Guarda una reserva en la colección
+	 *
+	 * @param reserva
+	 *            la reserva a guardar
+	 * @throws IllegalArgumentException
+	 *             si la reserva es nula
+	 * @throws OperationNotSupportedException
+	 *             si la reserva no cumple alguna restricción
+	 */
+	public void insertar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
+		insertar(reserva, true);
+	}
+
+	/**
+	 * Guarda una reserva aceptada anteriormente sin comprobar que sea para el mes
+	 * siguiente o posteriores
+	 *
+	 * @param reserva
+	 *            la reserva a recuperar
+	 * @throws IllegalArgumentException
+	 *             si la reserva es nula
+	 * @throws OperationNotSupportedException
+	 *             si la reserva no cumple el resto de restricciones
+	 */
+	public void recuperar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
+		insertar(reserva, false);
+	}
+
+	/**
+	 * Comprueba las restricciones de una reserva y la guarda
+	 *
+	 * @param reserva
+	 *            la reserva a guardar
+	 * @param comprobarMes
+	 *            si hay que comprobar que la reserva es para el mes siguiente o
+	 *            posteriores
+	 * @throws IllegalArgumentException
+	 *             si la reserva es nula
+	 * @throws OperationNotSupportedException
+	 *             si la reserva no cumple alguna restricción
+	 */
+	private void insertar(Reserva reserva, boolean comprobarMes)
+			throws OperationNotSupportedException, IllegalArgumentException {
+		if (reserva == null)
+			throw new IllegalArgumentException("No se puede realizar una reserva nula.");
+		String conflicto = comprobar(reserva, comprobarMes, 0f);
+		if (conflicto != null)
+			throw new OperationNotSupportedException(conflicto);
+		guardar(reserva);
+	}
+
+	/**
+	 * Comprueba las restricciones de una reserva con las franjas ocupadas de su
+	 * aula ese día y los puntos del profesor ese mes
+	 *
+	 * @param reserva
+	 *            la reserva a comprobar
+	 * @param comprobarMes
+	 *            si hay que comprobar que la reserva es para el mes siguiente o
+	 *            posteriores
+	 * @param puntosPendientes
+	 *            los puntos de otras reservas del profesor ese mes que se van a
+	 *            guardar con esta
+	 * @return el motivo por el que no se puede realizar la reserva, o null si se
+	 *         puede realizar
+	 */
+	private String comprobar(Reserva reserva, boolean comprobarMes, float puntosPendientes) {
+		Permanencia permanencia = reserva.getPermanencia();
+		int bits = getBits(reserva.getAula(), permanencia.getDia());
+		int bit = 1 << getFranja(permanencia);
+		if ((bits & bit) != 0)
+			return "La reserva ya existe.";
+		if (comprobarMes && permanencia.getDia().isBefore(LocalDate.now().plusMonths(1).withDayOfMonth(1)))
+			return "Sólo se pueden hacer reservas para el mes que viene o posteriores.";
+		float gastados = getPuntosGastados(reserva.getProfesor(), YearMonth.from(permanencia.getDia()));
+		if (gastados + reserva.getPuntos() + puntosPendientes > Reservas.MAX_PUNTOS_PROFESOR_MES)
+			return "Esta reserva excede los puntos máximos por mes para dicho profesor.";
+		if ((bit & MASCARA_HORAS) != 0 && (bits & MASCARA_TRAMOS) != 0)
+			return "Ya se ha realizado una reserva por tramo para este día y aula.";
+		if ((bit & MASCARA_TRAMOS) != 0 && (bits & MASCARA_HORAS) != 0)
+			return "Ya se ha realizado una reserva por hora para este día y aula.";
+		return null;
+	}
+
+	/**
+	 * Añade una fila con una reserva ya comprobada, la enlaza al principio de las
+	 * de su aula y día y de las de su profesor y mes, y suma sus puntos
+	 *
+	 * @param reserva
+	 *            la reserva a guardar
+	 */
+	private void guardar(Reserva reserva) {
+		modificar();
+		int fila = getNumReservas();
+		asegurarCapacidad(fila + 1);
+		Permanencia permanencia = reserva.getPermanencia();
+		int profesor = numerar(reserva.getProfesor());
+		int aula = numerar(reserva.getAula());
+		int dia = (int) permanencia.getDia().toEpochDay();
+		int franja = getFranja(permanencia);
+		long clave = getClave(aula, dia);
+		long valor = getOcupacion().get(clave, SIN_FILA);
+		int siguiente = SIN_FILA;
+		int bits = 0;
+		if (valor != SIN_FILA) {
+			siguiente = (int) (valor >>> 32);
+			bits = (int) valor;
+		}
+		int mes = getMesDia(dia);
+		long clavePuntos = getClave(profesor, mes);
+		long puntos = getPuntos().get(clavePuntos, SIN_FILA);
+		int siguienteProfesor = SIN_FILA;
+		float gastados = 0f;
+		if (puntos != SIN_FILA) {
+			siguienteProfesor = (int) (puntos >>> 32);
+			gastados = Float.intBitsToFloat((int) puntos);
+		}
+		escribirFila(fila, profesor, aula, dia, franja, siguiente, siguienteProfesor);
+		setNumReservas(fila + 1);
+		getOcupacion().put(clave, getValor(fila, bits | (1 << franja)));
+		getPuntos().put(clavePuntos, getValor(fila, Float.floatToIntBits(gastados + reserva.getPuntos())));
+		ampliarMeses(profesor, mes);
+	}
+
+	/**
+	 * Amplía, si hace falta, el primer y el último mes con reservas de un
+	 * profesor para que incluyan un mes. No se reducen al borrar reservas, así
+	 * que sólo acotan los meses que hay que consultar
+	 *
+	 * @param numProfesor
+	 *            el número del profesor
+	 * @param mes
+	 *            el número del mes
+	 */
+	private void ampliarMeses(int numProfesor, int mes) {
+		long clave = getClave(numProfesor, MESES_PROFESOR);
+		long meses = getPuntos().get(clave, SIN_FILA);
+		if (meses == SIN_FILA)
+			getPuntos().put(clave, getValor(mes, mes));
+		else if (mes < (int) (meses >>> 32) || mes > (int) meses)
+			getPuntos().put(clave, getValor(Math.min(mes, (int) (meses >>> 32)), Math.max(mes, (int) meses)));
+	}
+
+	/**
+	 * Quita una fila: la desenlaza de las de su aula y día y de las de su
+	 * profesor y mes, devuelve sus puntos y mueve la última fila a su hueco
+	 *
+	 * @param fila
+	 *            la fila a quitar
+	 */
+	private void quitar(int fila) {
+		modificar();
+		long clave = getClave(leerAula(fila), leerDia(fila));
+		long valor = getOcupacion().get(clave, SIN_FILA);
+		int primera = (int) (valor >>> 32);
+		if (primera == fila)
+			primera = leerSiguiente(fila);
+		else
+			sustituirEnlace(primera, fila, leerSiguiente(fila));
+		int bits = (int) valor & ~(1 << leerFranja(fila));
+		if (bits == 0)
+			getOcupacion().remove(clave);
+		else
+			getOcupacion().put(clave, getValor(primera, bits));
+		long clavePuntos = getClave(leerProfesor(fila), getMesDia(leerDia(fila)));
+		long puntos = getPuntos().get(clavePuntos, SIN_FILA);
+		int primeraProfesor = (int) (puntos >>> 32);
+		if (primeraProfesor == fila)
+			primeraProfesor = leerSiguienteProfesor(fila);
+		else
+			sustituirEnlaceProfesor(primeraProfesor, fila, leerSiguienteProfesor(fila));
+		if (primeraProfesor == SIN_FILA)
+			getPuntos().remove(clavePuntos);
+		else
+			getPuntos().put(clavePuntos, getValor(primeraProfesor,
+					Float.floatToIntBits(Float.intBitsToFloat((int) puntos) - getReserva(fila).getPuntos())));
+		int ultima = getNumReservas() - 1;
+		if (fila != ultima)
+			mover(ultima, fila);
+		setNumReservas(ultima);
+	}
+
+	/**
+	 * Copia una fila a otra posición y hace que lo que apuntaba a la fila
+	 * apunte a su nueva posición
+	 *
+	 * @param origen
+	 *            la fila a mover
+	 * @param destino
+	 *            la posición libre a la que moverla
+	 */
+	private void mover(int origen, int destino) {
+		escribirFila(destino, leerProfesor(origen), leerAula(origen), leerDia(origen), leerFranja(origen),
+				leerSiguiente(origen), leerSiguienteProfesor(origen));
+		long clave = getClave(leerAula(destino), leerDia(destino));
+		long valor = getOcupacion().get(clave, SIN_FILA);
+		if ((int) (valor >>> 32) == origen)
+			getOcupacion().put(clave, getValor(destino, (int) valor));
+		else
+			sustituirEnlace((int) (valor >>> 32), origen, destino);
+		long clavePuntos = getClave(leerProfesor(destino), getMesDia(leerDia(destino)));
+		long puntos = getPuntos().get(clavePuntos, SIN_FILA);
+		if ((int) (puntos >>> 32) == origen)
+			getPuntos().put(clavePuntos, getValor(destino, (int) puntos));
+		else
+			sustituirEnlaceProfesor((int) (puntos >>> 32), origen, destino);
+	}
+
+	/**
+	 * Busca, entre las filas enlazadas a partir de una, la que apunta a otra fila
+	 * y la hace apuntar a una nueva
+	 *
+	 * @param desde
+	 *            la primera fila enlazada
+	 * @param anterior
+	 *            la fila a la que apunta ahora
+	 * @param nueva
+	 *            la fila a la que debe apuntar
+	 */
+	private void sustituirEnlace(int desde, int anterior, int nueva) {
+		int fila = desde;
+		while (leerSiguiente(fila) != anterior)
+			fila = leerSiguiente(fila);
+		escribirSiguiente(fila, nueva);
+	}
+
+	/**
+	 * Como sustituirEnlace, pero entre las filas enlazadas del mismo profesor y
+	 * mes
+	 *
+	 * @param desde
+	 *            la primera fila enlazada
+	 * @param anterior
+	 *            la fila a la que apunta ahora
+	 * @param nueva
+	 *            la fila a la que debe apuntar
+	 */
+	private void sustituirEnlaceProfesor(int desde, int anterior, int nueva) {
+		int fila = desde;
+		while (leerSiguienteProfesor(fila) != anterior)
+			fila = leerSiguienteProfesor(fila);
+		escribirSiguienteProfesor(fila, nueva);
+	}
+
+	/**
+	 * Realiza todas las reservas de una reserva periódica, o ninguna si alguna no
+	 * cumple las restricciones
+	 *
+	 * @param serie
+	 *            la reserva periódica
+	 * @return las reservas realizadas, ordenadas por día
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 * @throws ConflictosReservaPeriodicaException
+	 *             si alguna reserva de la serie no cumple las restricciones
+	 */
+	public List<Reserva> insertarPeriodica(ReservaPeriodica serie)
+			throws ConflictosReservaPeriodicaException, IllegalArgumentException {
+		return insertarPeriodica(serie, true);
+	}
+
+	/**
+	 * Guarda todas las reservas de una reserva periódica aceptada anteriormente
+	 * sin comprobar que sean para el mes siguiente o posteriores
+	 *
+	 * @param serie
+	 *            la reserva periódica
+	 * @return las reservas guardadas, ordenadas por día
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 * @throws ConflictosReservaPeriodicaException
+	 *             si alguna reserva de la serie no cumple el resto de
+	 *             restricciones
+	 */
+	public List<Reserva> recuperarPeriodica(ReservaPeriodica serie)
+			throws ConflictosReservaPeriodicaException, IllegalArgumentException {
+		return insertarPeriodica(serie, false);
+	}
+
+	/**
+	 * Comprueba todas las reservas de una reserva periódica y las guarda si
+	 * todas cumplen las restricciones
+	 *
+	 * @param serie
+	 *            la reserva periódica
+	 * @param comprobarMes
+	 *            si hay que comprobar que las reservas son para el mes siguiente
+	 *            o posteriores
+	 * @return las reservas guardadas, ordenadas por día
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 * @throws ConflictosReservaPeriodicaException
+	 *             si alguna reserva de la serie no cumple las restricciones
+	 */
+	private List<Reserva> insertarPeriodica(ReservaPeriodica serie, boolean comprobarMes)
+			throws ConflictosReservaPeriodicaException, IllegalArgumentException {
+		SortedMap<LocalDate, String> conflictos = comprobarPeriodica(serie, comprobarMes);
+		if (!conflictos.isEmpty())
+			throw new ConflictosReservaPeriodicaException(conflictos);
+		List<Reserva> realizadas = serie.getReservas();
+		for (Reserva r : realizadas)
+			guardar(r);
+		return realizadas;
+	}
+
+	/**
+	 * Comprueba todas las reservas de una reserva periódica sin guardar ninguna,
+	 * igual que Reservas
+	 *
+	 * @param serie
+	 *            la reserva periódica a comprobar
+	 * @return el motivo por el que falla cada día que no se puede reservar
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 */
+	public SortedMap<LocalDate, String> comprobarPeriodica(ReservaPeriodica serie) throws IllegalArgumentException {
+		return comprobarPeriodica(serie, true);
+	}
+
+	/**
+	 * Comprueba todas las reservas de una reserva periódica sin guardar ninguna
+	 *
+	 * @param serie
+	 *            la reserva periódica a comprobar
+	 * @param comprobarMes
+	 *            si hay que comprobar que las reservas son para el mes siguiente
+	 *            o posteriores
+	 * @return el motivo por el que falla cada día que no se puede reservar
+	 * @throws IllegalArgumentException
+	 *             si la reserva periódica es nula
+	 */
+	private SortedMap<LocalDate, String> comprobarPeriodica(ReservaPeriodica serie, boolean comprobarMes)
+			throws IllegalArgumentException {
+		if (serie == null)
+			throw new IllegalArgumentException("No se puede realizar una reserva periódica nula.");
+		SortedMap<LocalDate, String> conflictos = new TreeMap<LocalDate, String>();
+		Map<YearMonth, Float> puntosPendientes = new HashMap<YearMonth, Float>();
+		for (Reserva r : serie.getReservas()) {
+			YearMonth mes = YearMonth.from(r.getPermanencia().getDia());
+			Float pendientes = puntosPendientes.get(mes);
+			String conflicto = comprobar(r, comprobarMes, pendientes == null ? 0f : pendientes);
+			if (conflicto != null)
+				conflictos.put(r.getPermanencia().getDia(), conflicto);
+			puntosPendientes.put(mes, (pendientes == null ? 0f : pendientes) + r.getPuntos());
+		}
+		return conflictos;
+	}
+
+	/**
+	 * Obtiene los puntos que ha gastado un profesor en sus reservas de un mes
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @param mes
+	 *            el mes
+	 * @return los puntos gastados
+	 * @throws IllegalArgumentException
+	 *             si el profesor o el mes son nulos
+	 */
+	public float getPuntosGastados(Profesor profesor, YearMonth mes) throws IllegalArgumentException {
+		if (profesor == null)
+			throw new IllegalArgumentException("El profesor no puede ser nulo.");
+		if (mes == null)
+			throw new IllegalArgumentException("El mes no puede ser nulo.");
+		Integer numero = numerosProfesores.get(profesor.getNombre());
+		if (numero == null)
+			return 0f;
+		return Float.intBitsToFloat((int) getPuntos().get(getClave(numero, mes), 0L));
+	}
+
+	/**
+	 * Busca una reserva en la colección
+	 *
+	 * @param reserva
+	 *            la reserva a buscar
+	 * @return la reserva guardada o null si no existe
+	 */
+	public Reserva buscar(Reserva reserva) {
+		if (reserva == null)
+			return null;
+		int fila = buscarFila(reserva);
+		return fila == SIN_FILA ? null : getReserva(fila);
+	}
+
+	/**
+	 * Borra una reserva de la colección
+	 *
+	 * @param reserva
+	 *            la reserva a borrar
+	 * @throws IllegalArgumentException
+	 *             si la reserva es nula
+	 * @throws OperationNotSupportedException
+	 *             si la reserva no existe
+	 */
+	public void borrar(Reserva reserva) throws OperationNotSupportedException, IllegalArgumentException {
+		if (reserva == null)
+			throw new IllegalArgumentException("No se puede anular una reserva nula.");
+		int fila = buscarFila(reserva);
+		if (fila == SIN_FILA)
+			throw new OperationNotSupportedException("La reserva a anular no existe.");
+		quitar(fila);
+	}
+
+	/**
+	 * Borra todas las reservas de un aula recorriendo sólo su columna
+	 *
+	 * @param aula
+	 *            el aula
+	 * @return las reservas borradas
+	 * @throws IllegalArgumentException
+	 *             si el aula es nula
+	 */
+	public List<Reserva> borrarReservasAula(Aula aula) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se pueden borrar las reservas de un aula nula.");
+		return borrarTodas(true, numerosAulas.get(aula.getNombre()));
+	}
+
+	/**
+	 * Borra todas las reservas de un profesor recorriendo sólo su columna
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @return las reservas borradas
+	 * @throws IllegalArgumentException
+	 *             si el profesor es nulo
+	 */
+	public List<Reserva> borrarReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+		if (profesor == null)
+			throw new IllegalArgumentException("No se pueden borrar las reservas de un profesor nulo.");
+		return borrarTodas(false, numerosProfesores.get(profesor.getNombre()));
+	}
+
+	/**
+	 * Borra todas las reservas de los días anteriores al indicado recorriendo sólo
+	 * la columna de los días, como borrarTodas
+	 *
+	 * @param dia
+	 *            el primer día cuyas reservas se conservan
+	 * @return las reservas borradas
+	 * @throws IllegalArgumentException
+	 *             si el día es nulo
+	 */
+	public List<Reserva> borrarReservasAnteriores(LocalDate dia) throws IllegalArgumentException {
+		if (dia == null)
+			throw new IllegalArgumentException("No se pueden borrar las reservas anteriores a un día nulo.");
+		long limite = dia.toEpochDay();
+		List<Reserva> borradas = new ArrayList<Reserva>();
+		for (int i = getNumReservas() - 1; i >= 0; i--) {
+			if (leerDia(i) < limite) {
+				borradas.add(getReserva(i));
+				quitar(i);
+			}
+		}
+		Collections.reverse(borradas);
+		return borradas;
+	}
+
+	/**
+	 * Borra las filas que tienen un número en una columna. Se recorren de la
+	 * última a la primera, de forma que la fila que se mueve a cada hueco ya se
+	 * ha comprobado
+	 *
+	 * @param porAula
+	 *            true para buscar en la columna de las aulas, false en la de los
+	 *            profesores
+	 * @param numero
+	 *            el número buscado, o null si no tiene reservas
+	 * @return las reservas borradas
+	 */
+	private List<Reserva> borrarTodas(boolean porAula, Integer numero) {
+		List<Reserva> borradas = new ArrayList<Reserva>();
+		if (numero == null)
+			return borradas;
+		for (int i = getNumReservas() - 1; i >= 0; i--) {
+			if (leerNumero(porAula, i) == numero) {
+				borradas.add(getReserva(i));
+				quitar(i);
+			}
+		}
+		Collections.reverse(borradas);
+		return borradas;
+	}
+
+	/**
+	 * Obtiene las salidas de todas las reservas de la colección
+	 *
+	 * @return la salida de las reservas
+	 */
+	public List<String> representar() {
+		int numReservas = getNumReservas();
+		List<String> representar = new ArrayList<String>(numReservas);
+		for (int i = 0; i < numReservas; i++)
+			representar.add(getReserva(i).toString());
+		return representar;
+	}
+
+	/**
+	 * Obtiene las salidas de una página de reservas de la colección, en el mismo
+	 * orden que representar
+	 *
+	 * @param desde
+	 *            la posición de la primera reserva de la página, empezando en 0
+	 * @param cantidad
+	 *            el número máximo de reservas de la página
+	 * @return la salida de las reservas de la página, vacía si desde está después
+	 *         del final
+	 * @throws IllegalArgumentException
+	 *             si desde o cantidad son negativos
+	 */
+	public List<String> representar(int desde, int cantidad) throws IllegalArgumentException {
+		if (desde < 0)
+			throw new IllegalArgumentException("La posición de la página no puede ser negativa.");
+		if (cantidad < 0)
+			throw new IllegalArgumentException("El tamaño de la página no puede ser negativo.");
+		int numReservas = getNumReservas();
+		int hasta = desde + Math.min(cantidad, Math.max(0, numReservas - desde));
+		List<String> representar = new ArrayList<String>(Math.max(0, hasta - desde));
+		for (int i = desde; i < hasta; i++)
+			representar.add(getReserva(i).toString());
+		return representar;
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor en el orden de sus filas, recorriendo
+	 * las filas enlazadas de cada mes en que ha tenido reservas
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @return sus reservas
+	 * @throws IllegalArgumentException
+	 *             si el profesor es nulo
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor) throws IllegalArgumentException {
+		if (profesor == null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		Integer numero = numerosProfesores.get(profesor.getNombre());
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		if (numero == null)
+			return reservas;
+		long meses = getPuntos().get(getClave(numero, MESES_PROFESOR), SIN_FILA);
+		if (meses == SIN_FILA)
+			return reservas;
+		int primerMes = (int) (meses >>> 32);
+		int ultimoMes = (int) meses;
+		if ((long) ultimoMes - primerMes >= getNumReservas())
+			return getReservas(false, numero);
+		FilasEncontradas encontradas = new FilasEncontradas();
+		for (int mes = primerMes; mes <= ultimoMes; mes++) {
+			long puntos = getPuntos().get(getClave(numero, mes), SIN_FILA);
+			if (puntos == SIN_FILA)
+				continue;
+			for (int fila = (int) (puntos >>> 32); fila != SIN_FILA; fila = leerSiguienteProfesor(fila))
+				encontradas.anadir(fila);
+		}
+		encontradas.ordenar();
+		for (int i = 0; i < encontradas.numFilas; i++)
+			reservas.add(getReserva((int) encontradas.filas[i]));
+		return reservas;
+	}
+
+	/**
+	 * Obtiene las reservas de un aula
+	 *
+	 * @param aula
+	 *            el aula
+	 * @return sus reservas
+	 * @throws IllegalArgumentException
+	 *             si el aula es nula
+	 */
+	public List<Reserva> getReservasAula(Aula aula) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		return getReservas(true, numerosAulas.get(aula.getNombre()));
+	}
+
+	/**
+	 * Obtiene las reservas de las filas que tienen un número en una columna
+	 *
+	 * @param porAula
+	 *            true para buscar en la columna de las aulas, false en la de los
+	 *            profesores
+	 * @param numero
+	 *            el número buscado, o null si no tiene reservas
+	 * @return las reservas
+	 */
+	private List<Reserva> getReservas(boolean porAula, Integer numero) {
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		if (numero == null)
+			return reservas;
+		for (int i = 0; i < getNumReservas(); i++) {
+			if (leerNumero(porAula, i) == numero)
+				reservas.add(getReserva(i));
+		}
+		return reservas;
+	}
+
+	/**
+	 * Obtiene el número del aula o del profesor de una fila
+	 *
+	 * @param porAula
+	 *            true para el aula, false para el profesor
+	 * @param fila
+	 *            la fila
+	 * @return el número
+	 */
+	private int leerNumero(boolean porAula, int fila) {
+		return porAula ? leerAula(fila) : leerProfesor(fila);
+	}
+
+	/**
+	 * Obtiene las reservas realizadas entre dos días, ambos incluidos, ordenadas
+	 * por día. Si hay menos días por aula que reservas se consulta la tabla de
+	 * ocupación de cada aula día a día; si no, se recorre la columna de los días.
+	 * Sólo se ordenan las filas encontradas; las reservas se crean según se
+	 * recorre la secuencia, así que debe consumirse antes de volver a modificar
+	 * la colección
+	 *
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas de esos días
+	 * @throws IllegalArgumentException
+	 *             si algún día es nulo o el último es anterior al primero
+	 */
+	public Stream<Reserva> getReservas(LocalDate desde, LocalDate hasta) throws IllegalArgumentException {
+		Reservas.comprobarDias(desde, hasta);
+		int primero = (int) desde.toEpochDay();
+		int ultimo = (int) hasta.toEpochDay();
+		if (((long) ultimo - primero + 1) * aulas.size() >= getNumReservas())
+			return getReservas(false, null, desde, hasta);
+		FilasEncontradas encontradas = new FilasEncontradas();
+		for (int dia = primero; dia <= ultimo; dia++) {
+			for (int numero = 0; numero < aulas.size(); numero++)
+				buscarFilasDia(numero, dia, primero, encontradas);
+		}
+		encontradas.ordenar();
+		return getReservas(encontradas);
+	}
+
+	/**
+	 * Obtiene las reservas de un aula entre dos días, ambos incluidos, ordenadas
+	 * por día, como getReservas. Si hay menos días que reservas se consulta la
+	 * tabla de ocupación día a día en lugar de recorrer todas las filas
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del aula esos días
+	 * @throws IllegalArgumentException
+	 *             si el aula o algún día son nulos, o el último día es anterior
+	 *             al primero
+	 */
+	public Stream<Reserva> getReservasAula(Aula aula, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas realizadas sobre un aula nula.");
+		Reservas.comprobarDias(desde, hasta);
+		Integer numero = numerosAulas.get(aula.getNombre());
+		if (numero == null)
+			return Stream.empty();
+		int primero = (int) desde.toEpochDay();
+		int ultimo = (int) hasta.toEpochDay();
+		if ((long) ultimo - primero >= getNumReservas())
+			return getReservas(true, numero, desde, hasta);
+		FilasEncontradas encontradas = new FilasEncontradas();
+		for (int dia = primero; dia <= ultimo; dia++)
+			buscarFilasDia(numero, dia, primero, encontradas);
+		encontradas.ordenar();
+		return getReservas(encontradas);
+	}
+
+	/**
+	 * Añade las filas enlazadas de un aula un día, junto a su día contado desde
+	 * el primero, como en getReservas
+	 *
+	 * @param numAula
+	 *            el número del aula
+	 * @param dia
+	 *            el día en días desde 1970
+	 * @param primero
+	 *            el primer día consultado
+	 * @param encontradas
+	 *            las filas a las que añadirlas
+	 */
+	private void buscarFilasDia(int numAula, int dia, int primero, FilasEncontradas encontradas) {
+		long valor = getOcupacion().get(getClave(numAula, dia), SIN_FILA);
+		if (valor == SIN_FILA)
+			return;
+		for (int fila = (int) (valor >>> 32); fila != SIN_FILA; fila = leerSiguiente(fila))
+			encontradas.anadir(((long) (dia - primero) << 32) | fila);
+	}
+
+	/**
+	 * Obtiene las reservas de un profesor entre dos días, ambos incluidos,
+	 * ordenadas por día, como getReservas. Si hay menos meses con posibles
+	 * reservas del profesor que reservas se recorren sus filas enlazadas de cada
+	 * mes en lugar de todas las filas
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del profesor esos días
+	 * @throws IllegalArgumentException
+	 *             si el profesor o algún día son nulos, o el último día es
+	 *             anterior al primero
+	 */
+	public Stream<Reserva> getReservasProfesor(Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException {
+		if (profesor == null)
+			throw new IllegalArgumentException("No se pueden comprobar las reservas de un profesor nulo.");
+		Reservas.comprobarDias(desde, hasta);
+		Integer numero = numerosProfesores.get(profesor.getNombre());
+		if (numero == null)
+			return Stream.empty();
+		long meses = getPuntos().get(getClave(numero, MESES_PROFESOR), SIN_FILA);
+		if (meses == SIN_FILA)
+			return Stream.empty();
+		int primero = (int) desde.toEpochDay();
+		int ultimo = (int) hasta.toEpochDay();
+		int primerMes = Math.max(getMesDia(primero), (int) (meses >>> 32));
+		int ultimoMes = Math.min(getMesDia(ultimo), (int) meses);
+		if ((long) ultimoMes - primerMes >= getNumReservas())
+			return getReservas(false, numero, desde, hasta);
+		FilasEncontradas encontradas = new FilasEncontradas();
+		for (int mes = primerMes; mes <= ultimoMes; mes++) {
+			long puntos = getPuntos().get(getClave(numero, mes), SIN_FILA);
+			if (puntos == SIN_FILA)
+				continue;
+			for (int fila = (int) (puntos >>> 32); fila != SIN_FILA; fila = leerSiguienteProfesor(fila)) {
+				int dia = leerDia(fila);
+				if (dia >= primero && dia <= ultimo)
+					encontradas.anadir(((long) (dia - primero) << 32) | fila);
+			}
+		}
+		encontradas.ordenar();
+		return getReservas(encontradas);
+	}
+
+	/**
+	 * Busca las filas entre dos días y, opcionalmente, con un número en una
+	 * columna. Cada fila encontrada se guarda junto a su día en un long para
+	 * ordenarlas por día sin crear objetos
+	 *
+	 * @param porAula
+	 *            true para filtrar por la columna de las aulas, false por la de
+	 *            los profesores
+	 * @param numero
+	 *            el número buscado en la columna, o null para no filtrar
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas de esas filas
+	 */
+	private Stream<Reserva> getReservas(boolean porAula, Integer numero, LocalDate desde, LocalDate hasta) {
+		int primero = (int) desde.toEpochDay();
+		int ultimo = (int) hasta.toEpochDay();
+		FilasEncontradas encontradas = new FilasEncontradas();
+		for (int i = 0; i < getNumReservas(); i++) {
+			int dia = leerDia(i);
+			if (dia >= primero && dia <= ultimo && (numero == null || leerNumero(porAula, i) == numero))
+				encontradas.anadir(((long) (dia - primero) << 32) | i);
+		}
+		encontradas.ordenar();
+		return getReservas(encontradas);
+	}
+
+	/**
+	 * Crea las reservas de unas filas según se recorre la secuencia
+	 *
+	 * @param encontradas
+	 *            las filas, en los 32 bits bajos de cada long
+	 * @return las reservas de esas filas
+	 */
+	private Stream<Reserva> getReservas(FilasEncontradas encontradas) {
+		return Arrays.stream(encontradas.filas, 0, encontradas.numFilas).mapToObj(new LongFunction<Reserva>() {
+			public Reserva apply(long encontrada) {
+				return getReserva((int) encontrada);
+			}
+		});
+	}
+
+	/**
+	 * Obtiene las reservas realizadas en una permanencia, en el orden de sus
+	 * filas. Se consulta la ocupación de cada aula ese día y sólo se recorren las
+	 * filas de las aulas que tienen ocupada esa franja
+	 *
+	 * @param permanencia
+	 *            la permanencia
+	 * @return las reservas de esa permanencia
+	 * @throws IllegalArgumentException
+	 *             si la permanencia es nula
+	 */
+	public List<Reserva> getReservasPermanencia(Permanencia permanencia) throws IllegalArgumentException {
+		if (permanencia == null)
+			throw new IllegalArgumentException("No se pueden consultar las reservas de una permanencia nula.");
+		int dia = (int) permanencia.getDia().toEpochDay();
+		int buscada = getFranja(permanencia);
+		FilasEncontradas encontradas = new FilasEncontradas();
+		for (int numero = 0; numero < aulas.size(); numero++) {
+			long valor = getOcupacion().get(getClave(numero, dia), 0L);
+			if (((int) valor & (1 << buscada)) == 0)
+				continue;
+			int fila = (int) (valor >>> 32);
+			while (leerFranja(fila) != buscada)
+				fila = leerSiguiente(fila);
+			encontradas.anadir(fila);
+		}
+		encontradas.ordenar();
+		List<Reserva> reservas = new ArrayList<Reserva>(encontradas.numFilas);
+		for (int i = 0; i < encontradas.numFilas; i++)
+			reservas.add(getReserva((int) encontradas.filas[i]));
+		return reservas;
+	}
+
+	/**
+	 * Comprueba si un aula está disponible en una permanencia
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param permanencia
+	 *            la permanencia
+	 * @return true si está disponible, false si está reservada
+	 * @throws IllegalArgumentException
+	 *             si el aula o la permanencia son nulas, o si el tipo de
+	 *             permanencia no coincide con el de las reservas de ese aula ese
+	 *             día
+	 */
+	public boolean consultarDisponibilidad(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de un aula nula.");
+		if (permanencia == null)
+			throw new IllegalArgumentException("No se puede consultar la disponibilidad de una permanencia nula.");
+		int bits = getBits(aula, permanencia.getDia());
+		int bit = 1 << getFranja(permanencia);
+		if ((bit & MASCARA_HORAS) != 0 && (bits & MASCARA_TRAMOS) != 0)
+			throw new IllegalArgumentException("Las reservas realizadas para ese aula y día son por tramo.");
+		if ((bit & MASCARA_TRAMOS) != 0 && (bits & MASCARA_HORAS) != 0)
+			throw new IllegalArgumentException("Las reservas realizadas para ese aula y día son por hora.");
+		return (bits & bit) == 0;
+	}
+
+	/**
+	 * Comprueba si un aula se puede reservar en una permanencia, sin lanzar una
+	 * excepción si ese día tiene reservas del otro tipo de permanencia
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param permanencia
+	 *            la permanencia
+	 * @return true si se puede reservar, false si no
+	 * @throws IllegalArgumentException
+	 *             si el aula o la permanencia son nulas
+	 */
+	public boolean estaLibre(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se puede consultar la ocupación de un aula nula.");
+		if (permanencia == null)
+			throw new IllegalArgumentException("No se puede consultar la ocupación de una permanencia nula.");
+		int bit = 1 << getFranja(permanencia);
+		int incompatibles = (bit & MASCARA_HORAS) != 0 ? MASCARA_TRAMOS : MASCARA_HORAS;
+		return (getBits(aula, permanencia.getDia()) & (bit | incompatibles)) == 0;
+	}
+
+	/**
+	 * Obtiene las permanencias en las que un aula se puede reservar un día
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param dia
+	 *            el día
+	 * @return las permanencias libres
+	 * @throws IllegalArgumentException
+	 *             si el aula o el día son nulos
+	 */
+	public List<Permanencia> getPermanenciasLibres(Aula aula, LocalDate dia) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se puede consultar la ocupación de un aula nula.");
+		if (dia == null)
+			throw new IllegalArgumentException("No se puede consultar la ocupación de un día nulo.");
+		int bits = getBits(aula, dia);
+		List<Permanencia> libres = new ArrayList<Permanencia>();
+		for (int i = 0; i < NUM_HORAS + TRAMOS.length; i++) {
+			int incompatibles = i < NUM_HORAS ? MASCARA_TRAMOS : MASCARA_HORAS;
+			if ((bits & ((1 << i) | incompatibles)) == 0)
+				libres.add(getPermanencia((int) dia.toEpochDay(), i));
+		}
+		return libres;
+	}
+
+	/**
+	 * Filas encontradas en una consulta, cada una en un long que puede llevar
+	 * delante el valor por el que ordenarlas, para no crear objetos
+	 */
+	private static final class FilasEncontradas {
+
+		private long[] filas = new long[16];
+		private int numFilas;
+
+		/**
+		 * Añade una fila al final
+		 *
+		 * @param fila
+		 *            la fila, en los 32 bits bajos
+		 */
+		void anadir(long fila) {
+			if (numFilas == filas.length)
+				filas = Arrays.copyOf(filas, numFilas * 2);
+			filas[numFilas++] = fila;
+		}
+
+		/**
+		 * Ordena las filas encontradas
+		 */
+		void ordenar() {
+			Arrays.sort(filas, 0, numFilas);
+		}
+
+	}
+
+}
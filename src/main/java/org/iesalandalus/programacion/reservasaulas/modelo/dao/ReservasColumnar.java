@@ -0,0 +1,229 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.util.Arrays;
+
+/**
+ * Colección de reservas guardada por columnas en memoria: cada fila ocupa una
+ * posición de varios arrays de tipos primitivos (el número del profesor, el
+ * número del aula, el día como días desde 1970 y la hora o el tramo en un
+ * byte), y las tablas de ocupación y puntos son TablaPrimitiva. Así una reserva
+ * ocupa unos pocos bytes en lugar de un grafo de objetos.
+ *
+ * @see ReservasCodificadas
+ * @see TablaPrimitiva
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class ReservasColumnar extends ReservasCodificadas {
+
+	private static final int CAPACIDAD_INICIAL = 16;
+
+	// Columnas de las reservas: cada fila es una reserva
+	private int[] profesor;
+	private int[] aula;
+	private int[] dia;
+	private byte[] franja;
+	// Siguiente fila del mismo aula y día, o SIN_FILA
+	private int[] siguiente;
+	// Siguiente fila del mismo profesor y mes, o SIN_FILA
+	private int[] siguienteProfesor;
+	private int numReservas;
+	private TablaPrimitiva ocupacion;
+	private TablaPrimitiva puntos;
+
+	/**
+	 * Constructor por defecto. Inicializa la colección vacía
+	 */
+	public ReservasColumnar() {
+		vaciarFilas();
+	}
+
+	/**
+	 * Crea las columnas y las tablas vacías
+	 */
+	void vaciarFilas() {
+		profesor = new int[CAPACIDAD_INICIAL];
+		aula = new int[CAPACIDAD_INICIAL];
+		dia = new int[CAPACIDAD_INICIAL];
+		franja = new byte[CAPACIDAD_INICIAL];
+		siguiente = new int[CAPACIDAD_INICIAL];
+		siguienteProfesor = new int[CAPACIDAD_INICIAL];
+		numReservas = 0;
+		ocupacion = new TablaPrimitiva();
+		puntos = new TablaPrimitiva();
+	}
+
+	/**
+	 * Obtiene el número de reservas de la colección
+	 *
+	 * @return el número de reservas
+	 */
+	public int getNumReservas() {
+		return numReservas;
+	}
+
+	/**
+	 * Cambia el número de filas ocupadas
+	 *
+	 * @param numReservas
+	 *            el número de filas
+	 */
+	void setNumReservas(int numReservas) {
+		this.numReservas = numReservas;
+	}
+
+	/**
+	 * Amplía las columnas para que quepan al menos las filas indicadas
+	 *
+	 * @param filas
+	 *            el número de filas
+	 */
+	void asegurarCapacidad(int filas) {
+		if (filas <= profesor.length)
+			return;
+		int capacidad = Math.max(filas, profesor.length * 2);
+		profesor = Arrays.copyOf(profesor, capacidad);
+		aula = Arrays.copyOf(aula, capacidad);
+		dia = Arrays.copyOf(dia, capacidad);
+		franja = Arrays.copyOf(franja, capacidad);
+		siguiente = Arrays.copyOf(siguiente, capacidad);
+		siguienteProfesor = Arrays.copyOf(siguienteProfesor, capacidad);
+	}
+
+	/**
+	 * Obtiene el número del profesor de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return el número del profesor
+	 */
+	int leerProfesor(int fila) {
+		return profesor[fila];
+	}
+
+	/**
+	 * Obtiene el número del aula de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return el número del aula
+	 */
+	int leerAula(int fila) {
+		return aula[fila];
+	}
+
+	/**
+	 * Obtiene el día de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return el día en días desde 1970
+	 */
+	int leerDia(int fila) {
+		return dia[fila];
+	}
+
+	/**
+	 * Obtiene la franja de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return la franja
+	 */
+	int leerFranja(int fila) {
+		return franja[fila];
+	}
+
+	/**
+	 * Obtiene la siguiente fila del mismo aula y día que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return la siguiente fila o SIN_FILA
+	 */
+	int leerSiguiente(int fila) {
+		return siguiente[fila];
+	}
+
+	/**
+	 * Obtiene la siguiente fila del mismo profesor y mes que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return la siguiente fila o SIN_FILA
+	 */
+	int leerSiguienteProfesor(int fila) {
+		return siguienteProfesor[fila];
+	}
+
+	/**
+	 * Escribe todos los valores de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @param profesor
+	 *            el número del profesor
+	 * @param aula
+	 *            el número del aula
+	 * @param dia
+	 *            el día en días desde 1970
+	 * @param franja
+	 *            la franja
+	 * @param siguiente
+	 *            la siguiente fila del mismo aula y día o SIN_FILA
+	 * @param siguienteProfesor
+	 *            la siguiente fila del mismo profesor y mes o SIN_FILA
+	 */
+	void escribirFila(int fila, int profesor, int aula, int dia, int franja, int siguiente, int siguienteProfesor) {
+		this.profesor[fila] = profesor;
+		this.aula[fila] = aula;
+		this.dia[fila] = dia;
+		this.franja[fila] = (byte) franja;
+		this.siguiente[fila] = siguiente;
+		this.siguienteProfesor[fila] = siguienteProfesor;
+	}
+
+	/**
+	 * Cambia la siguiente fila del mismo aula y día que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @param siguiente
+	 *            la siguiente fila o SIN_FILA
+	 */
+	void escribirSiguiente(int fila, int siguiente) {
+		this.siguiente[fila] = siguiente;
+	}
+
+	/**
+	 * Cambia la siguiente fila del mismo profesor y mes que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @param siguiente
+	 *            la siguiente fila o SIN_FILA
+	 */
+	void escribirSiguienteProfesor(int fila, int siguiente) {
+		this.siguienteProfesor[fila] = siguiente;
+	}
+
+	/**
+	 * Obtiene la tabla con la ocupación de cada aula cada día
+	 *
+	 * @return la tabla de ocupación
+	 */
+	ITablaClaves getOcupacion() {
+		return ocupacion;
+	}
+
+	/**
+	 * Obtiene la tabla con los puntos gastados por cada profesor cada mes
+	 *
+	 * @return la tabla de puntos
+	 */
+	ITablaClaves getPuntos() {
+		return puntos;
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,576 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+
+/**
+ * Colección de reservas guardada en ficheros proyectados en memoria con
+ * FileChannel.map, para poder consultar años de reservas sin que ocupen el
+ * montón. Sólo los profesores y las aulas se guardan también en memoria.
+ *
+ * Se usan cuatro ficheros dentro de un directorio:
+ * <ul>
+ * <li>reservas.dat: una cabecera (int magia, short versión, short estado, int
+ * reservas, int reservado) y una fila de tamaño fijo por reserva (int
+ * profesor, int aula, int día, int siguiente fila del mismo aula y día, byte
+ * franja, int siguiente fila del mismo profesor y mes)</li>
+ * <li>ocupacion.dat: la tabla de ocupación por aula y día, una TablaMapeada</li>
+ * <li>puntos.dat: la tabla de puntos por profesor y mes, otra TablaMapeada</li>
+ * <li>diccionario.dat: las aulas y profesores numerados, que sólo se añaden al
+ * final</li>
+ * </ul>
+ *
+ * Los cambios se escriben directamente en la memoria proyectada y el sistema
+ * operativo los lleva al disco cuando quiere. Los ficheros sólo son coherentes
+ * entre sí después de sincronizar o cerrar; si el programa termina antes, hay
+ * que volver a cargarlos, por ejemplo desde el diario o una instantánea. Para
+ * detectarlo, antes del primer cambio se marca el estado de la cabecera como
+ * sucio y se lleva a disco, y la marca sólo se quita después de sincronizar o
+ * al cerrar. Un almacén que se quedó sucio no se abre. Las proyecciones no
+ * pueden pasar de 2 GB, unos 102 millones de reservas.
+ *
+ * @see ReservasCodificadas
+ * @see TablaMapeada
+ * @author Juan Antonio Manzano Plaza
+ * @version 3
+ *
+ */
+public class ReservasMapeadas extends ReservasCodificadas {
+
+	private static final int MAGIA = 0x52534152;
+	private static final short VERSION = 2;
+	private static final int POSICION_ESTADO = 6;
+	private static final short LIMPIO = 0;
+	private static final short SUCIO = 1;
+	private static final int CABECERA = 16;
+	private static final int TAMANO_FILA = 21;
+	private static final int CAPACIDAD_INICIAL = 1024;
+	private static final int CAPACIDAD_MAXIMA = (Integer.MAX_VALUE - CABECERA) / TAMANO_FILA;
+	private static final byte TIPO_AULA = 0;
+	private static final byte TIPO_PROFESOR = 1;
+	private static final String ERROR_FORMATO = "El directorio no contiene un almacén de reservas válido.";
+
+	private Path directorio;
+	private FileChannel canal;
+	private MappedByteBuffer filas;
+	private int capacidad;
+	private int numReservas;
+	private TablaMapeada ocupacion;
+	private TablaMapeada puntos;
+	private FileChannel diccionario;
+	// Si ya se ha marcado en disco que los ficheros se están modificando
+	private boolean sucio;
+	// Mientras se lee el diccionario no se vuelven a escribir sus entradas
+	private boolean leyendoDiccionario;
+
+	/**
+	 * Constructor de la clase. Abre el almacén guardado en un directorio o lo
+	 * crea vacío si todavía no existe
+	 *
+	 * @param directorio
+	 *            el directorio del almacén
+	 * @throws IllegalArgumentException
+	 *             si el directorio es nulo
+	 * @throws IOException
+	 *             si no se pueden abrir los ficheros, no son un almacén válido o
+	 *             no se cerró bien. En ese caso se cierra todo lo que se hubiera
+	 *             abierto
+	 */
+	public ReservasMapeadas(Path directorio) throws IllegalArgumentException, IOException {
+		if (directorio == null)
+			throw new IllegalArgumentException("El directorio del almacén no puede ser nulo.");
+		this.directorio = directorio;
+		Files.createDirectories(directorio);
+		canal = FileChannel.open(directorio.resolve("reservas.dat"), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			if (canal.size() == 0) {
+				proyectar(CAPACIDAD_INICIAL);
+				filas.putInt(0, MAGIA);
+				filas.putShort(4, VERSION);
+				setNumReservas(0);
+			} else {
+				long tamano = canal.size() - CABECERA;
+				if (tamano < 0 || tamano % TAMANO_FILA != 0 || tamano / TAMANO_FILA > CAPACIDAD_MAXIMA)
+					throw new IOException(ERROR_FORMATO);
+				proyectar((int) (tamano / TAMANO_FILA));
+				if (filas.getInt(0) != MAGIA)
+					throw new IOException(ERROR_FORMATO);
+				if (filas.getShort(4) != VERSION)
+					throw new IOException("La versión del almacén de reservas no está soportada.");
+				if (filas.getShort(POSICION_ESTADO) != LIMPIO)
+					throw new IOException(
+							"El almacén de reservas no se cerró bien y hay que volver a cargarlo en uno nuevo.");
+				numReservas = filas.getInt(8);
+				if (numReservas < 0 || numReservas > capacidad)
+					throw new IOException(ERROR_FORMATO);
+			}
+			ocupacion = new TablaMapeada(directorio.resolve("ocupacion.dat"));
+			puntos = new TablaMapeada(directorio.resolve("puntos.dat"));
+			leerDiccionario(directorio.resolve("diccionario.dat"));
+			diccionario = FileChannel.open(directorio.resolve("diccionario.dat"), StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} catch (IOException | RuntimeException e) {
+			liberar(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Cierra los ficheros abiertos por un constructor que ha fallado y suelta
+	 * las proyecciones, que se liberan al recogerse como basura
+	 *
+	 * @param error
+	 *            el error del constructor, al que se añaden los que se produzcan
+	 *            al cerrar
+	 */
+	private void liberar(Exception error) {
+		filas = null;
+		ocupacion = null;
+		puntos = null;
+		try {
+			if (diccionario != null)
+				diccionario.close();
+		} catch (IOException e) {
+			error.addSuppressed(e);
+		}
+		try {
+			canal.close();
+		} catch (IOException e) {
+			error.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Método get para el directorio del almacén
+	 *
+	 * @return el directorio
+	 */
+	public Path getDirectorio() {
+		return directorio;
+	}
+
+	/**
+	 * Proyecta en memoria la cabecera y el número de filas indicado del fichero
+	 * de reservas, ampliándolo si hace falta
+	 *
+	 * @param capacidad
+	 *            el número de filas
+	 * @throws IOException
+	 *             si no se puede proyectar el fichero
+	 */
+	private void proyectar(int capacidad) throws IOException {
+		filas = canal.map(FileChannel.MapMode.READ_WRITE, 0, CABECERA + (long) capacidad * TAMANO_FILA);
+		this.capacidad = capacidad;
+	}
+
+	/**
+	 * Lee las aulas y profesores del diccionario y los numera en el mismo orden
+	 * en que se guardaron
+	 *
+	 * @param fichero
+	 *            el fichero del diccionario
+	 * @throws IOException
+	 *             si no se puede leer o no es válido
+	 */
+	private void leerDiccionario(Path fichero) throws IOException {
+		if (!Files.exists(fichero))
+			return;
+		leyendoDiccionario = true;
+		try (DataInputStream datos = new DataInputStream(new BufferedInputStream(Files.newInputStream(fichero)))) {
+			int tipo;
+			while ((tipo = datos.read()) != -1) {
+				int numero = datos.readInt();
+				int numerado;
+				if (tipo == TIPO_AULA) {
+					String nombre = leerTexto(datos);
+					numerado = numerar(new Aula(nombre, datos.readInt()));
+				} else if (tipo == TIPO_PROFESOR) {
+					String nombre = leerTexto(datos);
+					String correo = leerTexto(datos);
+					String telefono = leerTexto(datos);
+					numerado = numerar(telefono == null ? new Profesor(nombre, correo)
+							: new Profesor(nombre, correo, telefono));
+				} else
+					throw new IOException(ERROR_FORMATO);
+				if (numerado != numero)
+					throw new IOException(ERROR_FORMATO);
+			}
+		} catch (EOFException | IllegalArgumentException e) {
+			throw new IOException(ERROR_FORMATO, e);
+		} finally {
+			leyendoDiccionario = false;
+		}
+	}
+
+	/**
+	 * Añade un aula al final del diccionario
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param numero
+	 *            su número
+	 */
+	void registrar(Aula aula, int numero) {
+		if (leyendoDiccionario)
+			return;
+		modificar();
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream datos = new DataOutputStream(bytes);
+			datos.writeByte(TIPO_AULA);
+			datos.writeInt(numero);
+			escribirTexto(datos, aula.getNombre());
+			datos.writeInt(aula.getPuestos());
+			escribirDiccionario(bytes.toByteArray());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Añade un profesor al final del diccionario
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @param numero
+	 *            su número
+	 */
+	void registrar(Profesor profesor, int numero) {
+		if (leyendoDiccionario)
+			return;
+		modificar();
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream datos = new DataOutputStream(bytes);
+			datos.writeByte(TIPO_PROFESOR);
+			datos.writeInt(numero);
+			escribirTexto(datos, profesor.getNombre());
+			escribirTexto(datos, profesor.getCorreo());
+			escribirTexto(datos, profesor.getTelefono());
+			escribirDiccionario(bytes.toByteArray());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Marca el almacén como sucio antes de su primer cambio desde que se abrió o
+	 * se sincronizó. La marca se lleva a disco enseguida, ya que el sistema
+	 * operativo puede escribir antes cualquiera de las páginas que se modifiquen
+	 * después
+	 */
+	void modificar() {
+		if (sucio)
+			return;
+		filas.putShort(POSICION_ESTADO, SUCIO);
+		filas.force();
+		sucio = true;
+	}
+
+	/**
+	 * Escribe una entrada completa al final del diccionario
+	 *
+	 * @param entrada
+	 *            los bytes de la entrada
+	 * @throws IOException
+	 *             si no se puede escribir
+	 */
+	private void escribirDiccionario(byte[] entrada) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(entrada);
+		while (buffer.hasRemaining())
+			diccionario.write(buffer);
+	}
+
+	/**
+	 * Escribe un texto como su longitud en UTF-8 seguida de sus bytes, o -1 si es
+	 * nulo
+	 *
+	 * @param datos
+	 *            el flujo en el que escribir
+	 * @param texto
+	 *            el texto a escribir
+	 * @throws IOException
+	 *             si no se puede escribir
+	 */
+	private static void escribirTexto(DataOutputStream datos, String texto) throws IOException {
+		if (texto == null) {
+			datos.writeInt(-1);
+			return;
+		}
+		byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+		datos.writeInt(bytes.length);
+		datos.write(bytes);
+	}
+
+	/**
+	 * Lee un texto escrito con escribirTexto
+	 *
+	 * @param datos
+	 *            el flujo del que leer
+	 * @return el texto leído, o null si se guardó un texto nulo
+	 * @throws IOException
+	 *             si no se puede leer
+	 */
+	private static String leerTexto(DataInputStream datos) throws IOException {
+		int longitud = datos.readInt();
+		if (longitud < 0)
+			return null;
+		byte[] bytes = new byte[longitud];
+		datos.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Borra todas las filas, las dos tablas y el diccionario
+	 */
+	void vaciarFilas() {
+		try {
+			setNumReservas(0);
+			ocupacion.vaciar();
+			puntos.vaciar();
+			diccionario.truncate(0);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Obtiene el número de reservas de la colección
+	 *
+	 * @return el número de reservas
+	 */
+	public int getNumReservas() {
+		return numReservas;
+	}
+
+	/**
+	 * Cambia el número de filas ocupadas también en la cabecera del fichero
+	 *
+	 * @param numReservas
+	 *            el número de filas
+	 */
+	void setNumReservas(int numReservas) {
+		this.numReservas = numReservas;
+		filas.putInt(8, numReservas);
+	}
+
+	/**
+	 * Amplía el fichero de reservas, al menos al doble, para que quepan las filas
+	 * indicadas
+	 *
+	 * @param filas
+	 *            el número de filas
+	 * @throws UncheckedIOException
+	 *             si no se puede ampliar el fichero o se supera el tamaño máximo
+	 */
+	void asegurarCapacidad(int filas) throws UncheckedIOException {
+		if (filas <= capacidad)
+			return;
+		try {
+			if (filas > CAPACIDAD_MAXIMA)
+				throw new IOException("El almacén de reservas está lleno.");
+			proyectar((int) Math.min(CAPACIDAD_MAXIMA, Math.max(filas, 2L * capacidad)));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Obtiene la posición de una fila en el fichero de reservas
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return el desplazamiento desde el principio del fichero
+	 */
+	private static int getDesplazamiento(int fila) {
+		return CABECERA + fila * TAMANO_FILA;
+	}
+
+	/**
+	 * Obtiene el número del profesor de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return el número del profesor
+	 */
+	int leerProfesor(int fila) {
+		return filas.getInt(getDesplazamiento(fila));
+	}
+
+	/**
+	 * Obtiene el número del aula de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return el número del aula
+	 */
+	int leerAula(int fila) {
+		return filas.getInt(getDesplazamiento(fila) + 4);
+	}
+
+	/**
+	 * Obtiene el día de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return el día en días desde 1970
+	 */
+	int leerDia(int fila) {
+		return filas.getInt(getDesplazamiento(fila) + 8);
+	}
+
+	/**
+	 * Obtiene la siguiente fila del mismo aula y día que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return la siguiente fila o SIN_FILA
+	 */
+	int leerSiguiente(int fila) {
+		return filas.getInt(getDesplazamiento(fila) + 12);
+	}
+
+	/**
+	 * Obtiene la siguiente fila del mismo profesor y mes que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return la siguiente fila o SIN_FILA
+	 */
+	int leerSiguienteProfesor(int fila) {
+		return filas.getInt(getDesplazamiento(fila) + 17);
+	}
+
+	/**
+	 * Obtiene la franja de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return la franja
+	 */
+	int leerFranja(int fila) {
+		return filas.get(getDesplazamiento(fila) + 16);
+	}
+
+	/**
+	 * Escribe todos los valores de una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @param profesor
+	 *            el número del profesor
+	 * @param aula
+	 *            el número del aula
+	 * @param dia
+	 *            el día en días desde 1970
+	 * @param franja
+	 *            la franja
+	 * @param siguiente
+	 *            la siguiente fila del mismo aula y día o SIN_FILA
+	 * @param siguienteProfesor
+	 *            la siguiente fila del mismo profesor y mes o SIN_FILA
+	 */
+	void escribirFila(int fila, int profesor, int aula, int dia, int franja, int siguiente, int siguienteProfesor) {
+		int desplazamiento = getDesplazamiento(fila);
+		filas.putInt(desplazamiento, profesor);
+		filas.putInt(desplazamiento + 4, aula);
+		filas.putInt(desplazamiento + 8, dia);
+		filas.putInt(desplazamiento + 12, siguiente);
+		filas.put(desplazamiento + 16, (byte) franja);
+		filas.putInt(desplazamiento + 17, siguienteProfesor);
+	}
+
+	/**
+	 * Cambia la siguiente fila del mismo aula y día que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @param siguiente
+	 *            la siguiente fila o SIN_FILA
+	 */
+	void escribirSiguiente(int fila, int siguiente) {
+		filas.putInt(getDesplazamiento(fila) + 12, siguiente);
+	}
+
+	/**
+	 * Cambia la siguiente fila del mismo profesor y mes que una fila
+	 *
+	 * @param fila
+	 *            la fila
+	 * @param siguiente
+	 *            la siguiente fila o SIN_FILA
+	 */
+	void escribirSiguienteProfesor(int fila, int siguiente) {
+		filas.putInt(getDesplazamiento(fila) + 17, siguiente);
+	}
+
+	/**
+	 * Obtiene la tabla con la ocupación de cada aula cada día
+	 *
+	 * @return la tabla de ocupación
+	 */
+	ITablaClaves getOcupacion() {
+		return ocupacion;
+	}
+
+	/**
+	 * Obtiene la tabla con los puntos gastados por cada profesor cada mes
+	 *
+	 * @return la tabla de puntos
+	 */
+	ITablaClaves getPuntos() {
+		return puntos;
+	}
+
+	/**
+	 * Fuerza la escritura en disco de todos los ficheros del almacén y, cuando ya
+	 * están en disco, quita la marca de almacén sucio
+	 *
+	 * @throws IOException
+	 *             si no se puede escribir el diccionario
+	 */
+	public void sincronizar() throws IOException {
+		filas.force();
+		ocupacion.sincronizar();
+		puntos.sincronizar();
+		diccionario.force(true);
+		if (sucio) {
+			filas.putShort(POSICION_ESTADO, LIMPIO);
+			filas.force();
+			sucio = false;
+		}
+	}
+
+	/**
+	 * Sincroniza y cierra los ficheros del almacén. Después no se puede seguir
+	 * usando la colección
+	 *
+	 * @throws IOException
+	 *             si no se pueden escribir o cerrar los ficheros
+	 */
+	public void cerrar() throws IOException {
+		try {
+			sincronizar();
+		} finally {
+			diccionario.close();
+			canal.close();
+		}
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,302 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tabla de dispersión de claves long a valores long guardada en un fichero
+ * proyectado en memoria, de forma que no ocupa espacio en el montón. Usa
+ * direccionamiento abierto con sondeo lineal y desplaza hacia atrás las
+ * entradas al borrar, como TablaPrimitiva. Las claves no pueden ser
+ * Long.MIN_VALUE, que marca las posiciones libres.
+ *
+ * Formato:
+ *
+ * <pre>
+ * int magia, int capacidad, int entradas, int reservado
+ * [long clave, long valor]... (capacidad veces)
+ * </pre>
+ *
+ * Al ampliarse se escribe la tabla nueva en un fichero temporal que después
+ * sustituye al anterior.
+ *
+ * @see ITablaClaves
+ * @see ReservasMapeadas
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+class TablaMapeada implements ITablaClaves {
+
+	private static final int MAGIA = 0x52534154;
+	private static final long LIBRE = Long.MIN_VALUE;
+	private static final int CABECERA = 16;
+	private static final int TAMANO_ENTRADA = 16;
+	private static final int CAPACIDAD_INICIAL = 1024;
+	// Capacidad máxima para que la proyección no supere los 2 GB
+	private static final int CAPACIDAD_MAXIMA = 1 << 26;
+	private static final String ERROR_FORMATO = "El fichero no es una tabla válida.";
+
+	private Path fichero;
+	private MappedByteBuffer buffer;
+	private int capacidad;
+	private int numEntradas;
+
+	/**
+	 * Abre la tabla guardada en un fichero o la crea vacía si el fichero no existe
+	 *
+	 * @param fichero
+	 *            el fichero de la tabla
+	 * @throws IOException
+	 *             si no se puede abrir el fichero o no es una tabla válida
+	 */
+	TablaMapeada(Path fichero) throws IOException {
+		this.fichero = fichero;
+		if (!Files.exists(fichero) || Files.size(fichero) == 0) {
+			crear(fichero, CAPACIDAD_INICIAL);
+		} else {
+			proyectar();
+			if (buffer.getInt(0) != MAGIA)
+				throw new IOException(ERROR_FORMATO);
+			capacidad = buffer.getInt(4);
+			numEntradas = buffer.getInt(8);
+			if (Integer.bitCount(capacidad) != 1
+					|| Files.size(fichero) != CABECERA + (long) capacidad * TAMANO_ENTRADA)
+				throw new IOException(ERROR_FORMATO);
+		}
+	}
+
+	/**
+	 * Crea en un fichero una tabla vacía y la proyecta
+	 *
+	 * @param destino
+	 *            el fichero a crear
+	 * @param capacidad
+	 *            el número de posiciones, potencia de dos
+	 * @throws IOException
+	 *             si no se puede escribir el fichero
+	 */
+	private void crear(Path destino, int capacidad) throws IOException {
+		try (FileChannel canal = FileChannel.open(destino, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, CABECERA + (long) capacidad * TAMANO_ENTRADA);
+		}
+		this.capacidad = capacidad;
+		numEntradas = 0;
+		buffer.putInt(0, MAGIA);
+		buffer.putInt(4, capacidad);
+		buffer.putInt(8, 0);
+		for (int i = 0; i < capacidad; i++)
+			buffer.putLong(getDesplazamiento(i), LIBRE);
+	}
+
+	/**
+	 * Proyecta en memoria el fichero de la tabla completo
+	 *
+	 * @throws IOException
+	 *             si no se puede abrir el fichero
+	 */
+	private void proyectar() throws IOException {
+		try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			if (canal.size() < CABECERA || canal.size() > Integer.MAX_VALUE)
+				throw new IOException(ERROR_FORMATO);
+			buffer = canal.map(FileChannel.MapMode.READ_WRITE, 0, canal.size());
+		}
+	}
+
+	/**
+	 * Obtiene la posición en el fichero de una posición de la tabla
+	 *
+	 * @param posicion
+	 *            la posición de la tabla
+	 * @return el desplazamiento de su clave desde el principio del fichero
+	 */
+	private static int getDesplazamiento(int posicion) {
+		return CABECERA + posicion * TAMANO_ENTRADA;
+	}
+
+	/**
+	 * Obtiene el número de entradas de la tabla
+	 *
+	 * @return el número de entradas
+	 */
+	int getNumEntradas() {
+		return numEntradas;
+	}
+
+	/**
+	 * Borra todas las entradas y vuelve a la capacidad inicial
+	 *
+	 * @throws IOException
+	 *             si no se puede escribir el fichero
+	 */
+	void vaciar() throws IOException {
+		crear(fichero, CAPACIDAD_INICIAL);
+	}
+
+	/**
+	 * Calcula la posición en la que empezar a buscar una clave
+	 *
+	 * @param clave
+	 *            la clave
+	 * @return la posición inicial
+	 */
+	private int getPosicion(long clave) {
+		long dispersion = clave * 0x9E3779B97F4A7C15L;
+		return (int) (dispersion ^ (dispersion >>> 32)) & (capacidad - 1);
+	}
+
+	/**
+	 * Obtiene la clave guardada en una posición
+	 *
+	 * @param posicion
+	 *            la posición
+	 * @return la clave o LIBRE
+	 */
+	private long getClave(int posicion) {
+		return buffer.getLong(getDesplazamiento(posicion));
+	}
+
+	/**
+	 * Busca la posición de una clave
+	 *
+	 * @param clave
+	 *            la clave a buscar
+	 * @return la posición de la clave o, si no está, la posición libre en la que
+	 *         habría que guardarla
+	 */
+	private int buscar(long clave) {
+		int posicion = getPosicion(clave);
+		long guardada;
+		while ((guardada = getClave(posicion)) != LIBRE && guardada != clave)
+			posicion = (posicion + 1) & (capacidad - 1);
+		return posicion;
+	}
+
+	/**
+	 * Obtiene el valor de una clave
+	 *
+	 * @param clave
+	 *            la clave
+	 * @param porDefecto
+	 *            el valor a devolver si la clave no está
+	 * @return el valor de la clave o el valor por defecto
+	 */
+	public long get(long clave, long porDefecto) {
+		int posicion = buscar(clave);
+		if (getClave(posicion) == LIBRE)
+			return porDefecto;
+		return buffer.getLong(getDesplazamiento(posicion) + 8);
+	}
+
+	/**
+	 * Guarda el valor de una clave, sustituyendo el anterior si ya estaba
+	 *
+	 * @param clave
+	 *            la clave
+	 * @param valor
+	 *            el valor
+	 * @throws UncheckedIOException
+	 *             si hay que ampliar la tabla y no se puede escribir el fichero
+	 */
+	public void put(long clave, long valor) throws UncheckedIOException {
+		int posicion = buscar(clave);
+		if (getClave(posicion) == LIBRE) {
+			if ((numEntradas + 1) * 2 > capacidad) {
+				try {
+					ampliar();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+				posicion = buscar(clave);
+			}
+			buffer.putLong(getDesplazamiento(posicion), clave);
+			buffer.putInt(8, ++numEntradas);
+		}
+		buffer.putLong(getDesplazamiento(posicion) + 8, valor);
+	}
+
+	/**
+	 * Borra una clave. Las entradas que venían detrás en la misma secuencia de
+	 * sondeo se mueven hacia atrás para que se sigan encontrando
+	 *
+	 * @param clave
+	 *            la clave a borrar
+	 */
+	public void remove(long clave) {
+		int hueco = buscar(clave);
+		if (getClave(hueco) == LIBRE)
+			return;
+		int mascara = capacidad - 1;
+		int siguiente = (hueco + 1) & mascara;
+		long guardada;
+		while ((guardada = getClave(siguiente)) != LIBRE) {
+			int inicial = getPosicion(guardada);
+			if (((siguiente - inicial) & mascara) >= ((siguiente - hueco) & mascara)) {
+				buffer.putLong(getDesplazamiento(hueco), guardada);
+				buffer.putLong(getDesplazamiento(hueco) + 8, buffer.getLong(getDesplazamiento(siguiente) + 8));
+				hueco = siguiente;
+			}
+			siguiente = (siguiente + 1) & mascara;
+		}
+		buffer.putLong(getDesplazamiento(hueco), LIBRE);
+		buffer.putInt(8, --numEntradas);
+	}
+
+	/**
+	 * Duplica la capacidad de la tabla. La tabla nueva se escribe en un fichero
+	 * temporal del mismo directorio que después sustituye al anterior
+	 *
+	 * @throws IOException
+	 *             si no se puede escribir el fichero
+	 */
+	private void ampliar() throws IOException {
+		if (capacidad >= CAPACIDAD_MAXIMA)
+			throw new IOException("La tabla ha alcanzado su tamaño máximo.");
+		MappedByteBuffer anterior = buffer;
+		int capacidadAnterior = capacidad;
+		Path temporal = Files.createTempFile(fichero.toAbsolutePath().getParent(), fichero.getFileName().toString(),
+				".tmp");
+		try {
+			crear(temporal, capacidadAnterior * 2);
+			for (int i = 0; i < capacidadAnterior; i++) {
+				long clave = anterior.getLong(getDesplazamiento(i));
+				if (clave != LIBRE) {
+					int posicion = buscar(clave);
+					buffer.putLong(getDesplazamiento(posicion), clave);
+					buffer.putLong(getDesplazamiento(posicion) + 8, anterior.getLong(getDesplazamiento(i) + 8));
+					numEntradas++;
+				}
+			}
+			buffer.putInt(8, numEntradas);
+			buffer.force();
+			try {
+				Files.move(temporal, fichero, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporal, fichero, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} catch (IOException e) {
+			buffer = anterior;
+			capacidad = capacidadAnterior;
+			numEntradas = anterior.getInt(8);
+			throw e;
+		} finally {
+			Files.deleteIfExists(temporal);
+		}
+	}
+
+	/**
+	 * Fuerza la escritura en disco de los cambios de la tabla
+	 */
+	void sincronizar() {
+		buffer.force();
+	}
+
+}
\ No newline at end of file
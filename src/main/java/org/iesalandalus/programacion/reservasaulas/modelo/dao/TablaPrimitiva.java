@@ -0,0 +1,161 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de dispersión de claves long a valores long guardada en dos arrays, sin
+ * crear un objeto por entrada como HashMap. Usa direccionamiento abierto con
+ * sondeo lineal y, al borrar, desplaza hacia atrás las entradas siguientes en
+ * lugar de dejar marcas de borrado. Las claves no pueden ser Long.MIN_VALUE,
+ * que marca las posiciones libres.
+ *
+ * @see ITablaClaves
+ * @see ReservasColumnar
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+class TablaPrimitiva implements ITablaClaves {
+
+	private static final long LIBRE = Long.MIN_VALUE;
+	private static final int CAPACIDAD_INICIAL = 16;
+
+	private long[] claves;
+	private long[] valores;
+	private int numEntradas;
+
+	/**
+	 * Constructor por defecto. Crea la tabla vacía
+	 */
+	TablaPrimitiva() {
+		vaciar();
+	}
+
+	/**
+	 * Borra todas las entradas
+	 */
+	void vaciar() {
+		claves = new long[CAPACIDAD_INICIAL];
+		valores = new long[CAPACIDAD_INICIAL];
+		Arrays.fill(claves, LIBRE);
+		numEntradas = 0;
+	}
+
+	/**
+	 * Obtiene el número de entradas de la tabla
+	 *
+	 * @return el número de entradas
+	 */
+	int getNumEntradas() {
+		return numEntradas;
+	}
+
+	/**
+	 * Calcula la posición en la que empezar a buscar una clave
+	 *
+	 * @param clave
+	 *            la clave
+	 * @return la posición inicial
+	 */
+	private int getPosicion(long clave) {
+		long dispersion = clave * 0x9E3779B97F4A7C15L;
+		return (int) (dispersion ^ (dispersion >>> 32)) & (claves.length - 1);
+	}
+
+	/**
+	 * Busca la posición de una clave
+	 *
+	 * @param clave
+	 *            la clave a buscar
+	 * @return la posición de la clave o, si no está, la posición libre en la que
+	 *         habría que guardarla
+	 */
+	private int buscar(long clave) {
+		int posicion = getPosicion(clave);
+		while (claves[posicion] != LIBRE && claves[posicion] != clave)
+			posicion = (posicion + 1) & (claves.length - 1);
+		return posicion;
+	}
+
+	/**
+	 * Obtiene el valor de una clave
+	 *
+	 * @param clave
+	 *            la clave
+	 * @param porDefecto
+	 *            el valor a devolver si la clave no está
+	 * @return el valor de la clave o el valor por defecto
+	 */
+	public long get(long clave, long porDefecto) {
+		int posicion = buscar(clave);
+		return claves[posicion] == LIBRE ? porDefecto : valores[posicion];
+	}
+
+	/**
+	 * Guarda el valor de una clave, sustituyendo el anterior si ya estaba
+	 *
+	 * @param clave
+	 *            la clave
+	 * @param valor
+	 *            el valor
+	 */
+	public void put(long clave, long valor) {
+		int posicion = buscar(clave);
+		if (claves[posicion] == LIBRE) {
+			// Se mantiene la tabla ocupada como mucho a la mitad
+			if ((numEntradas + 1) * 2 > claves.length) {
+				ampliar();
+				posicion = buscar(clave);
+			}
+			claves[posicion] = clave;
+			numEntradas++;
+		}
+		valores[posicion] = valor;
+	}
+
+	/**
+	 * Borra una clave. Las entradas que venían detrás en la misma secuencia de
+	 * sondeo se mueven hacia atrás para que se sigan encontrando
+	 *
+	 * @param clave
+	 *            la clave a borrar
+	 */
+	public void remove(long clave) {
+		int hueco = buscar(clave);
+		if (claves[hueco] == LIBRE)
+			return;
+		int mascara = claves.length - 1;
+		int siguiente = (hueco + 1) & mascara;
+		while (claves[siguiente] != LIBRE) {
+			int inicial = getPosicion(claves[siguiente]);
+			// Se mueve si su posición inicial no está entre el hueco y ella
+			if (((siguiente - inicial) & mascara) >= ((siguiente - hueco) & mascara)) {
+				claves[hueco] = claves[siguiente];
+				valores[hueco] = valores[siguiente];
+				hueco = siguiente;
+			}
+			siguiente = (siguiente + 1) & mascara;
+		}
+		claves[hueco] = LIBRE;
+		numEntradas--;
+	}
+
+	/**
+	 * Duplica la capacidad de la tabla y vuelve a colocar las entradas
+	 */
+	private void ampliar() {
+		long[] clavesAnteriores = claves;
+		long[] valoresAnteriores = valores;
+		claves = new long[clavesAnteriores.length * 2];
+		valores = new long[clavesAnteriores.length * 2];
+		Arrays.fill(claves, LIBRE);
+		for (int i = 0; i < clavesAnteriores.length; i++) {
+			if (clavesAnteriores[i] != LIBRE) {
+				int posicion = buscar(clavesAnteriores[i]);
+				claves[posicion] = clavesAnteriores[i];
+				valores[posicion] = valoresAnteriores[i];
+			}
+		}
+	}
+
+}
@@ -3,7 +3,8 @@ package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
 import java.util.Objects;
 
 /**
- * Clase que representa un aula de un instituto
+ * Clase que representa un aula de un instituto. Sus atributos sólo se asignan
+ * al construirla, por lo que sus instancias se pueden compartir.
  * 
  * @author Juan Antonio Manzano Plaza
  * @version 2
@@ -23,9 +24,9 @@ public class Aula {
 	 * @param nombre
 	 *            el nombre del aula
 	 * @param puestos
-	 *            el nmero de plazas que tiene el aula
+	 *            el número de plazas que tiene el aula
 	 * @throws IllegalArgumentException
-	 *             si alguno de los parmetros no es vlido
+	 *             si alguno de los parámetros no es válido
 	 */
 	public Aula(String nombre, int puestos) throws IllegalArgumentException {
 		setNombre(nombre);
@@ -48,23 +49,23 @@ public class Aula {
 	}
 
 	/**
-	 * Mtodo set para el nombre del aula
+	 * Método set para el nombre del aula
 	 * 
 	 * @param nombre
 	 *            el nombre del aula
 	 * @throws IllegalArgumentException
-	 *             si el nombre es nulo o vaco
+	 *             si el nombre es nulo o vacío
 	 */
 	private void setNombre(String nombre) throws IllegalArgumentException {
 		if (nombre == null)
 			throw new IllegalArgumentException("El nombre del aula no puede ser nulo.");
 		if (nombre.equals(""))
-			throw new IllegalArgumentException("El nombre del aula no puede estar vaco.");
+			throw new IllegalArgumentException("El nombre del aula no puede estar vacío.");
 		this.nombre = nombre;
 	}
 
 	/**
-	 * Mtodo get para el nombre del aula
+	 * Método get para el nombre del aula
 	 * 
 	 * @return el nombre del aula
 	 */
@@ -73,21 +74,21 @@ public class Aula {
 	}
 
 	/**
-	 * Mtodo set para el nmero de asientos de un aula
+	 * Método set para el número de asientos de un aula
 	 * 
 	 * @param puestos
-	 *            los nmero de asientos de un aula
+	 *            los número de asientos de un aula
 	 * @throws IllegalArgumentException
-	 *             si el nmero de puestos no estn entre el mximo y el mnimo
+	 *             si el número de puestos no están entre el máximo y el mínimo
 	 */
 	private void setPuestos(int puestos) throws IllegalArgumentException {
 		if (puestos < MIN_PUESTOS || puestos > MAX_PUESTOS)
-			throw new IllegalArgumentException("El nmero de puestos no es correcto.");
+			throw new IllegalArgumentException("El número de puestos no es correcto.");
 		this.puestos = puestos;
 	}
 
 	/**
-	 * Mtodo get para las plazas de un aula
+	 * Método get para las plazas de un aula
 	 * 
 	 * @return las plazas del aula
 	 */
@@ -96,7 +97,7 @@ public class Aula {
 	}
 
 	/**
-	 * Mtodo que calcula los puntos que resta reservar el aula
+	 * Método que calcula los puntos que resta reservar el aula
 	 * 
 	 * @return la cantidad de puntos que cuesta reservar el aula
 	 */
@@ -105,16 +106,16 @@ public class Aula {
 	}
 
 	/**
-	 * Mtodo hashCode de la clase. Sirve para diferenciar objetos
+	 * Método hashCode de la clase. Sirve para diferenciar objetos
 	 * 
-	 * @return el cdigo hash del objeto
+	 * @return el código hash del objeto
 	 */
 	public int hashCode() {
 		return Objects.hash(nombre);
 	}
 
 	/**
-	 * Mtodo equals de la clase
+	 * Método equals de la clase
 	 * 
 	 * @return True si son iguales, False si no
 	 */
@@ -132,7 +133,7 @@ public class Aula {
 	/**
 	 * Representa un aula como una cadena de caracteres
 	 * 
-	 * @return la representacin del aula
+	 * @return la representación del aula
 	 */
 	public String toString() {
 		return "[nombre=" + nombre + ", puestos=" + puestos + "]";
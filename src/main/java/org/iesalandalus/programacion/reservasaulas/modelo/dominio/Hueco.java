@@ -0,0 +1,66 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+
+/**
+ * Clase que representa un hueco libre: un aula que se puede reservar durante
+ * una permanencia. Es inmutable y comparte el aula y la permanencia, que
+ * también lo son.
+ *
+ * @see Aula
+ * @see Permanencia
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ */
+public class Hueco {
+	private Aula aula;
+	private Permanencia permanencia;
+
+	/**
+	 * Constructor de la clase
+	 *
+	 * @param aula
+	 *            el aula libre
+	 * @param permanencia
+	 *            el día y la hora o tramo en que está libre
+	 * @throws IllegalArgumentException
+	 *             si el aula o la permanencia son nulas
+	 */
+	public Hueco(Aula aula, Permanencia permanencia) throws IllegalArgumentException {
+		if (aula == null)
+			throw new IllegalArgumentException("El hueco debe ser de un aula concreta.");
+		if (permanencia == null)
+			throw new IllegalArgumentException("El hueco debe ser para una permanencia concreta.");
+		this.aula = aula;
+		this.permanencia = permanencia;
+	}
+
+	/**
+	 * Método get para el aula del hueco
+	 *
+	 * @return el aula libre
+	 */
+	public Aula getAula() {
+		return aula;
+	}
+
+	/**
+	 * Método get para la permanencia del hueco
+	 *
+	 * @return la permanencia en que el aula está libre
+	 */
+	public Permanencia getPermanencia() {
+		return permanencia;
+	}
+
+	/**
+	 * Representa un hueco en forma de cadena
+	 *
+	 * @return el aula y la permanencia del hueco
+	 */
+	@Override
+	public String toString() {
+		return "[aula=" + aula + ", permanencia=" + permanencia + "]";
+	}
+
+}
\ No newline at end of file
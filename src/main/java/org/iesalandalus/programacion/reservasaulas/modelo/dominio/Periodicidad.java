@@ -0,0 +1,47 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+/**
+ * Clase enumerada para la frecuencia con la que se repite una reserva
+ * periódica
+ * 
+ * @see ReservaPeriodica
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ */
+public enum Periodicidad {
+	SEMANAL("Semanal", 7), QUINCENAL("Quincenal", 14);
+	private String cadenaAMostrar;
+	private int dias;
+
+	/**
+	 * Constructor privado
+	 * 
+	 * @param cadenaAMostrar
+	 *            la representación de la periodicidad como cadena de caracteres
+	 * @param dias
+	 *            los días que pasan entre una reserva y la siguiente
+	 */
+	private Periodicidad(String cadenaAMostrar, int dias) {
+		this.cadenaAMostrar = cadenaAMostrar;
+		this.dias = dias;
+	}
+
+	/**
+	 * Método get para los días que pasan entre una reserva y la siguiente
+	 * 
+	 * @return los días entre reservas
+	 */
+	public int getDias() {
+		return dias;
+	}
+
+	/**
+	 * Representa una periodicidad como una cadena de caracteres
+	 * 
+	 * @return la representación de la periodicidad
+	 */
+	public String toString() {
+		return cadenaAMostrar;
+	}
+
+}
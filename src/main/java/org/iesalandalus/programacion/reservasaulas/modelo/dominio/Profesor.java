@@ -1,20 +1,18 @@
 package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
 
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
- * Clase que representa un profesor de un instituto
+ * Clase que representa un profesor de un instituto. Una vez creado no se puede
+ * modificar.
  * 
+ * @see Validador
  * @author Juan Antonio Manzano Plaza
  * @version 2
  *
  */
 public class Profesor {
 
-	private static final String ER_TELEFONO = "^[69][0-9]{8}$";
-	private static final String ER_CORREO = "^[a-z0-9]+(\\.[a-z0-9]+)*@[a-z]+(\\.[a-z]+)*(\\.[a-z]{1,4})$";
 	private String nombre;
 	private String correo;
 	private String telefono;
@@ -25,9 +23,9 @@ public class Profesor {
 	 * @param nombre
 	 *            el nombre del profesor
 	 * @param correo
-	 *            el correo electrnico del profesor
+	 *            el correo electrónico del profesor
 	 * @throws IllegalArgumentException
-	 *             si alguno de los parmetros no es vlido
+	 *             si alguno de los parámetros no es válido
 	 */
 	public Profesor(String nombre, String correo) throws IllegalArgumentException {
 		setNombre(nombre);
@@ -41,11 +39,11 @@ public class Profesor {
 	 * @param nombre
 	 *            el nombre del profesor
 	 * @param correo
-	 *            el correo electrnico del profesor
+	 *            el correo electrónico del profesor
 	 * @param telefono
-	 *            el telfono del profesor
+	 *            el teléfono del profesor
 	 * @throws IllegalArgumentException
-	 *             si alguno de los parmetros no es vlido
+	 *             si alguno de los parámetros no es válido
 	 */
 	public Profesor(String nombre, String correo, String telefono) throws IllegalArgumentException {
 		setNombre(nombre);
@@ -54,7 +52,8 @@ public class Profesor {
 	}
 
 	/**
-	 * Constructor copia
+	 * Constructor copia. El profesor a copiar ya se comprobó al crearlo y no se
+	 * puede modificar, así que sus datos se copian sin volver a comprobarlos
 	 * 
 	 * @param otro
 	 *            el profesor a copiar
@@ -64,70 +63,67 @@ public class Profesor {
 	public Profesor(Profesor otro) throws IllegalArgumentException {
 		if (otro == null)
 			throw new IllegalArgumentException("No se puede copiar un profesor nulo.");
-		setNombre(otro.getNombre());
-		setCorreo(otro.getCorreo());
-		setTelefono(otro.getTelefono());
-
+		this.nombre = otro.nombre;
+		this.correo = otro.correo;
+		this.telefono = otro.telefono;
 	}
 
 	/**
-	 * Mtodo set para el nombre del profesor
+	 * Método set para el nombre del profesor
 	 * 
 	 * @param nombre
 	 *            el nombre del profesor
 	 * @throws IllegalArgumentException
-	 *             si el nombre es nulo o vaco
+	 *             si el nombre es nulo o vacío
 	 */
 	private void setNombre(String nombre) throws IllegalArgumentException {
 		if (nombre == null)
 			throw new IllegalArgumentException("El nombre del profesor no puede ser nulo.");
 		if (nombre.equals(""))
-			throw new IllegalArgumentException("El nombre del profesor no puede estar vaco.");
+			throw new IllegalArgumentException("El nombre del profesor no puede estar vacío.");
 		this.nombre = nombre;
 
 	}
 
 	/**
-	 * Mtodo set para el correo electrnico del profesor
+	 * Método set para el correo electrónico del profesor
 	 * 
 	 * @param correo
 	 *            el correo del profesor
 	 * @throws IllegalArgumentException
-	 *             si el correo es nulo o no es un correo con formato vlido
+	 *             si el correo es nulo o no es un correo con formato válido
 	 */
-	public void setCorreo(String correo) throws IllegalArgumentException {
+	private void setCorreo(String correo) throws IllegalArgumentException {
 		if (correo == null)
 			throw new IllegalArgumentException("El correo del profesor no puede ser nulo.");
-		Matcher m = Pattern.compile(ER_CORREO).matcher(correo);
-		if (m.matches())
+		if (Validador.esCorreoValido(correo))
 			this.correo = correo;
 		else
-			throw new IllegalArgumentException("El correo del profesor no es vlido.");
+			throw new IllegalArgumentException("El correo del profesor no es válido.");
 
 	}
 
 	/**
-	 * Mtodo set para el telfono del profesor
+	 * Método set para el teléfono del profesor
 	 * 
 	 * @param telefono
 	 *            el telefono del profesor
 	 * @throws IllegalArgumentException
-	 *             si el telfono no tiene un formato vlido
+	 *             si el teléfono no tiene un formato válido
 	 */
-	public void setTelefono(String telefono) throws IllegalArgumentException {
+	private void setTelefono(String telefono) throws IllegalArgumentException {
 		if (telefono == null) {
 			this.telefono = null;
 		} else {
-			Matcher m = Pattern.compile(ER_TELEFONO).matcher(telefono);
-			if (m.matches())
+			if (Validador.esTelefonoValido(telefono))
 				this.telefono = telefono;
 			else
-				throw new IllegalArgumentException("El telfono del profesor no es vlido.");
+				throw new IllegalArgumentException("El teléfono del profesor no es válido.");
 		}
 	}
 
 	/**
-	 * Mtodo get para el nombre del profesor
+	 * Método get para el nombre del profesor
 	 * 
 	 * @return el nombre del profesor
 	 */
@@ -136,7 +132,7 @@ public class Profesor {
 	}
 
 	/**
-	 * Mtodo get para el correo del profesor
+	 * Método get para el correo del profesor
 	 * 
 	 * @return el correo del profesor
 	 */
@@ -145,25 +141,25 @@ public class Profesor {
 	}
 
 	/**
-	 * Mtodo get para el telfono del profesor
+	 * Método get para el teléfono del profesor
 	 * 
-	 * @return el telfono del profesor
+	 * @return el teléfono del profesor
 	 */
 	public String getTelefono() {
 		return telefono;
 	}
 
 	/**
-	 * Mtodo hashCode de la clase. Sirve para diferenciar objetos
+	 * Método hashCode de la clase. Sirve para diferenciar objetos
 	 * 
-	 * @return el cdigo hash del objeto
+	 * @return el código hash del objeto
 	 */
 	public int hashCode() {
 		return Objects.hash(nombre, correo, telefono);
 	}
 
 	/**
-	 * Mtodo equals de la clase
+	 * Método equals de la clase
 	 * 
 	 * @return True si son iguales, False si no
 	 */
@@ -182,7 +178,7 @@ public class Profesor {
 	/**
 	 * Representa un profesor como una cadena de caracteres
 	 * 
-	 * @return la representacin del profesor
+	 * @return la representación del profesor
 	 */
 	public String toString() {
 		String devolver = "[nombre=" + getNombre() + ", correo=" + getCorreo();
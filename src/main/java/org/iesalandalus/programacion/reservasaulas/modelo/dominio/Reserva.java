@@ -3,11 +3,11 @@ package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
 import java.util.Objects;
 
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
-import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
 
 /**
- * Clase que representa la reserva de un aula en un instituto
+ * Clase que representa la reserva de un aula en un instituto. Es inmutable y
+ * sólo guarda objetos inmutables, así que comparte el profesor, el aula y la
+ * permanencia en lugar de copiarlos.
  * 
  * @see Profesor
  * @see Aula
@@ -28,9 +28,9 @@ public class Reserva {
 	 * @param aula
 	 *            el aula que es reservada
 	 * @param permanencia
-	 *            el da y el tramo en el que es reservada
+	 *            el día y el tramo en el que es reservada
 	 * @throws IllegalArgumentException
-	 *             si alguno de los parmetros no es vlido
+	 *             si alguno de los parámetros no es válido
 	 */
 	public Reserva(Profesor profesor, Aula aula, Permanencia permanencia) throws IllegalArgumentException {
 		setProfesor(profesor);
@@ -49,13 +49,13 @@ public class Reserva {
 	public Reserva(Reserva otra) throws IllegalArgumentException {
 		if (otra == null)
 			throw new IllegalArgumentException("No se puede copiar una reserva nula.");
-		setProfesor(otra.getProfesor());
-		setAula(otra.getAula());
-		setPermanencia(otra.getPermanencia());
+		setProfesor(otra.profesor);
+		setAula(otra.aula);
+		setPermanencia(otra.permanencia);
 	}
 
 	/**
-	 * Mtodo set para el profesor de la reserva
+	 * Método set para el profesor de la reserva
 	 * 
 	 * @param profesor
 	 *            el profesor que realiza la reserva
@@ -65,20 +65,20 @@ public class Reserva {
 	private void setProfesor(Profesor profesor) throws IllegalArgumentException {
 		if (profesor == null)
 			throw new IllegalArgumentException("La reserva debe estar a nombre de un profesor.");
-		this.profesor = new Profesor(profesor);
+		this.profesor = profesor;
 	}
 
 	/**
-	 * Mtodo get para el profesor de la reserva
+	 * Método get para el profesor de la reserva
 	 * 
 	 * @return el profesor de la reserva
 	 */
 	public Profesor getProfesor() {
-		return new Profesor(this.profesor);
+		return this.profesor;
 	}
 
 	/**
-	 * Mtodo set para el aula de la reserva
+	 * Método set para el aula de la reserva
 	 * 
 	 * @param aula
 	 *            el aula reservada
@@ -88,20 +88,20 @@ public class Reserva {
 	private void setAula(Aula aula) throws IllegalArgumentException {
 		if (aula == null)
 			throw new IllegalArgumentException("La reserva debe ser para un aula concreta.");
-		this.aula = new Aula(aula);
+		this.aula = aula;
 	}
 
 	/**
-	 * Mtodo get para el aula de la reserva
+	 * Método get para el aula de la reserva
 	 * 
 	 * @return el aula de la reserva
 	 */
 	public Aula getAula() {
-		return new Aula(this.aula);
+		return this.aula;
 	}
 
 	/**
-	 * Mtodo set para la permanencia de la reserva
+	 * Método set para la permanencia de la reserva
 	 * 
 	 * @param permanencia
 	 *            la permanencia de la reserva
@@ -111,26 +111,20 @@ public class Reserva {
 	private void setPermanencia(Permanencia permanencia) throws IllegalArgumentException {
 		if (permanencia == null)
 			throw new IllegalArgumentException("La reserva se debe hacer para una permanencia concreta.");
-		if (permanencia instanceof PermanenciaPorHora)
-			this.permanencia = new PermanenciaPorHora((PermanenciaPorHora) permanencia);
-		if (permanencia instanceof PermanenciaPorTramo)
-			this.permanencia = new PermanenciaPorTramo((PermanenciaPorTramo) permanencia);
+		this.permanencia = permanencia;
 	}
 
 	/**
-	 * Mtodo get para la permanencia de la reserva
+	 * Método get para la permanencia de la reserva
 	 * 
 	 * @return la permanencia de la reserva
 	 */
 	public Permanencia getPermanencia() {
-		if (permanencia instanceof PermanenciaPorTramo)
-			return new PermanenciaPorTramo((PermanenciaPorTramo) permanencia);
-		else
-			return new PermanenciaPorHora((PermanenciaPorHora) permanencia);
+		return this.permanencia;
 	}
 
 	/**
-	 * Mtodo get para los puntos que cuesta hacer una reserva
+	 * Método get para los puntos que cuesta hacer una reserva
 	 * 
 	 * @return los puntos que cuesta hacer una reserva
 	 */
@@ -139,16 +133,16 @@ public class Reserva {
 	}
 
 	/**
-	 * Mtodo hashCode de la clase. Sirve para diferenciar objetos
+	 * Método hashCode de la clase. Sirve para diferenciar objetos
 	 * 
-	 * @return el cdigo hash del objeto
+	 * @return el código hash del objeto
 	 */
 	public int hashCode() {
 		return Objects.hash(profesor, aula, permanencia);
 	}
 
 	/**
-	 * Mtodo equals de la clase
+	 * Método equals de la clase
 	 * 
 	 * @return True si son iguales, False si no
 	 */
@@ -166,11 +160,11 @@ public class Reserva {
 	/**
 	 * Representa una reserva como una cadena de caracteres
 	 * 
-	 * @return la representacin de la reserva
+	 * @return la representación de la reserva
 	 */
 	public String toString() {
-		return "[profesor=" + getProfesor() + ", aula=" + getAula() + ", permanencia=" + getPermanencia() + ", puntos="
-				+ getPuntos() + "]";
+		return "[profesor=" + profesor + ", aula=" + aula + ", permanencia=" + permanencia + ", puntos=" + getPuntos()
+				+ "]";
 	}
 
 }
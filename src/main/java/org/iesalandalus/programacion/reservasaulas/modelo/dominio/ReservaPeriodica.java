@@ -0,0 +1,132 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+
+/**
+ * Clase que representa una serie de reservas del mismo aula, por el mismo
+ * profesor y a la misma hora o tramo, que se repite cada semana o cada quince
+ * días desde el día de la permanencia hasta un día final. Es inmutable.
+ * 
+ * @see Reserva
+ * @see Periodicidad
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ */
+public class ReservaPeriodica {
+	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+	private Profesor profesor;
+	private Aula aula;
+	private Permanencia permanencia;
+	private Periodicidad periodicidad;
+	private LocalDate fin;
+
+	/**
+	 * Constructor de la clase
+	 * 
+	 * @param profesor
+	 *            el profesor que reserva el aula
+	 * @param aula
+	 *            el aula que es reservada
+	 * @param permanencia
+	 *            la permanencia de la primera reserva de la serie
+	 * @param periodicidad
+	 *            cada cuánto se repite la reserva
+	 * @param fin
+	 *            el último día en que puede haber una reserva de la serie
+	 * @throws IllegalArgumentException
+	 *             si alguno de los parámetros no es válido
+	 */
+	public ReservaPeriodica(Profesor profesor, Aula aula, Permanencia permanencia, Periodicidad periodicidad,
+			LocalDate fin) throws IllegalArgumentException {
+		if (profesor == null)
+			throw new IllegalArgumentException("La reserva debe estar a nombre de un profesor.");
+		if (aula == null)
+			throw new IllegalArgumentException("La reserva debe ser para un aula concreta.");
+		if (permanencia == null)
+			throw new IllegalArgumentException("La reserva se debe hacer para una permanencia concreta.");
+		if (periodicidad == null)
+			throw new IllegalArgumentException("La reserva periódica debe tener una periodicidad.");
+		if (fin == null)
+			throw new IllegalArgumentException("La reserva periódica debe tener un día final.");
+		if (fin.isBefore(permanencia.getDia()))
+			throw new IllegalArgumentException("El día final no puede ser anterior al de la primera reserva.");
+		this.profesor = profesor;
+		this.aula = aula;
+		this.permanencia = permanencia;
+		this.periodicidad = periodicidad;
+		this.fin = fin;
+	}
+
+	/**
+	 * Método get para el profesor de la serie
+	 * 
+	 * @return el profesor de la serie
+	 */
+	public Profesor getProfesor() {
+		return profesor;
+	}
+
+	/**
+	 * Método get para el aula de la serie
+	 * 
+	 * @return el aula de la serie
+	 */
+	public Aula getAula() {
+		return aula;
+	}
+
+	/**
+	 * Método get para la permanencia de la primera reserva de la serie
+	 * 
+	 * @return la permanencia de la primera reserva
+	 */
+	public Permanencia getPermanencia() {
+		return permanencia;
+	}
+
+	/**
+	 * Método get para la periodicidad de la serie
+	 * 
+	 * @return la periodicidad de la serie
+	 */
+	public Periodicidad getPeriodicidad() {
+		return periodicidad;
+	}
+
+	/**
+	 * Método get para el último día en que puede haber una reserva de la serie
+	 * 
+	 * @return el día final
+	 */
+	public LocalDate getFin() {
+		return fin;
+	}
+
+	/**
+	 * Obtiene las reservas de la serie, ordenadas por día
+	 * 
+	 * @return una reserva por cada repetición hasta el día final
+	 */
+	public List<Reserva> getReservas() {
+		List<Reserva> reservas = new ArrayList<Reserva>();
+		for (LocalDate dia = permanencia.getDia(); !dia.isAfter(fin); dia = dia.plusDays(periodicidad.getDias()))
+			reservas.add(new Reserva(profesor, aula, dia.equals(permanencia.getDia()) ? permanencia : permanencia.enDia(dia)));
+		return reservas;
+	}
+
+	/**
+	 * Representa una reserva periódica como una cadena de caracteres
+	 * 
+	 * @return la representación de la reserva periódica
+	 */
+	public String toString() {
+		return "[profesor=" + profesor + ", aula=" + aula + ", permanencia=" + permanencia + ", periodicidad="
+				+ periodicidad + ", fin=" + fin.format(FORMATO_DIA) + "]";
+	}
+
+}
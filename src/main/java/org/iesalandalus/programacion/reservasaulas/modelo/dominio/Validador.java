@@ -0,0 +1,69 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Comprueba el formato de los datos de las clases del dominio. Las expresiones
+ * regulares se compilan una sola vez al cargar la clase y cada hilo reutiliza
+ * su propio Matcher, que no se puede compartir entre hilos. El teléfono, que
+ * tiene un formato fijo, se comprueba recorriendo sus caracteres sin expresión
+ * regular.
+ *
+ * @see Profesor
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public final class Validador {
+
+	private static final String ER_CORREO = "^[a-z0-9]+(\\.[a-z0-9]+)*@[a-z]+(\\.[a-z]+)*(\\.[a-z]{1,4})$";
+	private static final Pattern PATRON_CORREO = Pattern.compile(ER_CORREO);
+	private static final ThreadLocal<Matcher> CORREO = new ThreadLocal<Matcher>() {
+		protected Matcher initialValue() {
+			return PATRON_CORREO.matcher("");
+		}
+	};
+	// Un teléfono son 9 cifras y la primera es un 6 o un 9
+	private static final int LONGITUD_TELEFONO = 9;
+
+	/**
+	 * Constructor privado para evitar instanciar objetos de la clase
+	 */
+	private Validador() {
+	}
+
+	/**
+	 * Comprueba si un correo electrónico tiene un formato válido
+	 *
+	 * @param correo
+	 *            el correo, no nulo
+	 * @return true si el correo es válido, false si no
+	 */
+	public static boolean esCorreoValido(String correo) {
+		return CORREO.get().reset(correo).matches();
+	}
+
+	/**
+	 * Comprueba si un teléfono tiene un formato válido: nueve cifras empezando
+	 * por 6 o por 9. Equivale a la expresión ^[69][0-9]{8}$
+	 *
+	 * @param telefono
+	 *            el teléfono, no nulo
+	 * @return true si el teléfono es válido, false si no
+	 */
+	public static boolean esTelefonoValido(String telefono) {
+		if (telefono.length() != LONGITUD_TELEFONO)
+			return false;
+		char primera = telefono.charAt(0);
+		if (primera != '6' && primera != '9')
+			return false;
+		for (int i = 1; i < LONGITUD_TELEFONO; i++) {
+			char c = telefono.charAt(i);
+			if (c < '0' || c > '9')
+				return false;
+		}
+		return true;
+	}
+
+}
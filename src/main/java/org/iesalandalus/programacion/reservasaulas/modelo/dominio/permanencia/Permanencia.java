@@ -5,7 +5,8 @@ import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 
 /**
- * Clase que representa el tiempo que es reservada un aula.
+ * Clase que representa el tiempo que es reservada un aula. Las permanencias son
+ * inmutables: el día y la hora o el tramo sólo se asignan en los constructores.
  * 
  * @author Juan Antonio Manzano Plaza
  * @version 2
@@ -17,8 +18,8 @@ public abstract class Permanencia {
 	protected static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
 
 	/**
-	 * NECESARIO PARA LAS LLAMADAS AL SUPER DESDE LAS CLASES HIJAS SIN PARMETROS
-	 * Puede ser vaco o darle un valor por defecto, es indiferente por que lo
+	 * NECESARIO PARA LAS LLAMADAS AL SUPER DESDE LAS CLASES HIJAS SIN PARÁMETROS
+	 * Puede ser vacío o darle un valor por defecto, es indiferente por que lo
 	 * sobreescribiremos en las implementaciones de los constructores de las clases
 	 * hijas.
 	 */
@@ -30,9 +31,9 @@ public abstract class Permanencia {
 	 * Constructor de la clase
 	 * 
 	 * @param dia
-	 *            el da de la reserva
+	 *            el día de la reserva
 	 * @throws IllegalArgumentException
-	 *             si el da de la permanencia no es vlido
+	 *             si el día de la permanencia no es válido
 	 */
 	protected Permanencia(LocalDate dia) throws IllegalArgumentException {
 		setDia(dia);
@@ -44,50 +45,50 @@ public abstract class Permanencia {
 	 * @param dia
 	 *            la fecha de la permanencia
 	 * @throws IllegalArgumentException
-	 *             si el da de la permanencia no es vlido
+	 *             si el día de la permanencia no es válido
 	 */
 	protected Permanencia(String dia) throws IllegalArgumentException {
 		setDia(dia);
 	}
 
 	/**
-	 * Mtodo get para el da de la reserva
+	 * Método get para el día de la reserva
 	 * 
-	 * @return el da de la reserva
+	 * @return el día de la reserva
 	 */
 	public LocalDate getDia() {
 		return this.dia;
 	}
 
 	/**
-	 * Mtodo set para el da de la reserva
+	 * Método set para el día de la reserva
 	 * 
 	 * @param dia
 	 *            la fecha de la reserva
 	 * @throws IllegalArgumentException
-	 *             si el da es nulo
+	 *             si el día es nulo
 	 */
 	protected void setDia(LocalDate dia) throws IllegalArgumentException {
 		if (dia == null)
-			throw new IllegalArgumentException("El da de una permanencia no puede ser nulo.");
+			throw new IllegalArgumentException("El día de una permanencia no puede ser nulo.");
 		this.dia = LocalDate.of(dia.getYear(), dia.getMonth(), dia.getDayOfMonth());
 	}
 
 	/**
-	 * Mtodo set para el da de la reserva
+	 * Método set para el día de la reserva
 	 * 
 	 * @param dia
 	 *            la fecha de la reserva
 	 * @throws IllegalArgumentException
-	 *             si el da es nulo o el formato no es vlido
+	 *             si el día es nulo o el formato no es válido
 	 */
 	protected void setDia(String dia) throws IllegalArgumentException {
 		if (dia == null)
-			throw new IllegalArgumentException("El da de una permanencia no puede ser nulo.");
+			throw new IllegalArgumentException("El día de una permanencia no puede ser nulo.");
 		try {
 			this.dia = LocalDate.parse(dia, FORMATO_DIA);
 		} catch (DateTimeParseException e) {
-			throw new IllegalArgumentException("El formato del da de la permanencia no es correcto.");
+			throw new IllegalArgumentException("El formato del día de la permanencia no es correcto.");
 		}
 	}
 
@@ -99,22 +100,33 @@ public abstract class Permanencia {
 	 */
 	public abstract int getPuntos();
 
+	/**
+	 * Obtiene una permanencia igual a esta pero en otro día
+	 * 
+	 * @param dia
+	 *            el día de la nueva permanencia
+	 * @return la permanencia en ese día
+	 * @throws IllegalArgumentException
+	 *             si el día es nulo
+	 */
+	public abstract Permanencia enDia(LocalDate dia) throws IllegalArgumentException;
+
 	/**
 	 * Representa una permanencia como una cadena de caracteres
 	 * 
-	 * @return la representacin de la permanencia
+	 * @return la representación de la permanencia
 	 */
 	public abstract String toString();
 
 	/**
-	 * Mtodo hashCode de la clase. Sirve para diferenciar objetos
+	 * Método hashCode de la clase. Sirve para diferenciar objetos
 	 * 
-	 * @return el cdigo hash del objeto
+	 * @return el código hash del objeto
 	 */
 	public abstract int hashCode();
 
 	/**
-	 * Mtodo equals de la clase
+	 * Método equals de la clase
 	 * 
 	 * @return True si son iguales, False si no
 	 */
@@ -17,8 +17,8 @@ import java.util.Objects;
 public class PermanenciaPorHora extends Permanencia {
 
 	private static final int PUNTOS = 3;
-	private static final int HORA_INICIO = 8;
-	private static final int HORA_FIN = 22;
+	public static final int HORA_INICIO = 8;
+	public static final int HORA_FIN = 22;
 	private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
 	private LocalTime hora;
 
@@ -26,11 +26,11 @@ public class PermanenciaPorHora extends Permanencia {
 	 * Constructor de la clase
 	 * 
 	 * @param dia
-	 *            el da que es reservada el aula
+	 *            el día que es reservada el aula
 	 * @param hora
 	 *            la hora durante la que es reservada el aula
 	 * @throws IllegalArgumentException
-	 *             si el da o la hora no son vlidos
+	 *             si el día o la hora no son válidos
 	 */
 	public PermanenciaPorHora(LocalDate dia, LocalTime hora) throws IllegalArgumentException {
 		super(dia);
@@ -41,11 +41,11 @@ public class PermanenciaPorHora extends Permanencia {
 	 * Constructor de la clase
 	 * 
 	 * @param dia
-	 *            el da que es reservada el aula
+	 *            el día que es reservada el aula
 	 * @param hora
 	 *            la hora durante la que es reservada el aula
 	 * @throws IllegalArgumentException
-	 *             si el da o la hora no son vlidos
+	 *             si el día o la hora no son válidos
 	 */
 	public PermanenciaPorHora(String dia, LocalTime hora) throws IllegalArgumentException {
 		super(dia);
@@ -56,11 +56,11 @@ public class PermanenciaPorHora extends Permanencia {
 	 * Constructor de la clase
 	 * 
 	 * @param dia
-	 *            el da que es reservada el aula
+	 *            el día que es reservada el aula
 	 * @param hora
 	 *            la hora durante la que es reservada el aula
 	 * @throws IllegalArgumentException
-	 *             si el da o la hora no son vlidos
+	 *             si el día o la hora no son válidos
 	 */
 	public PermanenciaPorHora(LocalDate dia, String hora) throws IllegalArgumentException {
 		super(dia);
@@ -71,11 +71,11 @@ public class PermanenciaPorHora extends Permanencia {
 	 * Constructor de la clase
 	 * 
 	 * @param dia
-	 *            el da que es reservada el aula
+	 *            el día que es reservada el aula
 	 * @param hora
 	 *            la hora durante la que es reservada el aula
 	 * @throws IllegalArgumentException
-	 *             si el da o la hora no son vlidos
+	 *             si el día o la hora no son válidos
 	 */
 	public PermanenciaPorHora(String dia, String hora) throws IllegalArgumentException {
 		super(dia);
@@ -98,7 +98,20 @@ public class PermanenciaPorHora extends Permanencia {
 	}
 
 	/**
-	 * Mtodo get para la hora de la permanencia
+	 * Obtiene una permanencia a la misma hora pero en otro día
+	 * 
+	 * @param dia
+	 *            el día de la nueva permanencia
+	 * @return la permanencia en ese día
+	 * @throws IllegalArgumentException
+	 *             si el día es nulo
+	 */
+	public PermanenciaPorHora enDia(LocalDate dia) throws IllegalArgumentException {
+		return new PermanenciaPorHora(dia, hora);
+	}
+
+	/**
+	 * Método get para la hora de la permanencia
 	 * 
 	 * @return la hora de la permanencia
 	 */
@@ -107,13 +120,13 @@ public class PermanenciaPorHora extends Permanencia {
 	}
 
 	/**
-	 * Mtodo set para la hora de la permanencia
+	 * Método set para la hora de la permanencia
 	 * 
 	 * @param hora
 	 *            la hora de la permanencia
 	 * @throws IllegalArgumentException
 	 *             si la hora no cumple alguna de las restricciones sobre las horas
-	 *             o no es vlida
+	 *             o no es válida
 	 */
 	private void setHora(LocalTime hora) throws IllegalArgumentException {
 		if (hora == null)
@@ -127,13 +140,13 @@ public class PermanenciaPorHora extends Permanencia {
 	}
 
 	/**
-	 * Mtodo set para la hora de la permanencia
+	 * Método set para la hora de la permanencia
 	 * 
 	 * @param hora
 	 *            la hora de la permanencia
 	 * @throws IllegalArgumentException
 	 *             si la hora no cumple alguna de las restricciones sobre las horas
-	 *             o no es vlida
+	 *             o no es válida
 	 */
 	private void setHora(String hora) throws IllegalArgumentException {
 		if (hora == null)
@@ -154,25 +167,25 @@ public class PermanenciaPorHora extends Permanencia {
 	}
 
 	/**
-	 * Mtodo get para el nmero de puntos que cuesta reservar esta Permanencia
+	 * Método get para el número de puntos que cuesta reservar esta Permanencia
 	 * 
-	 * @return el nmero de puntos que cuesta reservar esta Permanencia
+	 * @return el número de puntos que cuesta reservar esta Permanencia
 	 */
 	public int getPuntos() {
 		return PUNTOS;
 	}
 
 	/**
-	 * Mtodo hashCode parra la clase. Sirve para diferenciar objetos.
+	 * Método hashCode parra la clase. Sirve para diferenciar objetos.
 	 * 
-	 * @return el cdigo hash correspondiente al objeto
+	 * @return el código hash correspondiente al objeto
 	 */
 	public int hashCode() {
 		return Objects.hash(dia, hora, PUNTOS);
 	}
 
 	/**
-	 * Mtodo equals para la clase. Compara dos PermanenciaPorHora
+	 * Método equals para la clase. Compara dos PermanenciaPorHora
 	 * 
 	 * @return true si son iguales, false si no lo son
 	 */
@@ -186,10 +199,10 @@ public class PermanenciaPorHora extends Permanencia {
 	}
 
 	/**
-	 * Mtodo toString de la clase. Define como debe mostrarse una
+	 * Método toString de la clase. Define como debe mostrarse una
 	 * PermanenciaPorHora
 	 * 
-	 * @return la representacin en forma de texto de la Permanencia
+	 * @return la representación en forma de texto de la Permanencia
 	 */
 	public String toString() {
 		return "[dia=" + getDia().format(FORMATO_DIA) + ", hora=" + getHora().format(FORMATO_HORA) + "]";
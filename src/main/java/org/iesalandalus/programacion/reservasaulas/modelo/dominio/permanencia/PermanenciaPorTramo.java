@@ -5,7 +5,7 @@ import java.util.Objects;
 
 /**
  * Clase que representa durante cuanto tiempo se reserva un aula. Esta clase
- * permite que se pueda reservar un aula por un tramo completo (maana o tarde)
+ * permite que se pueda reservar un aula por un tramo completo (mañana o tarde)
  * 
  * @author Juan Antonio Manzano Plaza
  * @version 2
@@ -20,11 +20,11 @@ public class PermanenciaPorTramo extends Permanencia {
 	 * Constructor de la clase
 	 * 
 	 * @param dia
-	 *            el da que es reservada el aula
+	 *            el día que es reservada el aula
 	 * @param tramo
 	 *            el tramo para el que es reservada el aula
 	 * @throws IllegalArgumentException
-	 *             si el da o el tramo no son vlidos
+	 *             si el día o el tramo no son válidos
 	 */
 	public PermanenciaPorTramo(LocalDate dia, Tramo tramo) throws IllegalArgumentException {
 		super(dia);
@@ -35,11 +35,11 @@ public class PermanenciaPorTramo extends Permanencia {
 	 * Constructor de la clase
 	 * 
 	 * @param dia
-	 *            el da que es reservada el aula
+	 *            el día que es reservada el aula
 	 * @param tramo
 	 *            el tramo para el que es reservada el aula
 	 * @throws IllegalArgumentException
-	 *             si el da o el tramo parmetros no son vlidos
+	 *             si el día o el tramo parámetros no son válidos
 	 */
 	public PermanenciaPorTramo(String dia, Tramo tramo) throws IllegalArgumentException {
 		super(dia);
@@ -62,7 +62,20 @@ public class PermanenciaPorTramo extends Permanencia {
 	}
 
 	/**
-	 * Mtodo get para el tramo de la reserva
+	 * Obtiene una permanencia en el mismo tramo pero en otro día
+	 * 
+	 * @param dia
+	 *            el día de la nueva permanencia
+	 * @return la permanencia en ese día
+	 * @throws IllegalArgumentException
+	 *             si el día es nulo
+	 */
+	public PermanenciaPorTramo enDia(LocalDate dia) throws IllegalArgumentException {
+		return new PermanenciaPorTramo(dia, tramo);
+	}
+
+	/**
+	 * Método get para el tramo de la reserva
 	 * 
 	 * @return el tramo para el que es reservada el aula
 	 */
@@ -71,7 +84,7 @@ public class PermanenciaPorTramo extends Permanencia {
 	}
 
 	/**
-	 * Mtodo set para el tramo de la reserva
+	 * Método set para el tramo de la reserva
 	 * 
 	 * @param tramo
 	 *            el tramo para el que es reservada el aula
@@ -85,25 +98,25 @@ public class PermanenciaPorTramo extends Permanencia {
 	}
 
 	/**
-	 * Mtodo get para el nmero de puntos que cuesta reservar esta Permanencia
+	 * Método get para el número de puntos que cuesta reservar esta Permanencia
 	 * 
-	 * @return el nmero de puntos que cuesta reservar esta Permanencia
+	 * @return el número de puntos que cuesta reservar esta Permanencia
 	 */
 	public int getPuntos() {
 		return PUNTOS;
 	}
 
 	/**
-	 * Mtodo hashCode para la clase. Sirve para diferenciar objetos.
+	 * Método hashCode para la clase. Sirve para diferenciar objetos.
 	 * 
-	 * @return el cdigo hash correspondiente al objeto
+	 * @return el código hash correspondiente al objeto
 	 */
 	public int hashCode() {
 		return Objects.hash(dia, tramo, PUNTOS);
 	}
 
 	/**
-	 * Mtodo equals para la clase. Compara dos PermanenciaPorTramo
+	 * Método equals para la clase. Compara dos PermanenciaPorTramo
 	 * 
 	 * @return true si son iguales, false si no lo son
 	 */
@@ -117,10 +130,10 @@ public class PermanenciaPorTramo extends Permanencia {
 	}
 
 	/**
-	 * Mtodo toString de la clase. Define como debe mostrarse una
+	 * Método toString de la clase. Define como debe mostrarse una
 	 * PermanenciaPorTramo
 	 * 
-	 * @return la representacin en forma de texto de la Permanencia
+	 * @return la representación en forma de texto de la Permanencia
 	 */
 	public String toString() {
 		return "[dia=" + getDia().format(FORMATO_DIA) + ", tramo=" + tramo + "]";
@@ -8,14 +8,14 @@ package org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia;
  * @version 2
  */
 public enum Tramo {
-	MANANA("Maana"), TARDE("Tarde");
+	MANANA("Mañana"), TARDE("Tarde");
 	private String cadenaAMostrar;
 
 	/**
 	 * Constructor privado
 	 * 
 	 * @param cadenaAMostrar
-	 *            la representacin del tramo como cadena de caracteres
+	 *            la representación del tramo como cadena de caracteres
 	 */
 	private Tramo(String cadenaAMostrar) {
 		this.cadenaAMostrar = cadenaAMostrar;
@@ -24,7 +24,7 @@ public enum Tramo {
 	/**
 	 * Representa un tramo como una cadena de caracteres
 	 * 
-	 * @return la representacin del tramo
+	 * @return la representación del tramo
 	 */
 	public String toString() {
 		return cadenaAMostrar;
@@ -0,0 +1,471 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+
+/**
+ * Archivo de las reservas de los meses ya cerrados. Las reservas de cada mes se
+ * guardan en su propio segmento, un fichero comprimido con GZIP que no se
+ * modifica una vez escrito: si se vuelve a archivar el mismo mes, se escribe
+ * un segmento nuevo con las reservas de ambos que sustituye al anterior de
+ * forma atómica. Las reservas archivadas sólo se pueden consultar, con sus
+ * propios métodos, y ya no ocupan las colecciones del modelo.
+ *
+ * Formato de cada segmento (versión 1), antes de comprimir:
+ *
+ * <pre>
+ * int magia, short versión, int año, byte mes
+ * int aulas, [texto nombre, byte puestos]...
+ * int profesores, [texto nombre, texto correo, texto teléfono]...
+ * int reservas, [int aula, int profesor, byte día del mes, byte franja]...
+ * </pre>
+ *
+ * Los textos y las franjas son los de Instantanea, y la integridad la comprueba
+ * el CRC32 que GZIP guarda al final del fichero.
+ *
+ * @see ModeloReservasAulas#archivar(ArchivoReservas)
+ * @see Instantanea
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class ArchivoReservas {
+
+	private static final int MAGIA = 0x52534132;
+	private static final short VERSION = 1;
+	private static final String PREFIJO = "reservas-";
+	private static final String EXTENSION = ".gz";
+	private static final DateTimeFormatter FORMATO_MES = DateTimeFormatter.ofPattern("uuuu-MM");
+	private static final int TAMANO_BUFFER = 1 << 16;
+	private static final String ERROR_FORMATO = "El fichero no es un segmento de archivo válido.";
+
+	private Path directorio;
+
+	/**
+	 * Constructor de la clase. Crea el directorio si no existe
+	 *
+	 * @param directorio
+	 *            el directorio en el que se guardan los segmentos
+	 * @throws IllegalArgumentException
+	 *             si el directorio es nulo
+	 * @throws IOException
+	 *             si no se puede crear el directorio
+	 */
+	public ArchivoReservas(Path directorio) throws IllegalArgumentException, IOException {
+		if (directorio == null)
+			throw new IllegalArgumentException("El directorio del archivo no puede ser nulo.");
+		this.directorio = directorio;
+		Files.createDirectories(directorio);
+	}
+
+	/**
+	 * Método get para el directorio del archivo
+	 *
+	 * @return el directorio
+	 */
+	public Path getDirectorio() {
+		return directorio;
+	}
+
+	/**
+	 * Obtiene los meses que tienen un segmento en el archivo
+	 *
+	 * @return los meses archivados, ordenados
+	 * @throws IOException
+	 *             si no se puede leer el directorio
+	 */
+	public SortedSet<YearMonth> getMeses() throws IOException {
+		SortedSet<YearMonth> meses = new TreeSet<YearMonth>();
+		try (DirectoryStream<Path> ficheros = Files.newDirectoryStream(directorio, PREFIJO + "*" + EXTENSION)) {
+			for (Path f : ficheros) {
+				String nombre = f.getFileName().toString();
+				try {
+					meses.add(YearMonth.parse(
+							nombre.substring(PREFIJO.length(), nombre.length() - EXTENSION.length()), FORMATO_MES));
+				} catch (DateTimeParseException e) {
+					// No es un segmento
+				}
+			}
+		}
+		return meses;
+	}
+
+	/**
+	 * Comprueba si un mes tiene un segmento en el archivo
+	 *
+	 * @param mes
+	 *            el mes
+	 * @return true si el mes está archivado, false si no
+	 * @throws IllegalArgumentException
+	 *             si el mes es nulo
+	 */
+	public boolean estaArchivado(YearMonth mes) throws IllegalArgumentException {
+		return Files.exists(getSegmento(mes));
+	}
+
+	/**
+	 * Guarda en el segmento de un mes sus reservas, junto con las que ya
+	 * estuvieran archivadas de ese mes. Las reservas repetidas se guardan una vez
+	 *
+	 * @param mes
+	 *            el mes de las reservas
+	 * @param reservas
+	 *            las reservas a archivar, todas de ese mes
+	 * @return el número de reservas del segmento
+	 * @throws IllegalArgumentException
+	 *             si el mes o las reservas son nulos, o alguna reserva no es de
+	 *             ese mes
+	 * @throws IOException
+	 *             si no se puede escribir el segmento
+	 */
+	public int archivar(YearMonth mes, Collection<Reserva> reservas) throws IllegalArgumentException, IOException {
+		Path segmento = getSegmento(mes);
+		if (reservas == null)
+			throw new IllegalArgumentException("No se pueden archivar unas reservas nulas.");
+		Set<Reserva> todas = new LinkedHashSet<Reserva>();
+		if (Files.exists(segmento))
+			todas.addAll(leer(segmento, mes));
+		for (Reserva r : reservas) {
+			if (r == null || !YearMonth.from(r.getPermanencia().getDia()).equals(mes))
+				throw new IllegalArgumentException("Sólo se pueden archivar reservas del mes " + mes + ".");
+			todas.add(r);
+		}
+		Map<String, Integer> indiceAulas = new LinkedHashMap<String, Integer>();
+		Map<String, Integer> indiceProfesores = new LinkedHashMap<String, Integer>();
+		List<Aula> aulas = new ArrayList<Aula>();
+		List<Profesor> profesores = new ArrayList<Profesor>();
+		for (Reserva r : todas) {
+			if (!indiceAulas.containsKey(r.getAula().getNombre())) {
+				indiceAulas.put(r.getAula().getNombre(), aulas.size());
+				aulas.add(r.getAula());
+			}
+			if (!indiceProfesores.containsKey(r.getProfesor().getNombre())) {
+				indiceProfesores.put(r.getProfesor().getNombre(), profesores.size());
+				profesores.add(r.getProfesor());
+			}
+		}
+
+		Path temporal = Files.createTempFile(directorio, segmento.getFileName().toString(), ".tmp");
+		try {
+			// Los flujos se cierran aunque falle la escritura, para no dejar abierto el
+			// compresor, que reserva memoria fuera del heap
+			try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE);
+					GZIPOutputStream comprimido = new GZIPOutputStream(Channels.newOutputStream(canal), TAMANO_BUFFER);
+					DataOutputStream datos = new DataOutputStream(
+							new BufferedOutputStream(comprimido, TAMANO_BUFFER))) {
+				datos.writeInt(MAGIA);
+				datos.writeShort(VERSION);
+				datos.writeInt(mes.getYear());
+				datos.writeByte(mes.getMonthValue());
+				datos.writeInt(aulas.size());
+				for (Aula a : aulas) {
+					Instantanea.escribirTexto(datos, a.getNombre());
+					datos.writeByte(a.getPuestos());
+				}
+				datos.writeInt(profesores.size());
+				for (Profesor p : profesores) {
+					Instantanea.escribirTexto(datos, p.getNombre());
+					Instantanea.escribirTexto(datos, p.getCorreo());
+					Instantanea.escribirTexto(datos, p.getTelefono());
+				}
+				datos.writeInt(todas.size());
+				for (Reserva r : todas) {
+					datos.writeInt(indiceAulas.get(r.getAula().getNombre()));
+					datos.writeInt(indiceProfesores.get(r.getProfesor().getNombre()));
+					datos.writeByte(r.getPermanencia().getDia().getDayOfMonth());
+					datos.writeByte(Instantanea.getFranja(r.getPermanencia()));
+				}
+				datos.flush();
+				comprimido.finish();
+				// El segmento debe estar en disco antes de quitar las reservas del modelo
+				canal.force(true);
+			}
+			try {
+				Files.move(temporal, segmento, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporal, segmento, StandardCopyOption.REPLACE_EXISTING);
+			}
+			// El cambio de nombre también, o tras un corte de luz podría volver el
+			// segmento anterior sin las reservas ya quitadas del modelo
+			forzarDirectorio(directorio);
+		} finally {
+			Files.deleteIfExists(temporal);
+		}
+		return todas.size();
+	}
+
+	/**
+	 * Lleva a disco las entradas de un directorio, para que un fichero recién
+	 * movido a él siga ahí tras un corte de luz. También lo usan el diario y la
+	 * instantánea al sustituir su fichero. En los sistemas que no permiten abrir
+	 * un directorio, como Windows, no hace nada
+	 *
+	 * @param directorio
+	 *            el directorio
+	 * @throws IOException
+	 *             si no se puede llevar el directorio a disco
+	 */
+	static void forzarDirectorio(Path directorio) throws IOException {
+		FileChannel canal;
+		try {
+			canal = FileChannel.open(directorio, StandardOpenOption.READ);
+		} catch (IOException e) {
+			return;
+		}
+		try (FileChannel abierto = canal) {
+			abierto.force(true);
+		}
+	}
+
+	/**
+	 * Obtiene las reservas archivadas de un mes
+	 *
+	 * @param mes
+	 *            el mes
+	 * @return las reservas del mes, o una lista vacía si no está archivado
+	 * @throws IllegalArgumentException
+	 *             si el mes es nulo
+	 * @throws IOException
+	 *             si no se puede leer el segmento o no es válido
+	 */
+	public List<Reserva> getReservas(YearMonth mes) throws IllegalArgumentException, IOException {
+		Path segmento = getSegmento(mes);
+		if (!Files.exists(segmento))
+			return new ArrayList<Reserva>();
+		return leer(segmento, mes);
+	}
+
+	/**
+	 * Obtiene las reservas archivadas entre dos días, ambos incluidos. Sólo se
+	 * leen los segmentos de los meses de esos días
+	 *
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas de esos días, ordenadas por mes
+	 * @throws IllegalArgumentException
+	 *             si algún día es nulo o el último es anterior al primero
+	 * @throws IOException
+	 *             si no se puede leer algún segmento o no es válido
+	 */
+	public List<Reserva> getReservas(LocalDate desde, LocalDate hasta) throws IllegalArgumentException, IOException {
+		return buscar(null, null, desde, hasta);
+	}
+
+	/**
+	 * Obtiene las reservas archivadas de un aula entre dos días, ambos incluidos
+	 *
+	 * @param aula
+	 *            el aula
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del aula esos días, ordenadas por mes
+	 * @throws IllegalArgumentException
+	 *             si el aula o algún día son nulos, o el último día es anterior
+	 *             al primero
+	 * @throws IOException
+	 *             si no se puede leer algún segmento o no es válido
+	 */
+	public List<Reserva> getReservasAula(Aula aula, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException, IOException {
+		if (aula == null)
+			throw new IllegalArgumentException("No se pueden buscar las reservas de un aula nula.");
+		return buscar(aula, null, desde, hasta);
+	}
+
+	/**
+	 * Obtiene las reservas archivadas de un profesor entre dos días, ambos
+	 * incluidos
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas del profesor esos días, ordenadas por mes
+	 * @throws IllegalArgumentException
+	 *             si el profesor o algún día son nulos, o el último día es
+	 *             anterior al primero
+	 * @throws IOException
+	 *             si no se puede leer algún segmento o no es válido
+	 */
+	public List<Reserva> getReservasProfesor(Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException, IOException {
+		if (profesor == null)
+			throw new IllegalArgumentException("No se pueden buscar las reservas de un profesor nulo.");
+		return buscar(null, profesor, desde, hasta);
+	}
+
+	/**
+	 * Obtiene los puntos que gastó un profesor en un mes archivado
+	 *
+	 * @param profesor
+	 *            el profesor
+	 * @param mes
+	 *            el mes
+	 * @return los puntos gastados, o 0 si el mes no está archivado
+	 * @throws IllegalArgumentException
+	 *             si el profesor o el mes son nulos
+	 * @throws IOException
+	 *             si no se puede leer el segmento o no es válido
+	 */
+	public float getPuntosGastados(Profesor profesor, YearMonth mes) throws IllegalArgumentException, IOException {
+		if (profesor == null)
+			throw new IllegalArgumentException("No se pueden consultar los puntos de un profesor nulo.");
+		float puntos = 0;
+		for (Reserva r : getReservas(mes)) {
+			if (r.getProfesor().equals(profesor))
+				puntos += r.getPuntos();
+		}
+		return puntos;
+	}
+
+	/**
+	 * Busca las reservas archivadas entre dos días, de un aula o de un profesor
+	 * si se indican
+	 *
+	 * @param aula
+	 *            el aula, o null para cualquiera
+	 * @param profesor
+	 *            el profesor, o null para cualquiera
+	 * @param desde
+	 *            el primer día
+	 * @param hasta
+	 *            el último día
+	 * @return las reservas encontradas
+	 * @throws IllegalArgumentException
+	 *             si algún día es nulo o el último es anterior al primero
+	 * @throws IOException
+	 *             si no se puede leer algún segmento o no es válido
+	 */
+	private List<Reserva> buscar(Aula aula, Profesor profesor, LocalDate desde, LocalDate hasta)
+			throws IllegalArgumentException, IOException {
+		if (desde == null || hasta == null)
+			throw new IllegalArgumentException("No se pueden buscar reservas entre días nulos.");
+		if (hasta.isBefore(desde))
+			throw new IllegalArgumentException("El último día no puede ser anterior al primero.");
+		List<Reserva> encontradas = new ArrayList<Reserva>();
+		YearMonth ultimo = YearMonth.from(hasta);
+		for (YearMonth mes = YearMonth.from(desde); !mes.isAfter(ultimo); mes = mes.plusMonths(1)) {
+			for (Reserva r : getReservas(mes)) {
+				LocalDate dia = r.getPermanencia().getDia();
+				if (!dia.isBefore(desde) && !dia.isAfter(hasta) && (aula == null || r.getAula().equals(aula))
+						&& (profesor == null || r.getProfesor().equals(profesor)))
+					encontradas.add(r);
+			}
+		}
+		return encontradas;
+	}
+
+	/**
+	 * Obtiene la ruta del segmento de un mes
+	 *
+	 * @param mes
+	 *            el mes
+	 * @return la ruta del segmento, exista o no
+	 * @throws IllegalArgumentException
+	 *             si el mes es nulo
+	 */
+	private Path getSegmento(YearMonth mes) throws IllegalArgumentException {
+		if (mes == null)
+			throw new IllegalArgumentException("El mes no puede ser nulo.");
+		return directorio.resolve(PREFIJO + mes.format(FORMATO_MES) + EXTENSION);
+	}
+
+	/**
+	 * Lee las reservas de un segmento. Las reservas comparten las instancias de
+	 * su aula y su profesor
+	 *
+	 * @param segmento
+	 *            la ruta del segmento
+	 * @param mes
+	 *            el mes que debe contener
+	 * @return las reservas del segmento
+	 * @throws IOException
+	 *             si no se puede leer el segmento o no es válido
+	 */
+	private static List<Reserva> leer(Path segmento, YearMonth mes) throws IOException {
+		ByteArrayOutputStream descomprimido = new ByteArrayOutputStream();
+		try (InputStream entrada = new GZIPInputStream(Files.newInputStream(segmento), TAMANO_BUFFER)) {
+			byte[] bloque = new byte[TAMANO_BUFFER];
+			int leidos;
+			while ((leidos = entrada.read(bloque)) > 0)
+				descomprimido.write(bloque, 0, leidos);
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(descomprimido.toByteArray());
+		try {
+			if (buffer.getInt() != MAGIA)
+				throw new IOException(ERROR_FORMATO);
+			if (buffer.getShort() != VERSION)
+				throw new IOException("La versión del segmento de archivo no está soportada.");
+			if (buffer.getInt() != mes.getYear() || buffer.get() != mes.getMonthValue())
+				throw new IOException(ERROR_FORMATO);
+			Aula[] aulas = new Aula[buffer.getInt()];
+			for (int i = 0; i < aulas.length; i++)
+				aulas[i] = new Aula(Instantanea.leerTexto(buffer), buffer.get() & 0xFF);
+			Profesor[] profesores = new Profesor[buffer.getInt()];
+			for (int i = 0; i < profesores.length; i++) {
+				String nombre = Instantanea.leerTexto(buffer);
+				String correo = Instantanea.leerTexto(buffer);
+				String telefono = Instantanea.leerTexto(buffer);
+				profesores[i] = telefono == null ? new Profesor(nombre, correo)
+						: new Profesor(nombre, correo, telefono);
+			}
+			int numReservas = buffer.getInt();
+			List<Reserva> reservas = new ArrayList<Reserva>(numReservas);
+			for (int i = 0; i < numReservas; i++) {
+				Aula aula = aulas[buffer.getInt()];
+				Profesor profesor = profesores[buffer.getInt()];
+				LocalDate dia = mes.atDay(buffer.get());
+				Permanencia permanencia = Instantanea.crearPermanencia(dia, buffer.get());
+				reservas.add(new Reserva(profesor, aula, permanencia));
+			}
+			if (buffer.hasRemaining())
+				throw new IOException(ERROR_FORMATO);
+			return reservas;
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException
+				| DateTimeException e) {
+			throw new IOException(ERROR_FORMATO, e);
+		}
+	}
+
+}
@@ -0,0 +1,284 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.VersionModelo;
+
+/**
+ * Compacta en segundo plano el diario de un modelo. Cada cierto tiempo
+ * comprueba el tamaño del diario y, si ha superado un mínimo y ha crecido al
+ * menos el doble desde la última compactación, lo sustituye por las aulas,
+ * profesores y reservas vivos más las operaciones posteriores. El estado se
+ * toma de una versión del modelo, así que mientras se escribe el modelo sigue
+ * aceptando operaciones. Guarda cuántas compactaciones se han hecho, cuánto
+ * han tardado y el tamaño del diario antes y después de la última.
+ *
+ * Con una instantánea, el estado vivo no se escribe en el diario sino en la
+ * instantánea, y del diario se descartan las operaciones anteriores. Al
+ * arrancar se carga la instantánea y sólo se reproduce lo que queda del diario.
+ *
+ * @see Diario#compactar(java.util.Collection, java.util.Collection,
+ *      java.util.Collection, long)
+ * @see Diario#descartarHasta(long, long)
+ * @see VersionModelo
+ * @author Juan Antonio Manzano Plaza
+ * @version 3
+ *
+ */
+public class CompactadorDiario {
+
+	private static final int FACTOR_CRECIMIENTO = 2;
+	private static final long NANOS_POR_MILISEGUNDO = 1000000L;
+
+	private ModeloReservasAulas modelo;
+	private Diario diario;
+	private Instantanea instantanea;
+	private long tamanoMinimo;
+	private ScheduledExecutorService planificador;
+	private volatile int compactaciones;
+	private volatile int errores;
+	private volatile long tamanoAntes;
+	private volatile long tamanoDespues;
+	private volatile long ultimaDuracion;
+	private volatile long duracionMaxima;
+	private volatile long duracionTotal;
+
+	/**
+	 * Constructor de la clase sin instantánea: el estado vivo se escribe en el
+	 * propio diario. Empieza a comprobar el diario en segundo plano
+	 *
+	 * @param modelo
+	 *            el modelo cuyas operaciones se registran en el diario, que debe
+	 *            versionar sus reservas
+	 * @param diario
+	 *            el diario a compactar
+	 * @param tamanoMinimo
+	 *            el tamaño en bytes a partir del cual se compacta el diario
+	 * @param intervalo
+	 *            cada cuántos milisegundos se comprueba el tamaño del diario
+	 * @throws IllegalArgumentException
+	 *             si alguno de los parámetros no es válido
+	 */
+	public CompactadorDiario(ModeloReservasAulas modelo, Diario diario, long tamanoMinimo, long intervalo)
+			throws IllegalArgumentException {
+		this(modelo, diario, null, tamanoMinimo, intervalo);
+	}
+
+	/**
+	 * Constructor de la clase. Empieza a comprobar el diario en segundo plano
+	 *
+	 * @param modelo
+	 *            el modelo cuyas operaciones se registran en el diario, que debe
+	 *            versionar sus reservas
+	 * @param diario
+	 *            el diario a compactar
+	 * @param instantanea
+	 *            la instantánea en la que guardar el estado vivo, o null para
+	 *            escribirlo en el diario
+	 * @param tamanoMinimo
+	 *            el tamaño en bytes a partir del cual se compacta el diario
+	 * @param intervalo
+	 *            cada cuántos milisegundos se comprueba el tamaño del diario
+	 * @throws IllegalArgumentException
+	 *             si alguno de los parámetros no es válido
+	 */
+	public CompactadorDiario(ModeloReservasAulas modelo, Diario diario, Instantanea instantanea, long tamanoMinimo,
+			long intervalo) throws IllegalArgumentException {
+		if (modelo == null)
+			throw new IllegalArgumentException("El modelo no puede ser nulo.");
+		if (modelo.getVersion() == null)
+			throw new IllegalArgumentException("El modelo debe versionar sus reservas para compactar el diario.");
+		if (diario == null)
+			throw new IllegalArgumentException("El diario no puede ser nulo.");
+		if (tamanoMinimo <= 0)
+			throw new IllegalArgumentException("El tamaño mínimo para compactar debe ser positivo.");
+		if (intervalo <= 0)
+			throw new IllegalArgumentException("El intervalo de comprobación debe ser positivo.");
+		this.modelo = modelo;
+		this.diario = diario;
+		this.instantanea = instantanea;
+		this.tamanoMinimo = tamanoMinimo;
+		planificador = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread hilo = new Thread(r, "compactador-diario");
+				hilo.setDaemon(true);
+				return hilo;
+			}
+		});
+		planificador.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				if (!debeCompactar())
+					return;
+				try {
+					compactar();
+				} catch (IOException | RuntimeException e) {
+					// Se volverá a intentar en la siguiente comprobación
+				}
+			}
+		}, intervalo, intervalo, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Comprueba si el diario ha crecido lo suficiente para compactarlo
+	 *
+	 * @return true si hay que compactar, false si no
+	 */
+	public boolean debeCompactar() {
+		long tamano = diario.getTamano();
+		return tamano >= tamanoMinimo && tamano >= FACTOR_CRECIMIENTO * tamanoDespues;
+	}
+
+	/**
+	 * Compacta el diario con la versión actual del modelo, aunque no haya crecido
+	 * lo suficiente. Con instantánea, primero se llevan a disco las operaciones
+	 * del diario hasta la posición de la versión, para que la instantánea nunca
+	 * quede por delante del diario, después se guarda la instantánea y por último
+	 * se descartan esas operaciones del diario
+	 *
+	 * @return el tamaño del diario tras compactarlo
+	 * @throws IOException
+	 *             si no se puede escribir el diario compactado
+	 */
+	public synchronized long compactar() throws IOException {
+		VersionModelo version;
+		long posicion;
+		long generacion;
+		// El modelo registra cada operación en el diario mientras tiene su monitor,
+		// así que con él la versión y el final del diario se corresponden
+		synchronized (modelo) {
+			version = modelo.getVersion();
+			posicion = diario.getTamano();
+			generacion = diario.getGeneracion();
+		}
+		long inicio = System.nanoTime();
+		long compactado;
+		try {
+			if (instantanea == null) {
+				compactado = diario.compactar(version.getAulas(), version.getProfesores(), version.getReservas(),
+						posicion);
+			} else {
+				diario.sincronizar();
+				compactado = instantanea.guardar(version, generacion, posicion);
+				diario.descartarHasta(posicion, instantanea.getGeneracion());
+			}
+		} catch (IOException | RuntimeException e) {
+			errores++;
+			throw e;
+		}
+		long duracion = System.nanoTime() - inicio;
+		tamanoAntes = posicion;
+		tamanoDespues = compactado;
+		ultimaDuracion = duracion;
+		duracionMaxima = Math.max(duracionMaxima, duracion);
+		duracionTotal += duracion;
+		compactaciones++;
+		return diario.getTamano();
+	}
+
+	/**
+	 * Deja de comprobar el diario, esperando a que acabe la compactación en curso
+	 */
+	public void detener() {
+		planificador.shutdown();
+		try {
+			planificador.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Obtiene el tamaño actual del diario en bytes
+	 *
+	 * @return el tamaño del diario
+	 */
+	public long getTamanoDiario() {
+		return diario.getTamano();
+	}
+
+	/**
+	 * Obtiene el número de compactaciones terminadas
+	 *
+	 * @return el número de compactaciones
+	 */
+	public int getCompactaciones() {
+		return compactaciones;
+	}
+
+	/**
+	 * Obtiene el número de compactaciones que han fallado
+	 *
+	 * @return el número de errores
+	 */
+	public int getErrores() {
+		return errores;
+	}
+
+	/**
+	 * Obtiene el tamaño en bytes de la parte del diario que se compactó la
+	 * última vez
+	 *
+	 * @return el tamaño antes de la última compactación, o 0 si no se ha hecho
+	 *         ninguna
+	 */
+	public long getTamanoAntes() {
+		return tamanoAntes;
+	}
+
+	/**
+	 * Obtiene el tamaño en bytes que ocupó el estado vivo, en el diario o en la
+	 * instantánea, en la última compactación
+	 *
+	 * @return el tamaño tras la última compactación, o 0 si no se ha hecho
+	 *         ninguna
+	 */
+	public long getTamanoDespues() {
+		return tamanoDespues;
+	}
+
+	/**
+	 * Obtiene lo que tardó la última compactación
+	 *
+	 * @return la duración en nanosegundos
+	 */
+	public long getUltimaDuracion() {
+		return ultimaDuracion;
+	}
+
+	/**
+	 * Obtiene lo que tardó la compactación más lenta
+	 *
+	 * @return la duración en nanosegundos
+	 */
+	public long getDuracionMaxima() {
+		return duracionMaxima;
+	}
+
+	/**
+	 * Obtiene lo que han tardado todas las compactaciones juntas
+	 *
+	 * @return la duración en nanosegundos
+	 */
+	public long getDuracionTotal() {
+		return duracionTotal;
+	}
+
+	/**
+	 * Método toString de la clase
+	 *
+	 * @return el tamaño del diario y las medidas de las compactaciones
+	 */
+	@Override
+	public String toString() {
+		return String.format("Diario: %d bytes, compactaciones=%d, errores=%d, última=%d -> %d bytes en %d ms, "
+				+ "máxima=%d ms, total=%d ms", getTamanoDiario(), compactaciones, errores, tamanoAntes,
+				tamanoDespues, ultimaDuracion / NANOS_POR_MILISEGUNDO, duracionMaxima / NANOS_POR_MILISEGUNDO,
+				duracionTotal / NANOS_POR_MILISEGUNDO);
+	}
+
+}
@@ -0,0 +1,983 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Periodicidad;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+
+/**
+ * Diario de operaciones del modelo. Cada operación que modifica aulas,
+ * profesores o reservas se añade al final de un fichero como un registro
+ * binario (longitud, CRC32 y datos), de forma que al arrancar se puede
+ * reproducir sobre un modelo vacío para recuperar el estado anterior.
+ *
+ * Como el fichero sólo crece, se puede compactar: las operaciones hasta una
+ * posición se sustituyen por la inserción de lo que seguía vivo en ese momento,
+ * y a continuación se copian las operaciones posteriores.
+ *
+ * También se pueden descartar sin más las operaciones hasta una posición cuando
+ * ya están guardadas en una Instantanea. El diario empieza entonces con una
+ * marca con la generación de esa instantánea, y al arrancar se carga la
+ * instantánea y sólo se reproducen las operaciones posteriores. Un diario sin
+ * marca es de la generación 0 y no necesita instantánea. Las dos formas de
+ * compactar no se deben mezclar sobre el mismo diario.
+ *
+ * @see PoliticaSincronizacion
+ * @see CompactadorDiario
+ * @see Instantanea
+ * @author Juan Antonio Manzano Plaza
+ * @version 3
+ *
+ */
+public class Diario {
+
+	private static final byte INSERTAR_AULA = 1;
+	private static final byte BORRAR_AULA = 2;
+	private static final byte INSERTAR_PROFESOR = 3;
+	private static final byte BORRAR_PROFESOR = 4;
+	private static final byte REALIZAR_RESERVA = 5;
+	private static final byte ANULAR_RESERVA = 6;
+	private static final byte REALIZAR_RESERVA_PERIODICA = 7;
+	private static final byte MARCA = 8;
+	private static final byte POR_HORA = 0;
+	private static final byte POR_TRAMO = 1;
+	private static final int TAMANO_CABECERA = 8;
+	// Tipo y generación
+	private static final int TAMANO_MARCA = 9;
+	// Ningún registro llega a 1 MB: como mucho lleva cuatro textos de 64 KB
+	private static final int TAMANO_MAXIMO_REGISTRO = 1024 * 1024;
+	private static final int TAMANO_BUFFER = 64 * 1024;
+
+	private Path fichero;
+	private PoliticaSincronizacion politica;
+	private FileChannel canal;
+	// Generación de la instantánea en la que empieza el diario, 0 si no tiene marca
+	private volatile long generacion;
+	// Protege el canal, que se sustituye por otro al compactar
+	private final Object escritura = new Object();
+	// Registros escritos por las operaciones que todavía no se han volcado al canal
+	private ByteArrayOutputStream pendientes;
+	// Bytes del diario contando los pendientes
+	private long tamano;
+	// Último error al volcar. Con la política AGRUPADA no se aceptan operaciones
+	// hasta que se vuelva a volcar bien, y si lo escrito a medias no se pudo
+	// recortar (dañado) no se aceptan nunca más, ya que las siguientes quedarían
+	// detrás de un registro roto y se perderían al reproducir el diario
+	private IOException fallo;
+	private boolean danado;
+	private ScheduledExecutorService sincronizador;
+
+	/**
+	 * Constructor de la clase. Abre (o crea) el fichero del diario.
+	 *
+	 * @param fichero
+	 *            la ruta del fichero del diario
+	 * @param politica
+	 *            cuándo se fuerza la escritura en disco de las operaciones
+	 * @param intervalo
+	 *            cada cuántos milisegundos se sincroniza con la política
+	 *            AGRUPADA. Se ignora con el resto de políticas
+	 * @throws IllegalArgumentException
+	 *             si alguno de los parámetros no es válido
+	 * @throws IOException
+	 *             si no se puede abrir el fichero
+	 */
+	public Diario(Path fichero, PoliticaSincronizacion politica, long intervalo)
+			throws IllegalArgumentException, IOException {
+		if (fichero == null)
+			throw new IllegalArgumentException("El fichero del diario no puede ser nulo.");
+		if (politica == null)
+			throw new IllegalArgumentException("La política de sincronización no puede ser nula.");
+		if (politica == PoliticaSincronizacion.AGRUPADA && intervalo <= 0)
+			throw new IllegalArgumentException("El intervalo de sincronización debe ser positivo.");
+		this.fichero = fichero;
+		this.politica = politica;
+		this.canal = abrir(fichero);
+		this.canal.position(this.canal.size());
+		this.pendientes = new ByteArrayOutputStream();
+		this.tamano = this.canal.size();
+		this.generacion = leerGeneracion();
+		if (politica == PoliticaSincronizacion.AGRUPADA) {
+			sincronizador = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread hilo = new Thread(r, "sincronizador-diario");
+					hilo.setDaemon(true);
+					return hilo;
+				}
+			});
+			sincronizador.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					try {
+						volcar(true);
+					} catch (IOException e) {
+						// Los registros siguen pendientes y se volverá a intentar en la
+						// siguiente sincronización. Mientras tanto registrar rechaza las
+						// operaciones nuevas
+					}
+				}
+			}, intervalo, intervalo, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Abre el fichero del diario para leer y escribir, creándolo si no existe. Las
+	 * pruebas lo redefinen para simular fallos del disco
+	 *
+	 * @param fichero
+	 *            la ruta del fichero
+	 * @return el canal abierto
+	 * @throws IOException
+	 *             si no se puede abrir el fichero
+	 */
+	FileChannel abrir(Path fichero) throws IOException {
+		return FileChannel.open(fichero, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+	}
+
+	/**
+	 * Lee la generación de la marca con la que empieza el fichero del diario
+	 *
+	 * @return la generación de la marca, o 0 si el diario no empieza con una
+	 * @throws IOException
+	 *             si no se puede leer el fichero
+	 */
+	private long leerGeneracion() throws IOException {
+		ByteBuffer marca = ByteBuffer.allocate(TAMANO_CABECERA + TAMANO_MARCA);
+		while (marca.hasRemaining())
+			if (canal.read(marca, marca.position()) < 0)
+				return 0;
+		marca.flip();
+		int longitud = marca.getInt();
+		int suma = marca.getInt();
+		CRC32 crc = new CRC32();
+		crc.update(marca.array(), TAMANO_CABECERA, TAMANO_MARCA);
+		if (longitud != TAMANO_MARCA || (int) crc.getValue() != suma || marca.get() != MARCA)
+			return 0;
+		return marca.getLong();
+	}
+
+	/**
+	 * Método get para la ruta del fichero del diario
+	 *
+	 * @return la ruta del fichero
+	 */
+	public Path getFichero() {
+		return fichero;
+	}
+
+	/**
+	 * Método get para la política de sincronización del diario
+	 *
+	 * @return la política de sincronización
+	 */
+	public PoliticaSincronizacion getPolitica() {
+		return politica;
+	}
+
+	/**
+	 * Obtiene el tamaño del diario en bytes, contando las operaciones registradas
+	 * que todavía no se han volcado al fichero. Sirve como posición del final del
+	 * diario para compactar hasta ella
+	 *
+	 * @return el tamaño del diario
+	 */
+	public synchronized long getTamano() {
+		return tamano;
+	}
+
+	/**
+	 * Método get para la generación del diario: la de la instantánea en la que
+	 * empieza, o 0 si no empieza en ninguna
+	 *
+	 * @return la generación del diario
+	 */
+	public long getGeneracion() {
+		return generacion;
+	}
+
+	/**
+	 * Registra la inserción de un aula
+	 *
+	 * @param aula
+	 *            el aula insertada
+	 */
+	public void insertarAula(Aula aula) {
+		registrar(INSERTAR_AULA, aula);
+	}
+
+	/**
+	 * Registra el borrado de un aula
+	 *
+	 * @param aula
+	 *            el aula borrada
+	 */
+	public void borrarAula(Aula aula) {
+		registrar(BORRAR_AULA, aula);
+	}
+
+	/**
+	 * Registra la inserción de un profesor
+	 *
+	 * @param profesor
+	 *            el profesor insertado
+	 */
+	public void insertarProfesor(Profesor profesor) {
+		registrar(INSERTAR_PROFESOR, profesor);
+	}
+
+	/**
+	 * Registra el borrado de un profesor
+	 *
+	 * @param profesor
+	 *            el profesor borrado
+	 */
+	public void borrarProfesor(Profesor profesor) {
+		registrar(BORRAR_PROFESOR, profesor);
+	}
+
+	/**
+	 * Registra una reserva realizada
+	 *
+	 * @param reserva
+	 *            la reserva realizada
+	 */
+	public void realizarReserva(Reserva reserva) {
+		registrar(REALIZAR_RESERVA, reserva);
+	}
+
+	/**
+	 * Registra una reserva periódica realizada. La serie entera ocupa un solo
+	 * registro, así que al reproducir el diario se recupera completa o no se
+	 * recupera, aunque el programa termine a mitad de su escritura
+	 *
+	 * @param serie
+	 *            la reserva periódica realizada
+	 */
+	public void realizarReservaPeriodica(ReservaPeriodica serie) {
+		registrar(REALIZAR_RESERVA_PERIODICA, serie);
+	}
+
+	/**
+	 * Registra una reserva anulada
+	 *
+	 * @param reserva
+	 *            la reserva anulada
+	 */
+	public void anularReserva(Reserva reserva) {
+		registrar(ANULAR_RESERVA, reserva);
+	}
+
+	/**
+	 * Vuelca al fichero los registros pendientes y fuerza su escritura en disco
+	 *
+	 * @throws IOException
+	 *             si no se puede escribir en el fichero
+	 */
+	public void sincronizar() throws IOException {
+		volcar(true);
+	}
+
+	/**
+	 * Sincroniza los registros pendientes y cierra el fichero del diario. El
+	 * fichero se cierra aunque no se puedan escribir los pendientes
+	 *
+	 * @throws IOException
+	 *             si no se puede escribir en el fichero o cerrarlo
+	 */
+	public void cerrar() throws IOException {
+		if (sincronizador != null)
+			sincronizador.shutdown();
+		synchronized (escritura) {
+			try {
+				volcar(true);
+			} finally {
+				canal.close();
+			}
+		}
+	}
+
+	/**
+	 * Compacta el diario hasta una posición. Las operaciones anteriores a ella se
+	 * sustituyen por la inserción de las aulas, profesores y reservas indicados,
+	 * que deben ser el estado del modelo justo después de esas operaciones. El
+	 * estado se escribe en un fichero nuevo sin detener a quien registra
+	 * operaciones; sólo al final se copian las operaciones posteriores a la
+	 * posición y el fichero nuevo sustituye al anterior de forma atómica, así que
+	 * si el programa termina a mitad el diario anterior sigue intacto.
+	 *
+	 * @param aulas
+	 *            las aulas vivas en la posición
+	 * @param profesores
+	 *            los profesores vivos en la posición
+	 * @param reservas
+	 *            las reservas vivas en la posición
+	 * @param posicion
+	 *            la posición hasta la que compactar, obtenida con getTamano
+	 * @return el tamaño en bytes del estado escrito en lugar de las operaciones
+	 * @throws IllegalArgumentException
+	 *             si alguna colección es nula o la posición no es válida
+	 * @throws IOException
+	 *             si no se puede escribir el diario compactado
+	 */
+	public long compactar(Collection<Aula> aulas, Collection<Profesor> profesores, Collection<Reserva> reservas,
+			long posicion) throws IllegalArgumentException, IOException {
+		if (aulas == null || profesores == null || reservas == null)
+			throw new IllegalArgumentException("No se puede compactar el diario a partir de colecciones nulas.");
+		if (posicion < 0 || posicion > getTamano())
+			throw new IllegalArgumentException("La posición a compactar no es válida.");
+		if (generacion != 0)
+			throw new IOException("Un diario que empieza en una instantánea se compacta guardando otra.");
+		return reescribir(0, aulas, profesores, reservas, posicion);
+	}
+
+	/**
+	 * Descarta las operaciones anteriores a una posición, que ya están guardadas
+	 * en una instantánea. El diario nuevo empieza con una marca con la generación
+	 * de la instantánea y sigue con las operaciones posteriores a la posición. Se
+	 * sustituye de forma atómica, como al compactar, así que si el programa
+	 * termina antes la instantánea se corresponde con la posición en el diario
+	 * anterior, y si termina después con el principio del nuevo.
+	 *
+	 * @param posicion
+	 *            la posición hasta la que descartar, la misma con la que se
+	 *            guardó la instantánea
+	 * @param generacion
+	 *            la generación de la instantánea
+	 * @return el tamaño en bytes de la marca escrita en lugar de las operaciones
+	 * @throws IllegalArgumentException
+	 *             si la posición no es válida o la generación no es posterior a
+	 *             la del diario
+	 * @throws IOException
+	 *             si no se puede escribir el diario nuevo
+	 * @see Instantanea#guardar(org.iesalandalus.programacion.reservasaulas.modelo.VersionModelo,
+	 *      long, long)
+	 */
+	public long descartarHasta(long posicion, long generacion) throws IllegalArgumentException, IOException {
+		if (posicion < 0 || posicion > getTamano())
+			throw new IllegalArgumentException("La posición a compactar no es válida.");
+		if (generacion <= this.generacion)
+			throw new IllegalArgumentException("La generación debe ser posterior a la del diario.");
+		return reescribir(generacion, Collections.<Aula>emptyList(), Collections.<Profesor>emptyList(),
+				Collections.<Reserva>emptyList(), posicion);
+	}
+
+	/**
+	 * Escribe un diario nuevo con la marca de una generación (si no es 0), la
+	 * inserción de las aulas, profesores y reservas indicados y las operaciones
+	 * posteriores a una posición, y lo pone en lugar del actual
+	 *
+	 * @param generacion
+	 *            la generación del diario nuevo, o 0 para no escribir marca
+	 * @param aulas
+	 *            las aulas a insertar
+	 * @param profesores
+	 *            los profesores a insertar
+	 * @param reservas
+	 *            las reservas a insertar
+	 * @param posicion
+	 *            la posición desde la que copiar las operaciones
+	 * @return el tamaño en bytes de lo escrito antes de las operaciones copiadas
+	 * @throws IOException
+	 *             si no se puede escribir el diario nuevo
+	 */
+	private long reescribir(long generacion, Collection<Aula> aulas, Collection<Profesor> profesores,
+			Collection<Reserva> reservas, long posicion) throws IOException {
+		Path directorio = fichero.toAbsolutePath().getParent();
+		Path temporal = Files.createTempFile(directorio, fichero.getFileName().toString(), ".tmp");
+		try {
+			long estado;
+			try (FileChannel nuevo = FileChannel.open(temporal, StandardOpenOption.WRITE)) {
+				OutputStream salida = new BufferedOutputStream(Channels.newOutputStream(nuevo), TAMANO_BUFFER);
+				if (generacion != 0)
+					salida.write(codificar(MARCA, generacion));
+				for (Aula a : aulas)
+					salida.write(codificar(INSERTAR_AULA, a));
+				for (Profesor p : profesores)
+					salida.write(codificar(INSERTAR_PROFESOR, p));
+				for (Reserva r : reservas)
+					salida.write(codificar(REALIZAR_RESERVA, r));
+				salida.flush();
+				estado = nuevo.position();
+				synchronized (escritura) {
+					if (!canal.isOpen())
+						throw new IOException("No se puede compactar un diario cerrado.");
+					// Las operaciones posteriores a la posición pasan al fichero nuevo
+					volcar(false);
+					long desde = posicion;
+					while (desde < canal.size())
+						desde += canal.transferTo(desde, canal.size() - desde, nuevo);
+					nuevo.force(false);
+					canal.close();
+					try {
+						try {
+							Files.move(temporal, fichero, StandardCopyOption.ATOMIC_MOVE,
+									StandardCopyOption.REPLACE_EXISTING);
+						} catch (AtomicMoveNotSupportedException e) {
+							Files.move(temporal, fichero, StandardCopyOption.REPLACE_EXISTING);
+						}
+					} finally {
+						// Se abre el fichero nuevo o, si no se ha podido mover, otra vez el anterior
+						canal = abrir(fichero);
+						canal.position(canal.size());
+					}
+					// Sin llevar el cambio de nombre a disco, tras un corte de luz podría
+					// volver el diario anterior mientras las operaciones nuevas se pierden
+					ArchivoReservas.forzarDirectorio(fichero.toAbsolutePath().getParent());
+					synchronized (this) {
+						tamano = canal.size() + pendientes.size();
+					}
+					this.generacion = generacion;
+				}
+			}
+			return estado;
+		} finally {
+			Files.deleteIfExists(temporal);
+		}
+	}
+
+	/**
+	 * Reproduce sobre un modelo todas las operaciones guardadas en el diario, en
+	 * el mismo orden en que se realizaron. La lectura se detiene en el primer
+	 * registro incompleto o dañado (por ejemplo, el último si el programa terminó
+	 * mientras se escribía, o uno cuya longitud no cabe en lo que queda de
+	 * fichero), y el fichero se recorta hasta el último registro válido para que
+	 * las siguientes operaciones se añadan a continuación.
+	 *
+	 * @param modelo
+	 *            el modelo sobre el que aplicar las operaciones
+	 * @return el número de operaciones aplicadas
+	 * @throws IllegalArgumentException
+	 *             si el modelo es nulo
+	 * @throws IOException
+	 *             si no se puede leer el fichero o el diario empieza en una
+	 *             instantánea
+	 */
+	public int reproducir(IModeloReservasAulas modelo) throws IllegalArgumentException, IOException {
+		if (modelo == null)
+			throw new IllegalArgumentException("No se puede reproducir el diario sobre un modelo nulo.");
+		if (generacion != 0)
+			throw new IOException("El diario empieza en una instantánea que hay que cargar antes.");
+		return reproducir(modelo, 0);
+	}
+
+	/**
+	 * Recupera el estado de un modelo a partir de una instantánea y del diario.
+	 * Si la instantánea existe se carga en el modelo y sólo se reproducen las
+	 * operaciones posteriores a ella: todo el diario si empieza en esa
+	 * instantánea, o desde la posición anotada en ella si es la del diario del
+	 * que se sacó (el programa terminó antes de descartar esas operaciones). Si no
+	 * existe, se reproduce el diario entero.
+	 *
+	 * @param modelo
+	 *            el modelo vacío que recuperar
+	 * @param instantanea
+	 *            la instantánea guardada al compactar el diario
+	 * @return el número de operaciones del diario aplicadas
+	 * @throws IllegalArgumentException
+	 *             si el modelo o la instantánea son nulos
+	 * @throws IOException
+	 *             si no se pueden leer los ficheros o la instantánea no
+	 *             corresponde al diario
+	 */
+	public int reproducir(IModeloReservasAulas modelo, Instantanea instantanea)
+			throws IllegalArgumentException, IOException {
+		if (modelo == null)
+			throw new IllegalArgumentException("No se puede reproducir el diario sobre un modelo nulo.");
+		if (instantanea == null)
+			throw new IllegalArgumentException("La instantánea no puede ser nula.");
+		if (!instantanea.existe())
+			return reproducir(modelo);
+		instantanea.cargar(modelo);
+		if (instantanea.getGeneracion() != 0 && instantanea.getGeneracion() == generacion)
+			return reproducir(modelo, 0);
+		if (instantanea.getGeneracion() != 0 && instantanea.getGeneracionDiario() == generacion)
+			return reproducir(modelo, instantanea.getPosicion());
+		throw new IOException("La instantánea no corresponde al diario.");
+	}
+
+	/**
+	 * Reproduce sobre un modelo las operaciones del diario a partir de una
+	 * posición, recortando el fichero tras el último registro válido
+	 *
+	 * @param modelo
+	 *            el modelo sobre el que aplicar las operaciones
+	 * @param desde
+	 *            la posición del primer registro a reproducir
+	 * @return el número de operaciones aplicadas
+	 * @throws IOException
+	 *             si no se puede leer el fichero o es más corto que la posición
+	 */
+	private int reproducir(IModeloReservasAulas modelo, long desde) throws IOException {
+		volcar(false);
+		int aplicadas = 0;
+		long posicionValida = desde;
+		CRC32 crc = new CRC32();
+		long tamanoFichero = Files.size(fichero);
+		if (desde > tamanoFichero)
+			throw new IOException("El diario no llega hasta la posición de la instantánea.");
+		try (FileChannel lectura = FileChannel.open(fichero, StandardOpenOption.READ)) {
+			lectura.position(desde);
+			DataInputStream registros = new DataInputStream(
+					new BufferedInputStream(Channels.newInputStream(lectura), TAMANO_BUFFER));
+			while (true) {
+				byte[] datos;
+				try {
+					int longitud = registros.readInt();
+					int suma = registros.readInt();
+					// Una longitud dañada no debe llegar a reservar memoria
+					if (longitud <= 0 || longitud > TAMANO_MAXIMO_REGISTRO
+							|| longitud > tamanoFichero - posicionValida - TAMANO_CABECERA)
+						break;
+					datos = new byte[longitud];
+					registros.readFully(datos);
+					crc.reset();
+					crc.update(datos, 0, longitud);
+					if ((int) crc.getValue() != suma)
+						break;
+				} catch (EOFException e) {
+					break;
+				}
+				if (aplicar(modelo, datos))
+					aplicadas++;
+				posicionValida += TAMANO_CABECERA + datos.length;
+			}
+		}
+		synchronized (escritura) {
+			if (posicionValida < canal.size())
+				canal.truncate(posicionValida);
+			canal.position(posicionValida);
+			synchronized (this) {
+				tamano = posicionValida + pendientes.size();
+			}
+		}
+		return aplicadas;
+	}
+
+	/**
+	 * Aplica sobre el modelo la operación de un registro
+	 *
+	 * @param modelo
+	 *            el modelo sobre el que aplicar la operación
+	 * @param registro
+	 *            los datos del registro
+	 * @return true si se ha aplicado, false si el modelo la ha rechazado
+	 * @throws IOException
+	 *             si el registro no tiene el formato esperado
+	 */
+	private boolean aplicar(IModeloReservasAulas modelo, byte[] registro) throws IOException {
+		DataInputStream datos = new DataInputStream(new ByteArrayInputStream(registro));
+		try {
+			switch (datos.readByte()) {
+			case INSERTAR_AULA:
+				modelo.insertarAula(leerAula(datos));
+				break;
+			case BORRAR_AULA:
+				modelo.borrarAula(leerAula(datos));
+				break;
+			case INSERTAR_PROFESOR:
+				modelo.insertarProfesor(leerProfesor(datos));
+				break;
+			case BORRAR_PROFESOR:
+				modelo.borrarProfesor(leerProfesor(datos));
+				break;
+			case REALIZAR_RESERVA:
+				modelo.realizarReserva(leerReserva(datos));
+				break;
+			case ANULAR_RESERVA:
+				modelo.anularReserva(leerReserva(datos));
+				break;
+			case REALIZAR_RESERVA_PERIODICA:
+				modelo.realizarReservaPeriodica(leerReservaPeriodica(datos));
+				break;
+			case MARCA:
+				// Lo anterior a la marca ya se ha cargado de la instantánea
+				return false;
+			default:
+				return false;
+			}
+		} catch (OperationNotSupportedException | IllegalArgumentException e) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Codifica una operación como un registro, lo añade a los pendientes y lo
+	 * vuelca según la política de sincronización. Con las políticas que vuelcan en
+	 * cada operación, el registro se añade y se vuelca sin soltar el canal, así
+	 * que si falla la escritura el registro que se descarta es sólo el suyo
+	 *
+	 * @param tipo
+	 *            el tipo de operación
+	 * @param objeto
+	 *            el aula, profesor o reserva de la operación
+	 * @throws UncheckedIOException
+	 *             si no se puede escribir en el fichero o no se pudieron escribir
+	 *             las operaciones anteriores
+	 */
+	private void registrar(byte tipo, Object objeto) {
+		byte[] bytes = codificar(tipo, objeto);
+		if (politica == PoliticaSincronizacion.AGRUPADA) {
+			anadirPendiente(bytes);
+			return;
+		}
+		synchronized (escritura) {
+			anadirPendiente(bytes);
+			try {
+				volcar(politica == PoliticaSincronizacion.POR_OPERACION);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Añade un registro a los pendientes si el diario no ha fallado
+	 *
+	 * @param bytes
+	 *            el registro completo
+	 * @throws UncheckedIOException
+	 *             si no se pudieron escribir las operaciones anteriores
+	 */
+	private synchronized void anadirPendiente(byte[] bytes) {
+		if (fallo != null)
+			throw new UncheckedIOException("No se han podido escribir en el diario las operaciones anteriores.",
+					fallo);
+		pendientes.write(bytes, 0, bytes.length);
+		tamano += bytes.length;
+	}
+
+	/**
+	 * Codifica una operación como un registro: la longitud de los datos, su CRC32
+	 * y los datos
+	 *
+	 * @param tipo
+	 *            el tipo de operación
+	 * @param objeto
+	 *            el aula, profesor, reserva o reserva periódica de la operación,
+	 *            o la generación de una marca
+	 * @return el registro completo
+	 * @throws UncheckedIOException
+	 *             si no se puede codificar
+	 */
+	private static byte[] codificar(byte tipo, Object objeto) {
+		ByteArrayOutputStream registro = new ByteArrayOutputStream(64);
+		DataOutputStream datos = new DataOutputStream(registro);
+		try {
+			datos.writeByte(tipo);
+			if (objeto instanceof Aula)
+				escribirAula(datos, (Aula) objeto);
+			else if (objeto instanceof Profesor)
+				escribirProfesor(datos, (Profesor) objeto);
+			else if (objeto instanceof ReservaPeriodica)
+				escribirReservaPeriodica(datos, (ReservaPeriodica) objeto);
+			else if (objeto instanceof Long)
+				datos.writeLong((Long) objeto);
+			else
+				escribirReserva(datos, (Reserva) objeto);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		byte[] bytes = registro.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(bytes, 0, bytes.length);
+		ByteBuffer completo = ByteBuffer.allocate(TAMANO_CABECERA + bytes.length);
+		completo.putInt(bytes.length);
+		completo.putInt((int) crc.getValue());
+		completo.put(bytes);
+		return completo.array();
+	}
+
+	/**
+	 * Escribe en el fichero los registros pendientes. Sólo se quitan de los
+	 * pendientes cuando se han escrito; si la escritura falla, el fichero se
+	 * recorta hasta donde estaba para no dejar un registro a medias. Con la
+	 * política AGRUPADA los registros siguen pendientes para volver a intentarlo,
+	 * y con las demás se descartan, ya que su operación recibe el error
+	 *
+	 * @param forzar
+	 *            si hay que forzar la escritura en disco
+	 * @throws IOException
+	 *             si no se puede escribir en el fichero
+	 */
+	private void volcar(boolean forzar) throws IOException {
+		synchronized (escritura) {
+			if (!canal.isOpen())
+				return;
+			byte[] bloque;
+			synchronized (this) {
+				if (danado)
+					throw new IOException("El diario tiene un registro a medias y no admite más escrituras.", fallo);
+				bloque = pendientes.toByteArray();
+			}
+			long inicio = canal.position();
+			try {
+				ByteBuffer buffer = ByteBuffer.wrap(bloque);
+				while (buffer.hasRemaining())
+					canal.write(buffer);
+				if (forzar)
+					canal.force(false);
+			} catch (IOException e) {
+				boolean recortado = recortar(inicio, e);
+				synchronized (this) {
+					danado = !recortado;
+					if (politica != PoliticaSincronizacion.AGRUPADA) {
+						quitarPendientes(bloque.length);
+						tamano -= bloque.length;
+					}
+					if (politica == PoliticaSincronizacion.AGRUPADA || danado)
+						fallo = e;
+				}
+				throw e;
+			}
+			synchronized (this) {
+				quitarPendientes(bloque.length);
+				fallo = null;
+			}
+		}
+	}
+
+	/**
+	 * Recorta el fichero hasta una posición después de una escritura fallida
+	 *
+	 * @param posicion
+	 *            dónde estaba el final del fichero antes de escribir
+	 * @param error
+	 *            el error de la escritura, al que se añade el del recorte
+	 * @return true si se ha recortado, false si no se ha podido
+	 */
+	private boolean recortar(long posicion, IOException error) {
+		try {
+			if (canal.size() > posicion)
+				canal.truncate(posicion);
+			canal.position(posicion);
+			return true;
+		} catch (IOException e) {
+			error.addSuppressed(e);
+			return false;
+		}
+	}
+
+	/**
+	 * Quita del principio de los pendientes los bytes ya volcados o descartados,
+	 * conservando los registros añadidos mientras tanto
+	 *
+	 * @param volcados
+	 *            el número de bytes a quitar
+	 */
+	private void quitarPendientes(int volcados) {
+		if (volcados == pendientes.size()) {
+			pendientes.reset();
+		} else {
+			byte[] restantes = pendientes.toByteArray();
+			pendientes.reset();
+			pendientes.write(restantes, volcados, restantes.length - volcados);
+		}
+	}
+
+	/**
+	 * Escribe el nombre y los puestos de un aula
+	 *
+	 * @param datos
+	 *            el flujo en el que escribir
+	 * @param aula
+	 *            el aula a escribir
+	 * @throws IOException
+	 *             si no se puede escribir
+	 */
+	private static void escribirAula(DataOutputStream datos, Aula aula) throws IOException {
+		datos.writeUTF(aula.getNombre());
+		datos.writeByte(aula.getPuestos());
+	}
+
+	/**
+	 * Lee un aula escrita con escribirAula
+	 *
+	 * @param datos
+	 *            el flujo del que leer
+	 * @return el aula leída
+	 * @throws IOException
+	 *             si no se puede leer
+	 */
+	private static Aula leerAula(DataInputStream datos) throws IOException {
+		return new Aula(datos.readUTF(), datos.readUnsignedByte());
+	}
+
+	/**
+	 * Escribe el nombre, el correo y, si lo tiene, el teléfono de un profesor
+	 *
+	 * @param datos
+	 *            el flujo en el que escribir
+	 * @param profesor
+	 *            el profesor a escribir
+	 * @throws IOException
+	 *             si no se puede escribir
+	 */
+	private static void escribirProfesor(DataOutputStream datos, Profesor profesor) throws IOException {
+		datos.writeUTF(profesor.getNombre());
+		datos.writeUTF(profesor.getCorreo());
+		datos.writeBoolean(profesor.getTelefono() != null);
+		if (profesor.getTelefono() != null)
+			datos.writeUTF(profesor.getTelefono());
+	}
+
+	/**
+	 * Lee un profesor escrito con escribirProfesor
+	 *
+	 * @param datos
+	 *            el flujo del que leer
+	 * @return el profesor leído
+	 * @throws IOException
+	 *             si no se puede leer
+	 */
+	private static Profesor leerProfesor(DataInputStream datos) throws IOException {
+		String nombre = datos.readUTF();
+		String correo = datos.readUTF();
+		if (datos.readBoolean())
+			return new Profesor(nombre, correo, datos.readUTF());
+		return new Profesor(nombre, correo);
+	}
+
+	/**
+	 * Escribe el profesor, el aula y la permanencia de una reserva. La
+	 * permanencia se guarda como el día (epoch day), el tipo y la hora o el
+	 * ordinal del tramo
+	 *
+	 * @param datos
+	 *            el flujo en el que escribir
+	 * @param reserva
+	 *            la reserva a escribir
+	 * @throws IOException
+	 *             si no se puede escribir
+	 */
+	private static void escribirReserva(DataOutputStream datos, Reserva reserva) throws IOException {
+		escribirProfesor(datos, reserva.getProfesor());
+		escribirAula(datos, reserva.getAula());
+		escribirPermanencia(datos, reserva.getPermanencia());
+	}
+
+	/**
+	 * Lee una reserva escrita con escribirReserva
+	 *
+	 * @param datos
+	 *            el flujo del que leer
+	 * @return la reserva leída
+	 * @throws IOException
+	 *             si no se puede leer
+	 */
+	private static Reserva leerReserva(DataInputStream datos) throws IOException {
+		Profesor profesor = leerProfesor(datos);
+		Aula aula = leerAula(datos);
+		return new Reserva(profesor, aula, leerPermanencia(datos));
+	}
+
+	/**
+	 * Escribe en un flujo una reserva periódica: como una reserva con su primera
+	 * permanencia, seguida de la periodicidad y el día de fin
+	 *
+	 * @param datos
+	 *            el flujo en el que escribir
+	 * @param serie
+	 *            la reserva periódica a escribir
+	 * @throws IOException
+	 *             si no se puede escribir
+	 */
+	private static void escribirReservaPeriodica(DataOutputStream datos, ReservaPeriodica serie) throws IOException {
+		escribirProfesor(datos, serie.getProfesor());
+		escribirAula(datos, serie.getAula());
+		escribirPermanencia(datos, serie.getPermanencia());
+		datos.writeByte(serie.getPeriodicidad().ordinal());
+		datos.writeInt((int) serie.getFin().toEpochDay());
+	}
+
+	/**
+	 * Lee una reserva periódica escrita con escribirReservaPeriodica
+	 *
+	 * @param datos
+	 *            el flujo del que leer
+	 * @return la reserva periódica leída
+	 * @throws IOException
+	 *             si no se puede leer
+	 */
+	private static ReservaPeriodica leerReservaPeriodica(DataInputStream datos) throws IOException {
+		Profesor profesor = leerProfesor(datos);
+		Aula aula = leerAula(datos);
+		Permanencia permanencia = leerPermanencia(datos);
+		Periodicidad periodicidad = Periodicidad.values()[datos.readUnsignedByte()];
+		LocalDate fin = LocalDate.ofEpochDay(datos.readInt());
+		return new ReservaPeriodica(profesor, aula, permanencia, periodicidad, fin);
+	}
+
+	/**
+	 * Escribe en un flujo una permanencia: el día, el tipo y la hora o el tramo
+	 *
+	 * @param datos
+	 *            el flujo en el que escribir
+	 * @param permanencia
+	 *            la permanencia a escribir
+	 * @throws IOException
+	 *             si no se puede escribir
+	 */
+	private static void escribirPermanencia(DataOutputStream datos, Permanencia permanencia) throws IOException {
+		datos.writeInt((int) permanencia.getDia().toEpochDay());
+		if (permanencia instanceof PermanenciaPorHora) {
+			datos.writeByte(POR_HORA);
+			datos.writeByte(((PermanenciaPorHora) permanencia).getHora().getHour());
+		} else {
+			datos.writeByte(POR_TRAMO);
+			datos.writeByte(((PermanenciaPorTramo) permanencia).getTramo().ordinal());
+		}
+	}
+
+	/**
+	 * Lee una permanencia escrita con escribirPermanencia
+	 *
+	 * @param datos
+	 *            el flujo del que leer
+	 * @return la permanencia leída
+	 * @throws IOException
+	 *             si no se puede leer
+	 */
+	private static Permanencia leerPermanencia(DataInputStream datos) throws IOException {
+		LocalDate dia = LocalDate.ofEpochDay(datos.readInt());
+		if (datos.readByte() == POR_HORA)
+			return new PermanenciaPorHora(dia, LocalTime.of(datos.readUnsignedByte(), 0));
+		return new PermanenciaPorTramo(dia, Tramo.values()[datos.readUnsignedByte()]);
+	}
+
+}
@@ -0,0 +1,446 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+
+/**
+ * Importa aulas, profesores o reservas desde ficheros CSV. El fichero se lee
+ * por bloques de filas: las filas de cada bloque se convierten en aulas,
+ * profesores o permanencias en varios hilos, con las mismas comprobaciones que
+ * sus constructores, y después se insertan en el modelo en orden. Así sólo hay
+ * un bloque en memoria, sea cual sea el tamaño del fichero.
+ *
+ * Las columnas, separadas por punto y coma, son:
+ *
+ * <pre>
+ * aulas:      nombre;puestos
+ * profesores: nombre;correo;teléfono (el teléfono puede estar vacío)
+ * reservas:   profesor;aula;día;hora o tramo
+ * </pre>
+ *
+ * La primera línea es la cabecera y no se importa. Un campo puede ir entre
+ * comillas dobles si contiene el separador, con las comillas de dentro
+ * duplicadas. Los días van en formato dd/mm/aaaa, las horas en hh:mm y los
+ * tramos son MANANA o TARDE; el profesor y el aula de una reserva tienen que
+ * existir ya en el modelo.
+ *
+ * Las filas que no se pueden importar no detienen la importación: se escriben
+ * en el informe como "línea;motivo;fila original".
+ *
+ * @see IModeloReservasAulas
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class ImportacionCsv {
+
+	private static final char SEPARADOR = ';';
+	private static final char COMILLAS = '"';
+	private static final int TAMANO_BLOQUE = 8192;
+	// Correo y puestos con los que se crean los profesores y aulas de las
+	// reservas, que sólo se usan para buscarlos por nombre
+	private static final String CORREO_VALIDO = "a@a.a";
+	private static final int PUESTOS_VALIDOS = 10;
+
+	private IModeloReservasAulas modelo;
+	private int numHilos;
+	private int tamanoBloque;
+	private int numRechazadas;
+
+	/**
+	 * Constructor de la clase. Usa un hilo por procesador y bloques de 8192 filas
+	 *
+	 * @param modelo
+	 *            el modelo en el que insertar lo importado
+	 * @throws IllegalArgumentException
+	 *             si el modelo es nulo
+	 */
+	public ImportacionCsv(IModeloReservasAulas modelo) throws IllegalArgumentException {
+		this(modelo, Runtime.getRuntime().availableProcessors(), TAMANO_BLOQUE);
+	}
+
+	/**
+	 * Constructor de la clase
+	 *
+	 * @param modelo
+	 *            el modelo en el que insertar lo importado
+	 * @param numHilos
+	 *            el número de hilos que comprueban las filas
+	 * @param tamanoBloque
+	 *            el número de filas que se leen de una vez
+	 * @throws IllegalArgumentException
+	 *             si el modelo es nulo o el número de hilos o el tamaño del
+	 *             bloque no son positivos
+	 */
+	public ImportacionCsv(IModeloReservasAulas modelo, int numHilos, int tamanoBloque)
+			throws IllegalArgumentException {
+		if (modelo == null)
+			throw new IllegalArgumentException("El modelo en el que importar no puede ser nulo.");
+		if (numHilos <= 0)
+			throw new IllegalArgumentException("El número de hilos debe ser positivo.");
+		if (tamanoBloque <= 0)
+			throw new IllegalArgumentException("El tamaño del bloque debe ser positivo.");
+		this.modelo = modelo;
+		this.numHilos = numHilos;
+		this.tamanoBloque = tamanoBloque;
+	}
+
+	/**
+	 * Obtiene el número de filas rechazadas en la última importación
+	 *
+	 * @return el número de filas rechazadas
+	 */
+	public int getNumRechazadas() {
+		return numRechazadas;
+	}
+
+	/**
+	 * Importa las aulas de un CSV con las columnas nombre y puestos
+	 *
+	 * @param csv
+	 *            el contenido del fichero
+	 * @param informe
+	 *            donde escribir las filas rechazadas
+	 * @return el número de aulas insertadas
+	 * @throws IllegalArgumentException
+	 *             si el CSV o el informe son nulos
+	 * @throws IOException
+	 *             si no se puede leer el CSV o escribir el informe
+	 */
+	public int importarAulas(Reader csv, Writer informe) throws IllegalArgumentException, IOException {
+		return importar(csv, informe, new Importador<Aula>() {
+			Aula leer(String[] campos) {
+				comprobarColumnas(campos, 2);
+				int puestos;
+				try {
+					puestos = Integer.parseInt(campos[1]);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Los puestos deben ser un número entero.");
+				}
+				return new Aula(campos[0], puestos);
+			}
+
+			void insertar(Aula aula) throws OperationNotSupportedException {
+				modelo.insertarAula(aula);
+			}
+		});
+	}
+
+	/**
+	 * Importa los profesores de un CSV con las columnas nombre, correo y teléfono
+	 *
+	 * @param csv
+	 *            el contenido del fichero
+	 * @param informe
+	 *            donde escribir las filas rechazadas
+	 * @return el número de profesores insertados
+	 * @throws IllegalArgumentException
+	 *             si el CSV o el informe son nulos
+	 * @throws IOException
+	 *             si no se puede leer el CSV o escribir el informe
+	 */
+	public int importarProfesores(Reader csv, Writer informe) throws IllegalArgumentException, IOException {
+		return importar(csv, informe, new Importador<Profesor>() {
+			Profesor leer(String[] campos) {
+				if (campos.length == 2 || campos.length == 3 && campos[2].isEmpty())
+					return new Profesor(campos[0], campos[1]);
+				comprobarColumnas(campos, 3);
+				return new Profesor(campos[0], campos[1], campos[2]);
+			}
+
+			void insertar(Profesor profesor) throws OperationNotSupportedException {
+				modelo.insertarProfesor(profesor);
+			}
+		});
+	}
+
+	/**
+	 * Importa las reservas de un CSV con las columnas profesor, aula, día y hora o
+	 * tramo. Cada reserva tiene que cumplir las mismas condiciones que al
+	 * realizarla desde la aplicación
+	 *
+	 * @param csv
+	 *            el contenido del fichero
+	 * @param informe
+	 *            donde escribir las filas rechazadas
+	 * @return el número de reservas realizadas
+	 * @throws IllegalArgumentException
+	 *             si el CSV o el informe son nulos
+	 * @throws IOException
+	 *             si no se puede leer el CSV o escribir el informe
+	 */
+	public int importarReservas(Reader csv, Writer informe) throws IllegalArgumentException, IOException {
+		return importar(csv, informe, new Importador<Reserva>() {
+			Reserva leer(String[] campos) {
+				comprobarColumnas(campos, 4);
+				Permanencia permanencia;
+				if (campos[3].contains(":")) {
+					permanencia = new PermanenciaPorHora(campos[2], campos[3]);
+				} else {
+					Tramo tramo;
+					try {
+						tramo = Tramo.valueOf(campos[3]);
+					} catch (IllegalArgumentException e) {
+						throw new IllegalArgumentException("El tramo debe ser MANANA o TARDE.");
+					}
+					permanencia = new PermanenciaPorTramo(campos[2], tramo);
+				}
+				return new Reserva(new Profesor(campos[0], CORREO_VALIDO), new Aula(campos[1], PUESTOS_VALIDOS),
+						permanencia);
+			}
+
+			void insertar(Reserva reserva) throws OperationNotSupportedException {
+				Profesor profesor = modelo.buscarProfesor(reserva.getProfesor());
+				if (profesor == null)
+					throw new IllegalArgumentException("El profesor introducido no existe.");
+				Aula aula = modelo.buscarAula(reserva.getAula());
+				if (aula == null)
+					throw new IllegalArgumentException("El aula introducida no existe.");
+				modelo.realizarReserva(new Reserva(profesor, aula, reserva.getPermanencia()));
+			}
+		});
+	}
+
+	/**
+	 * Lee el CSV por bloques, comprueba las filas de cada bloque en paralelo y
+	 * las inserta en orden, escribiendo las rechazadas en el informe
+	 *
+	 * @param csv
+	 *            el contenido del fichero
+	 * @param informe
+	 *            donde escribir las filas rechazadas
+	 * @param importador
+	 *            cómo leer e insertar cada fila
+	 * @return el número de filas insertadas
+	 * @throws IllegalArgumentException
+	 *             si el CSV o el informe son nulos
+	 * @throws IOException
+	 *             si no se puede leer el CSV o escribir el informe
+	 */
+	<T> int importar(Reader csv, Writer informe, Importador<T> importador)
+			throws IllegalArgumentException, IOException {
+		if (csv == null)
+			throw new IllegalArgumentException("El fichero a importar no puede ser nulo.");
+		if (informe == null)
+			throw new IllegalArgumentException("El informe de filas rechazadas no puede ser nulo.");
+		numRechazadas = 0;
+		int insertadas = 0;
+		BufferedReader lector = csv instanceof BufferedReader ? (BufferedReader) csv : new BufferedReader(csv);
+		ExecutorService ejecutor = Executors.newFixedThreadPool(numHilos, new ThreadFactory() {
+			public Thread newThread(Runnable r) {
+				Thread hilo = new Thread(r, "importacion-csv");
+				hilo.setDaemon(true);
+				return hilo;
+			}
+		});
+		try {
+			// La cabecera no se importa
+			int linea = lector.readLine() == null ? 0 : 1;
+			String[] filas = new String[tamanoBloque];
+			Object[] leidas = new Object[tamanoBloque];
+			String[] errores = new String[tamanoBloque];
+			int numFilas;
+			do {
+				numFilas = 0;
+				String fila;
+				while (numFilas < tamanoBloque && (fila = lector.readLine()) != null)
+					filas[numFilas++] = fila;
+				comprobar(ejecutor, importador, filas, numFilas, leidas, errores);
+				for (int i = 0; i < numFilas; i++) {
+					linea++;
+					if (filas[i].trim().isEmpty())
+						continue;
+					String error = errores[i];
+					if (error == null) {
+						try {
+							importador.insertar(importador.tipo(leidas[i]));
+							insertadas++;
+						} catch (OperationNotSupportedException | IllegalArgumentException e) {
+							error = e.getMessage();
+						}
+					}
+					if (error != null) {
+						numRechazadas++;
+						informe.write(linea + ";" + error + ";" + filas[i]);
+						informe.write(System.lineSeparator());
+					}
+				}
+			} while (numFilas == tamanoBloque);
+			informe.flush();
+		} finally {
+			ejecutor.shutdownNow();
+		}
+		return insertadas;
+	}
+
+	/**
+	 * Convierte las filas de un bloque repartiéndolas entre los hilos. Cada fila
+	 * deja su objeto en leidas o su motivo de rechazo en errores, sea cual sea
+	 * la excepción que lance al leerla
+	 *
+	 * @param ejecutor
+	 *            los hilos que convierten las filas
+	 * @param importador
+	 *            cómo leer cada fila
+	 * @param filas
+	 *            las filas del bloque
+	 * @param numFilas
+	 *            el número de filas del bloque
+	 * @param leidas
+	 *            donde dejar los objetos leídos
+	 * @param errores
+	 *            donde dejar los motivos de rechazo
+	 */
+	private <T> void comprobar(ExecutorService ejecutor, final Importador<T> importador, final String[] filas,
+			int numFilas, final Object[] leidas, final String[] errores) {
+		int porHilo = (numFilas + numHilos - 1) / numHilos;
+		List<Future<?>> tareas = new ArrayList<Future<?>>();
+		for (int inicio = 0; inicio < numFilas; inicio += porHilo) {
+			final int desde = inicio;
+			final int hasta = Math.min(numFilas, inicio + porHilo);
+			tareas.add(ejecutor.submit(new Callable<Void>() {
+				public Void call() {
+					for (int i = desde; i < hasta; i++) {
+						leidas[i] = null;
+						errores[i] = null;
+						try {
+							leidas[i] = importador.leer(separar(filas[i]));
+						} catch (RuntimeException e) {
+							// Cualquier fallo al leer una fila la rechaza sin detener
+							// la importación de las demás
+							errores[i] = e.getMessage() != null ? e.getMessage() : e.toString();
+						}
+					}
+					return null;
+				}
+			}));
+		}
+		try {
+			for (Future<?> tarea : tareas)
+				tarea.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Se ha interrumpido la importación.");
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	/**
+	 * Separa los campos de una fila. Los campos entre comillas pueden contener el
+	 * separador y comillas duplicadas
+	 *
+	 * @param fila
+	 *            la fila
+	 * @return los campos, sin los espacios de los extremos
+	 * @throws IllegalArgumentException
+	 *             si hay unas comillas sin cerrar
+	 */
+	static String[] separar(String fila) throws IllegalArgumentException {
+		List<String> campos = new ArrayList<String>();
+		StringBuilder campo = new StringBuilder();
+		boolean entreComillas = false;
+		for (int i = 0; i < fila.length(); i++) {
+			char c = fila.charAt(i);
+			if (entreComillas) {
+				if (c != COMILLAS)
+					campo.append(c);
+				else if (i + 1 < fila.length() && fila.charAt(i + 1) == COMILLAS)
+					campo.append(fila.charAt(++i));
+				else
+					entreComillas = false;
+			} else if (c == COMILLAS) {
+				entreComillas = true;
+			} else if (c == SEPARADOR) {
+				campos.add(campo.toString().trim());
+				campo.setLength(0);
+			} else {
+				campo.append(c);
+			}
+		}
+		if (entreComillas)
+			throw new IllegalArgumentException("Hay unas comillas sin cerrar.");
+		campos.add(campo.toString().trim());
+		return campos.toArray(new String[campos.size()]);
+	}
+
+	/**
+	 * Comprueba que una fila tiene el número de columnas esperado
+	 *
+	 * @param campos
+	 *            los campos de la fila
+	 * @param columnas
+	 *            el número de columnas esperado
+	 * @throws IllegalArgumentException
+	 *             si la fila tiene otro número de columnas
+	 */
+	private static void comprobarColumnas(String[] campos, int columnas) throws IllegalArgumentException {
+		if (campos.length != columnas)
+			throw new IllegalArgumentException("La fila debe tener " + columnas + " columnas.");
+	}
+
+	/**
+	 * Cómo se lee cada fila de un tipo de fichero y cómo se inserta lo leído
+	 */
+	abstract static class Importador<T> {
+
+		/**
+		 * Crea el objeto de una fila. Se llama desde varios hilos a la vez
+		 *
+		 * @param campos
+		 *            los campos de la fila
+		 * @return el objeto leído
+		 * @throws IllegalArgumentException
+		 *             si la fila no es válida
+		 */
+		abstract T leer(String[] campos) throws IllegalArgumentException;
+
+		/**
+		 * Inserta en el modelo un objeto leído. Se llama siempre desde el mismo
+		 * hilo y en el orden del fichero
+		 *
+		 * @param objeto
+		 *            el objeto leído
+		 * @throws OperationNotSupportedException
+		 *             si el modelo no admite el objeto
+		 * @throws IllegalArgumentException
+		 *             si el objeto no es válido
+		 */
+		abstract void insertar(T objeto) throws OperationNotSupportedException, IllegalArgumentException;
+
+		/**
+		 * Recupera el tipo de un objeto leído
+		 *
+		 * @param objeto
+		 *            el objeto leído
+		 * @return el mismo objeto
+		 */
+		@SuppressWarnings("unchecked")
+		T tipo(Object objeto) {
+			return (T) objeto;
+		}
+
+	}
+
+}
@@ -0,0 +1,502 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.VersionModelo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+
+/**
+ * Instantánea binaria de todo el contenido del modelo. Los nombres de las
+ * aulas y de los profesores se guardan una sola vez en un diccionario y cada
+ * reserva se reduce a cuatro números: el índice del aula, el del profesor, el
+ * día (epoch day) y la franja (la hora o el tramo). El fichero termina con el
+ * CRC32 de su contenido y se escribe en un fichero temporal que después se
+ * renombra, de forma que nunca queda una instantánea a medio escribir.
+ *
+ * Formato (versión 2):
+ *
+ * <pre>
+ * int magia, short versión
+ * long generación, long generación del diario, long posición en el diario
+ * int aulas registradas, int aulas en el diccionario, [texto nombre, byte puestos]...
+ * int profesores registrados, int profesores en el diccionario, [texto nombre, texto correo, texto teléfono]...
+ * int reservas, [int aula, int profesor, int día, byte franja]...
+ * int CRC32
+ * </pre>
+ *
+ * Los textos se guardan como su longitud en UTF-8 seguida de los bytes (-1 para
+ * un teléfono nulo). Las primeras aulas y profesores del diccionario son los
+ * registrados en el modelo, y el resto los que sólo aparecen en alguna
+ * reserva.
+ *
+ * Cuando el compactador guarda la instantánea a partir de una versión del
+ * modelo, anota la generación del diario del que sale y la posición de ese
+ * diario hasta la que llega, y la instantánea recibe la generación siguiente.
+ * Así, al arrancar, el diario sabe desde dónde reproducir sus operaciones. Las
+ * instantáneas guardadas directamente de un modelo tienen la generación 0 y no
+ * corresponden a ningún diario. La versión 1 no llevaba generaciones y se
+ * sigue pudiendo cargar.
+ *
+ * @see ModeloReservasAulas
+ * @see Diario#reproducir(IModeloReservasAulas, Instantanea)
+ * @author Juan Antonio Manzano Plaza
+ * @version 3
+ *
+ */
+public class Instantanea {
+
+	private static final int MAGIA = 0x52534131;
+	private static final short VERSION = 2;
+	private static final short VERSION_SIN_GENERACION = 1;
+	static final int NUM_HORAS = PermanenciaPorHora.HORA_FIN - PermanenciaPorHora.HORA_INICIO + 1;
+	static final int NUM_FRANJAS = NUM_HORAS + Tramo.values().length;
+	private static final int TAMANO_BUFFER = 1 << 16;
+	private static final String ERROR_FORMATO = "El fichero no es una instantánea válida.";
+
+	private Path fichero;
+	private long generacion;
+	private long generacionDiario;
+	private long posicion;
+
+	/**
+	 * Constructor de la clase
+	 *
+	 * @param fichero
+	 *            la ruta del fichero de la instantánea
+	 * @throws IllegalArgumentException
+	 *             si el fichero es nulo
+	 */
+	public Instantanea(Path fichero) throws IllegalArgumentException {
+		if (fichero == null)
+			throw new IllegalArgumentException("El fichero de la instantánea no puede ser nulo.");
+		this.fichero = fichero;
+	}
+
+	/**
+	 * Método get para la ruta del fichero de la instantánea
+	 *
+	 * @return la ruta del fichero
+	 */
+	public Path getFichero() {
+		return fichero;
+	}
+
+	/**
+	 * Comprueba si ya se ha guardado alguna instantánea en el fichero
+	 *
+	 * @return true si el fichero existe, false si no
+	 */
+	public boolean existe() {
+		return Files.exists(fichero);
+	}
+
+	/**
+	 * Método get para la generación de la última instantánea guardada o cargada
+	 *
+	 * @return la generación, o 0 si no corresponde a ningún diario
+	 */
+	public long getGeneracion() {
+		return generacion;
+	}
+
+	/**
+	 * Método get para la generación del diario del que se sacó la última
+	 * instantánea guardada o cargada
+	 *
+	 * @return la generación del diario
+	 */
+	public long getGeneracionDiario() {
+		return generacionDiario;
+	}
+
+	/**
+	 * Método get para la posición del diario hasta la que llega la última
+	 * instantánea guardada o cargada
+	 *
+	 * @return la posición en bytes
+	 */
+	public long getPosicion() {
+		return posicion;
+	}
+
+	/**
+	 * Guarda el contenido del modelo. Se escribe primero en un fichero temporal
+	 * del mismo directorio, se fuerza su escritura en disco y después se
+	 * renombra, por lo que si el programa termina a mitad la instantánea anterior
+	 * sigue intacta.
+	 *
+	 * @param modelo
+	 *            el modelo a guardar
+	 * @throws IllegalArgumentException
+	 *             si el modelo es nulo
+	 * @throws IOException
+	 *             si no se puede escribir el fichero
+	 */
+	public void guardar(IModeloReservasAulas modelo) throws IllegalArgumentException, IOException {
+		if (modelo == null)
+			throw new IllegalArgumentException("No se puede guardar una instantánea de un modelo nulo.");
+		List<Aula> aulas;
+		List<Profesor> profesores;
+		List<Reserva> reservas;
+		// Las tres listas deben salir del mismo estado del modelo: si lo permite, se
+		// guarda una de sus versiones, que no cambia aunque se siga modificando
+		VersionModelo version = null;
+		if (modelo instanceof ModeloReservasAulas)
+			version = ((ModeloReservasAulas) modelo).getVersion();
+		if (version != null) {
+			aulas = version.getAulas();
+			profesores = version.getProfesores();
+			reservas = version.getReservas();
+		} else {
+			aulas = modelo.getAulas();
+			profesores = modelo.getProfesores();
+			reservas = modelo.getReservas();
+		}
+		escribir(aulas, profesores, reservas, 0, 0, 0);
+	}
+
+	/**
+	 * Guarda una versión del modelo que corresponde a una posición del diario. La
+	 * instantánea recibe la generación siguiente a la del diario, que es con la
+	 * que el diario debe empezar después de descartar las operaciones anteriores
+	 * a la posición
+	 *
+	 * @param version
+	 *            la versión del modelo a guardar
+	 * @param generacionDiario
+	 *            la generación del diario en el que se tomó la versión
+	 * @param posicion
+	 *            la posición del diario justo después de la última operación de
+	 *            la versión
+	 * @return el tamaño en bytes de la instantánea
+	 * @throws IllegalArgumentException
+	 *             si la versión es nula o la generación o la posición son
+	 *             negativas
+	 * @throws IOException
+	 *             si no se puede escribir el fichero
+	 * @see Diario#descartarHasta(long, long)
+	 */
+	public long guardar(VersionModelo version, long generacionDiario, long posicion)
+			throws IllegalArgumentException, IOException {
+		if (version == null)
+			throw new IllegalArgumentException("No se puede guardar una instantánea de una versión nula.");
+		if (generacionDiario < 0 || posicion < 0)
+			throw new IllegalArgumentException("La generación y la posición del diario no pueden ser negativas.");
+		escribir(version.getAulas(), version.getProfesores(), version.getReservas(), generacionDiario + 1,
+				generacionDiario, posicion);
+		return Files.size(fichero);
+	}
+
+	/**
+	 * Escribe la instantánea en un fichero temporal, lo fuerza a disco y lo
+	 * renombra sobre el fichero de la instantánea
+	 *
+	 * @param aulas
+	 *            las aulas registradas
+	 * @param profesores
+	 *            los profesores registrados
+	 * @param reservas
+	 *            las reservas
+	 * @param generacion
+	 *            la generación de la instantánea
+	 * @param generacionDiario
+	 *            la generación del diario del que sale
+	 * @param posicion
+	 *            la posición del diario hasta la que llega
+	 * @throws IOException
+	 *             si no se puede escribir el fichero
+	 */
+	private void escribir(List<Aula> aulas, List<Profesor> profesores, List<Reserva> reservas, long generacion,
+			long generacionDiario, long posicion) throws IOException {
+		Map<String, Integer> indiceAulas = new LinkedHashMap<String, Integer>();
+		Map<String, Integer> indiceProfesores = new LinkedHashMap<String, Integer>();
+		List<Aula> diccionarioAulas = new ArrayList<Aula>(aulas);
+		List<Profesor> diccionarioProfesores = new ArrayList<Profesor>(profesores);
+		for (Aula a : aulas)
+			indiceAulas.put(a.getNombre(), indiceAulas.size());
+		for (Profesor p : profesores)
+			indiceProfesores.put(p.getNombre(), indiceProfesores.size());
+		for (Reserva r : reservas) {
+			if (!indiceAulas.containsKey(r.getAula().getNombre())) {
+				indiceAulas.put(r.getAula().getNombre(), indiceAulas.size());
+				diccionarioAulas.add(r.getAula());
+			}
+			if (!indiceProfesores.containsKey(r.getProfesor().getNombre())) {
+				indiceProfesores.put(r.getProfesor().getNombre(), indiceProfesores.size());
+				diccionarioProfesores.add(r.getProfesor());
+			}
+		}
+
+		Path directorio = fichero.toAbsolutePath().getParent();
+		Path temporal = Files.createTempFile(directorio, fichero.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.WRITE,
+					StandardOpenOption.TRUNCATE_EXISTING)) {
+				CheckedOutputStream comprobado = new CheckedOutputStream(Channels.newOutputStream(canal),
+						new CRC32());
+				DataOutputStream datos = new DataOutputStream(new BufferedOutputStream(comprobado, TAMANO_BUFFER));
+				datos.writeInt(MAGIA);
+				datos.writeShort(VERSION);
+				datos.writeLong(generacion);
+				datos.writeLong(generacionDiario);
+				datos.writeLong(posicion);
+				datos.writeInt(aulas.size());
+				datos.writeInt(diccionarioAulas.size());
+				for (Aula a : diccionarioAulas) {
+					escribirTexto(datos, a.getNombre());
+					datos.writeByte(a.getPuestos());
+				}
+				datos.writeInt(profesores.size());
+				datos.writeInt(diccionarioProfesores.size());
+				for (Profesor p : diccionarioProfesores) {
+					escribirTexto(datos, p.getNombre());
+					escribirTexto(datos, p.getCorreo());
+					escribirTexto(datos, p.getTelefono());
+				}
+				datos.writeInt(reservas.size());
+				for (Reserva r : reservas) {
+					datos.writeInt(indiceAulas.get(r.getAula().getNombre()));
+					datos.writeInt(indiceProfesores.get(r.getProfesor().getNombre()));
+					datos.writeInt((int) r.getPermanencia().getDia().toEpochDay());
+					datos.writeByte(getFranja(r.getPermanencia()));
+				}
+				datos.flush();
+				datos.writeInt((int) comprobado.getChecksum().getValue());
+				datos.flush();
+				canal.force(true);
+			}
+			try {
+				Files.move(temporal, fichero, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporal, fichero, StandardCopyOption.REPLACE_EXISTING);
+			}
+			ArchivoReservas.forzarDirectorio(fichero.toAbsolutePath().getParent());
+			this.generacion = generacion;
+			this.generacionDiario = generacionDiario;
+			this.posicion = posicion;
+		} finally {
+			Files.deleteIfExists(temporal);
+		}
+	}
+
+	/**
+	 * Sustituye el contenido del modelo por el de la instantánea. En un
+	 * ModeloReservasAulas las aulas, profesores y reservas se cargan directamente
+	 * en sus colecciones, sin volver a comprobar las restricciones, y las reservas
+	 * comparten las instancias de su aula, profesor y permanencia. El resto de
+	 * modelos deben estar vacíos y recuperando su estado, ya que se les insertan
+	 * una a una como si se reprodujera un diario.
+	 *
+	 * @param modelo
+	 *            el modelo en el que cargar la instantánea
+	 * @return el número de reservas cargadas
+	 * @throws IllegalArgumentException
+	 *             si el modelo es nulo
+	 * @throws IOException
+	 *             si no se puede leer el fichero, no es una instantánea válida o
+	 *             el modelo rechaza su contenido
+	 */
+	public int cargar(IModeloReservasAulas modelo) throws IllegalArgumentException, IOException {
+		if (modelo == null)
+			throw new IllegalArgumentException("No se puede cargar una instantánea en un modelo nulo.");
+		byte[] contenido = Files.readAllBytes(fichero);
+		if (contenido.length < 10)
+			throw new IOException(ERROR_FORMATO);
+		ByteBuffer buffer = ByteBuffer.wrap(contenido, 0, contenido.length - 4);
+		CRC32 crc = new CRC32();
+		crc.update(contenido, 0, contenido.length - 4);
+		if ((int) crc.getValue() != ByteBuffer.wrap(contenido, contenido.length - 4, 4).getInt())
+			throw new IOException(ERROR_FORMATO);
+		if (buffer.getInt() != MAGIA)
+			throw new IOException(ERROR_FORMATO);
+		short version = buffer.getShort();
+		if (version != VERSION && version != VERSION_SIN_GENERACION)
+			throw new IOException("La versión de la instantánea no está soportada.");
+		try {
+			long leidaGeneracion = 0;
+			long leidaGeneracionDiario = 0;
+			long leidaPosicion = 0;
+			if (version == VERSION) {
+				leidaGeneracion = buffer.getLong();
+				leidaGeneracionDiario = buffer.getLong();
+				leidaPosicion = buffer.getLong();
+			}
+			int numAulas = buffer.getInt();
+			Aula[] diccionarioAulas = new Aula[buffer.getInt()];
+			for (int i = 0; i < diccionarioAulas.length; i++)
+				diccionarioAulas[i] = new Aula(leerTexto(buffer), buffer.get() & 0xFF);
+			int numProfesores = buffer.getInt();
+			Profesor[] diccionarioProfesores = new Profesor[buffer.getInt()];
+			for (int i = 0; i < diccionarioProfesores.length; i++) {
+				String nombre = leerTexto(buffer);
+				String correo = leerTexto(buffer);
+				String telefono = leerTexto(buffer);
+				diccionarioProfesores[i] = telefono == null ? new Profesor(nombre, correo)
+						: new Profesor(nombre, correo, telefono);
+			}
+			int numReservas = buffer.getInt();
+			List<Reserva> reservas = new ArrayList<Reserva>(numReservas);
+			// epoch day -> permanencias de ese día por franja, para compartirlas
+			Map<Integer, Permanencia[]> permanencias = new HashMap<Integer, Permanencia[]>();
+			for (int i = 0; i < numReservas; i++) {
+				Aula aula = diccionarioAulas[buffer.getInt()];
+				Profesor profesor = diccionarioProfesores[buffer.getInt()];
+				int dia = buffer.getInt();
+				int franja = buffer.get();
+				Permanencia[] permanenciasDia = permanencias.get(dia);
+				if (permanenciasDia == null) {
+					permanenciasDia = new Permanencia[NUM_FRANJAS];
+					permanencias.put(dia, permanenciasDia);
+				}
+				if (permanenciasDia[franja] == null)
+					permanenciasDia[franja] = crearPermanencia(LocalDate.ofEpochDay(dia), franja);
+				reservas.add(new Reserva(profesor, aula, permanenciasDia[franja]));
+			}
+			if (buffer.hasRemaining())
+				throw new IOException(ERROR_FORMATO);
+			List<Aula> aulas = new ArrayList<Aula>(numAulas);
+			for (int i = 0; i < numAulas; i++)
+				aulas.add(diccionarioAulas[i]);
+			List<Profesor> profesores = new ArrayList<Profesor>(numProfesores);
+			for (int i = 0; i < numProfesores; i++)
+				profesores.add(diccionarioProfesores[i]);
+			if (modelo instanceof ModeloReservasAulas)
+				((ModeloReservasAulas) modelo).cargar(aulas, profesores, reservas);
+			else
+				insertar(modelo, aulas, profesores, reservas);
+			generacion = leidaGeneracion;
+			generacionDiario = leidaGeneracionDiario;
+			posicion = leidaPosicion;
+			return reservas.size();
+		} catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+			throw new IOException(ERROR_FORMATO, e);
+		}
+	}
+
+	/**
+	 * Inserta en un modelo vacío las aulas, profesores y reservas de la
+	 * instantánea
+	 *
+	 * @param modelo
+	 *            el modelo
+	 * @param aulas
+	 *            las aulas registradas
+	 * @param profesores
+	 *            los profesores registrados
+	 * @param reservas
+	 *            las reservas
+	 * @throws IOException
+	 *             si el modelo rechaza alguna de ellas
+	 */
+	private static void insertar(IModeloReservasAulas modelo, List<Aula> aulas, List<Profesor> profesores,
+			List<Reserva> reservas) throws IOException {
+		try {
+			for (Aula a : aulas)
+				modelo.insertarAula(a);
+			for (Profesor p : profesores)
+				modelo.insertarProfesor(p);
+			for (Reserva r : reservas)
+				modelo.realizarReserva(r);
+		} catch (OperationNotSupportedException e) {
+			throw new IOException("El modelo no admite el contenido de la instantánea.", e);
+		}
+	}
+
+	/**
+	 * Obtiene la franja de una permanencia: la hora contada desde HORA_INICIO o,
+	 * a partir de NUM_HORAS, el tramo
+	 *
+	 * @param permanencia
+	 *            la permanencia
+	 * @return el número de franja
+	 */
+	static int getFranja(Permanencia permanencia) {
+		if (permanencia instanceof PermanenciaPorHora)
+			return ((PermanenciaPorHora) permanencia).getHora().getHour() - PermanenciaPorHora.HORA_INICIO;
+		return NUM_HORAS + ((PermanenciaPorTramo) permanencia).getTramo().ordinal();
+	}
+
+	/**
+	 * Crea la permanencia que corresponde a un día y una franja
+	 *
+	 * @param dia
+	 *            el día de la permanencia
+	 * @param franja
+	 *            la franja obtenida con getFranja
+	 * @return la permanencia por hora o por tramo
+	 */
+	static Permanencia crearPermanencia(LocalDate dia, int franja) {
+		if (franja < NUM_HORAS)
+			return new PermanenciaPorHora(dia, LocalTime.of(PermanenciaPorHora.HORA_INICIO + franja, 0));
+		return new PermanenciaPorTramo(dia, Tramo.values()[franja - NUM_HORAS]);
+	}
+
+	/**
+	 * Escribe un texto como su longitud en UTF-8 seguida de sus bytes, o -1 si es
+	 * nulo
+	 *
+	 * @param datos
+	 *            el flujo en el que escribir
+	 * @param texto
+	 *            el texto a escribir
+	 * @throws IOException
+	 *             si no se puede escribir
+	 */
+	static void escribirTexto(DataOutputStream datos, String texto) throws IOException {
+		if (texto == null) {
+			datos.writeInt(-1);
+			return;
+		}
+		byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+		datos.writeInt(bytes.length);
+		datos.write(bytes);
+	}
+
+	/**
+	 * Lee un texto escrito con escribirTexto
+	 *
+	 * @param buffer
+	 *            el buffer del que leer
+	 * @return el texto leído, o null si se guardó un texto nulo
+	 */
+	static String leerTexto(ByteBuffer buffer) {
+		int longitud = buffer.getInt();
+		if (longitud < 0)
+			return null;
+		String texto = new String(buffer.array(), buffer.position(), longitud, StandardCharsets.UTF_8);
+		buffer.position(buffer.position() + longitud);
+		return texto;
+	}
+
+}
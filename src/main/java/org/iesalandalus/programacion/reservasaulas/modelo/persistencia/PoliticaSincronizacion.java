@@ -0,0 +1,35 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+/**
+ * Clase enumerada con las distintas formas de asegurar que las operaciones
+ * escritas en el diario llegan al disco
+ *
+ * @see Diario
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ */
+public enum PoliticaSincronizacion {
+	POR_OPERACION("Sincronizar cada operación"), AGRUPADA("Sincronizar periódicamente"), SISTEMA(
+			"Dejar la sincronización al sistema operativo");
+	private String cadenaAMostrar;
+
+	/**
+	 * Constructor privado
+	 *
+	 * @param cadenaAMostrar
+	 *            la representación de la política como cadena de caracteres
+	 */
+	private PoliticaSincronizacion(String cadenaAMostrar) {
+		this.cadenaAMostrar = cadenaAMostrar;
+	}
+
+	/**
+	 * Representa una política de sincronización como una cadena de caracteres
+	 *
+	 * @return la representación de la política
+	 */
+	public String toString() {
+		return cadenaAMostrar;
+	}
+
+}
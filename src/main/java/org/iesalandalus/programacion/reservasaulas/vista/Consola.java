@@ -1,13 +1,14 @@
 package org.iesalandalus.programacion.reservasaulas.vista;
 
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Periodicidad;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
 import org.iesalandalus.programacion.utilidades.Entrada;
 
 /**
  *
- * Clase dedicada a la interaccin con el usuario. Pide y lee los datos por
+ * Clase dedicada a la interacción con el usuario. Pide y lee los datos por
  * teclado
  * 
  * @see VistaReservasAulas
@@ -25,12 +26,12 @@ public class Consola {
 	}
 
 	/**
-	 * Mtodo esttico encargado de mostrar por pantalla todas las opciones de
+	 * Método estático encargado de mostrar por pantalla todas las opciones de
 	 * Opcion
 	 */
 	public static void mostrarMenu() {
 		System.out.println("*************************************************************");
-		System.out.println("*           RESERVAS DE AULAS DEL IES AL-NDALUS            *");
+		System.out.println("*           RESERVAS DE AULAS DEL IES AL-ÁNDALUS            *");
 		System.out.println("*************************************************************");
 		int i = 0;
 		for (Opcion o : Opcion.values()) {
@@ -41,23 +42,23 @@ public class Consola {
 	}
 
 	/**
-	 * Imprime por pantalla el ttulo de la opcin seleccionada.
+	 * Imprime por pantalla el título de la opción seleccionada.
 	 * 
 	 * @param cabecera
-	 *            el ttulo de la opcin
+	 *            el título de la opción
 	 */
 	public static void mostrarCabecera(String cabecera) {
 		System.out.println(cabecera);
 	}
 
 	/**
-	 * Lee por consola el valor ordinal de la opcin que desea realizarse.
+	 * Lee por consola el valor ordinal de la opción que desea realizarse.
 	 * 
-	 * @return el valor ordinal de la opcin a realizar
+	 * @return el valor ordinal de la opción a realizar
 	 */
 	public static int elegirOpcion() {
 		int opcion;
-		System.out.println("Qu opcin desea elegir?");
+		System.out.println("¿Qué opción desea elegir?");
 		opcion = Entrada.entero();
 		return opcion;
 	}
@@ -65,22 +66,22 @@ public class Consola {
 	/**
 	 * Lee por consola el nombre de un aula y la crea.
 	 * 
-	 * @return el aula leda
+	 * @return el aula leída
 	 */
 	public static Aula leerAula() {
 		Aula leida = null;
 		String nombre = leerNombreAula();
-		System.out.println("Introduzca el nmero de puestos del aula.");
+		System.out.println("Introduzca el número de puestos del aula.");
 		int puestos = Entrada.entero();
 		leida = new Aula(nombre, puestos);
-		System.out.println("Aula leda correctamente.");
+		System.out.println("Aula leída correctamente.");
 		return leida;
 	}
 
 	/**
 	 * Lee por consola el nombre de un aula.
 	 * 
-	 * @return el nombre ledo
+	 * @return el nombre leído
 	 */
 	public static String leerNombreAula() {
 		String nombre;
@@ -92,27 +93,27 @@ public class Consola {
 	/**
 	 * Lee por consola todos los atributos de un profesor y lo crea.
 	 * 
-	 * @return el profesor ledo
+	 * @return el profesor leído
 	 */
 	public static Profesor leerProfesor() {
 		Profesor leido = null;
 		String nombre = leerNombreProfesor();
-		System.out.println("Introduzca el correo electrnico del profesor.");
+		System.out.println("Introduzca el correo electrónico del profesor.");
 		String correo = Entrada.cadena();
-		System.out.println("Introduzca el telfono del profesor. (Puede dejarse vaco)");
+		System.out.println("Introduzca el teléfono del profesor. (Puede dejarse vacío)");
 		String telefono = Entrada.cadena();
 		if (telefono.equals(""))
 			leido = new Profesor(nombre, correo);
 		else
 			leido = new Profesor(nombre, correo, telefono);
-		System.out.println("Profesor ledo correctamente.");
+		System.out.println("Profesor leído correctamente.");
 		return leido;
 	}
 
 	/**
 	 * Lee por consola el nombre de un profesor.
 	 * 
-	 * @return el nombre ledo
+	 * @return el nombre leído
 	 */
 	public static String leerNombreProfesor() {
 		String nombre;
@@ -122,16 +123,16 @@ public class Consola {
 	}
 
 	/**
-	 * Lee por consola un tramo. En esta versin slo estn las opciones de maana
-	 * (0) y de tarde (1) Si aadimos ms opciones a Tramo ser necesario cambiar la
+	 * Lee por consola un tramo. En esta versión sólo están las opciones de mañana
+	 * (0) y de tarde (1) Si añadimos más opciones a Tramo será necesario cambiar la
 	 * salida por pantalla, pero no el bucle ni el return.
 	 * 
-	 * @return el tramo horario ledo
+	 * @return el tramo horario leído
 	 */
 	public static Tramo leerTramo() {
 		int opcion;
 		do {
-			System.out.println("Tramo de maana (0) o de tarde (1)?");
+			System.out.println("¿Tramo de mañana (0) o de tarde (1)?");
 			opcion = Entrada.entero();
 		} while (opcion < 0 || opcion > Tramo.values().length - 1);
 		return Tramo.values()[opcion];
@@ -139,9 +140,37 @@ public class Consola {
 	}
 
 	/**
-	 * Lee por consola el da para una permanencia
+	 * Lee por consola cada cuánto se repite una reserva periódica
 	 * 
-	 * @return la fecha leda
+	 * @return la periodicidad leída
+	 */
+	public static Periodicidad leerPeriodicidad() {
+		int opcion;
+		do {
+			System.out.println("¿Cada semana (0) o cada quince días (1)?");
+			opcion = Entrada.entero();
+		} while (opcion < 0 || opcion > Periodicidad.values().length - 1);
+		return Periodicidad.values()[opcion];
+	}
+
+	/**
+	 * Lee por consola el número mínimo de puestos que debe tener un aula
+	 * 
+	 * @return el número de puestos leído
+	 */
+	public static int leerPuestos() {
+		int puestos;
+		do {
+			System.out.println("Introduzca el número mínimo de puestos:");
+			puestos = Entrada.entero();
+		} while (puestos < 0);
+		return puestos;
+	}
+
+	/**
+	 * Lee por consola el día para una permanencia
+	 * 
+	 * @return la fecha leída
 	 */
 	public static String leerDia() {
 		String dia = "";
@@ -153,7 +182,7 @@ public class Consola {
 	/**
 	 * Lee por consola la hora para una permanencia por hora
 	 * 
-	 * @return la hora leda
+	 * @return la hora leída
 	 */
 	public static String leerHora() {
 		String hora = "";
@@ -170,7 +199,7 @@ public class Consola {
 	public static int elegirPermanencia() {
 		int permanencia = -1;
 		do {
-			System.out.println("Por horas (0) o por tramo (1)?");
+			System.out.println("¿Por horas (0) o por tramo (1)?");
 			permanencia = Entrada.entero();
 		} while (permanencia < 0 || permanencia > 1);
 		return permanencia;
@@ -0,0 +1,23 @@
+package org.iesalandalus.programacion.reservasaulas.vista;
+
+import org.iesalandalus.programacion.reservasaulas.controlador.IControladorReservasAulas;
+
+/**
+ * Interfaz común a todas las vistas: lo que necesita el controlador para
+ * ponerlas en marcha y terminarlas. Las vistas que se manejan con el menú de
+ * opciones implementan además IVistaReservasAulas
+ * 
+ * @see IVistaReservasAulas
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public interface IVista {
+
+	void setControlador(IControladorReservasAulas controlador);
+
+	void comenzar();
+
+	void salir();
+
+}
@@ -1,22 +1,16 @@
 package org.iesalandalus.programacion.reservasaulas.vista;
 
-import org.iesalandalus.programacion.reservasaulas.controlador.IControladorReservasAulas;
-
 /**
- * Interfaz de la clase VistaReservasAulas
+ * Interfaz de la clase VistaReservasAulas: una operación por cada opción del
+ * menú
  * 
  * @see VistaReservasAulas
+ * @see IVista
  * @author Juan Antonio Manzano Plaza
  * @version 2
  *
  */
-public interface IVistaReservasAulas {
-
-	void setControlador(IControladorReservasAulas controlador);
-
-	void comenzar();
-
-	void salir();
+public interface IVistaReservasAulas extends IVista {
 
 	void insertarAula();
 
@@ -36,6 +30,8 @@ public interface IVistaReservasAulas {
 
 	void realizarReserva();
 
+	void realizarReservaPeriodica();
+
 	void anularReserva();
 
 	void listarReservas();
@@ -48,4 +44,8 @@ public interface IVistaReservasAulas {
 
 	void consultarDisponibilidad();
 
+	void buscarHueco();
+
+	void mostrarEstadisticas();
+
 }
\ No newline at end of file
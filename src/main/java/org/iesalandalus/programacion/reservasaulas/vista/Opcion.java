@@ -2,7 +2,7 @@ package org.iesalandalus.programacion.reservasaulas.vista;
 
 /**
  *
- * Representa las distintas opciones que ofrece el men de la aplicacin.
+ * Representa las distintas opciones que ofrece el menú de la aplicación.
  * 
  * @see VistaReservasAulas
  * @author Juan Antonio Manzano Plaza
@@ -89,6 +89,21 @@ public enum Opcion {
 		public void ejecutar() {
 			vista.consultarDisponibilidad();
 		}
+	},
+	INSERTAR_RESERVA_PERIODICA("Insertar reserva periódica.") {
+		public void ejecutar() {
+			vista.realizarReservaPeriodica();
+		}
+	},
+	BUSCAR_HUECO("Buscar aula libre.") {
+		public void ejecutar() {
+			vista.buscarHueco();
+		}
+	},
+	MOSTRAR_ESTADISTICAS("Mostrar estadísticas.") {
+		public void ejecutar() {
+			vista.mostrarEstadisticas();
+		}
 	};
 
 	private String mensajeAMostrar;
@@ -98,28 +113,28 @@ public enum Opcion {
 	 * Constructor privado para evitar instanciar objetos de la clase.
 	 * 
 	 * @param mensajeAMostrar
-	 *            el ttulo de la opcin
+	 *            el título de la opción
 	 */
 	private Opcion(String mensajeAMostrar) {
 		this.mensajeAMostrar = mensajeAMostrar;
 	}
 
 	/**
-	 * Mtodo get que devuelve el ttulo de la opcin
+	 * Método get que devuelve el título de la opción
 	 * 
-	 * @return el ttulo de la opcin
+	 * @return el título de la opción
 	 */
 	public String getMensaje() {
 		return mensajeAMostrar;
 	}
 
 	/**
-	 * Llama al mtodo correspondiente a la opcin de la clase VistaReservasAulas
+	 * Llama al método correspondiente a la opción de la clase VistaReservasAulas
 	 */
 	public abstract void ejecutar();
 
 	/**
-	 * Mtodo set que inicializa la variable vista
+	 * Método set que inicializa la variable vista
 	 * 
 	 * @param vist
 	 *            objeto de la clase VistaReservasAulas sobre el que se van a
@@ -132,29 +147,29 @@ public enum Opcion {
 	/**
 	 * Define como debe mostrarse un objeto Opcion
 	 * 
-	 * @return mensajeAMostrar el ttulo de la opcin
+	 * @return mensajeAMostrar el título de la opción
 	 */
 	public String toString() {
 		return mensajeAMostrar;
 	}
 
 	/**
-	 * Devuelve la opcin correspondiente al valor recibido
+	 * Devuelve la opción correspondiente al valor recibido
 	 * 
 	 * @param ordinal
-	 *            el valor de la opcin
-	 * @return la opcin correspondiente al ordinal
+	 *            el valor de la opción
+	 * @return la opción correspondiente al ordinal
 	 */
 	public static Opcion getOpcionSegunOrdinal(int ordinal) {
 		return Opcion.values()[ordinal];
 	}
 
 	/**
-	 * Comprueba si un ordinal est dentro del rango de valores de Opcion
+	 * Comprueba si un ordinal está dentro del rango de valores de Opcion
 	 * 
 	 * @param ordinal
-	 *            el valor de la opcin que se desea seleccionar
-	 * @return True si el valor est dentro del rango, False si no
+	 *            el valor de la opción que se desea seleccionar
+	 * @return True si el valor está dentro del rango, False si no
 	 */
 	public static boolean esOrdinalValido(int ordinal) {
 		if (ordinal >= 0 && ordinal < Opcion.values().length)
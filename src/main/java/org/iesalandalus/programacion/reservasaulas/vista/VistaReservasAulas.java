@@ -1,14 +1,23 @@
 package org.iesalandalus.programacion.reservasaulas.vista;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Map;
 
 import javax.naming.OperationNotSupportedException;
 
+import org.iesalandalus.programacion.reservasaulas.controlador.Estadisticas;
 import org.iesalandalus.programacion.reservasaulas.controlador.IControladorReservasAulas;
 import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ConflictosReservaPeriodicaException;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Periodicidad;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
@@ -29,6 +38,9 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	private static final String ERROR = "ERROR: ";
 	// private static final String NOMBRE_VALIDO = "Juan";
 	private static final String CORREO_VALIDO = "a@a.a";
+	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+	// Reservas que se piden de una vez al listarlas
+	private static final int TAMANO_PAGINA = 50;
 	private IControladorReservasAulas controlador;
 
 	/**
@@ -43,7 +55,7 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Mtodo que inicia el programa y mientras que no se elija la opcin salir
+	 * Método que inicia el programa y mientras que no se elija la opción salir
 	 * sigue ofreciendo opciones.
 	 */
 	public void comenzar() {
@@ -51,12 +63,12 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 		do {
 			Consola.mostrarMenu();
 			try {
-				// Lectura de la opcin
+				// Lectura de la opción
 				opcion = Opcion.getOpcionSegunOrdinal(Consola.elegirOpcion());
-				// Ejecucin de la opcin
+				// Ejecución de la opción
 				opcion.ejecutar();
 			} catch (ArrayIndexOutOfBoundsException e) {
-				System.out.println(ERROR + "Introduzca un nmero de opcin vlido.");
+				System.out.println(ERROR + "Introduzca un número de opción válido.");
 			}
 		} while (opcion != Opcion.SALIR);
 	}
@@ -65,11 +77,11 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	 * Ejecuta la orden salir de Opcion
 	 */
 	public void salir() {
-		System.out.println("Fin de la ejecucin.");
+		System.out.println("Fin de la ejecución.");
 	}
 
 	/**
-	 * Ejecuta la orden insertarAula de Opcion llamando al mtodo correspondiente de
+	 * Ejecuta la orden insertarAula de Opcion llamando al método correspondiente de
 	 * ModeloReservasAulas
 	 */
 	public void insertarAula() {
@@ -84,14 +96,14 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden borrarAula de Opcion llamando al mtodo correspondiente de
+	 * Ejecuta la orden borrarAula de Opcion llamando al método correspondiente de
 	 * ModeloReservasAulas
 	 */
 	public void borrarAula() {
 		Consola.mostrarCabecera("BORRAR AULA");
 		try {
-			controlador.borrarAula(new Aula(Consola.leerNombreAula(), 10));
-			System.out.println("Aula eliminada.");
+			int anuladas = controlador.borrarAula(new Aula(Consola.leerNombreAula(), 10));
+			System.out.println("Aula eliminada. Reservas anuladas: " + anuladas + ".");
 		} catch (Exception e) {
 			System.out.println(ERROR + e.getMessage());
 			System.out.println("No se pudo eliminar el aula.");
@@ -99,7 +111,7 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden buscarAula de Opcion llamando al mtodo correspondiente de
+	 * Ejecuta la orden buscarAula de Opcion llamando al método correspondiente de
 	 * ModeloReservasAulas
 	 */
 	public void buscarAula() {
@@ -118,20 +130,20 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden listarAulas de Opcion llamando al mtodo correspondiente de
+	 * Ejecuta la orden listarAulas de Opcion llamando al método correspondiente de
 	 * ModeloReservasAulas
 	 */
 	public void listarAulas() {
 		Consola.mostrarCabecera("LISTAR AULAS");
 		List<String> aulas = controlador.representarAulas();
 		if (aulas.size() == 0)
-			System.out.println("No hay ningn aula guardada.");
+			System.out.println("No hay ningún aula guardada.");
 		for (String s : aulas)
 			System.out.println(s);
 	}
 
 	/**
-	 * Ejecuta la orden insertarProfesor de Opcion llamando al mtodo
+	 * Ejecuta la orden insertarProfesor de Opcion llamando al método
 	 * correspondiente de ModeloReservasAulas
 	 */
 	public void insertarProfesor() {
@@ -146,7 +158,7 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden borrarProfesor de Opcion llamando al mtodo correspondiente
+	 * Ejecuta la orden borrarProfesor de Opcion llamando al método correspondiente
 	 * de ModeloReservasAulas
 	 */
 	public void borrarProfesor() {
@@ -158,8 +170,8 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 			System.out.println(ERROR + e.getMessage());
 		}
 		try {
-			controlador.borrarProfesor(borrar);
-			System.out.println("Profesor borrado.");
+			int anuladas = controlador.borrarProfesor(borrar);
+			System.out.println("Profesor borrado. Reservas anuladas: " + anuladas + ".");
 		} catch (Exception e) {
 			System.out.println(ERROR + e.getMessage());
 			System.out.println("No se pudo borrar el profesor.");
@@ -167,7 +179,7 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden buscarProfesor de Opcion llamando al mtodo correspondiente
+	 * Ejecuta la orden buscarProfesor de Opcion llamando al método correspondiente
 	 * de ModeloReservasAulas
 	 */
 	public void buscarProfesor() {
@@ -186,20 +198,20 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden listarProfesores de Opcion llamando al mtodo
+	 * Ejecuta la orden listarProfesores de Opcion llamando al método
 	 * correspondiente de ModeloReservasAulas
 	 */
 	public void listarProfesores() {
 		Consola.mostrarCabecera("LISTAR PROFESORES");
 		List<String> profesores = controlador.representarProfesores();
 		if (profesores.size() == 0)
-			System.out.println("No hay ningn profesor guardado.");
+			System.out.println("No hay ningún profesor guardado.");
 		for (String s : profesores)
 			System.out.println(s);
 	}
 
 	/**
-	 * Ejecuta la orden realizarReserva de Opcion llamando al mtodo correspondiente
+	 * Ejecuta la orden realizarReserva de Opcion llamando al método correspondiente
 	 * de ModeloReservasAulas
 	 */
 	public void realizarReserva() {
@@ -233,11 +245,57 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Mtodo privado que se encarga de leer una reserva
+	 * Ejecuta la orden realizarReservaPeriodica de Opcion llamando al método
+	 * correspondiente de ModeloReservasAulas. Si alguna reserva de la serie no se
+	 * puede realizar muestra el motivo de cada día
+	 */
+	public void realizarReservaPeriodica() {
+		Consola.mostrarCabecera("REALIZAR RESERVA PERIÓDICA");
+		Profesor profesor = null;
+		try {
+			profesor = new Profesor(Consola.leerNombreProfesor(), CORREO_VALIDO);
+		} catch (Exception e) {
+		}
+		if (controlador.buscarProfesor(profesor) == null) {
+			System.out.println(ERROR + "El profesor introducido no existe.");
+			System.out.println("La reserva periódica no se pudo realizar.");
+			return;
+		}
+		ReservaPeriodica serie = null;
+		try {
+			System.out.println("Datos de la primera reserva:");
+			Reserva primera = leerReserva(profesor);
+			if (primera != null) {
+				Periodicidad periodicidad = Consola.leerPeriodicidad();
+				System.out.println("Último día de la serie:");
+				LocalDate fin = LocalDate.parse(Consola.leerDia(), FORMATO_DIA);
+				serie = new ReservaPeriodica(primera.getProfesor(), primera.getAula(), primera.getPermanencia(),
+						periodicidad, fin);
+			}
+		} catch (DateTimeParseException e) {
+			System.out.println(ERROR + "El formato del día no es correcto.");
+		} catch (IllegalArgumentException e) {
+			System.out.println(ERROR + e.getMessage());
+		}
+		try {
+			int realizadas = controlador.realizarReservaPeriodica(serie);
+			System.out.println("Reserva periódica realizada correctamente. Reservas realizadas: " + realizadas + ".");
+		} catch (ConflictosReservaPeriodicaException e) {
+			System.out.println(ERROR + e.getMessage());
+			for (Map.Entry<LocalDate, String> conflicto : e.getConflictos().entrySet())
+				System.out.println(conflicto.getKey().format(FORMATO_DIA) + ": " + conflicto.getValue());
+		} catch (Exception e) {
+			System.out.println(ERROR + e.getMessage());
+			System.out.println("La reserva periódica no se pudo realizar.");
+		}
+	}
+
+	/**
+	 * Método privado que se encarga de leer una reserva
 	 *
 	 * @param profesor
 	 *            el profesor responsable de la reserva
-	 * @return null si el profesor o el aula no existen, la reserva leda si existen
+	 * @return null si el profesor o el aula no existen, la reserva leída si existen
 	 *         ambos
 	 */
 	private Reserva leerReserva(Profesor profesor) {
@@ -263,7 +321,7 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden anularReserva de Opcion llamando al mtodo correspondiente
+	 * Ejecuta la orden anularReserva de Opcion llamando al método correspondiente
 	 * de ModeloReservasAulas
 	 */
 	public void anularReserva() {
@@ -301,20 +359,26 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden listarReservas de Opcion llamando al mtodo correspondiente
-	 * de ModeloReservasAulas
+	 * Ejecuta la orden listarReservas de Opcion llamando al método correspondiente
+	 * de ModeloReservasAulas. Las reservas se piden por páginas, de forma que las
+	 * primeras se muestran sin esperar a tenerlas todas
 	 */
 	public void listarReservas() {
 		Consola.mostrarCabecera("LISTAR RESERVAS");
-		List<String> reservas = controlador.representarReservas();
-		if (reservas.size() == 0)
+		int mostradas = 0;
+		List<String> pagina;
+		do {
+			pagina = controlador.representarReservas(mostradas, TAMANO_PAGINA);
+			for (String s : pagina)
+				System.out.println(s);
+			mostradas += pagina.size();
+		} while (pagina.size() == TAMANO_PAGINA);
+		if (mostradas == 0)
 			System.out.println("No hay ninguna reserva hecha.");
-		for (String s : reservas)
-			System.out.println(s);
 	}
 
 	/**
-	 * Ejecuta la orden listarReservasAula de Opcion llamando al mtodo
+	 * Ejecuta la orden listarReservasAula de Opcion llamando al método
 	 * correspondiente de ModeloReservasAulas
 	 */
 	public void listarReservasAula() {
@@ -342,7 +406,7 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 			lecturaCorrecta = false;
 		}
 		if (lecturaCorrecta && reservas.size() == 0)
-			System.out.println("El aula indicada no est reservada.");
+			System.out.println("El aula indicada no está reservada.");
 		if (lecturaCorrecta) {
 			for (Reserva r : reservas)
 				System.out.println(r);
@@ -350,7 +414,7 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden listarReservasProfesor de Opcion llamando al mtodo
+	 * Ejecuta la orden listarReservasProfesor de Opcion llamando al método
 	 * correspondiente de ModeloReservasAulas
 	 */
 	public void listarReservasProfesor() {
@@ -378,7 +442,7 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 			lecturaCorrecta = false;
 		}
 		if (lecturaCorrecta && reservas.size() == 0) {
-			System.out.println("El profesor indicado no tiene ningn aula reservada.");
+			System.out.println("El profesor indicado no tiene ningún aula reservada.");
 			lecturaCorrecta = false;
 		}
 		if (lecturaCorrecta) {
@@ -388,7 +452,7 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden listarReservasPermanencia de Opcion llamando al mtodo
+	 * Ejecuta la orden listarReservasPermanencia de Opcion llamando al método
 	 * correspondiente de ModeloReservasAulas
 	 */
 	public void listarReservasPermanencia() {
@@ -430,7 +494,7 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 	}
 
 	/**
-	 * Ejecuta la orden consultarDisponibilidad de Opcion llamando al mtodo
+	 * Ejecuta la orden consultarDisponibilidad de Opcion llamando al método
 	 * correspondiente de ModeloReservasAulas
 	 */
 	public void consultarDisponibilidad() {
@@ -476,12 +540,67 @@ public class VistaReservasAulas implements IVistaReservasAulas {
 		if (aulaOtra != null) {
 			try {
 				if (controlador.consultarDisponibilidad(aulaOtra, permanencia))
-					System.out.println("El aula consultada est disponible para esa permanencia.");
+					System.out.println("El aula consultada está disponible para esa permanencia.");
 				else
-					System.out.println("El aula consultada no est disponible para esa permanencia.");
+					System.out.println("El aula consultada no está disponible para esa permanencia.");
 			} catch (Exception e) {
 				System.out.println(ERROR + e.getMessage());
 			}
 		}
 	}
-}
+
+	/**
+	 * Ejecuta la orden buscarHueco de Opcion. Si el último día de la búsqueda es
+	 * el mismo que el de la permanencia muestra todas las aulas libres ese día; si
+	 * no, muestra el primer hueco libre entre los dos días
+	 */
+	public void buscarHueco() {
+		Consola.mostrarCabecera("BUSCAR AULA LIBRE");
+		int puestos = Consola.leerPuestos();
+		try {
+			Permanencia desde;
+			if (Consola.elegirPermanencia() == 0)
+				desde = new PermanenciaPorHora(Consola.leerDia(), Consola.leerHora());
+			else
+				desde = new PermanenciaPorTramo(Consola.leerDia(), Consola.leerTramo());
+			System.out.println("Último día de la búsqueda:");
+			LocalDate hasta = LocalDate.parse(Consola.leerDia(), FORMATO_DIA);
+			if (hasta.equals(desde.getDia())) {
+				List<Aula> libres = controlador.getAulasLibres(puestos, desde);
+				if (libres.isEmpty())
+					System.out.println("No hay ningún aula libre con esos puestos.");
+				for (Aula aula : libres)
+					System.out.println(aula);
+			} else {
+				Hueco hueco = controlador.buscarHueco(puestos, desde, hasta);
+				if (hueco == null)
+					System.out.println("No hay ningún aula libre con esos puestos entre esos días.");
+				else
+					System.out.println("Primer hueco libre: " + hueco);
+			}
+		} catch (DateTimeParseException e) {
+			System.out.println(ERROR + "El formato del día no es correcto.");
+		} catch (IllegalArgumentException e) {
+			System.out.println(ERROR + e.getMessage());
+		}
+	}
+
+	/**
+	 * Ejecuta la orden mostrarEstadisticas de Opcion. Muestra las llamadas, los
+	 * errores y los tiempos de cada operación del controlador que se ha usado, y
+	 * los valores de las fuentes añadidas, como el diario
+	 */
+	public void mostrarEstadisticas() {
+		Consola.mostrarCabecera("MOSTRAR ESTADÍSTICAS");
+		Estadisticas estadisticas = controlador.getEstadisticas();
+		if (estadisticas == null) {
+			System.out.println("Las estadísticas no están activadas.");
+			return;
+		}
+		if (estadisticas.getMedidores().isEmpty())
+			System.out.println("Todavía no se ha realizado ninguna operación.");
+		List<String> medidas = estadisticas.representar();
+		for (String s : medidas)
+			System.out.println(s);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,562 @@
+package org.iesalandalus.programacion.reservasaulas.vista;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map.Entry;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.controlador.Estadisticas;
+import org.iesalandalus.programacion.reservasaulas.controlador.IControladorReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ConflictosReservaPeriodicaException;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Periodicidad;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+import org.iesalandalus.programacion.reservasaulas.vista.util.Json;
+
+/**
+ *
+ * Vista que ejecuta las órdenes de un fichero sin preguntar nada por teclado.
+ * Cada línea es una orden: el nombre de una Opcion seguido de sus datos,
+ * separados por punto y coma. Las líneas vacías y las que empiezan por # se
+ * saltan, y la orden SALIR termina la ejecución aunque queden líneas.
+ *
+ * <pre>
+ * INSERTAR_AULA;nombre;puestos
+ * BORRAR_AULA;nombre
+ * BUSCAR_AULA;nombre
+ * LISTAR_AULAS
+ * INSERTAR_PROFESOR;nombre;correo[;telefono]
+ * BORRAR_PROFESOR;nombre
+ * BUSCAR_PROFESOR;nombre
+ * LISTAR_PROFESORES
+ * INSERTAR_RESERVA;profesor;aula;dia;hora o tramo
+ * BORRAR_RESERVA;profesor;aula;dia;hora o tramo
+ * LISTAR_RESERVAS
+ * LISTAR_RESERVAS_AULA;aula
+ * LISTAR_RESERVAS_PROFESOR;profesor
+ * LISTAR_RESERVAS_PERMANENCIA;dia;hora o tramo
+ * CONSULTAR_DISPONIBILIDAD;aula;dia;hora o tramo
+ * INSERTAR_RESERVA_PERIODICA;profesor;aula;dia;hora o tramo;periodicidad;fin
+ * BUSCAR_HUECO;puestos;dia;hora o tramo;hasta
+ * MOSTRAR_ESTADISTICAS
+ * SALIR
+ * </pre>
+ *
+ * Los días van en formato dd/mm/aaaa, las horas en hh:mm y los tramos son
+ * MANANA o TARDE. Por cada orden se escribe una línea JSON con el número de
+ * línea, la opción y su "resultado", o su "error" si no se ha podido realizar.
+ * Al terminar se escribe otra con el número de órdenes y de errores. Todo el
+ * fichero se lee con un mismo lector, así que se puede cargar de una vez una
+ * gran cantidad de datos.
+ *
+ * @see VistaReservasAulas
+ * @see Opcion
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class VistaReservasAulasLotes implements IVistaReservasAulas {
+
+	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+	private static final String SEPARADOR = ";";
+	private static final String COMENTARIO = "#";
+	// Puestos y correo con los que se crean las aulas y profesores que sólo se
+	// usan para buscar por nombre
+	private static final int PUESTOS_VALIDOS = 10;
+	private static final String CORREO_VALIDO = "a@a.a";
+
+	private IControladorReservasAulas controlador;
+	private BufferedReader entrada;
+	private BufferedWriter salida;
+	// Datos de la orden que se está ejecutando, con el nombre de la opción en la
+	// posición 0
+	private String[] datos;
+	private StringBuilder resultado;
+	private int numOrdenes;
+	private int numErrores;
+	private boolean terminado;
+
+	/**
+	 * Constructor de la clase
+	 *
+	 * @param entrada
+	 *            de donde leer las órdenes
+	 * @param salida
+	 *            donde escribir los resultados
+	 * @throws IllegalArgumentException
+	 *             si la entrada o la salida son nulas
+	 */
+	public VistaReservasAulasLotes(Reader entrada, Writer salida) throws IllegalArgumentException {
+		if (entrada == null)
+			throw new IllegalArgumentException("La entrada de las órdenes no puede ser nula.");
+		if (salida == null)
+			throw new IllegalArgumentException("La salida de los resultados no puede ser nula.");
+		this.entrada = entrada instanceof BufferedReader ? (BufferedReader) entrada : new BufferedReader(entrada);
+		this.salida = salida instanceof BufferedWriter ? (BufferedWriter) salida : new BufferedWriter(salida);
+		Opcion.setVista(this);
+	}
+
+	public void setControlador(IControladorReservasAulas controlador) {
+		this.controlador = controlador;
+	}
+
+	/**
+	 * Obtiene el número de órdenes ejecutadas
+	 *
+	 * @return el número de órdenes
+	 */
+	public int getNumOrdenes() {
+		return numOrdenes;
+	}
+
+	/**
+	 * Obtiene el número de órdenes que no se han podido realizar
+	 *
+	 * @return el número de errores
+	 */
+	public int getNumErrores() {
+		return numErrores;
+	}
+
+	/**
+	 * Lee y ejecuta las órdenes hasta el final de la entrada o hasta la orden
+	 * SALIR
+	 */
+	public void comenzar() {
+		int linea = 0;
+		try {
+			String orden;
+			while (!terminado && (orden = entrada.readLine()) != null) {
+				linea++;
+				orden = orden.trim();
+				if (!orden.isEmpty() && !orden.startsWith(COMENTARIO))
+					ejecutar(linea, orden);
+			}
+			salida.write("{\"ordenes\":" + numOrdenes + ",\"errores\":" + numErrores + "}");
+			salida.newLine();
+			salida.flush();
+		} catch (IOException | UncheckedIOException e) {
+			System.out.println("ERROR: No se han podido procesar las órdenes (línea " + linea + "). " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Ejecuta una orden y escribe su resultado
+	 *
+	 * @param linea
+	 *            el número de línea de la orden
+	 * @param orden
+	 *            el texto de la orden
+	 * @throws IOException
+	 *             si no se puede escribir el resultado
+	 */
+	private void ejecutar(int linea, String orden) throws IOException {
+		numOrdenes++;
+		datos = orden.split(SEPARADOR, -1);
+		for (int i = 0; i < datos.length; i++)
+			datos[i] = datos[i].trim();
+		resultado = new StringBuilder("{\"linea\":").append(linea).append(",\"opcion\":")
+				.append(Json.texto(datos[0]));
+		try {
+			Opcion opcion;
+			try {
+				opcion = Opcion.valueOf(datos[0]);
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException("La opción " + datos[0] + " no existe.");
+			}
+			opcion.ejecutar();
+		} catch (IllegalArgumentException e) {
+			error(e.getMessage());
+		}
+		salida.write(resultado.append('}').toString());
+		salida.newLine();
+	}
+
+	/**
+	 * Obtiene un dato de la orden que se está ejecutando
+	 *
+	 * @param posicion
+	 *            la posición del dato, empezando en 1
+	 * @return el dato
+	 * @throws IllegalArgumentException
+	 *             si la orden no tiene tantos datos
+	 */
+	private String dato(int posicion) throws IllegalArgumentException {
+		if (posicion >= datos.length)
+			throw new IllegalArgumentException("Faltan datos en la orden.");
+		return datos[posicion];
+	}
+
+	/**
+	 * Añade el resultado de la orden, que ya está escrito en JSON
+	 *
+	 * @param json
+	 *            el resultado
+	 */
+	private void responder(CharSequence json) {
+		resultado.append(",\"resultado\":").append(json);
+	}
+
+	/**
+	 * Añade el error de la orden
+	 *
+	 * @param mensaje
+	 *            el mensaje de error
+	 */
+	private void error(String mensaje) {
+		numErrores++;
+		resultado.append(",\"error\":").append(Json.texto(mensaje));
+	}
+
+	/**
+	 * Busca el profesor con el nombre indicado
+	 *
+	 * @param nombre
+	 *            el nombre del profesor
+	 * @return el profesor guardado
+	 * @throws IllegalArgumentException
+	 *             si el profesor no existe
+	 */
+	private Profesor buscarProfesor(String nombre) throws IllegalArgumentException {
+		Profesor profesor = controlador.buscarProfesor(new Profesor(nombre, CORREO_VALIDO));
+		if (profesor == null)
+			throw new IllegalArgumentException("El profesor introducido no existe.");
+		return profesor;
+	}
+
+	/**
+	 * Busca el aula con el nombre indicado
+	 *
+	 * @param nombre
+	 *            el nombre del aula
+	 * @return el aula guardada
+	 * @throws IllegalArgumentException
+	 *             si el aula no existe
+	 */
+	private Aula buscarAula(String nombre) throws IllegalArgumentException {
+		Aula aula = controlador.buscarAula(new Aula(nombre, PUESTOS_VALIDOS));
+		if (aula == null)
+			throw new IllegalArgumentException("El aula introducida no existe.");
+		return aula;
+	}
+
+	/**
+	 * Crea la permanencia de los datos indicados: el día y, en el siguiente, la
+	 * hora si lleva dos puntos o el tramo si no
+	 *
+	 * @param posicion
+	 *            la posición del día en la orden
+	 * @return la permanencia
+	 * @throws IllegalArgumentException
+	 *             si los datos no forman una permanencia válida
+	 */
+	private Permanencia leerPermanencia(int posicion) throws IllegalArgumentException {
+		String dia = dato(posicion);
+		String franja = dato(posicion + 1);
+		if (franja.contains(":"))
+			return new PermanenciaPorHora(dia, franja);
+		Tramo tramo;
+		try {
+			tramo = Tramo.valueOf(franja);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("El tramo debe ser MANANA o TARDE.");
+		}
+		return new PermanenciaPorTramo(dia, tramo);
+	}
+
+	/**
+	 * Convierte un día en formato dd/mm/aaaa
+	 *
+	 * @param dia
+	 *            el día como texto
+	 * @return el día
+	 * @throws IllegalArgumentException
+	 *             si el día no tiene el formato correcto
+	 */
+	private static LocalDate leerDia(String dia) throws IllegalArgumentException {
+		try {
+			return LocalDate.parse(dia, FORMATO_DIA);
+		} catch (DateTimeParseException e) {
+			throw new IllegalArgumentException("El día debe tener el formato dd/mm/aaaa.");
+		}
+	}
+
+	/**
+	 * Convierte a entero un dato de la orden
+	 *
+	 * @param valor
+	 *            el dato
+	 * @param campo
+	 *            el nombre del dato para el mensaje de error
+	 * @return el dato como entero
+	 * @throws IllegalArgumentException
+	 *             si el dato no es un número entero
+	 */
+	private static int leerEntero(String valor, String campo) throws IllegalArgumentException {
+		try {
+			return Integer.parseInt(valor);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(campo + " deben ser un número entero.");
+		}
+	}
+
+	/**
+	 * Escribe una lista de reservas en JSON
+	 *
+	 * @param reservas
+	 *            las reservas
+	 * @return el array JSON
+	 */
+	private static StringBuilder aJson(List<Reserva> reservas) {
+		StringBuilder json = new StringBuilder("[");
+		for (Reserva r : reservas)
+			Json.aJson(json.length() > 1 ? json.append(',') : json, r);
+		return json.append(']');
+	}
+
+	/**
+	 * Termina la ejecución sin leer más órdenes
+	 */
+	public void salir() {
+		terminado = true;
+		if (resultado != null)
+			responder("null");
+	}
+
+	/**
+	 * Ejecuta la orden INSERTAR_AULA
+	 */
+	public void insertarAula() {
+		Aula aula = new Aula(dato(1), leerEntero(dato(2), "Los puestos"));
+		try {
+			controlador.insertarAula(aula);
+			responder(Json.aJson(new StringBuilder(), aula));
+		} catch (OperationNotSupportedException e) {
+			error(e.getMessage());
+		}
+	}
+
+	/**
+	 * Ejecuta la orden BORRAR_AULA
+	 */
+	public void borrarAula() {
+		try {
+			int anuladas = controlador.borrarAula(new Aula(dato(1), PUESTOS_VALIDOS));
+			responder("{\"anuladas\":" + anuladas + "}");
+		} catch (OperationNotSupportedException e) {
+			error(e.getMessage());
+		}
+	}
+
+	/**
+	 * Ejecuta la orden BUSCAR_AULA. Si el aula no existe el resultado es null
+	 */
+	public void buscarAula() {
+		Aula aula = controlador.buscarAula(new Aula(dato(1), PUESTOS_VALIDOS));
+		responder(aula == null ? "null" : Json.aJson(new StringBuilder(), aula));
+	}
+
+	/**
+	 * Ejecuta la orden LISTAR_AULAS
+	 */
+	public void listarAulas() {
+		StringBuilder json = new StringBuilder("[");
+		for (Aula a : controlador.getAulas())
+			Json.aJson(json.length() > 1 ? json.append(',') : json, a);
+		responder(json.append(']'));
+	}
+
+	/**
+	 * Ejecuta la orden INSERTAR_PROFESOR, con el teléfono si se indica
+	 */
+	public void insertarProfesor() {
+		Profesor profesor;
+		if (datos.length > 3 && !datos[3].isEmpty())
+			profesor = new Profesor(dato(1), dato(2), datos[3]);
+		else
+			profesor = new Profesor(dato(1), dato(2));
+		try {
+			controlador.insertarProfesor(profesor);
+			responder(Json.aJson(new StringBuilder(), profesor));
+		} catch (OperationNotSupportedException e) {
+			error(e.getMessage());
+		}
+	}
+
+	/**
+	 * Ejecuta la orden BORRAR_PROFESOR
+	 */
+	public void borrarProfesor() {
+		try {
+			int anuladas = controlador.borrarProfesor(new Profesor(dato(1), CORREO_VALIDO));
+			responder("{\"anuladas\":" + anuladas + "}");
+		} catch (OperationNotSupportedException e) {
+			error(e.getMessage());
+		}
+	}
+
+	/**
+	 * Ejecuta la orden BUSCAR_PROFESOR. Si el profesor no existe el resultado es
+	 * null
+	 */
+	public void buscarProfesor() {
+		Profesor profesor = controlador.buscarProfesor(new Profesor(dato(1), CORREO_VALIDO));
+		responder(profesor == null ? "null" : Json.aJson(new StringBuilder(), profesor));
+	}
+
+	/**
+	 * Ejecuta la orden LISTAR_PROFESORES
+	 */
+	public void listarProfesores() {
+		StringBuilder json = new StringBuilder("[");
+		for (Profesor p : controlador.getProfesores())
+			Json.aJson(json.length() > 1 ? json.append(',') : json, p);
+		responder(json.append(']'));
+	}
+
+	/**
+	 * Ejecuta la orden INSERTAR_RESERVA
+	 */
+	public void realizarReserva() {
+		Reserva reserva = new Reserva(buscarProfesor(dato(1)), buscarAula(dato(2)), leerPermanencia(3));
+		try {
+			controlador.realizarReserva(reserva);
+			responder(Json.aJson(new StringBuilder(), reserva));
+		} catch (OperationNotSupportedException e) {
+			error(e.getMessage());
+		}
+	}
+
+	/**
+	 * Ejecuta la orden INSERTAR_RESERVA_PERIODICA. Si alguna reserva de la serie
+	 * no se puede realizar, el error lleva además "conflictos" con el motivo de
+	 * cada día que falla
+	 */
+	public void realizarReservaPeriodica() {
+		Profesor profesor = buscarProfesor(dato(1));
+		Aula aula = buscarAula(dato(2));
+		Permanencia permanencia = leerPermanencia(3);
+		Periodicidad periodicidad;
+		try {
+			periodicidad = Periodicidad.valueOf(dato(5));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("La periodicidad debe ser SEMANAL o QUINCENAL.");
+		}
+		ReservaPeriodica serie = new ReservaPeriodica(profesor, aula, permanencia, periodicidad, leerDia(dato(6)));
+		try {
+			int realizadas = controlador.realizarReservaPeriodica(serie);
+			responder("{\"reservas\":" + realizadas + "}");
+		} catch (ConflictosReservaPeriodicaException e) {
+			error(e.getMessage());
+			resultado.append(",\"conflictos\":{");
+			for (Entry<LocalDate, String> conflicto : e.getConflictos().entrySet()) {
+				if (resultado.charAt(resultado.length() - 1) != '{')
+					resultado.append(',');
+				resultado.append(Json.texto(conflicto.getKey().format(FORMATO_DIA))).append(':')
+						.append(Json.texto(conflicto.getValue()));
+			}
+			resultado.append('}');
+		} catch (OperationNotSupportedException e) {
+			error(e.getMessage());
+		}
+	}
+
+	/**
+	 * Ejecuta la orden BORRAR_RESERVA
+	 */
+	public void anularReserva() {
+		Reserva reserva = new Reserva(buscarProfesor(dato(1)), buscarAula(dato(2)), leerPermanencia(3));
+		try {
+			controlador.anularReserva(reserva);
+			responder("null");
+		} catch (OperationNotSupportedException e) {
+			error(e.getMessage());
+		}
+	}
+
+	/**
+	 * Ejecuta la orden LISTAR_RESERVAS
+	 */
+	public void listarReservas() {
+		responder(aJson(controlador.getReservas()));
+	}
+
+	/**
+	 * Ejecuta la orden LISTAR_RESERVAS_AULA
+	 */
+	public void listarReservasAula() {
+		responder(aJson(controlador.getReservasAula(buscarAula(dato(1)))));
+	}
+
+	/**
+	 * Ejecuta la orden LISTAR_RESERVAS_PROFESOR
+	 */
+	public void listarReservasProfesor() {
+		responder(aJson(controlador.getReservasProfesor(buscarProfesor(dato(1)))));
+	}
+
+	/**
+	 * Ejecuta la orden LISTAR_RESERVAS_PERMANENCIA
+	 */
+	public void listarReservasPermanencia() {
+		responder(aJson(controlador.getReservasPermanencia(leerPermanencia(1))));
+	}
+
+	/**
+	 * Ejecuta la orden CONSULTAR_DISPONIBILIDAD
+	 */
+	public void consultarDisponibilidad() {
+		boolean disponible = controlador.consultarDisponibilidad(buscarAula(dato(1)), leerPermanencia(2));
+		responder("{\"disponible\":" + disponible + "}");
+	}
+
+	/**
+	 * Ejecuta la orden BUSCAR_HUECO. Si el último día es el de la permanencia el
+	 * resultado son todas las aulas libres; si no, una lista con el primer hueco
+	 * libre hasta ese día o vacía si no hay ninguno
+	 */
+	public void buscarHueco() {
+		int puestos = leerEntero(dato(1), "Los puestos");
+		Permanencia permanencia = leerPermanencia(2);
+		LocalDate hasta = leerDia(dato(4));
+		StringBuilder json = new StringBuilder("[");
+		if (hasta.equals(permanencia.getDia())) {
+			for (Aula a : controlador.getAulasLibres(puestos, permanencia))
+				Json.aJson(json.length() > 1 ? json.append(',') : json, new Hueco(a, permanencia));
+		} else {
+			Hueco hueco = controlador.buscarHueco(puestos, permanencia, hasta);
+			if (hueco != null)
+				Json.aJson(json, hueco);
+		}
+		responder(json.append(']'));
+	}
+
+	/**
+	 * Ejecuta la orden MOSTRAR_ESTADISTICAS. El resultado son las medidas de cada
+	 * operación del controlador que se ha usado hasta esta orden, seguidas de los
+	 * valores de cada fuente, como el tamaño del diario y sus compactaciones
+	 */
+	public void mostrarEstadisticas() {
+		Estadisticas estadisticas = controlador.getEstadisticas();
+		if (estadisticas == null)
+			throw new IllegalArgumentException("Las estadísticas no están activadas.");
+		responder(estadisticas.aJson());
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,727 @@
+package org.iesalandalus.programacion.reservasaulas.vista.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.controlador.Estadisticas;
+import org.iesalandalus.programacion.reservasaulas.controlador.IControladorReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulasConcurrente;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ConflictosReservaPeriodicaException;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Periodicidad;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+import org.iesalandalus.programacion.reservasaulas.vista.IVista;
+import org.iesalandalus.programacion.reservasaulas.vista.VistaReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.vista.util.Json;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ *
+ * Vista que ofrece las operaciones del controlador a través de HTTP, con los
+ * datos en JSON. Usa el servidor HTTP del JDK y atiende cada petición en su
+ * propio hilo (virtual si la máquina virtual lo permite), por lo que varios
+ * usuarios pueden trabajar a la vez. Debe usarse con un modelo que admita
+ * varios hilos, como ModeloReservasAulasConcurrente.
+ *
+ * Rutas:
+ *
+ * <pre>
+ * GET    /aulas                    todas las aulas
+ * GET    /aulas/{nombre}           un aula
+ * POST   /aulas                    {"nombre", "puestos"}
+ * DELETE /aulas/{nombre}
+ * GET    /profesores               todos los profesores
+ * GET    /profesores/{nombre}      un profesor
+ * POST   /profesores               {"nombre", "correo", "telefono"}
+ * DELETE /profesores/{nombre}
+ * GET    /reservas                 todas, o las de ?aula=, ?profesor= o ?dia=&amp;hora= / ?dia=&amp;tramo=
+ * GET    /reservas?desde=&amp;hasta=     las de esos días, también con &amp;aula= o &amp;profesor=
+ * POST   /reservas                 {"profesor", "aula", "dia", "hora" o "tramo"}
+ * DELETE /reservas?profesor=&amp;aula=&amp;dia=&amp;hora= (o &amp;tramo=)
+ * POST   /reservas/periodicas      {"profesor", "aula", "dia", "hora" o "tramo", "periodicidad", "fin"}
+ * GET    /disponibilidad?aula=&amp;dia=&amp;hora= (o &amp;tramo=)
+ * GET    /puntos?profesor=&amp;mes=aaaa-mm
+ * GET    /huecos?puestos=&amp;dia=&amp;hora= (o &amp;tramo=)   aulas libres ese día, o con &amp;hasta= el primer hueco libre hasta ese día
+ * GET    /estadisticas             llamadas, errores y tiempos de cada operación del controlador, y los valores de cada fuente
+ * </pre>
+ *
+ * Los días van en formato dd/mm/aaaa, las horas en hh:mm y los tramos son
+ * MANANA o TARDE. Los errores se devuelven como {"error": mensaje} con el
+ * código 400 si los datos no son válidos, 404 si no existe lo que se busca y
+ * 409 si la operación no se puede realizar; cualquier otro fallo se devuelve
+ * con el código 500. Si falla una reserva periódica, el error lleva además
+ * "conflictos" con el motivo de cada día que falla.
+ *
+ * Sólo implementa IVista: las operaciones llegan con cada petición en lugar de
+ * desde el menú de opciones.
+ *
+ * @see VistaReservasAulas
+ * @see ModeloReservasAulasConcurrente
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class VistaReservasAulasHttp implements IVista {
+
+	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+	// Puestos y correo con los que se crean las aulas y profesores que sólo se
+	// usan para buscar por nombre
+	private static final int PUESTOS_VALIDOS = 10;
+	private static final String CORREO_VALIDO = "a@a.a";
+	private static final String ERROR_INTERNO = "No se ha podido atender la petición.";
+	private static final String ERROR_SIN_ESTADISTICAS = "Las estadísticas no están activadas.";
+
+	private IControladorReservasAulas controlador;
+	private InetSocketAddress direccion;
+	private HttpServer servidor;
+	private ExecutorService ejecutor;
+	private CountDownLatch terminado;
+
+	/**
+	 * Constructor de la clase
+	 *
+	 * @param direccion
+	 *            la dirección y el puerto en los que escuchar. Con el puerto 0
+	 *            se elige uno libre
+	 * @throws IllegalArgumentException
+	 *             si la dirección es nula
+	 */
+	public VistaReservasAulasHttp(InetSocketAddress direccion) throws IllegalArgumentException {
+		if (direccion == null)
+			throw new IllegalArgumentException("La dirección del servidor no puede ser nula.");
+		this.direccion = direccion;
+		this.terminado = new CountDownLatch(1);
+	}
+
+	public void setControlador(IControladorReservasAulas controlador) {
+		this.controlador = controlador;
+	}
+
+	/**
+	 * Arranca el servidor sin esperar a que termine
+	 *
+	 * @throws IOException
+	 *             si no se puede escuchar en la dirección indicada
+	 */
+	public void iniciar() throws IOException {
+		servidor = HttpServer.create(direccion, 0);
+		ejecutor = crearEjecutor();
+		servidor.setExecutor(ejecutor);
+		servidor.createContext("/", new HttpHandler() {
+			public void handle(HttpExchange intercambio) throws IOException {
+				atender(intercambio);
+			}
+		});
+		servidor.start();
+	}
+
+	/**
+	 * Obtiene el puerto en el que escucha el servidor, útil si se arrancó con el
+	 * puerto 0
+	 *
+	 * @return el puerto del servidor
+	 * @throws IllegalStateException
+	 *             si el servidor no se ha arrancado
+	 */
+	public int getPuerto() {
+		if (servidor == null)
+			throw new IllegalStateException("El servidor no se ha arrancado.");
+		return servidor.getAddress().getPort();
+	}
+
+	/**
+	 * Crea el ejecutor de las peticiones. Con Java 21 o posterior usa un hilo
+	 * virtual por petición; en versiones anteriores, un hilo por petición
+	 * reutilizando los que quedan libres
+	 *
+	 * @return el ejecutor de las peticiones
+	 */
+	private static ExecutorService crearEjecutor() {
+		try {
+			Method hilosVirtuales = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) hilosVirtuales.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	/**
+	 * Arranca el servidor y espera hasta que se llame a salir
+	 */
+	public void comenzar() {
+		try {
+			iniciar();
+		} catch (IOException e) {
+			System.out.println("ERROR: No se ha podido arrancar el servidor. " + e.getMessage());
+			return;
+		}
+		System.out.println("Servidor escuchando en el puerto " + getPuerto() + ".");
+		try {
+			terminado.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Detiene el servidor, esperando un segundo a que terminen las peticiones en
+	 * curso
+	 */
+	public void salir() {
+		if (servidor != null) {
+			servidor.stop(1);
+			ejecutor.shutdown();
+		}
+		terminado.countDown();
+		System.out.println("Fin de la ejecución.");
+	}
+
+	/**
+	 * Atiende una petición: la dirige según su ruta y convierte las excepciones en
+	 * el código de error que corresponde, 500 si no es ninguna de las esperadas
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @throws IOException
+	 *             si no se puede leer la petición o escribir la respuesta
+	 */
+	private void atender(HttpExchange intercambio) throws IOException {
+		try {
+			String[] ruta = intercambio.getRequestURI().getPath().split("/", 3);
+			String recurso = ruta.length > 1 ? ruta[1] : "";
+			String nombre = ruta.length > 2 ? ruta[2] : null;
+			String metodo = intercambio.getRequestMethod();
+			if (recurso.equals("aulas"))
+				atenderAulas(intercambio, metodo, nombre);
+			else if (recurso.equals("profesores"))
+				atenderProfesores(intercambio, metodo, nombre);
+			else if (recurso.equals("reservas") && nombre == null)
+				atenderReservas(intercambio, metodo);
+			else if (recurso.equals("reservas") && nombre.equals("periodicas") && metodo.equals("POST"))
+				realizarReservaPeriodica(intercambio);
+			else if (recurso.equals("disponibilidad") && nombre == null && metodo.equals("GET"))
+				consultarDisponibilidad(intercambio);
+			else if (recurso.equals("puntos") && nombre == null && metodo.equals("GET"))
+				consultarPuntos(intercambio);
+			else if (recurso.equals("huecos") && nombre == null && metodo.equals("GET"))
+				buscarHuecos(intercambio);
+			else if (recurso.equals("estadisticas") && nombre == null && metodo.equals("GET"))
+				mostrarEstadisticas(intercambio);
+			else
+				responderError(intercambio, 404, "Ruta no encontrada.");
+		} catch (IllegalArgumentException e) {
+			responderError(intercambio, 400, e.getMessage());
+		} catch (OperationNotSupportedException e) {
+			responderError(intercambio, 409, e.getMessage());
+		} catch (RuntimeException e) {
+			// Cualquier otro fallo se responde en lugar de dejar la petición sin
+			// respuesta; el detalle sólo se muestra en el servidor
+			System.out.println("ERROR: " + ERROR_INTERNO + " " + e);
+			responderError(intercambio, 500, ERROR_INTERNO);
+		} finally {
+			intercambio.close();
+		}
+	}
+
+	/**
+	 * Atiende las rutas de las aulas
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @param metodo
+	 *            el método HTTP
+	 * @param nombre
+	 *            el nombre del aula de la ruta, o null si no lo lleva
+	 * @throws IOException
+	 *             si no se puede leer la petición o escribir la respuesta
+	 * @throws OperationNotSupportedException
+	 *             si el aula ya existe o no existe
+	 */
+	private void atenderAulas(HttpExchange intercambio, String metodo, String nombre)
+			throws IOException, OperationNotSupportedException {
+		if (nombre == null && metodo.equals("GET")) {
+			StringBuilder json = new StringBuilder("[");
+			for (Aula a : controlador.getAulas())
+				Json.aJson(json.length() > 1 ? json.append(',') : json, a);
+			responder(intercambio, 200, json.append(']').toString());
+		} else if (nombre == null && metodo.equals("POST")) {
+			Map<String, String> datos = leerCuerpo(intercambio);
+			Aula aula = new Aula(datos.get("nombre"), leerEntero(datos.get("puestos"), "Los puestos"));
+			controlador.insertarAula(aula);
+			responder(intercambio, 201, Json.aJson(new StringBuilder(), aula).toString());
+		} else if (nombre != null && metodo.equals("GET")) {
+			Aula aula = controlador.buscarAula(new Aula(nombre, PUESTOS_VALIDOS));
+			if (aula == null)
+				responderError(intercambio, 404, "El aula buscada no existe.");
+			else
+				responder(intercambio, 200, Json.aJson(new StringBuilder(), aula).toString());
+		} else if (nombre != null && metodo.equals("DELETE")) {
+			controlador.borrarAula(new Aula(nombre, PUESTOS_VALIDOS));
+			responder(intercambio, 204, null);
+		} else
+			responderError(intercambio, 405, "Método no permitido.");
+	}
+
+	/**
+	 * Atiende las rutas de los profesores
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @param metodo
+	 *            el método HTTP
+	 * @param nombre
+	 *            el nombre del profesor de la ruta, o null si no lo lleva
+	 * @throws IOException
+	 *             si no se puede leer la petición o escribir la respuesta
+	 * @throws OperationNotSupportedException
+	 *             si el profesor ya existe o no existe
+	 */
+	private void atenderProfesores(HttpExchange intercambio, String metodo, String nombre)
+			throws IOException, OperationNotSupportedException {
+		if (nombre == null && metodo.equals("GET")) {
+			StringBuilder json = new StringBuilder("[");
+			for (Profesor p : controlador.getProfesores())
+				Json.aJson(json.length() > 1 ? json.append(',') : json, p);
+			responder(intercambio, 200, json.append(']').toString());
+		} else if (nombre == null && metodo.equals("POST")) {
+			Map<String, String> datos = leerCuerpo(intercambio);
+			String telefono = datos.get("telefono");
+			Profesor profesor;
+			if (telefono == null || telefono.equals(""))
+				profesor = new Profesor(datos.get("nombre"), datos.get("correo"));
+			else
+				profesor = new Profesor(datos.get("nombre"), datos.get("correo"), telefono);
+			controlador.insertarProfesor(profesor);
+			responder(intercambio, 201, Json.aJson(new StringBuilder(), profesor).toString());
+		} else if (nombre != null && metodo.equals("GET")) {
+			Profesor profesor = controlador.buscarProfesor(new Profesor(nombre, CORREO_VALIDO));
+			if (profesor == null)
+				responderError(intercambio, 404, "El profesor buscado no existe.");
+			else
+				responder(intercambio, 200, Json.aJson(new StringBuilder(), profesor).toString());
+		} else if (nombre != null && metodo.equals("DELETE")) {
+			controlador.borrarProfesor(new Profesor(nombre, CORREO_VALIDO));
+			responder(intercambio, 204, null);
+		} else
+			responderError(intercambio, 405, "Método no permitido.");
+	}
+
+	/**
+	 * Atiende las rutas de las reservas
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @param metodo
+	 *            el método HTTP
+	 * @throws IOException
+	 *             si no se puede leer la petición o escribir la respuesta
+	 * @throws OperationNotSupportedException
+	 *             si la reserva no se puede realizar o no existe
+	 */
+	private void atenderReservas(HttpExchange intercambio, String metodo)
+			throws IOException, OperationNotSupportedException {
+		Map<String, String> parametros = leerParametros(intercambio);
+		if (metodo.equals("GET") && parametros.containsKey("desde")) {
+			listarReservasEntreDias(intercambio, parametros);
+		} else if (metodo.equals("GET")) {
+			List<Reserva> reservas;
+			if (parametros.containsKey("aula"))
+				reservas = controlador.getReservasAula(new Aula(parametros.get("aula"), PUESTOS_VALIDOS));
+			else if (parametros.containsKey("profesor"))
+				reservas = controlador.getReservasProfesor(new Profesor(parametros.get("profesor"), CORREO_VALIDO));
+			else if (parametros.containsKey("dia"))
+				reservas = controlador.getReservasPermanencia(leerPermanencia(parametros));
+			else
+				reservas = controlador.getReservas();
+			StringBuilder json = new StringBuilder("[");
+			for (Reserva r : reservas)
+				Json.aJson(json.length() > 1 ? json.append(',') : json, r);
+			responder(intercambio, 200, json.append(']').toString());
+		} else if (metodo.equals("POST") || metodo.equals("DELETE")) {
+			Map<String, String> datos = metodo.equals("POST") ? leerCuerpo(intercambio) : parametros;
+			Profesor profesor = controlador.buscarProfesor(new Profesor(datos.get("profesor"), CORREO_VALIDO));
+			if (profesor == null) {
+				responderError(intercambio, 404, "El profesor introducido no existe.");
+				return;
+			}
+			Aula aula = controlador.buscarAula(new Aula(datos.get("aula"), PUESTOS_VALIDOS));
+			if (aula == null) {
+				responderError(intercambio, 404, "El aula introducida no existe.");
+				return;
+			}
+			Reserva reserva = new Reserva(profesor, aula, leerPermanencia(datos));
+			if (metodo.equals("POST")) {
+				controlador.realizarReserva(reserva);
+				responder(intercambio, 201, Json.aJson(new StringBuilder(), reserva).toString());
+			} else {
+				controlador.anularReserva(reserva);
+				responder(intercambio, 204, null);
+			}
+		} else
+			responderError(intercambio, 405, "Método no permitido.");
+	}
+
+	/**
+	 * Lista las reservas entre los días desde y hasta, sólo las de un aula o un
+	 * profesor si se indican. Sin el parámetro hasta se listan las de un solo
+	 * día. Las reservas se escriben según se recorren, sin juntarlas antes en una
+	 * lista
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @param parametros
+	 *            los parámetros de la consulta
+	 * @throws IOException
+	 *             si no se puede escribir la respuesta
+	 */
+	private void listarReservasEntreDias(HttpExchange intercambio, Map<String, String> parametros)
+			throws IOException {
+		LocalDate desde = leerDia(parametros.get("desde"));
+		LocalDate hasta = parametros.containsKey("hasta") ? leerDia(parametros.get("hasta")) : desde;
+		Stream<Reserva> reservas;
+		if (parametros.containsKey("aula"))
+			reservas = controlador.getReservasAula(new Aula(parametros.get("aula"), PUESTOS_VALIDOS), desde, hasta);
+		else if (parametros.containsKey("profesor"))
+			reservas = controlador.getReservasProfesor(new Profesor(parametros.get("profesor"), CORREO_VALIDO), desde,
+					hasta);
+		else
+			reservas = controlador.getReservas(desde, hasta);
+		StringBuilder json = new StringBuilder("[");
+		// Se cierra aunque falle el recorrido, para que quede medido
+		try {
+			Iterator<Reserva> iterador = reservas.iterator();
+			while (iterador.hasNext())
+				Json.aJson(json.length() > 1 ? json.append(',') : json, iterador.next());
+		} finally {
+			reservas.close();
+		}
+		responder(intercambio, 200, json.append(']').toString());
+	}
+
+	/**
+	 * Convierte un día en formato dd/mm/aaaa
+	 *
+	 * @param dia
+	 *            el día como texto
+	 * @return el día
+	 * @throws IllegalArgumentException
+	 *             si el día no tiene el formato correcto
+	 */
+	private static LocalDate leerDia(String dia) throws IllegalArgumentException {
+		try {
+			return LocalDate.parse(dia, FORMATO_DIA);
+		} catch (DateTimeParseException | NullPointerException e) {
+			throw new IllegalArgumentException("El día debe tener el formato dd/mm/aaaa.");
+		}
+	}
+
+	/**
+	 * Atiende la petición de una reserva periódica. Si falla alguna reserva de la
+	 * serie no se realiza ninguna y se responde con el motivo de cada día
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @throws IOException
+	 *             si no se puede leer la petición o escribir la respuesta
+	 * @throws OperationNotSupportedException
+	 *             si la reserva periódica no se puede realizar por otro motivo
+	 */
+	private void realizarReservaPeriodica(HttpExchange intercambio) throws IOException, OperationNotSupportedException {
+		Map<String, String> datos = leerCuerpo(intercambio);
+		Profesor profesor = controlador.buscarProfesor(new Profesor(datos.get("profesor"), CORREO_VALIDO));
+		if (profesor == null) {
+			responderError(intercambio, 404, "El profesor introducido no existe.");
+			return;
+		}
+		Aula aula = controlador.buscarAula(new Aula(datos.get("aula"), PUESTOS_VALIDOS));
+		if (aula == null) {
+			responderError(intercambio, 404, "El aula introducida no existe.");
+			return;
+		}
+		Periodicidad periodicidad;
+		LocalDate fin;
+		try {
+			periodicidad = Periodicidad.valueOf(datos.get("periodicidad"));
+		} catch (IllegalArgumentException | NullPointerException e) {
+			throw new IllegalArgumentException("La periodicidad debe ser SEMANAL o QUINCENAL.");
+		}
+		try {
+			fin = LocalDate.parse(datos.get("fin"), FORMATO_DIA);
+		} catch (DateTimeParseException | NullPointerException e) {
+			throw new IllegalArgumentException("El día final debe tener el formato dd/mm/aaaa.");
+		}
+		ReservaPeriodica serie = new ReservaPeriodica(profesor, aula, leerPermanencia(datos), periodicidad, fin);
+		try {
+			int realizadas = controlador.realizarReservaPeriodica(serie);
+			responder(intercambio, 201, "{\"reservas\":" + realizadas + "}");
+		} catch (ConflictosReservaPeriodicaException e) {
+			StringBuilder json = new StringBuilder("{\"error\":").append(Json.texto(e.getMessage()))
+					.append(",\"conflictos\":{");
+			for (Entry<LocalDate, String> conflicto : e.getConflictos().entrySet()) {
+				if (json.charAt(json.length() - 1) != '{')
+					json.append(',');
+				json.append(Json.texto(conflicto.getKey().format(FORMATO_DIA))).append(':')
+						.append(Json.texto(conflicto.getValue()));
+			}
+			responder(intercambio, 409, json.append("}}").toString());
+		}
+	}
+
+	/**
+	 * Atiende la consulta de disponibilidad de un aula
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @throws IOException
+	 *             si no se puede escribir la respuesta
+	 */
+	private void consultarDisponibilidad(HttpExchange intercambio) throws IOException {
+		Map<String, String> parametros = leerParametros(intercambio);
+		Aula aula = controlador.buscarAula(new Aula(parametros.get("aula"), PUESTOS_VALIDOS));
+		if (aula == null) {
+			responderError(intercambio, 404, "El aula introducida no existe.");
+			return;
+		}
+		boolean disponible = controlador.consultarDisponibilidad(aula, leerPermanencia(parametros));
+		responder(intercambio, 200, "{\"disponible\":" + disponible + "}");
+	}
+
+	/**
+	 * Atiende la consulta de los puntos gastados por un profesor en un mes
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @throws IOException
+	 *             si no se puede escribir la respuesta
+	 */
+	private void consultarPuntos(HttpExchange intercambio) throws IOException {
+		Map<String, String> parametros = leerParametros(intercambio);
+		Profesor profesor = new Profesor(parametros.get("profesor"), CORREO_VALIDO);
+		YearMonth mes;
+		try {
+			mes = YearMonth.parse(parametros.get("mes"));
+		} catch (DateTimeParseException | NullPointerException e) {
+			throw new IllegalArgumentException("El mes debe tener el formato aaaa-mm.");
+		}
+		responder(intercambio, 200, "{\"puntos\":" + controlador.getPuntosGastados(profesor, mes) + "}");
+	}
+
+	/**
+	 * Atiende la búsqueda de aulas libres. Sin el parámetro hasta devuelve todas
+	 * las aulas libres en la permanencia; con él, una lista con el primer hueco
+	 * libre hasta ese día o vacía si no hay ninguno
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @throws IOException
+	 *             si no se puede escribir la respuesta
+	 */
+	private void buscarHuecos(HttpExchange intercambio) throws IOException {
+		Map<String, String> parametros = leerParametros(intercambio);
+		int puestos = parametros.get("puestos") == null ? 0 : leerEntero(parametros.get("puestos"), "Los puestos");
+		Permanencia permanencia = leerPermanencia(parametros);
+		StringBuilder json = new StringBuilder("[");
+		if (parametros.get("hasta") == null) {
+			for (Aula a : controlador.getAulasLibres(puestos, permanencia))
+				Json.aJson(json.length() > 1 ? json.append(',') : json, new Hueco(a, permanencia));
+		} else {
+			LocalDate hasta;
+			try {
+				hasta = LocalDate.parse(parametros.get("hasta"), FORMATO_DIA);
+			} catch (DateTimeParseException e) {
+				throw new IllegalArgumentException("El día final debe tener el formato dd/mm/aaaa.");
+			}
+			Hueco hueco = controlador.buscarHueco(puestos, permanencia, hasta);
+			if (hueco != null)
+				Json.aJson(json, hueco);
+		}
+		responder(intercambio, 200, json.append(']').toString());
+	}
+
+	/**
+	 * Atiende la consulta de las medidas de las operaciones del controlador y de
+	 * los valores de las fuentes añadidas a sus estadísticas
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @throws IOException
+	 *             si no se puede escribir la respuesta
+	 */
+	private void mostrarEstadisticas(HttpExchange intercambio) throws IOException {
+		Estadisticas estadisticas = controlador.getEstadisticas();
+		if (estadisticas == null)
+			responderError(intercambio, 404, ERROR_SIN_ESTADISTICAS);
+		else
+			responder(intercambio, 200, estadisticas.aJson());
+	}
+
+	/**
+	 * Crea la permanencia indicada por los campos dia y hora, o dia y tramo
+	 *
+	 * @param datos
+	 *            los campos de la petición
+	 * @return la permanencia
+	 * @throws IllegalArgumentException
+	 *             si los campos no forman una permanencia válida
+	 */
+	private Permanencia leerPermanencia(Map<String, String> datos) throws IllegalArgumentException {
+		if (datos.get("hora") != null)
+			return new PermanenciaPorHora(datos.get("dia"), datos.get("hora"));
+		if (datos.get("tramo") == null)
+			throw new IllegalArgumentException("La permanencia debe indicar una hora o un tramo.");
+		return new PermanenciaPorTramo(datos.get("dia"), leerTramo(datos.get("tramo")));
+	}
+
+	/**
+	 * Busca el tramo cuyo nombre es el valor de un campo
+	 *
+	 * @param valor
+	 *            el valor del campo
+	 * @return el tramo
+	 * @throws IllegalArgumentException
+	 *             si ningún tramo tiene ese nombre
+	 */
+	private static Tramo leerTramo(String valor) throws IllegalArgumentException {
+		for (Tramo tramo : Tramo.values())
+			if (tramo.name().equals(valor))
+				return tramo;
+		throw new IllegalArgumentException("El tramo debe ser MANANA o TARDE.");
+	}
+
+	/**
+	 * Convierte a entero el valor de un campo
+	 *
+	 * @param valor
+	 *            el valor del campo
+	 * @param campo
+	 *            el nombre del campo para el mensaje de error
+	 * @return el valor como entero
+	 * @throws IllegalArgumentException
+	 *             si el valor no es un número entero
+	 */
+	private static int leerEntero(String valor, String campo) throws IllegalArgumentException {
+		try {
+			return Integer.parseInt(valor);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(campo + " deben ser un número entero.");
+		}
+	}
+
+	/**
+	 * Lee el cuerpo de la petición como un objeto JSON plano
+	 *
+	 * @param intercambio
+	 *            la petición
+	 * @return los campos del objeto
+	 * @throws IOException
+	 *             si no se puede leer la petición
+	 */
+	private static Map<String, String> leerCuerpo(HttpExchange intercambio) throws IOException {
+		ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+		byte[] bloque = new byte[1024];
+		InputStream entrada = intercambio.getRequestBody();
+		int leidos;
+		while ((leidos = entrada.read(bloque)) != -1)
+			cuerpo.write(bloque, 0, leidos);
+		return Json.leerObjeto(new String(cuerpo.toByteArray(), StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Lee los parámetros de la consulta de la petición
+	 *
+	 * @param intercambio
+	 *            la petición
+	 * @return los parámetros por nombre
+	 */
+	private static Map<String, String> leerParametros(HttpExchange intercambio) {
+		Map<String, String> parametros = new HashMap<String, String>();
+		String consulta = intercambio.getRequestURI().getRawQuery();
+		if (consulta == null)
+			return parametros;
+		try {
+			for (String parametro : consulta.split("&")) {
+				int igual = parametro.indexOf('=');
+				if (igual > 0)
+					parametros.put(URLDecoder.decode(parametro.substring(0, igual), "UTF-8"),
+							URLDecoder.decode(parametro.substring(igual + 1), "UTF-8"));
+			}
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		return parametros;
+	}
+
+	/**
+	 * Envía la respuesta
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @param codigo
+	 *            el código HTTP
+	 * @param json
+	 *            el cuerpo de la respuesta, o null si no lleva
+	 * @throws IOException
+	 *             si no se puede escribir la respuesta
+	 */
+	private static void responder(HttpExchange intercambio, int codigo, String json) throws IOException {
+		if (json == null) {
+			intercambio.sendResponseHeaders(codigo, -1);
+			return;
+		}
+		byte[] cuerpo = json.getBytes(StandardCharsets.UTF_8);
+		intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		intercambio.sendResponseHeaders(codigo, cuerpo.length);
+		OutputStream salida = intercambio.getResponseBody();
+		salida.write(cuerpo);
+		salida.close();
+	}
+
+	/**
+	 * Envía una respuesta de error
+	 *
+	 * @param intercambio
+	 *            la petición y su respuesta
+	 * @param codigo
+	 *            el código HTTP
+	 * @param mensaje
+	 *            el mensaje de error
+	 * @throws IOException
+	 *             si no se puede escribir la respuesta
+	 */
+	private static void responderError(HttpExchange intercambio, int codigo, String mensaje) throws IOException {
+		responder(intercambio, codigo, "{\"error\":" + Json.texto(mensaje) + "}");
+	}
+
+}
@@ -0,0 +1,333 @@
+package org.iesalandalus.programacion.reservasaulas.vista.util;
+
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.vista.VistaReservasAulasLotes;
+import org.iesalandalus.programacion.reservasaulas.vista.http.VistaReservasAulasHttp;
+
+/**
+ *
+ * Utilidades para leer y escribir el JSON que intercambian la vista HTTP y la
+ * vista por lotes. Sólo se leen objetos planos, cuyos valores son textos,
+ * números, booleanos o null, que es todo lo que necesitan las peticiones.
+ *
+ * @see VistaReservasAulasHttp
+ * @see VistaReservasAulasLotes
+ * @author Juan Antonio Manzano Plaza
+ * @version 2
+ *
+ */
+public class Json {
+
+	private static final DateTimeFormatter FORMATO_DIA = DateTimeFormatter.ofPattern("dd/MM/uuuu");
+	private static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+	private static final String ERROR_JSON = "El cuerpo de la petición no es un objeto JSON válido.";
+
+	/**
+	 * Constructor privado para evitar que se instancien objetos de la clase.
+	 */
+	private Json() {
+	}
+
+	/**
+	 * Escribe un texto como una cadena JSON, entre comillas y con los caracteres
+	 * especiales escapados
+	 *
+	 * @param texto
+	 *            el texto a escribir
+	 * @return la cadena JSON, o null si el texto es nulo
+	 */
+	public static String texto(String texto) {
+		if (texto == null)
+			return "null";
+		StringBuilder json = new StringBuilder(texto.length() + 2);
+		json.append('"');
+		for (int i = 0; i < texto.length(); i++) {
+			char c = texto.charAt(i);
+			switch (c) {
+			case '"':
+				json.append("\\\"");
+				break;
+			case '\\':
+				json.append("\\\\");
+				break;
+			case '\n':
+				json.append("\\n");
+				break;
+			case '\r':
+				json.append("\\r");
+				break;
+			case '\t':
+				json.append("\\t");
+				break;
+			default:
+				if (c < 0x20)
+					json.append(String.format("\\u%04x", (int) c));
+				else
+					json.append(c);
+			}
+		}
+		return json.append('"').toString();
+	}
+
+	/**
+	 * Escribe un aula en JSON
+	 *
+	 * @param json
+	 *            donde escribir
+	 * @param aula
+	 *            el aula
+	 * @return el mismo StringBuilder recibido
+	 */
+	public static StringBuilder aJson(StringBuilder json, Aula aula) {
+		return json.append("{\"nombre\":").append(texto(aula.getNombre())).append(",\"puestos\":")
+				.append(aula.getPuestos()).append('}');
+	}
+
+	/**
+	 * Escribe un profesor en JSON
+	 *
+	 * @param json
+	 *            donde escribir
+	 * @param profesor
+	 *            el profesor
+	 * @return el mismo StringBuilder recibido
+	 */
+	public static StringBuilder aJson(StringBuilder json, Profesor profesor) {
+		return json.append("{\"nombre\":").append(texto(profesor.getNombre())).append(",\"correo\":")
+				.append(texto(profesor.getCorreo())).append(",\"telefono\":")
+				.append(texto(profesor.getTelefono())).append('}');
+	}
+
+	/**
+	 * Escribe una reserva en JSON, con su profesor y su aula anidados
+	 *
+	 * @param json
+	 *            donde escribir
+	 * @param reserva
+	 *            la reserva
+	 * @return el mismo StringBuilder recibido
+	 */
+	public static StringBuilder aJson(StringBuilder json, Reserva reserva) {
+		json.append("{\"profesor\":");
+		aJson(json, reserva.getProfesor()).append(",\"aula\":");
+		aJson(json, reserva.getAula()).append(',');
+		camposJson(json, reserva.getPermanencia());
+		return json.append(",\"puntos\":").append(reserva.getPuntos()).append('}');
+	}
+
+	/**
+	 * Escribe un hueco libre en JSON, con su aula anidada
+	 *
+	 * @param json
+	 *            donde escribir
+	 * @param hueco
+	 *            el hueco
+	 * @return el mismo StringBuilder recibido
+	 */
+	public static StringBuilder aJson(StringBuilder json, Hueco hueco) {
+		aJson(json.append("{\"aula\":"), hueco.getAula()).append(',');
+		return camposJson(json, hueco.getPermanencia()).append('}');
+	}
+
+	/**
+	 * Escribe los campos de una permanencia: el día y la hora o el tramo
+	 *
+	 * @param json
+	 *            donde escribir
+	 * @param permanencia
+	 *            la permanencia
+	 * @return el mismo StringBuilder recibido
+	 */
+	public static StringBuilder camposJson(StringBuilder json, Permanencia permanencia) {
+		json.append("\"dia\":\"").append(permanencia.getDia().format(FORMATO_DIA));
+		if (permanencia instanceof PermanenciaPorHora)
+			json.append("\",\"hora\":\"").append(((PermanenciaPorHora) permanencia).getHora().format(FORMATO_HORA));
+		else
+			json.append("\",\"tramo\":\"").append(((PermanenciaPorTramo) permanencia).getTramo().name());
+		return json.append('"');
+	}
+
+	/**
+	 * Lee un objeto JSON plano
+	 *
+	 * @param json
+	 *            el texto del objeto
+	 * @return los valores del objeto por nombre, como texto. Los null se guardan
+	 *         como null
+	 * @throws IllegalArgumentException
+	 *             si el texto no es un objeto JSON plano válido
+	 */
+	public static Map<String, String> leerObjeto(String json) throws IllegalArgumentException {
+		if (json == null)
+			throw new IllegalArgumentException("El cuerpo de la petición no puede estar vacío.");
+		Lector lector = new Lector(json);
+		Map<String, String> objeto = new HashMap<String, String>();
+		lector.esperar('{');
+		if (!lector.consumir('}')) {
+			do {
+				String nombre = lector.leerTexto();
+				lector.esperar(':');
+				objeto.put(nombre, lector.leerValor());
+			} while (lector.consumir(','));
+			lector.esperar('}');
+		}
+		lector.saltarEspacios();
+		if (!lector.alFinal())
+			throw new IllegalArgumentException(ERROR_JSON);
+		return objeto;
+	}
+
+	/**
+	 * Recorre el texto de un objeto JSON carácter a carácter
+	 */
+	private static class Lector {
+
+		private String json;
+		private int posicion;
+
+		/**
+		 * Constructor de la clase
+		 *
+		 * @param json
+		 *            el texto a recorrer
+		 */
+		private Lector(String json) {
+			this.json = json;
+		}
+
+		/**
+		 * Comprueba si se ha llegado al final del texto
+		 *
+		 * @return true si no quedan caracteres por leer
+		 */
+		private boolean alFinal() {
+			return posicion >= json.length();
+		}
+
+		/**
+		 * Avanza hasta el siguiente carácter que no sea un espacio
+		 */
+		private void saltarEspacios() {
+			while (!alFinal() && Character.isWhitespace(json.charAt(posicion)))
+				posicion++;
+		}
+
+		/**
+		 * Avanza sobre el carácter indicado si es el siguiente
+		 *
+		 * @param c
+		 *            el carácter esperado
+		 * @return true si estaba y se ha avanzado, false si no
+		 */
+		private boolean consumir(char c) {
+			saltarEspacios();
+			if (!alFinal() && json.charAt(posicion) == c) {
+				posicion++;
+				return true;
+			}
+			return false;
+		}
+
+		/**
+		 * Avanza sobre el carácter indicado, que tiene que ser el siguiente
+		 *
+		 * @param c
+		 *            el carácter esperado
+		 * @throws IllegalArgumentException
+		 *             si el siguiente carácter es otro
+		 */
+		private void esperar(char c) {
+			if (!consumir(c))
+				throw new IllegalArgumentException(ERROR_JSON);
+		}
+
+		/**
+		 * Lee una cadena JSON, deshaciendo los caracteres escapados
+		 *
+		 * @return el texto leído
+		 * @throws IllegalArgumentException
+		 *             si la cadena no está bien formada
+		 */
+		private String leerTexto() {
+			esperar('"');
+			StringBuilder texto = new StringBuilder();
+			while (!alFinal()) {
+				char c = json.charAt(posicion++);
+				if (c == '"')
+					return texto.toString();
+				if (c != '\\') {
+					texto.append(c);
+					continue;
+				}
+				if (alFinal())
+					break;
+				char escapado = json.charAt(posicion++);
+				switch (escapado) {
+				case 'n':
+					texto.append('\n');
+					break;
+				case 'r':
+					texto.append('\r');
+					break;
+				case 't':
+					texto.append('\t');
+					break;
+				case 'b':
+					texto.append('\b');
+					break;
+				case 'f':
+					texto.append('\f');
+					break;
+				case 'u':
+					if (posicion + 4 > json.length())
+						throw new IllegalArgumentException(ERROR_JSON);
+					try {
+						texto.append((char) Integer.parseInt(json.substring(posicion, posicion + 4), 16));
+					} catch (NumberFormatException e) {
+						throw new IllegalArgumentException(ERROR_JSON);
+					}
+					posicion += 4;
+					break;
+				default:
+					texto.append(escapado);
+				}
+			}
+			throw new IllegalArgumentException(ERROR_JSON);
+		}
+
+		/**
+		 * Lee el valor de un campo: una cadena, o un número, booleano o null
+		 *
+		 * @return el valor como texto, o null
+		 * @throws IllegalArgumentException
+		 *             si el valor está vacío o es un objeto o un array
+		 */
+		private String leerValor() {
+			saltarEspacios();
+			if (!alFinal() && json.charAt(posicion) == '"')
+				return leerTexto();
+			int inicio = posicion;
+			while (!alFinal() && ",}".indexOf(json.charAt(posicion)) < 0
+					&& !Character.isWhitespace(json.charAt(posicion)))
+				posicion++;
+			String valor = json.substring(inicio, posicion);
+			if (valor.isEmpty() || "{[".indexOf(valor.charAt(0)) >= 0)
+				throw new IllegalArgumentException(ERROR_JSON);
+			if (valor.equals("null"))
+				return null;
+			return valor;
+		}
+
+	}
+
+}
@@ -0,0 +1,199 @@
+package org.iesalandalus.programacion.reservasaulas.controlador;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.vista.IVista;
+import org.iesalandalus.programacion.reservasaulas.vista.VistaReservasAulasLotes;
+import org.junit.Test;
+
+public class ControladorReservasAulasMedidoTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final LocalDate MES_SIGUIENTE = LocalDate.now().plusMonths(1);
+	private static final String DIA = LocalDate.of(MES_SIGUIENTE.getYear(), MES_SIGUIENTE.getMonthValue(), 1)
+			.format(DateTimeFormatter.ofPattern("dd/MM/uuuu"));
+
+	@Test
+	public void cubosTest() {
+		for (long nanos = 0; nanos < 1 << 20; nanos++) {
+			int cubo = Medidor.cubo(nanos);
+			assertTrue(nanos <= Medidor.maximoCubo(cubo));
+			if (cubo > 0)
+				assertTrue(nanos > Medidor.maximoCubo(cubo - 1));
+		}
+		assertEquals(Medidor.cubo(Long.MAX_VALUE), Medidor.cubo(1L << 50));
+	}
+
+	@Test
+	public void percentilesTest() {
+		Medidor medidor = new Medidor("prueba");
+		assertEquals(0, medidor.getPercentil(99));
+		for (int i = 1; i <= 1000; i++)
+			medidor.registrar(i * 1000L);
+		assertEquals(1000, medidor.getLlamadas());
+		assertEquals(500500, medidor.getMedia());
+		long p50 = medidor.getPercentil(50);
+		assertTrue(p50 >= 500000 && p50 <= 500000 * 1.032);
+		long p99 = medidor.getPercentil(99);
+		assertTrue(p99 >= 990000 && p99 <= 990000 * 1.032);
+		long maximo = medidor.getPercentil(100);
+		assertTrue(maximo >= 1000000 && maximo <= 1000000 * 1.032);
+		try {
+			medidor.getPercentil(101);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El percentil debe estar entre 0 y 100.", e.getMessage());
+		}
+		try {
+			new Medidor(" ");
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El nombre de la operación no puede estar vacío.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void medirOperacionesTest() {
+		StringWriter salida = new StringWriter();
+		VistaReservasAulasLotes vista = new VistaReservasAulasLotes(new StringReader("INSERTAR_AULA;Aula 1;30\n"
+				+ "INSERTAR_AULA;Aula 1;30\n" + "INSERTAR_PROFESOR;Ana;ana@gmail.com\n"
+				+ "INSERTAR_RESERVA;Ana;Aula 1;" + DIA + ";TARDE\n" + "LISTAR_AULAS\n" + "MOSTRAR_ESTADISTICAS\n"),
+				salida);
+		ControladorReservasAulas medido = new ControladorReservasAulas(new ModeloReservasAulas(), vista);
+		assertNull(medido.getEstadisticas());
+		ControladorReservasAulasMedido controlador = new ControladorReservasAulasMedido(medido, vista);
+		controlador.comenzar();
+		try {
+			controlador.insertarAula(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+		} catch (OperationNotSupportedException e) {
+			fail(e.getMessage());
+		}
+		Estadisticas estadisticas = controlador.getEstadisticas();
+		Medidor insertarAula = estadisticas.medidor("insertarAula");
+		assertEquals(3, insertarAula.getLlamadas());
+		assertEquals(1, insertarAula.getErroresOperacion());
+		assertEquals(1, insertarAula.getErroresArgumento());
+		assertEquals(0, insertarAula.getErroresOtros());
+		assertEquals(1, estadisticas.medidor("realizarReserva").getLlamadas());
+		assertEquals(0, estadisticas.medidor("borrarAula").getLlamadas());
+		assertEquals(6, estadisticas.representar().size());
+		String[] resultados = salida.toString().split("\\R");
+		assertTrue(resultados[5].startsWith("{\"linea\":6,\"opcion\":\"MOSTRAR_ESTADISTICAS\",\"resultado\":[{"
+				+ "\"operacion\":\"insertarAula\",\"llamadas\":2,\"errores\":{\"OperationNotSupportedException\":1,"
+				+ "\"IllegalArgumentException\":0,\"otros\":0},\"nanos\":{"));
+		try {
+			new ControladorReservasAulasMedido(null, vista);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El controlador a medir no puede ser nulo.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void medirStreamsTest() {
+		// Controlador que, si no se indica el último día, devuelve un stream
+		// perezoso que tarda en recorrerse y falla al hacerlo
+		IControladorReservasAulas lento = (IControladorReservasAulas) Proxy.newProxyInstance(
+				IControladorReservasAulas.class.getClassLoader(), new Class<?>[] { IControladorReservasAulas.class },
+				new InvocationHandler() {
+					public Object invoke(Object proxy, Method metodo, Object[] argumentos) {
+						if (argumentos.length < 3 || argumentos[2] != null)
+							return Stream.<Reserva>empty();
+						return Stream.of(1, 2).map(new Function<Integer, Reserva>() {
+							public Reserva apply(Integer i) {
+								try {
+									Thread.sleep(25);
+								} catch (InterruptedException e) {
+									Thread.currentThread().interrupt();
+								}
+								throw new IllegalArgumentException("Reserva no válida.");
+							}
+						});
+					}
+				});
+		IVista vista = new IVista() {
+			public void setControlador(IControladorReservasAulas controlador) {
+			}
+
+			public void comenzar() {
+			}
+
+			public void salir() {
+			}
+		};
+		ControladorReservasAulasMedido controlador = new ControladorReservasAulasMedido(lento, vista);
+		LocalDate hoy = LocalDate.now();
+		assertEquals(0, controlador.getReservas(hoy, hoy).count());
+		Medidor periodo = controlador.getEstadisticas().medidor("getReservasPeriodo");
+		assertEquals(1, periodo.getLlamadas());
+		// El stream no se recorre hasta que lo pide quien lo usa
+		Stream<Reserva> perezoso = controlador.getReservasAula(null, hoy, null);
+		Medidor aulaPeriodo = controlador.getEstadisticas().medidor("getReservasAulaPeriodo");
+		assertEquals(0, aulaPeriodo.getLlamadas());
+		try {
+			perezoso.count();
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("Reserva no válida.", e.getMessage());
+		}
+		perezoso.close();
+		assertEquals(1, aulaPeriodo.getLlamadas());
+		assertEquals(1, aulaPeriodo.getErroresArgumento());
+		assertTrue(aulaPeriodo.getMedia() >= 25000000);
+		// Un stream que no se recorre entero se mide al cerrarlo
+		Stream<Reserva> cerrado = controlador.getReservasProfesor(null, hoy, null);
+		Medidor profesorPeriodo = controlador.getEstadisticas().medidor("getReservasProfesorPeriodo");
+		assertEquals(0, profesorPeriodo.getLlamadas());
+		cerrado.close();
+		assertEquals(1, profesorPeriodo.getLlamadas());
+		assertEquals(0, profesorPeriodo.getErroresArgumento());
+	}
+
+	@Test
+	public void fuentesTest() {
+		Estadisticas estadisticas = new Estadisticas();
+		final Map<String, Long> valores = new LinkedHashMap<String, Long>();
+		valores.put("tamano", 10L);
+		valores.put("compactaciones", 2L);
+		estadisticas.anadirFuente("diario", new Estadisticas.Fuente() {
+			public Map<String, Long> getValores() {
+				return valores;
+			}
+		});
+		estadisticas.medidor("insertarAula").registrar(5);
+		assertEquals(2, estadisticas.representar().size());
+		assertEquals("diario: tamano=10, compactaciones=2", estadisticas.representar().get(1));
+		assertTrue(estadisticas.aJson().endsWith("},{\"fuente\":\"diario\",\"tamano\":10,\"compactaciones\":2}]"));
+		// Los valores se leen cada vez que se muestran
+		valores.put("tamano", 20L);
+		assertEquals("diario: tamano=20, compactaciones=2", estadisticas.representar().get(1));
+		try {
+			estadisticas.anadirFuente("", null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El nombre de la fuente no puede ser nulo ni estar vacío.", e.getMessage());
+		}
+	}
+
+}
@@ -1,16 +1,25 @@
 package org.iesalandalus.programacion.reservasaulas.modelo;
 
+import org.iesalandalus.programacion.reservasaulas.controlador.*;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.*;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.*;
 import org.iesalandalus.programacion.reservasaulas.modelo.dao.*;
+import org.iesalandalus.programacion.reservasaulas.modelo.persistencia.*;
+import org.iesalandalus.programacion.reservasaulas.vista.*;
+import org.iesalandalus.programacion.reservasaulas.vista.http.*;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
 @SuiteClasses({ PermanenciaPorTramoTest.class, PermanenciaPorHoraTest.class, TramoTest.class, 
-	ProfesorTest.class, ReservaTest.class, AulaTest.class,
-	AulasTest.class, ProfesoresTest.class, ReservasTest.class })
+	ProfesorTest.class, ValidadorTest.class, ReservaTest.class, ReservaPeriodicaTest.class, AulaTest.class,
+	AulasTest.class, ProfesoresTest.class, ReservasTest.class, ReservasColumnarTest.class,
+	ReservasMapeadasTest.class, OcupacionAulasTest.class, ListaIndexadaTest.class,
+	DiarioTest.class, InstantaneaTest.class, ImportacionCsvTest.class, CompactadorDiarioTest.class, ArchivoReservasTest.class, ModeloReservasAulasConcurrenteTest.class,
+	ModeloReservasAulasCacheTest.class, SecuenciaPersistenteTest.class, VersionModeloTest.class,
+	VistaReservasAulasHttpTest.class, VistaReservasAulasLotesTest.class,
+	ControladorReservasAulasMedidoTest.class })
 public class AllTests {
 
 }
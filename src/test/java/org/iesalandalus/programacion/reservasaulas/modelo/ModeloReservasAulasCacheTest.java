@@ -0,0 +1,185 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.junit.Test;
+
+public class ModeloReservasAulasCacheTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final LocalDate DIA = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+	private static final Profesor PROFESOR = new Profesor("José Ramón", "joseramon@gmail.com");
+	private static final Aula AULA1 = new Aula("Aula 1", 30);
+	private static final Aula AULA2 = new Aula("Aula 2", 30);
+	private static final Permanencia DIEZ = new PermanenciaPorHora(DIA, LocalTime.of(10, 0));
+	private static final Permanencia ONCE = new PermanenciaPorHora(DIA, LocalTime.of(11, 0));
+	private static final Permanencia DIEZ_MANANA = new PermanenciaPorHora(DIA.plusDays(1), LocalTime.of(10, 0));
+
+	private static ModeloReservasAulasCache crearModelo(int capacidad) throws OperationNotSupportedException {
+		ModeloReservasAulasCache modelo = new ModeloReservasAulasCache(new ModeloReservasAulas(), capacidad);
+		modelo.insertarAula(AULA1);
+		modelo.insertarAula(AULA2);
+		modelo.insertarProfesor(PROFESOR);
+		return modelo;
+	}
+
+	@Test
+	public void constructorNoValidoTest() {
+		try {
+			new ModeloReservasAulasCache(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El modelo no puede ser nulo.", e.getMessage());
+		}
+		try {
+			new ModeloReservasAulasCache(new ModeloReservasAulas(), 0);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La capacidad de la caché debe ser mayor que cero.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void aciertosYFallosTest() throws OperationNotSupportedException {
+		ModeloReservasAulasCache modelo = crearModelo(10);
+		assertTrue(modelo.consultarDisponibilidad(AULA1, DIEZ));
+		assertTrue(modelo.consultarDisponibilidad(AULA1, DIEZ));
+		assertTrue(modelo.consultarDisponibilidad(new Aula("Aula 1", 50), DIEZ));
+		assertEquals(2, modelo.getAciertos());
+		assertEquals(1, modelo.getFallos());
+		assertEquals(1, modelo.getNumConsultas());
+		try {
+			modelo.consultarDisponibilidad(null, DIEZ);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede consultar la disponibilidad de un aula nula.", e.getMessage());
+		}
+		assertEquals(1, modelo.getNumConsultas());
+	}
+
+	@Test
+	public void invalidarTest() throws OperationNotSupportedException {
+		ModeloReservasAulasCache modelo = crearModelo(10);
+		modelo.consultarDisponibilidad(AULA1, DIEZ);
+		modelo.consultarDisponibilidad(AULA1, ONCE);
+		modelo.consultarDisponibilidad(AULA1, DIEZ_MANANA);
+		modelo.consultarDisponibilidad(AULA2, DIEZ);
+		Reserva reserva = new Reserva(PROFESOR, AULA1, DIEZ);
+		modelo.realizarReserva(reserva);
+		// Sólo se descartan las consultas del aula 1 ese día
+		assertEquals(2, modelo.getInvalidaciones());
+		assertEquals(2, modelo.getNumConsultas());
+		assertFalse(modelo.consultarDisponibilidad(AULA1, DIEZ));
+		assertTrue(modelo.consultarDisponibilidad(AULA1, ONCE));
+		long aciertos = modelo.getAciertos();
+		assertTrue(modelo.consultarDisponibilidad(AULA1, DIEZ_MANANA));
+		assertTrue(modelo.consultarDisponibilidad(AULA2, DIEZ));
+		assertEquals(aciertos + 2, modelo.getAciertos());
+		modelo.anularReserva(reserva);
+		assertTrue(modelo.consultarDisponibilidad(AULA1, DIEZ));
+		try {
+			modelo.anularReserva(reserva);
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("La reserva a anular no existe.", e.getMessage());
+		}
+		modelo.realizarReserva(new Reserva(PROFESOR, AULA2, DIEZ));
+		modelo.consultarDisponibilidad(AULA1, DIEZ);
+		modelo.consultarDisponibilidad(AULA2, DIEZ);
+		modelo.borrarAula(AULA1);
+		assertEquals(1, modelo.getNumConsultas());
+		assertFalse(modelo.consultarDisponibilidad(AULA2, DIEZ));
+		modelo.borrarProfesor(PROFESOR);
+		assertEquals(0, modelo.getNumConsultas());
+		assertTrue(modelo.consultarDisponibilidad(AULA2, DIEZ));
+	}
+
+	@Test
+	public void expulsarTest() throws OperationNotSupportedException {
+		ModeloReservasAulasCache modelo = crearModelo(2);
+		modelo.consultarDisponibilidad(AULA1, DIEZ);
+		modelo.consultarDisponibilidad(AULA1, ONCE);
+		modelo.consultarDisponibilidad(AULA1, DIEZ);
+		modelo.consultarDisponibilidad(AULA2, DIEZ);
+		assertEquals(1, modelo.getExpulsiones());
+		assertEquals(2, modelo.getNumConsultas());
+		long fallos = modelo.getFallos();
+		modelo.consultarDisponibilidad(AULA1, DIEZ);
+		assertEquals(fallos, modelo.getFallos());
+		modelo.consultarDisponibilidad(AULA1, ONCE);
+		assertEquals(fallos + 1, modelo.getFallos());
+		// La consulta expulsada ya no se descarta al reservar ese día
+		modelo.realizarReserva(new Reserva(PROFESOR, AULA1, DIEZ));
+		assertFalse(modelo.consultarDisponibilidad(AULA1, DIEZ));
+	}
+
+	@Test
+	public void variosHilosTest() throws Exception {
+		final ModeloReservasAulasCache modelo = new ModeloReservasAulasCache(new ModeloReservasAulasConcurrente(4), 8);
+		final List<Aula> aulas = new ArrayList<Aula>();
+		final List<Profesor> profesores = new ArrayList<Profesor>();
+		for (int i = 0; i < 4; i++) {
+			aulas.add(new Aula("Aula " + i, 30));
+			profesores.add(new Profesor("Profesor " + i, "profesor" + i + "@gmail.com"));
+			modelo.insertarAula(aulas.get(i));
+			modelo.insertarProfesor(profesores.get(i));
+		}
+		List<Thread> hilos = new ArrayList<Thread>();
+		for (int h = 0; h < 4; h++) {
+			final int hilo = h;
+			Thread t = new Thread(new Runnable() {
+				public void run() {
+					Random aleatorio = new Random(hilo);
+					for (int i = 0; i < 20000; i++) {
+						Aula aula = aulas.get(aleatorio.nextInt(aulas.size()));
+						Permanencia permanencia = new PermanenciaPorHora(DIA, LocalTime.of(8 + aleatorio.nextInt(4), 0));
+						try {
+							if (hilo == 0) {
+								// Sólo este hilo cambia las reservas, cada una con el profesor de su aula
+								Reserva reserva = new Reserva(profesores.get(aulas.indexOf(aula)), aula, permanencia);
+								if (modelo.buscarReserva(reserva) == null)
+									modelo.realizarReserva(reserva);
+								else
+									modelo.anularReserva(reserva);
+							} else {
+								modelo.consultarDisponibilidad(aula, permanencia);
+							}
+						} catch (OperationNotSupportedException e) {
+							throw new IllegalStateException(e);
+						}
+					}
+				}
+			});
+			hilos.add(t);
+			t.start();
+		}
+		for (Thread t : hilos)
+			t.join();
+		for (Aula aula : aulas) {
+			for (int hora = 8; hora < 12; hora++) {
+				Permanencia permanencia = new PermanenciaPorHora(DIA, LocalTime.of(hora, 0));
+				boolean reservada = modelo.buscarReserva(
+						new Reserva(profesores.get(aulas.indexOf(aula)), aula, permanencia)) != null;
+				assertEquals(!reservada, modelo.consultarDisponibilidad(aula, permanencia));
+			}
+		}
+		assertTrue(modelo.getAciertos() > 0);
+	}
+
+}
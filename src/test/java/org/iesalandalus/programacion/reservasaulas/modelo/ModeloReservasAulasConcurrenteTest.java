@@ -0,0 +1,437 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.ConflictosReservaPeriodicaException;
+import org.iesalandalus.programacion.reservasaulas.modelo.dao.Reservas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Hueco;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Periodicidad;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+import org.junit.Test;
+
+public class ModeloReservasAulasConcurrenteTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	private static final int NUM_HILOS = 8;
+	private static final LocalDate DIA = LocalDate.now().plusMonths(1);
+	private static final YearMonth MES = YearMonth.from(DIA);
+	private static final Profesor PROFESOR1 = new Profesor("José Ramón", "joseramon@gmail.com");
+	private static final Profesor PROFESOR2 = new Profesor("Andrés", "andres@gmail.com");
+	private static final Aula AULA1 = new Aula("Aula 1", 30);
+	private static final Aula AULA2 = new Aula("Aula 2", 30);
+
+	/**
+	 * Lanza varios hilos que ejecutan la misma tarea a la vez y espera a que
+	 * terminen
+	 */
+	private void ejecutarALaVez(final Runnable tarea) throws InterruptedException {
+		final CountDownLatch salida = new CountDownLatch(1);
+		List<Thread> hilos = new ArrayList<Thread>();
+		for (int i = 0; i < NUM_HILOS; i++) {
+			Thread hilo = new Thread(new Runnable() {
+				public void run() {
+					try {
+						salida.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					tarea.run();
+				}
+			});
+			hilos.add(hilo);
+			hilo.start();
+		}
+		salida.countDown();
+		for (Thread hilo : hilos)
+			hilo.join();
+	}
+
+	private static List<Aula> crearAulas(int numAulas) {
+		List<Aula> aulas = new ArrayList<Aula>();
+		for (int i = 0; i < numAulas; i++)
+			aulas.add(new Aula("Aula " + i, 30));
+		return aulas;
+	}
+
+	private static void registrar(IModeloReservasAulas modelo, List<Aula> aulas, List<Profesor> profesores) {
+		try {
+			for (Aula aula : aulas)
+				modelo.insertarAula(aula);
+			for (Profesor profesor : profesores)
+				modelo.insertarProfesor(profesor);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void cascadaTest() {
+		IModeloReservasAulas modelo = new ModeloReservasAulasConcurrente(4);
+		try {
+			modelo.insertarAula(AULA1);
+			modelo.insertarAula(AULA2);
+			modelo.insertarProfesor(PROFESOR1);
+			modelo.insertarProfesor(PROFESOR2);
+			modelo.realizarReserva(new Reserva(PROFESOR1, AULA1, new PermanenciaPorHora(DIA, LocalTime.of(8, 0))));
+			modelo.realizarReserva(new Reserva(PROFESOR1, AULA2, new PermanenciaPorHora(DIA, LocalTime.of(8, 0))));
+			modelo.realizarReserva(new Reserva(PROFESOR2, AULA2, new PermanenciaPorHora(DIA, LocalTime.of(9, 0))));
+			assertEquals(3, modelo.getNumReservas());
+			assertEquals(36f, modelo.getPuntosGastados(PROFESOR1, MES), 0f);
+			assertEquals(1, modelo.borrarAula(AULA1));
+			assertEquals(2, modelo.getNumReservas());
+			assertEquals(18f, modelo.getPuntosGastados(PROFESOR1, MES), 0f);
+			assertEquals(1, modelo.borrarProfesor(PROFESOR2));
+			assertEquals(1, modelo.getNumReservas());
+			assertEquals(0f, modelo.getPuntosGastados(PROFESOR2, MES), 0f);
+			assertNull(modelo.buscarAula(AULA1));
+			assertFalse(modelo.consultarDisponibilidad(AULA2, new PermanenciaPorHora(DIA, LocalTime.of(8, 0))));
+			assertTrue(modelo.consultarDisponibilidad(AULA2, new PermanenciaPorHora(DIA, LocalTime.of(9, 0))));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			modelo.realizarReserva(new Reserva(PROFESOR1, AULA2, new PermanenciaPorTramo(DIA, Tramo.MANANA)));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("Ya se ha realizado una reserva por hora para este día y aula.", e.getMessage());
+		}
+		try {
+			modelo.realizarReserva(new Reserva(PROFESOR2, AULA2, new PermanenciaPorHora(DIA, LocalTime.of(10, 0))));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("El profesor de la reserva no existe.", e.getMessage());
+		}
+		try {
+			modelo.realizarReserva(new Reserva(PROFESOR1, AULA1, new PermanenciaPorHora(DIA, LocalTime.of(10, 0))));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("El aula de la reserva no existe.", e.getMessage());
+		}
+		try {
+			new ModeloReservasAulasConcurrente(0);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El número de bandas debe ser positivo.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void reservaPeriodicaPuntosEntreBandasTest() {
+		IModeloReservasAulas modelo = new ModeloReservasAulasConcurrente(4);
+		LocalDate primerDia = MES.atDay(1);
+		try {
+			modelo.insertarAula(AULA1);
+			modelo.insertarAula(AULA2);
+			modelo.insertarProfesor(PROFESOR1);
+			// 144 puntos gastados en la banda del aula 2
+			for (int hora = 8; hora < 16; hora++)
+				modelo.realizarReserva(
+						new Reserva(PROFESOR1, AULA2, new PermanenciaPorHora(primerDia, LocalTime.of(hora, 0))));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		PermanenciaPorHora primera = new PermanenciaPorHora(primerDia, LocalTime.of(10, 0));
+		try {
+			modelo.realizarReservaPeriodica(
+					new ReservaPeriodica(PROFESOR1, AULA1, primera, Periodicidad.SEMANAL, MES.atDay(22)));
+			fail(ERROR_EXCEPCION);
+		} catch (ConflictosReservaPeriodicaException e) {
+			assertEquals(1, e.getConflictos().size());
+			assertEquals("Esta reserva excede los puntos máximos por mes para dicho profesor.",
+					e.getConflictos().get(MES.atDay(22)));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_EXCEPCION);
+		}
+		assertEquals(8, modelo.getNumReservas());
+		try {
+			assertEquals(3, modelo.realizarReservaPeriodica(
+					new ReservaPeriodica(PROFESOR1, AULA1, primera, Periodicidad.SEMANAL, MES.atDay(21))));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(11, modelo.getNumReservas());
+		assertEquals(198f, modelo.getPuntosGastados(PROFESOR1, MES), 0f);
+	}
+
+	@Test
+	public void buscarHuecoTest() {
+		// Un campus de 1000 aulas: 998 de 10 a 89 puestos y dos salones de 100
+		List<Aula> aulas = new ArrayList<Aula>();
+		for (int i = 0; i < 998; i++)
+			aulas.add(new Aula("Aula " + i, 10 + i % 80));
+		Aula salon1 = new Aula("Salón 1", 100);
+		Aula salon2 = new Aula("Salón 2", 100);
+		aulas.add(salon1);
+		aulas.add(salon2);
+		IModeloReservasAulas[] modelos = { new ModeloReservasAulas(), new ModeloReservasAulasConcurrente(4) };
+		PermanenciaPorHora diezHoras = new PermanenciaPorHora(DIA, LocalTime.of(10, 0));
+		for (IModeloReservasAulas modelo : modelos) {
+			try {
+				for (Aula aula : aulas)
+					modelo.insertarAula(aula);
+				modelo.insertarProfesor(PROFESOR1);
+				modelo.insertarProfesor(PROFESOR2);
+				modelo.realizarReserva(new Reserva(PROFESOR1, salon1, diezHoras));
+				modelo.realizarReserva(new Reserva(PROFESOR2, salon2, new PermanenciaPorTramo(DIA, Tramo.MANANA)));
+			} catch (OperationNotSupportedException e) {
+				fail(ERROR_NO_EXCEPCION);
+			}
+			List<Aula> libres = modelo.getAulasLibres(89, diezHoras);
+			assertEquals(12, libres.size());
+			for (Aula aula : libres)
+				assertEquals(89, aula.getPuestos());
+			// El salón 2 tiene reservas por tramo ese día, así que no se puede reservar por horas
+			assertEquals(999, modelo.getAulasLibres(0, new PermanenciaPorHora(DIA, LocalTime.of(11, 0))).size());
+			assertTrue(modelo.getAulasLibres(90, diezHoras).isEmpty());
+			libres = modelo.getAulasLibres(90, new PermanenciaPorTramo(DIA, Tramo.TARDE));
+			assertEquals(1, libres.size());
+			assertEquals(salon2, libres.get(0));
+			Hueco hueco = modelo.buscarHueco(90, diezHoras, DIA.plusDays(7));
+			assertEquals(new PermanenciaPorHora(DIA.plusDays(1), LocalTime.of(10, 0)), hueco.getPermanencia());
+			assertEquals(salon1, hueco.getAula());
+			hueco = modelo.buscarHueco(50, diezHoras, DIA);
+			assertEquals(diezHoras, hueco.getPermanencia());
+			assertEquals(50, hueco.getAula().getPuestos());
+			assertNull(modelo.buscarHueco(90, diezHoras, DIA));
+			try {
+				modelo.buscarHueco(10, diezHoras, DIA.minusDays(1));
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("El día final de la búsqueda no puede ser anterior al inicial.", e.getMessage());
+			}
+			try {
+				modelo.getAulasLibres(-1, diezHoras);
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("El número de puestos no puede ser negativo.", e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void getReservasEntreDiasTest() {
+		IModeloReservasAulas modelo = new ModeloReservasAulasConcurrente(4);
+		List<Aula> aulas = crearAulas(8);
+		try {
+			for (Aula aula : aulas)
+				modelo.insertarAula(aula);
+			modelo.insertarProfesor(PROFESOR1);
+			// Del último día al primero y repartidas entre todas las bandas
+			for (int i = 7; i >= 0; i--)
+				modelo.realizarReserva(
+						new Reserva(PROFESOR1, aulas.get(i), new PermanenciaPorTramo(DIA.plusDays(i), Tramo.TARDE)));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		List<Reserva> entreDias = modelo.getReservas(DIA.plusDays(2), DIA.plusDays(5)).collect(Collectors.toList());
+		assertEquals(4, entreDias.size());
+		for (int i = 0; i < entreDias.size(); i++)
+			assertEquals(DIA.plusDays(i + 2), entreDias.get(i).getPermanencia().getDia());
+		assertEquals(8, modelo.getReservasProfesor(PROFESOR1, DIA, DIA.plusDays(7)).count());
+		assertEquals(0, modelo.getReservasProfesor(PROFESOR2, DIA, DIA.plusDays(7)).count());
+		assertEquals(1, modelo.getReservasAula(aulas.get(3), DIA, DIA.plusDays(7)).count());
+		assertEquals(0, modelo.getReservasAula(aulas.get(3), DIA, DIA.plusDays(2)).count());
+	}
+
+	@Test
+	public void representarReservasPorPaginasTest() {
+		IModeloReservasAulas modelo = new ModeloReservasAulasConcurrente(4);
+		List<Aula> aulas = crearAulas(8);
+		try {
+			List<Profesor> profesores = new ArrayList<Profesor>();
+			for (Aula aula : aulas) {
+				modelo.insertarAula(aula);
+				profesores.add(new Profesor("Profesor de " + aula.getNombre(), "profesor@gmail.com"));
+				modelo.insertarProfesor(profesores.get(profesores.size() - 1));
+			}
+			for (int i = 0; i < 30; i++)
+				modelo.realizarReserva(new Reserva(profesores.get(i % 8), aulas.get(i % 8),
+						new PermanenciaPorHora(DIA, LocalTime.of(PermanenciaPorHora.HORA_INICIO + i / 8, 0))));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		// Las páginas recorren las bandas en el mismo orden que la lista completa
+		List<String> porPaginas = new ArrayList<String>();
+		for (int desde = 0; desde < 30; desde += 7)
+			porPaginas.addAll(modelo.representarReservas(desde, 7));
+		assertEquals(modelo.representarReservas(), porPaginas);
+		assertTrue(modelo.representarReservas(30, 7).isEmpty());
+		assertEquals(0, modelo.representarReservas(3, 0).size());
+		try {
+			modelo.representarReservas(-1, 7);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La posición de la página no puede ser negativa.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void sinReservasDuplicadasTest() throws InterruptedException {
+		final IModeloReservasAulas modelo = new ModeloReservasAulasConcurrente(4);
+		final List<Aula> aulas = crearAulas(8);
+		final List<Profesor> profesores = new ArrayList<Profesor>();
+		for (int i = 0; i < 10; i++)
+			profesores.add(new Profesor("Profesor " + i, "profesor" + i + "@gmail.com"));
+		registrar(modelo, aulas, profesores);
+		final AtomicInteger realizadas = new AtomicInteger();
+		final AtomicInteger anuladas = new AtomicInteger();
+		ejecutarALaVez(new Runnable() {
+			public void run() {
+				Random aleatorio = new Random();
+				for (int hora = PermanenciaPorHora.HORA_INICIO; hora <= PermanenciaPorHora.HORA_FIN; hora++) {
+					for (Aula aula : aulas) {
+						Profesor profesor = profesores.get(aleatorio.nextInt(profesores.size()));
+						Reserva reserva = new Reserva(profesor, aula, new PermanenciaPorHora(DIA, LocalTime.of(hora, 0)));
+						try {
+							modelo.realizarReserva(reserva);
+							realizadas.incrementAndGet();
+							if (aleatorio.nextInt(4) == 0) {
+								modelo.anularReserva(reserva);
+								anuladas.incrementAndGet();
+							}
+						} catch (OperationNotSupportedException e) {
+							// Otro hilo ha reservado antes o el profesor no tiene puntos
+						}
+					}
+				}
+			}
+		});
+		List<Reserva> reservas = modelo.getReservas();
+		assertEquals(realizadas.get() - anuladas.get(), reservas.size());
+		Set<String> ocupadas = new HashSet<String>();
+		for (Reserva r : reservas)
+			assertTrue(ocupadas.add(r.getAula().getNombre() + " " + r.getPermanencia()));
+		for (Profesor profesor : profesores) {
+			float puntos = 0;
+			for (Reserva r : modelo.getReservasProfesor(profesor))
+				puntos += r.getPuntos();
+			assertEquals(puntos, modelo.getPuntosGastados(profesor, MES), 0.001f);
+			assertTrue(puntos <= Reservas.MAX_PUNTOS_PROFESOR_MES);
+		}
+	}
+
+	@Test
+	public void limitePuntosExactoTest() throws InterruptedException {
+		final IModeloReservasAulas modelo = new ModeloReservasAulasConcurrente(4);
+		final List<Aula> aulas = crearAulas(16);
+		registrar(modelo, aulas, Arrays.asList(PROFESOR1));
+		final AtomicInteger realizadas = new AtomicInteger();
+		ejecutarALaVez(new Runnable() {
+			public void run() {
+				for (int hora = PermanenciaPorHora.HORA_INICIO; hora <= PermanenciaPorHora.HORA_FIN; hora++) {
+					for (Aula aula : aulas) {
+						try {
+							modelo.realizarReserva(
+									new Reserva(PROFESOR1, aula, new PermanenciaPorHora(DIA, LocalTime.of(hora, 0))));
+							realizadas.incrementAndGet();
+						} catch (OperationNotSupportedException e) {
+							// Otro hilo ha reservado antes o el profesor no tiene puntos
+						}
+					}
+				}
+			}
+		});
+		// Cada reserva cuesta 18 puntos: caben 11 en los 200 del mes
+		assertEquals(11, realizadas.get());
+		assertEquals(11, modelo.getNumReservas());
+		assertEquals(198f, modelo.getPuntosGastados(PROFESOR1, MES), 0f);
+	}
+
+	@Test
+	public void ordenComprobacionesTest() throws OperationNotSupportedException {
+		IModeloReservasAulas modelo = new ModeloReservasAulasConcurrente(4);
+		List<Aula> aulas = crearAulas(11);
+		registrar(modelo, aulas, Arrays.asList(PROFESOR1));
+		// Cada reserva cuesta 18 puntos: con 11 el profesor ya no tiene para otra
+		for (Aula aula : aulas)
+			modelo.realizarReserva(new Reserva(PROFESOR1, aula, new PermanenciaPorHora(DIA, LocalTime.of(10, 0))));
+		try {
+			modelo.realizarReserva(
+					new Reserva(PROFESOR1, aulas.get(0), new PermanenciaPorHora(DIA, LocalTime.of(10, 0))));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("La reserva ya existe.", e.getMessage());
+		}
+		try {
+			modelo.realizarReserva(new Reserva(PROFESOR1, aulas.get(0),
+					new PermanenciaPorHora(LocalDate.now().withDayOfMonth(1), LocalTime.of(10, 0))));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("Sólo se pueden hacer reservas para el mes que viene o posteriores.", e.getMessage());
+		}
+		try {
+			modelo.realizarReserva(
+					new Reserva(PROFESOR1, aulas.get(0), new PermanenciaPorHora(DIA, LocalTime.of(11, 0))));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("Esta reserva excede los puntos máximos por mes para dicho profesor.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void sinReservasHuerfanasTest() throws InterruptedException {
+		final IModeloReservasAulas modelo = new ModeloReservasAulasConcurrente(4);
+		final List<Aula> aulas = crearAulas(40);
+		final List<Profesor> profesores = new ArrayList<Profesor>();
+		for (int i = 0; i < 40; i++)
+			profesores.add(new Profesor("Profesor " + i, "profesor" + i + "@gmail.com"));
+		registrar(modelo, aulas, profesores);
+		ejecutarALaVez(new Runnable() {
+			public void run() {
+				Random aleatorio = new Random();
+				for (int hora = PermanenciaPorHora.HORA_INICIO; hora <= PermanenciaPorHora.HORA_FIN; hora++) {
+					for (int i = 0; i < aulas.size(); i++) {
+						Aula aula = aulas.get(aleatorio.nextInt(aulas.size()));
+						Profesor profesor = profesores.get(aleatorio.nextInt(profesores.size()));
+						try {
+							if (aleatorio.nextInt(40) == 0)
+								modelo.borrarAula(aula);
+							else if (aleatorio.nextInt(40) == 0)
+								modelo.borrarProfesor(profesor);
+							else
+								modelo.realizarReserva(
+										new Reserva(profesor, aula, new PermanenciaPorHora(DIA, LocalTime.of(hora, 0))));
+						} catch (OperationNotSupportedException e) {
+							// Ya estaba borrado, otro hilo ha reservado antes o no quedan puntos
+						}
+					}
+				}
+			}
+		});
+		for (Reserva r : modelo.getReservas()) {
+			assertTrue(modelo.buscarAula(r.getAula()) != null);
+			assertTrue(modelo.buscarProfesor(r.getProfesor()) != null);
+		}
+		for (Profesor profesor : profesores)
+			if (modelo.buscarProfesor(profesor) == null)
+				assertEquals(0f, modelo.getPuntosGastados(profesor, MES), 0f);
+	}
+
+}
@@ -0,0 +1,111 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class SecuenciaPersistenteTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+
+	@Test
+	public void ponerYQuitarTest() {
+		SecuenciaPersistente<String> vacia = SecuenciaPersistente.vacia();
+		SecuenciaPersistente<String> una = vacia.poner(5, "b");
+		SecuenciaPersistente<String> dos = una.poner(1, "a");
+		SecuenciaPersistente<String> tres = dos.poner(9, "c");
+		assertEquals(Arrays.asList("a", "b", "c"), tres.aLista());
+		assertEquals(Arrays.asList("a", "c"), tres.quitar(5).aLista());
+		assertEquals(Arrays.asList("a", "B", "c"), tres.poner(5, "B").aLista());
+		assertSame(tres, tres.quitar(7));
+		// Las secuencias anteriores no cambian
+		assertEquals(0, vacia.getTamano());
+		assertEquals(Arrays.asList("b"), una.aLista());
+		assertEquals(Arrays.asList("a", "b"), dos.aLista());
+		assertEquals(Arrays.asList("a", "b", "c"), tres.aLista());
+	}
+
+	@Test
+	public void getNoValidoTest() {
+		SecuenciaPersistente<String> secuencia = SecuenciaPersistente.<String>vacia().poner(1, "a");
+		try {
+			secuencia.get(1);
+			fail(ERROR_EXCEPCION);
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("La posición 1 no existe.", e.getMessage());
+		}
+		try {
+			secuencia.get(-1);
+			fail(ERROR_EXCEPCION);
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("La posición -1 no existe.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void construirTest() {
+		List<Integer> elementos = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i++)
+			elementos.add(i);
+		SecuenciaPersistente<Integer> secuencia = SecuenciaPersistente.construir(elementos, 100);
+		assertEquals(elementos, secuencia.aLista());
+		assertEquals(Integer.valueOf(500), secuencia.get(500));
+		assertEquals(elementos.subList(1, 1000), secuencia.quitar(100).aLista());
+		assertEquals(Integer.valueOf(-1), secuencia.poner(1099, -1).get(999));
+	}
+
+	@Test
+	public void iteratorDesdeTest() {
+		SecuenciaPersistente<Integer> secuencia = SecuenciaPersistente.vacia();
+		for (int i = 0; i < 100; i++)
+			secuencia = secuencia.poner(i, i);
+		for (int desde = 0; desde <= 101; desde++) {
+			Iterator<Integer> iterador = secuencia.iterator(desde);
+			for (int i = desde; i < 100; i++)
+				assertEquals(Integer.valueOf(i), iterador.next());
+			assertTrue(!iterador.hasNext());
+		}
+	}
+
+	@Test
+	public void aleatorioTest() {
+		Random aleatorio = new Random(42);
+		TreeMap<Long, Integer> esperado = new TreeMap<Long, Integer>();
+		SecuenciaPersistente<Integer> secuencia = SecuenciaPersistente.vacia();
+		List<SecuenciaPersistente<Integer>> anteriores = new ArrayList<SecuenciaPersistente<Integer>>();
+		List<List<Integer>> contenidos = new ArrayList<List<Integer>>();
+		for (int i = 0; i < 20000; i++) {
+			long clave = aleatorio.nextInt(2000);
+			if (aleatorio.nextInt(3) == 0) {
+				esperado.remove(clave);
+				secuencia = secuencia.quitar(clave);
+			} else {
+				esperado.put(clave, i);
+				secuencia = secuencia.poner(clave, i);
+			}
+			assertEquals(esperado.size(), secuencia.getTamano());
+			if (i % 1000 == 0) {
+				anteriores.add(secuencia);
+				contenidos.add(new ArrayList<Integer>(esperado.values()));
+				int posicion = 0;
+				for (Map.Entry<Long, Integer> e : esperado.entrySet())
+					assertEquals(e.getValue(), secuencia.get(posicion++));
+			}
+		}
+		assertEquals(new ArrayList<Integer>(esperado.values()), secuencia.aLista());
+		for (int i = 0; i < anteriores.size(); i++)
+			assertEquals(contenidos.get(i), anteriores.get(i).aLista());
+	}
+
+}
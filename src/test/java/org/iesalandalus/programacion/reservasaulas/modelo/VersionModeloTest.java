@@ -0,0 +1,196 @@
+package org.iesalandalus.programacion.reservasaulas.modelo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.junit.Test;
+
+public class VersionModeloTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final LocalDate DIA = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+	private static final Profesor PROFESOR1 = new Profesor("José Ramón", "joseramon@gmail.com");
+	private static final Profesor PROFESOR2 = new Profesor("Andrés", "andres@gmail.com");
+	private static final Aula AULA1 = new Aula("Aula 1", 30);
+	private static final Aula AULA2 = new Aula("Aula 2", 30);
+
+	private static Reserva reserva(Profesor profesor, Aula aula, int hora) {
+		return new Reserva(profesor, aula, new PermanenciaPorHora(DIA, LocalTime.of(hora, 0)));
+	}
+
+	@Test
+	public void versionNoCambiaTest() throws OperationNotSupportedException {
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		VersionModelo vacia = modelo.getVersion();
+		modelo.insertarAula(AULA1);
+		modelo.insertarAula(AULA2);
+		modelo.insertarProfesor(PROFESOR1);
+		modelo.insertarProfesor(PROFESOR2);
+		modelo.realizarReserva(reserva(PROFESOR1, AULA1, 10));
+		modelo.realizarReserva(reserva(PROFESOR2, AULA2, 10));
+		modelo.realizarReserva(reserva(PROFESOR1, AULA2, 11));
+		VersionModelo antes = modelo.getVersion();
+		assertSame(antes, modelo.getVersion());
+		assertEquals(7, antes.getNumero());
+
+		assertEquals(1, modelo.borrarAula(AULA1));
+		modelo.anularReserva(reserva(PROFESOR2, AULA2, 10));
+		modelo.insertarAula(new Aula("Aula 3", 40));
+		VersionModelo despues = modelo.getVersion();
+
+		assertEquals(0, vacia.getNumAulas());
+		assertEquals(Arrays.asList(AULA1, AULA2), antes.getAulas());
+		assertEquals(Arrays.asList(PROFESOR1, PROFESOR2), antes.getProfesores());
+		assertEquals(3, antes.getNumReservas());
+		assertEquals(Arrays.asList(reserva(PROFESOR1, AULA1, 10), reserva(PROFESOR2, AULA2, 10),
+				reserva(PROFESOR1, AULA2, 11)), antes.getReservas());
+
+		assertEquals(10, despues.getNumero());
+		assertEquals(Arrays.asList(AULA2, new Aula("Aula 3", 40)), despues.getAulas());
+		assertEquals(Arrays.asList(reserva(PROFESOR1, AULA2, 11)), despues.getReservas());
+		assertEquals(modelo.representarReservas(), despues.representarReservas(0, 10));
+
+		assertEquals(1, modelo.borrarProfesor(PROFESOR1));
+		assertEquals(Arrays.asList(PROFESOR2), modelo.getProfesores());
+		assertEquals(0, modelo.getNumReservas());
+		assertEquals(1, despues.getNumReservas());
+	}
+
+	@Test
+	public void operacionFallidaNoPublicaTest() throws OperationNotSupportedException {
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		modelo.insertarAula(AULA1);
+		VersionModelo version = modelo.getVersion();
+		try {
+			modelo.insertarAula(AULA1);
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertSame(version, modelo.getVersion());
+		}
+		try {
+			modelo.anularReserva(reserva(PROFESOR1, AULA1, 10));
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertSame(version, modelo.getVersion());
+		}
+	}
+
+	@Test
+	public void representarTest() throws OperationNotSupportedException {
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		for (int i = 0; i < 25; i++)
+			modelo.insertarAula(new Aula("Aula " + i, 20));
+		VersionModelo version = modelo.getVersion();
+		assertEquals(modelo.getAulas().toString(), version.getAulas().toString());
+		assertEquals(Arrays.asList(new Aula("Aula 20", 20).toString(), new Aula("Aula 21", 20).toString()),
+				version.representarAulas(20, 2));
+		assertTrue(version.representarAulas(30, 2).isEmpty());
+		try {
+			version.representarAulas(-1, 2);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La posición de la página no puede ser negativa.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void cargarTest() throws OperationNotSupportedException {
+		ModeloReservasAulas modelo = new ModeloReservasAulas();
+		modelo.insertarAula(new Aula("Aula 9", 20));
+		modelo.cargar(Arrays.asList(AULA1, AULA2), Arrays.asList(PROFESOR1),
+				Arrays.asList(reserva(PROFESOR1, AULA1, 10), reserva(PROFESOR1, AULA2, 10)));
+		assertEquals(Arrays.asList(AULA1, AULA2), modelo.getAulas());
+		assertEquals(2, modelo.getVersion().getNumReservas());
+		// Las claves de lo cargado permiten quitarlo en las versiones siguientes
+		assertEquals(1, modelo.borrarAula(AULA1));
+		assertEquals(Arrays.asList(reserva(PROFESOR1, AULA2, 10)), modelo.getReservas());
+	}
+
+	@Test
+	public void lecturaMientrasSeEscribeTest() throws Exception {
+		final ModeloReservasAulas modelo = new ModeloReservasAulas();
+		final AtomicReference<String> error = new AtomicReference<String>();
+		Thread lector = new Thread() {
+			public void run() {
+				while (!isInterrupted()) {
+					VersionModelo version = modelo.getVersion();
+					// Cada reserva de la versión tiene su aula en la misma versión
+					List<Aula> aulas = version.getAulas();
+					for (Reserva r : version.getReservas())
+						if (!aulas.contains(r.getAula()))
+							error.set("Reserva sin aula en la versión " + version.getNumero());
+				}
+			}
+		};
+		lector.start();
+		for (int i = 0; i < 300; i++) {
+			Aula aula = new Aula("Aula " + i, 20);
+			Profesor profesor = new Profesor("Profesor " + i, "profesor" + i + "@gmail.com");
+			modelo.insertarAula(aula);
+			modelo.insertarProfesor(profesor);
+			modelo.realizarReserva(reserva(profesor, aula, 10));
+			modelo.realizarReserva(reserva(profesor, aula, 11));
+			if (i % 3 == 0)
+				modelo.borrarAula(aula);
+		}
+		lector.interrupt();
+		lector.join();
+		assertEquals(null, error.get());
+		assertEquals(200, modelo.getNumAulas());
+		assertEquals(400, modelo.getNumReservas());
+	}
+
+	@Test
+	public void consultaEntreDiasMientrasSeEscribeTest() throws Exception {
+		final ModeloReservasAulas modelo = new ModeloReservasAulas();
+		final Aula aula = new Aula("Aula 0", 20);
+		final Profesor profesor = new Profesor("Profesor 0", "profesor@gmail.com");
+		final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+		Thread lector = new Thread() {
+			public void run() {
+				try {
+					while (!isInterrupted()) {
+						modelo.getReservas(DIA, DIA).count();
+						modelo.getReservasAula(aula, DIA, DIA).count();
+						modelo.getReservasProfesor(profesor, DIA, DIA).count();
+					}
+				} catch (Throwable e) {
+					error.set(e);
+				}
+			}
+		};
+		lector.start();
+		// Cada profesor hace diez reservas para no pasar de los puntos del mes
+		for (int i = 0; i < 2000; i++) {
+			Aula reservada = i < 10 ? aula : new Aula("Aula " + i / 10, 20);
+			Profesor autor = i < 10 ? profesor : new Profesor("Profesor " + i / 10, "profesor@gmail.com");
+			if (i % 10 == 0) {
+				modelo.insertarAula(reservada);
+				modelo.insertarProfesor(autor);
+			}
+			modelo.realizarReserva(new Reserva(autor, reservada,
+					new PermanenciaPorHora(DIA, LocalTime.of(PermanenciaPorHora.HORA_INICIO + i % 10, 0))));
+		}
+		for (int i = 0; i < 1000; i++)
+			modelo.anularReserva(modelo.getReservas().get(i));
+		lector.interrupt();
+		lector.join();
+		assertEquals(null, error.get());
+		assertEquals(1000, modelo.getReservas(DIA, DIA).count());
+	}
+
+}
@@ -14,12 +14,12 @@ public class AulasTest {
 	
 	private static final String NOMBRE_AULA1 = "Aula 1";
 	private static final String NOMBRE_AULA2 = "Aula 2";
-	private static final String NOMBRE_SALON = "Saln de actos";
+	private static final String NOMBRE_SALON = "Salón de actos";
 	private static final int PUESTOS1 = 30;
 	private static final int PUESTOS2 = 40;
 	private static final int PUESTOS3 = 100;
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
 	
 	private final Aula aula1 = new Aula(NOMBRE_AULA1, PUESTOS1);
 	private final Aula aula2 = new Aula(NOMBRE_AULA2, PUESTOS2);
@@ -203,7 +203,7 @@ public class AulasTest {
 	public void borrarNoValidoTest() {
 		Aulas aulas = insertarTres();
 		try {
-			Aula aula = new Aula("Saln 2", 50);
+			Aula aula = new Aula("Salón 2", 50);
 			aulas.borrar(aula);
 			fail(ERROR_EXCEPCION);
 		} catch (OperationNotSupportedException e) {
@@ -231,12 +231,51 @@ public class AulasTest {
 		}
 	}
 	
+	@Test
+	public void buscarPorNombreTest() {
+		Aulas aulas = new Aulas();
+		try {
+			aulas.insertar(aula1);
+			Aula buscada = aulas.buscar(new Aula(NOMBRE_AULA1, PUESTOS3));
+			assertEquals(PUESTOS1, buscada.getPuestos());
+			assertNull(aulas.buscar(new Aula(NOMBRE_AULA2, PUESTOS1)));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
 	@Test
 	public void buscarNuloTest() {
 		Aulas aulas = insertarTres();
 		assertNull(aulas.buscar(null));
 	}
 	
+	@Test
+	public void getAulasConPuestosTest() {
+		Aulas aulas = insertarTres();
+		Aula otraAula = new Aula("Aula 3", PUESTOS1);
+		try {
+			aulas.insertar(otraAula);
+			List<Aula> conPuestos = aulas.getAulasConPuestos(PUESTOS1);
+			assertEquals(4, conPuestos.size());
+			assertEquals(aula1, conPuestos.get(0));
+			assertEquals(otraAula, conPuestos.get(1));
+			assertEquals(aula2, conPuestos.get(2));
+			assertEquals(salon, conPuestos.get(3));
+			conPuestos = aulas.getAulasConPuestos(PUESTOS1 + 1);
+			assertEquals(2, conPuestos.size());
+			assertEquals(aula2, conPuestos.get(0));
+			aulas.borrar(aula2);
+			conPuestos = aulas.getAulasConPuestos(PUESTOS1 + 1);
+			assertEquals(1, conPuestos.size());
+			assertEquals(salon, conPuestos.get(0));
+			assertEquals(0, aulas.getAulasConPuestos(PUESTOS3 + 1).size());
+			assertEquals(3, new Aulas(aulas).getAulasConPuestos(0).size());
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
 	@Test
 	public void representarTest() {
 		Aulas aulas = insertarTres();
@@ -246,4 +285,27 @@ public class AulasTest {
 		assertEquals(salon.toString(), representacion.get(2));
 	}
 
+	@Test
+	public void representarPaginaTest() {
+		Aulas aulas = insertarTres();
+		List<String> pagina = aulas.representar(1, 5);
+		assertEquals(2, pagina.size());
+		assertEquals(aula2.toString(), pagina.get(0));
+		assertEquals(salon.toString(), pagina.get(1));
+		assertTrue(aulas.representar(3, 5).isEmpty());
+	}
+
+	@Test
+	public void representarPaginaBorradaTest() throws OperationNotSupportedException {
+		Aulas aulas = insertarTres();
+		aulas.borrar(aula1);
+		List<String> pagina = aulas.representar(1, 5);
+		assertEquals(1, pagina.size());
+		assertEquals(salon.toString(), pagina.get(0));
+		aulas.insertar(aula1);
+		pagina = aulas.representar(1, 5);
+		assertEquals(2, pagina.size());
+		assertEquals(aula1.toString(), pagina.get(1));
+	}
+
 }
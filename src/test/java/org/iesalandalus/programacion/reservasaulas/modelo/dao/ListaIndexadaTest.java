@@ -0,0 +1,76 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class ListaIndexadaTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+
+	@Test
+	public void anadirYQuitarTest() {
+		String a = "a", b = "b", c = "c";
+		ListaIndexada<String> lista = new ListaIndexada<String>(Arrays.asList(a, b));
+		lista.add(c);
+		assertEquals(Arrays.asList("a", "b", "c"), lista);
+		assertTrue(lista.quitar(b));
+		assertFalse(lista.quitar(b));
+		// Se quita por identidad, no por igualdad
+		assertFalse(lista.quitar(new String("a")));
+		assertEquals(Arrays.asList("a", "c"), lista);
+		assertEquals("c", lista.get(1));
+		assertTrue(lista.getOrden(a) < lista.getOrden(c));
+		assertEquals(-1, lista.getOrden(b));
+		try {
+			lista.get(2);
+			fail(ERROR_EXCEPCION);
+		} catch (IndexOutOfBoundsException e) {
+			assertEquals("La posición 2 no existe.", e.getMessage());
+		}
+		try {
+			lista.add(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede añadir un elemento nulo.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void mismoComportamientoQueArrayListTest() {
+		Random aleatorio = new Random(7);
+		ListaIndexada<Integer> lista = new ListaIndexada<Integer>();
+		List<Integer> esperada = new ArrayList<Integer>();
+		for (int i = 0; i < 5000; i++) {
+			if (esperada.isEmpty() || aleatorio.nextInt(3) > 0) {
+				Integer nuevo = Integer.valueOf(i);
+				lista.add(nuevo);
+				esperada.add(nuevo);
+			} else {
+				Integer quitado = esperada.remove(aleatorio.nextInt(esperada.size()));
+				assertTrue(lista.quitar(quitado));
+			}
+			assertEquals(esperada.size(), lista.size());
+			if (i % 97 == 0) {
+				assertEquals(esperada, lista);
+				int desde = esperada.isEmpty() ? 0 : aleatorio.nextInt(esperada.size());
+				assertEquals(esperada.get(desde), lista.get(desde));
+				Iterator<Integer> iterador = lista.iterator(desde);
+				for (int j = desde; j < esperada.size(); j++)
+					assertEquals(esperada.get(j), iterador.next());
+				assertFalse(iterador.hasNext());
+			}
+		}
+		assertFalse(lista.iterator(esperada.size()).hasNext());
+	}
+
+}
@@ -0,0 +1,108 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+import org.junit.Test;
+
+public class OcupacionAulasTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+
+	private static final LocalDate DIA = LocalDate.now().plusMonths(1);
+	private static final Aula AULA1 = new Aula("Aula 1", 30);
+	private static final Aula AULA2 = new Aula("Aula 2", 30);
+	private static final Permanencia PRIMERA_HORA = new PermanenciaPorHora(DIA, LocalTime.of(8, 0));
+	private static final Permanencia ULTIMA_HORA = new PermanenciaPorHora(DIA, LocalTime.of(22, 0));
+	private static final Permanencia MANANA = new PermanenciaPorTramo(DIA, Tramo.MANANA);
+	private static final Permanencia TARDE = new PermanenciaPorTramo(DIA, Tramo.TARDE);
+
+	@Test
+	public void ocuparLiberarTest() {
+		OcupacionAulas ocupacion = new OcupacionAulas();
+		assertFalse(ocupacion.estaOcupada(AULA1, PRIMERA_HORA));
+		ocupacion.ocupar(AULA1, PRIMERA_HORA);
+		ocupacion.ocupar(AULA1, ULTIMA_HORA);
+		assertTrue(ocupacion.estaOcupada(AULA1, PRIMERA_HORA));
+		assertTrue(ocupacion.estaOcupada(AULA1, ULTIMA_HORA));
+		assertFalse(ocupacion.estaOcupada(AULA2, PRIMERA_HORA));
+		assertTrue(ocupacion.tieneReservasPorHora(AULA1, DIA));
+		assertFalse(ocupacion.tieneReservasPorTramo(AULA1, DIA));
+		ocupacion.liberar(AULA1, PRIMERA_HORA);
+		assertFalse(ocupacion.estaOcupada(AULA1, PRIMERA_HORA));
+		assertTrue(ocupacion.estaOcupada(AULA1, ULTIMA_HORA));
+		ocupacion.liberar(AULA1, ULTIMA_HORA);
+		assertFalse(ocupacion.tieneReservasPorHora(AULA1, DIA));
+	}
+
+	@Test
+	public void tramosTest() {
+		OcupacionAulas ocupacion = new OcupacionAulas();
+		ocupacion.ocupar(AULA1, MANANA);
+		assertTrue(ocupacion.estaOcupada(AULA1, MANANA));
+		assertFalse(ocupacion.estaOcupada(AULA1, TARDE));
+		assertTrue(ocupacion.tieneReservasPorTramo(AULA1, DIA));
+		assertFalse(ocupacion.tieneReservasPorHora(AULA1, DIA));
+		assertFalse(ocupacion.tieneReservasPorTramo(AULA1, DIA.plusDays(1)));
+	}
+
+	@Test
+	public void getPermanenciasLibresTest() {
+		OcupacionAulas ocupacion = new OcupacionAulas();
+		assertEquals(17, ocupacion.getPermanenciasLibres(AULA1, DIA).size());
+		ocupacion.ocupar(AULA1, PRIMERA_HORA);
+		List<Permanencia> libres = ocupacion.getPermanenciasLibres(AULA1, DIA);
+		assertEquals(14, libres.size());
+		assertFalse(libres.contains(PRIMERA_HORA));
+		assertTrue(libres.contains(ULTIMA_HORA));
+		ocupacion = new OcupacionAulas();
+		ocupacion.ocupar(AULA1, TARDE);
+		libres = ocupacion.getPermanenciasLibres(AULA1, DIA);
+		assertEquals(1, libres.size());
+		assertEquals(MANANA, libres.get(0));
+	}
+
+	@Test
+	public void estaLibreTest() {
+		OcupacionAulas ocupacion = new OcupacionAulas();
+		assertTrue(ocupacion.estaLibre(AULA1, PRIMERA_HORA));
+		assertTrue(ocupacion.estaLibre(AULA1, MANANA));
+		ocupacion.ocupar(AULA1, PRIMERA_HORA);
+		assertFalse(ocupacion.estaLibre(AULA1, PRIMERA_HORA));
+		assertTrue(ocupacion.estaLibre(AULA1, ULTIMA_HORA));
+		assertFalse(ocupacion.estaLibre(AULA1, TARDE));
+		ocupacion.ocupar(AULA2, MANANA);
+		assertFalse(ocupacion.estaLibre(AULA2, MANANA));
+		assertTrue(ocupacion.estaLibre(AULA2, TARDE));
+		assertFalse(ocupacion.estaLibre(AULA2, ULTIMA_HORA));
+		assertTrue(ocupacion.estaLibre(AULA2, new PermanenciaPorHora(DIA.plusDays(1), LocalTime.of(8, 0))));
+	}
+
+	@Test
+	public void nulosTest() {
+		OcupacionAulas ocupacion = new OcupacionAulas();
+		try {
+			ocupacion.ocupar(null, MANANA);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede consultar la ocupación de un aula nula.", e.getMessage());
+		}
+		try {
+			ocupacion.estaOcupada(AULA1, null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede consultar la ocupación de una permanencia nula.", e.getMessage());
+		}
+	}
+}
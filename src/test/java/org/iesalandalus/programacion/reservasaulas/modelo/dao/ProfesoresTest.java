@@ -14,14 +14,14 @@ import org.junit.Test;
 
 public class ProfesoresTest {
 
-	private static final String NOMBRE_PROFESOR1 = "Jos Ramn";
-	private static final String NOMBRE_PROFESOR2 = "Andrs";
-	private static final String NOMBRE_PROFESOR3 = "Begoa";
+	private static final String NOMBRE_PROFESOR1 = "José Ramón";
+	private static final String NOMBRE_PROFESOR2 = "Andrés";
+	private static final String NOMBRE_PROFESOR3 = "Begoña";
 	private static final String CORREO_PROFESOR1 = "a@b.cc";
 	private static final String CORREO_PROFESOR2 = "b@c.dd";
 	private static final String CORREO_PROFESOR3 = "c@d.ee";
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
 	
 	private final Profesor profesor1 = new Profesor(NOMBRE_PROFESOR1, CORREO_PROFESOR1);
 	private final Profesor profesor2 = new Profesor(NOMBRE_PROFESOR2, CORREO_PROFESOR2);
@@ -233,6 +233,19 @@ public class ProfesoresTest {
 		}
 	}
 	
+	@Test
+	public void buscarPorNombreTest() {
+		Profesores profesores = new Profesores();
+		try {
+			profesores.insertar(profesor1);
+			Profesor buscado = profesores.buscar(new Profesor(NOMBRE_PROFESOR1, CORREO_PROFESOR3));
+			assertEquals(CORREO_PROFESOR1, buscado.getCorreo());
+			assertNull(profesores.buscar(new Profesor(NOMBRE_PROFESOR2, CORREO_PROFESOR1)));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
 	@Test
 	public void buscarNuloTest() {
 		Profesores profesores = insertarTres();
@@ -248,4 +261,17 @@ public class ProfesoresTest {
 		assertEquals(profesor3.toString(), representacion.get(2));
 	}
 
+	@Test
+	public void representarPaginaTest() throws OperationNotSupportedException {
+		Profesores profesores = insertarTres();
+		List<String> pagina = profesores.representar(1, 1);
+		assertEquals(1, pagina.size());
+		assertEquals(profesor2.toString(), pagina.get(0));
+		profesores.borrar(profesor2);
+		pagina = profesores.representar(1, 5);
+		assertEquals(1, pagina.size());
+		assertEquals(profesor3.toString(), pagina.get(0));
+		assertEquals(0, profesores.representar(2, 5).size());
+	}
+
 }
@@ -0,0 +1,329 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+import org.junit.Test;
+
+public class ReservasColumnarTest {
+
+	private static final String CORREO = "a@b.cc";
+	private static final LocalDate MES_SIGUIENTE = LocalDate.now().plusMonths(1);
+	private static final LocalDate DIA1 = LocalDate.of(MES_SIGUIENTE.getYear(), MES_SIGUIENTE.getMonthValue(), 1);
+	private static final LocalDate DIA2 = DIA1.plusDays(1);
+	private static final LocalTime HORA1 = LocalTime.of(10, 0);
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepcón.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	private static final Profesor PROFESOR1 = new Profesor("José Ramón", CORREO);
+	private static final Profesor PROFESOR2 = new Profesor("Andrés", CORREO);
+	private static final Aula AULA1 = new Aula("Aula 1", 30);
+	private static final Aula AULA2 = new Aula("Aula 2", 50);
+	private static final Permanencia TRAMO_DIA1 = new PermanenciaPorTramo(DIA1, Tramo.MANANA);
+	private static final Permanencia HORA_DIA1 = new PermanenciaPorHora(DIA1, HORA1);
+	private static final Permanencia HORA_DIA2 = new PermanenciaPorHora(DIA2, HORA1);
+	private static final Reserva RESERVA1 = new Reserva(PROFESOR1, AULA1, TRAMO_DIA1);
+	private static final Reserva RESERVA2 = new Reserva(PROFESOR1, AULA1, HORA_DIA2);
+	private static final Reserva RESERVA3 = new Reserva(PROFESOR2, AULA2, TRAMO_DIA1);
+
+	@Test
+	public void insertarBuscarBorrarTest() {
+		ReservasColumnar reservas = new ReservasColumnar();
+		try {
+			reservas.insertar(RESERVA1);
+			reservas.insertar(RESERVA2);
+			reservas.insertar(RESERVA3);
+			assertEquals(3, reservas.getNumReservas());
+			Reserva encontrada = reservas.buscar(new Reserva(PROFESOR2, AULA1, TRAMO_DIA1));
+			assertEquals(RESERVA1, encontrada);
+			assertEquals(PROFESOR1, encontrada.getProfesor());
+			assertEquals(30, encontrada.getAula().getPuestos());
+			assertNull(reservas.buscar(new Reserva(PROFESOR1, AULA2, HORA_DIA2)));
+			reservas.borrar(RESERVA1);
+			assertEquals(2, reservas.getNumReservas());
+			assertNull(reservas.buscar(RESERVA1));
+			assertEquals(RESERVA2, reservas.buscar(RESERVA2));
+			assertEquals(RESERVA3, reservas.buscar(RESERVA3));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void insertarRestriccionesTest() {
+		ReservasColumnar reservas = new ReservasColumnar();
+		try {
+			reservas.insertar(RESERVA1);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		comprobarInsertar(reservas, RESERVA1, "La reserva ya existe.");
+		comprobarInsertar(reservas, new Reserva(PROFESOR2, AULA1, HORA_DIA1),
+				"Ya se ha realizado una reserva por tramo para este día y aula.");
+		comprobarInsertar(reservas, new Reserva(PROFESOR2, AULA2, new PermanenciaPorHora(LocalDate.now(), HORA1)),
+				"Sólo se pueden hacer reservas para el mes que viene o posteriores.");
+		try {
+			reservas.insertar(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede realizar una reserva nula.", e.getMessage());
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_EXCEPCION);
+		}
+		try {
+			reservas.borrar(RESERVA3);
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals("La reserva a anular no existe.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void insertarPuntosTest() {
+		ReservasColumnar reservas = new ReservasColumnar();
+		Aula salon = new Aula("Salón", 100);
+		Tramo[] tramos = Tramo.values();
+		// Cada reserva por tramo en el salón cuesta 60 puntos: caben tres en un mes
+		try {
+			for (int i = 0; i < 3; i++)
+				reservas.insertar(new Reserva(PROFESOR1, salon, new PermanenciaPorTramo(DIA1.plusDays(i), tramos[0])));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(180f, reservas.getPuntosGastados(PROFESOR1, YearMonth.from(DIA1)), 0.001f);
+		comprobarInsertar(reservas, new Reserva(PROFESOR1, salon, new PermanenciaPorTramo(DIA1.plusDays(5), tramos[0])),
+				"Esta reserva excede los puntos máximos por mes para dicho profesor.");
+		assertEquals(3, reservas.borrarReservasProfesor(PROFESOR1).size());
+		assertEquals(0f, reservas.getPuntosGastados(PROFESOR1, YearMonth.from(DIA1)), 0.001f);
+		assertEquals(0, reservas.getNumReservas());
+	}
+
+	@Test
+	public void consultarDisponibilidadTest() {
+		ReservasColumnar reservas = new ReservasColumnar();
+		try {
+			reservas.insertar(RESERVA1);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertFalse(reservas.consultarDisponibilidad(AULA1, TRAMO_DIA1));
+		assertTrue(reservas.consultarDisponibilidad(AULA2, TRAMO_DIA1));
+		assertFalse(reservas.estaLibre(AULA1, HORA_DIA1));
+		try {
+			reservas.consultarDisponibilidad(AULA1, HORA_DIA1);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("Las reservas realizadas para ese aula y día son por tramo.", e.getMessage());
+		}
+		assertEquals(Tramo.values().length - 1, reservas.getPermanenciasLibres(AULA1, DIA1).size());
+	}
+
+	@Test
+	public void modeloConReservasColumnarTest() throws OperationNotSupportedException {
+		ModeloReservasAulas modelo = ModeloReservasAulas.conReservas(new ReservasColumnar());
+		modelo.insertarAula(AULA1);
+		modelo.insertarProfesor(PROFESOR1);
+		modelo.realizarReserva(RESERVA1);
+		assertEquals(1, modelo.getNumReservas());
+		assertFalse(modelo.consultarDisponibilidad(AULA1, TRAMO_DIA1));
+		assertTrue(modelo.consultarDisponibilidad(AULA1, HORA_DIA2));
+		// Las reservas sólo están en la colección columnar, no en una versión
+		assertNull(modelo.getVersion());
+		assertEquals(RESERVA1, modelo.getReservas().get(0));
+		assertEquals(1, modelo.representarReservas().size());
+		modelo.anularReserva(RESERVA1);
+		assertEquals(0, modelo.getNumReservas());
+		assertEquals(1, modelo.getNumAulas());
+		try {
+			ModeloReservasAulas.conReservas(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La colección de reservas no puede ser nula.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void borrarReservasAnterioresTest() {
+		IReservas[] colecciones = { new Reservas(), new ReservasColumnar() };
+		for (IReservas reservas : colecciones) {
+			List<Reserva> cargar = new ArrayList<Reserva>();
+			cargar.add(RESERVA1);
+			cargar.add(RESERVA2);
+			cargar.add(RESERVA3);
+			reservas.cargar(cargar);
+			assertTrue(reservas.borrarReservasAnteriores(DIA1).isEmpty());
+			List<Reserva> borradas = reservas.borrarReservasAnteriores(DIA2);
+			assertEquals(2, borradas.size());
+			assertTrue(borradas.contains(RESERVA1));
+			assertTrue(borradas.contains(RESERVA3));
+			assertEquals(1, reservas.getNumReservas());
+			assertTrue(reservas.estaLibre(AULA2, TRAMO_DIA1));
+			assertFalse(reservas.estaLibre(AULA1, HORA_DIA2));
+			assertEquals(RESERVA2.getPuntos(), reservas.getPuntosGastados(PROFESOR1, YearMonth.from(DIA1)), 0.001f);
+			try {
+				reservas.borrarReservasAnteriores(null);
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("No se pueden borrar las reservas anteriores a un día nulo.", e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void mismoComportamientoQueReservasTest() {
+		Reservas esperadas = new Reservas();
+		ReservasColumnar reservas = new ReservasColumnar();
+		Random aleatorio = new Random(15);
+		List<Profesor> profesores = new ArrayList<Profesor>();
+		List<Aula> aulas = new ArrayList<Aula>();
+		for (int i = 0; i < 8; i++) {
+			profesores.add(new Profesor("Profesor " + i, CORREO));
+			aulas.add(new Aula("Aula " + i, 10 + 10 * i));
+		}
+		Tramo[] tramos = Tramo.values();
+		for (int i = 0; i < 3000; i++) {
+			Profesor profesor = profesores.get(aleatorio.nextInt(profesores.size()));
+			Aula aula = aulas.get(aleatorio.nextInt(aulas.size()));
+			LocalDate dia = DIA1.plusDays(aleatorio.nextInt(60));
+			Permanencia permanencia = aleatorio.nextInt(4) == 0
+					? new PermanenciaPorTramo(dia, tramos[aleatorio.nextInt(tramos.length)])
+					: new PermanenciaPorHora(dia, LocalTime.of(8 + aleatorio.nextInt(15), 0));
+			Reserva reserva = new Reserva(profesor, aula, permanencia);
+			int operacion = aleatorio.nextInt(100);
+			if (operacion < 70)
+				assertEquals(insertar(esperadas, reserva), insertar(reservas, reserva));
+			else if (operacion < 95)
+				assertEquals(borrar(esperadas, reserva), borrar(reservas, reserva));
+			else if (operacion < 98)
+				assertEquals(new HashSet<Reserva>(esperadas.borrarReservasAula(aula)),
+						new HashSet<Reserva>(reservas.borrarReservasAula(aula)));
+			else
+				assertEquals(new HashSet<Reserva>(esperadas.borrarReservasProfesor(profesor)),
+						new HashSet<Reserva>(reservas.borrarReservasProfesor(profesor)));
+			assertEquals(esperadas.getNumReservas(), reservas.getNumReservas());
+			assertEquals(esperadas.estaLibre(aula, permanencia), reservas.estaLibre(aula, permanencia));
+			assertEquals(esperadas.getPuntosGastados(profesor, YearMonth.from(dia)),
+					reservas.getPuntosGastados(profesor, YearMonth.from(dia)), 0.001f);
+		}
+		assertEquals(new HashSet<Reserva>(esperadas.getReservas()), new HashSet<Reserva>(reservas.getReservas()));
+		for (Aula aula : aulas) {
+			assertEquals(new HashSet<Reserva>(esperadas.getReservasAula(aula)),
+					new HashSet<Reserva>(reservas.getReservasAula(aula)));
+			assertEquals(esperadas.getPermanenciasLibres(aula, DIA2), reservas.getPermanenciasLibres(aula, DIA2));
+		}
+		LocalDate desde = DIA1.plusDays(10);
+		LocalDate hasta = DIA1.plusDays(20);
+		List<Reserva> entreDias = reservas.getReservas(desde, hasta).collect(Collectors.toList());
+		assertEquals(esperadas.getReservas(desde, hasta).count(), entreDias.size());
+		for (int i = 1; i < entreDias.size(); i++)
+			assertFalse(entreDias.get(i).getPermanencia().getDia()
+					.isBefore(entreDias.get(i - 1).getPermanencia().getDia()));
+		Profesor profesor = profesores.get(0);
+		assertEquals(esperadas.getReservasProfesor(profesor, desde, hasta).collect(Collectors.toSet()),
+				reservas.getReservasProfesor(profesor, desde, hasta).collect(Collectors.toSet()));
+	}
+
+	@Test
+	public void consultasPorIndicesTest() {
+		Reservas esperadas = new Reservas();
+		ReservasColumnar reservas = new ReservasColumnar();
+		Random aleatorio = new Random(16);
+		List<Profesor> profesores = new ArrayList<Profesor>();
+		List<Aula> aulas = new ArrayList<Aula>();
+		for (int i = 0; i < 6; i++) {
+			profesores.add(new Profesor("Profesor " + i, CORREO));
+			aulas.add(new Aula("Aula " + i, 10 + 10 * i));
+		}
+		Tramo[] tramos = Tramo.values();
+		for (int i = 0; i < 4000; i++) {
+			Profesor profesor = profesores.get(aleatorio.nextInt(profesores.size()));
+			Aula aula = aulas.get(aleatorio.nextInt(aulas.size()));
+			LocalDate dia = DIA1.plusDays(aleatorio.nextInt(120));
+			Permanencia permanencia = aleatorio.nextInt(4) == 0
+					? new PermanenciaPorTramo(dia, tramos[aleatorio.nextInt(tramos.length)])
+					: new PermanenciaPorHora(dia, LocalTime.of(8 + aleatorio.nextInt(15), 0));
+			Reserva reserva = new Reserva(profesor, aula, permanencia);
+			if (aleatorio.nextInt(100) < 65)
+				assertEquals(insertar(esperadas, reserva), insertar(reservas, reserva));
+			else
+				assertEquals(borrar(esperadas, reserva), borrar(reservas, reserva));
+		}
+		for (Profesor profesor : profesores) {
+			List<Reserva> delProfesor = reservas.getReservasProfesor(profesor);
+			assertEquals(esperadas.getReservasProfesor(profesor).size(), delProfesor.size());
+			assertEquals(new HashSet<Reserva>(esperadas.getReservasProfesor(profesor)),
+					new HashSet<Reserva>(delProfesor));
+			for (Reserva r : delProfesor)
+				assertEquals(profesor, r.getProfesor());
+		}
+		for (int i = 0; i < 20; i++) {
+			LocalDate desde = DIA1.plusDays(aleatorio.nextInt(120));
+			LocalDate hasta = desde.plusDays(aleatorio.nextInt(40));
+			List<Reserva> entreDias = reservas.getReservas(desde, hasta).collect(Collectors.toList());
+			assertEquals(esperadas.getReservas(desde, hasta).collect(Collectors.toSet()),
+					new HashSet<Reserva>(entreDias));
+			for (int j = 1; j < entreDias.size(); j++)
+				assertFalse(entreDias.get(j).getPermanencia().getDia()
+						.isBefore(entreDias.get(j - 1).getPermanencia().getDia()));
+			Profesor profesor = profesores.get(aleatorio.nextInt(profesores.size()));
+			assertEquals(esperadas.getReservasProfesor(profesor, desde, hasta).collect(Collectors.toSet()),
+					reservas.getReservasProfesor(profesor, desde, hasta).collect(Collectors.toSet()));
+			Permanencia permanencia = new PermanenciaPorHora(desde, LocalTime.of(8 + aleatorio.nextInt(15), 0));
+			assertEquals(new HashSet<Reserva>(esperadas.getReservasPermanencia(permanencia)),
+					new HashSet<Reserva>(reservas.getReservasPermanencia(permanencia)));
+			permanencia = new PermanenciaPorTramo(desde, tramos[aleatorio.nextInt(tramos.length)]);
+			assertEquals(new HashSet<Reserva>(esperadas.getReservasPermanencia(permanencia)),
+					new HashSet<Reserva>(reservas.getReservasPermanencia(permanencia)));
+		}
+	}
+
+	private static void comprobarInsertar(ReservasColumnar reservas, Reserva reserva, String mensaje) {
+		try {
+			reservas.insertar(reserva);
+			fail(ERROR_EXCEPCION);
+		} catch (OperationNotSupportedException e) {
+			assertEquals(mensaje, e.getMessage());
+		}
+	}
+
+	private static String insertar(IReservas reservas, Reserva reserva) {
+		try {
+			reservas.insertar(reserva);
+			return null;
+		} catch (OperationNotSupportedException e) {
+			return e.getMessage();
+		}
+	}
+
+	private static String borrar(IReservas reservas, Reserva reserva) {
+		try {
+			reservas.borrar(reserva);
+			return null;
+		} catch (OperationNotSupportedException e) {
+			return e.getMessage();
+		}
+	}
+
+}
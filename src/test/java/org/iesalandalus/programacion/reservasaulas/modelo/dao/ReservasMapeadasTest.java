@@ -0,0 +1,284 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+import org.junit.Test;
+
+public class ReservasMapeadasTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	private static final LocalDate MES_SIGUIENTE = LocalDate.now().plusMonths(1);
+	private static final LocalDate DIA1 = LocalDate.of(MES_SIGUIENTE.getYear(), MES_SIGUIENTE.getMonthValue(), 1);
+	private static final Profesor PROFESOR1 = new Profesor("José Ramón", "joseramon@gmail.com", "950112233");
+	private static final Profesor PROFESOR2 = new Profesor("Andrés", "andres@gmail.com");
+	private static final Aula AULA1 = new Aula("Aula 1", 30);
+	private static final Aula AULA2 = new Aula("Aula 2", 20);
+	private static final Reserva RESERVA1 = new Reserva(PROFESOR1, AULA1,
+			new PermanenciaPorHora(DIA1, LocalTime.of(9, 0)));
+	private static final Reserva RESERVA2 = new Reserva(PROFESOR2, AULA2, new PermanenciaPorTramo(DIA1, Tramo.TARDE));
+	private static final Reserva RESERVA3 = new Reserva(PROFESOR2, AULA1,
+			new PermanenciaPorHora(DIA1.plusDays(1), LocalTime.of(10, 0)));
+
+	private static void borrarDirectorio(Path directorio) throws IOException {
+		for (String fichero : new String[] { "reservas.dat", "ocupacion.dat", "puntos.dat", "diccionario.dat" })
+			Files.deleteIfExists(directorio.resolve(fichero));
+		Files.deleteIfExists(directorio);
+	}
+
+	@Test
+	public void constructorNoValidoTest() throws IOException {
+		try {
+			new ReservasMapeadas(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El directorio del almacén no puede ser nulo.", e.getMessage());
+		}
+		Path directorio = Files.createTempDirectory("reservas");
+		try {
+			Files.write(directorio.resolve("reservas.dat"), new byte[33]);
+			new ReservasMapeadas(directorio);
+			fail(ERROR_EXCEPCION);
+		} catch (IOException e) {
+			assertEquals("El directorio no contiene un almacén de reservas válido.", e.getMessage());
+		} finally {
+			borrarDirectorio(directorio);
+		}
+	}
+
+	@Test
+	public void constructorCierraAlFallarTest() throws IOException {
+		Path directorio = Files.createTempDirectory("reservas");
+		try {
+			ReservasMapeadas reservas = new ReservasMapeadas(directorio);
+			reservas.insertar(RESERVA1);
+			reservas.cerrar();
+			Files.write(directorio.resolve("diccionario.dat"), new byte[] { 7 });
+			try {
+				new ReservasMapeadas(directorio);
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertEquals("El directorio no contiene un almacén de reservas válido.", e.getMessage());
+			}
+			Files.delete(directorio.resolve("diccionario.dat"));
+			reservas = new ReservasMapeadas(directorio);
+			assertEquals(1, reservas.getNumReservas());
+			reservas.cerrar();
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			borrarDirectorio(directorio);
+		}
+	}
+
+	@Test
+	public void sinCerrarTest() throws IOException {
+		Path directorio = Files.createTempDirectory("reservas");
+		try {
+			ReservasMapeadas reservas = new ReservasMapeadas(directorio);
+			// Abrirlo sin cambios no lo marca
+			new ReservasMapeadas(directorio).cerrar();
+			reservas.insertar(RESERVA1);
+			try {
+				new ReservasMapeadas(directorio);
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertEquals("El almacén de reservas no se cerró bien y hay que volver a cargarlo en uno nuevo.",
+						e.getMessage());
+			}
+			reservas.sincronizar();
+			ReservasMapeadas reabiertas = new ReservasMapeadas(directorio);
+			assertEquals(1, reabiertas.getNumReservas());
+			reabiertas.cerrar();
+			reservas.borrar(RESERVA1);
+			try {
+				new ReservasMapeadas(directorio);
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertEquals("El almacén de reservas no se cerró bien y hay que volver a cargarlo en uno nuevo.",
+						e.getMessage());
+			}
+			reservas.cerrar();
+			reabiertas = new ReservasMapeadas(directorio);
+			assertEquals(0, reabiertas.getNumReservas());
+			reabiertas.cerrar();
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			borrarDirectorio(directorio);
+		}
+	}
+
+	@Test
+	public void reabrirTest() throws IOException {
+		Path directorio = Files.createTempDirectory("reservas");
+		try {
+			ReservasMapeadas reservas = new ReservasMapeadas(directorio);
+			reservas.insertar(RESERVA1);
+			reservas.insertar(RESERVA2);
+			reservas.insertar(RESERVA3);
+			reservas.borrar(RESERVA1);
+			reservas.cerrar();
+			ReservasMapeadas reabiertas = new ReservasMapeadas(directorio);
+			assertEquals(2, reabiertas.getNumReservas());
+			assertNull(reabiertas.buscar(RESERVA1));
+			assertEquals(PROFESOR2, reabiertas.buscar(RESERVA2).getProfesor());
+			assertEquals(20, reabiertas.buscar(RESERVA2).getAula().getPuestos());
+			assertTrue(reabiertas.consultarDisponibilidad(AULA1, RESERVA1.getPermanencia()));
+			assertFalse(reabiertas.consultarDisponibilidad(AULA2, RESERVA2.getPermanencia()));
+			assertEquals(RESERVA2.getPuntos() + RESERVA3.getPuntos(),
+					reabiertas.getPuntosGastados(PROFESOR2, YearMonth.from(DIA1)), 0.001f);
+			assertEquals(0f, reabiertas.getPuntosGastados(PROFESOR1, YearMonth.from(DIA1)), 0.001f);
+			reabiertas.insertar(RESERVA1);
+			assertEquals("950112233", reabiertas.buscar(RESERVA1).getProfesor().getTelefono());
+			try {
+				reabiertas.insertar(RESERVA3);
+				fail(ERROR_EXCEPCION);
+			} catch (OperationNotSupportedException e) {
+				assertEquals("La reserva ya existe.", e.getMessage());
+			}
+			reabiertas.cerrar();
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			borrarDirectorio(directorio);
+		}
+	}
+
+	@Test
+	public void ampliarTest() throws IOException {
+		Path directorio = Files.createTempDirectory("reservas");
+		try {
+			// Más filas y más pares de aula y día de los que caben al crear el almacén
+			List<Aula> aulas = new ArrayList<Aula>();
+			for (int i = 0; i < 50; i++)
+				aulas.add(new Aula("Aula " + i, 10));
+			List<Reserva> cargadas = new ArrayList<Reserva>();
+			for (int i = 0; i < 3000; i++) {
+				Profesor profesor = new Profesor("Profesor " + i / 20, "a@b.cc");
+				LocalDate dia = DIA1.plusDays(i / 50 / 15);
+				LocalTime hora = LocalTime.of(PermanenciaPorHora.HORA_INICIO + i / 50 % 15, 0);
+				cargadas.add(new Reserva(profesor, aulas.get(i % 50), new PermanenciaPorHora(dia, hora)));
+			}
+			ReservasMapeadas reservas = new ReservasMapeadas(directorio);
+			reservas.cargar(cargadas);
+			reservas.cerrar();
+			reservas = new ReservasMapeadas(directorio);
+			assertEquals(3000, reservas.getNumReservas());
+			for (Reserva r : cargadas)
+				assertEquals(r.getProfesor(), reservas.buscar(r).getProfesor());
+			assertEquals(60, reservas.getReservasAula(aulas.get(7)).size());
+			assertEquals(15, reservas.getReservasAula(aulas.get(7), DIA1, DIA1).count());
+			assertEquals(60, reservas.borrarReservasAula(aulas.get(7)).size());
+			assertEquals(2940, reservas.getNumReservas());
+			assertEquals(15 * 49, reservas.getReservas(DIA1, DIA1).count());
+			reservas.cerrar();
+		} finally {
+			borrarDirectorio(directorio);
+		}
+	}
+
+	@Test
+	public void mismoComportamientoQueReservasTest() throws IOException {
+		Path directorio = Files.createTempDirectory("reservas");
+		try {
+			Reservas esperadas = new Reservas();
+			ReservasMapeadas reservas = new ReservasMapeadas(directorio);
+			Random aleatorio = new Random(16);
+			List<Profesor> profesores = new ArrayList<Profesor>();
+			List<Aula> aulas = new ArrayList<Aula>();
+			for (int i = 0; i < 6; i++) {
+				profesores.add(new Profesor("Profesor " + i, "a@b.cc"));
+				aulas.add(new Aula("Aula " + i, 10 + 10 * i));
+			}
+			Tramo[] tramos = Tramo.values();
+			for (int i = 0; i < 2000; i++) {
+				Profesor profesor = profesores.get(aleatorio.nextInt(profesores.size()));
+				Aula aula = aulas.get(aleatorio.nextInt(aulas.size()));
+				LocalDate dia = DIA1.plusDays(aleatorio.nextInt(40));
+				Permanencia permanencia = aleatorio.nextInt(4) == 0
+						? new PermanenciaPorTramo(dia, tramos[aleatorio.nextInt(tramos.length)])
+						: new PermanenciaPorHora(dia, LocalTime.of(8 + aleatorio.nextInt(15), 0));
+				Reserva reserva = new Reserva(profesor, aula, permanencia);
+				int operacion = aleatorio.nextInt(100);
+				if (operacion < 70) {
+					assertEquals(insertar(esperadas, reserva), insertar(reservas, reserva));
+				} else if (operacion < 97) {
+					assertEquals(borrar(esperadas, reserva), borrar(reservas, reserva));
+				} else {
+					assertEquals(new HashSet<Reserva>(esperadas.borrarReservasProfesor(profesor)),
+							new HashSet<Reserva>(reservas.borrarReservasProfesor(profesor)));
+				}
+				assertEquals(esperadas.estaLibre(aula, permanencia), reservas.estaLibre(aula, permanencia));
+			}
+			reservas.cerrar();
+			reservas = new ReservasMapeadas(directorio);
+			assertEquals(new HashSet<Reserva>(esperadas.getReservas()), new HashSet<Reserva>(reservas.getReservas()));
+			for (Profesor profesor : profesores)
+				assertEquals(esperadas.getPuntosGastados(profesor, YearMonth.from(DIA1)),
+						reservas.getPuntosGastados(profesor, YearMonth.from(DIA1)), 0.001f);
+			for (Aula aula : aulas)
+				assertEquals(esperadas.getReservasAula(aula, DIA1, DIA1.plusDays(5)).collect(Collectors.toSet()),
+						reservas.getReservasAula(aula, DIA1, DIA1.plusDays(5)).collect(Collectors.toSet()));
+			for (Profesor profesor : profesores) {
+				assertEquals(new HashSet<Reserva>(esperadas.getReservasProfesor(profesor)),
+						new HashSet<Reserva>(reservas.getReservasProfesor(profesor)));
+				assertEquals(
+						esperadas.getReservasProfesor(profesor, DIA1.plusDays(20), DIA1.plusDays(35))
+								.collect(Collectors.toSet()),
+						reservas.getReservasProfesor(profesor, DIA1.plusDays(20), DIA1.plusDays(35))
+								.collect(Collectors.toSet()));
+			}
+			assertEquals(esperadas.getReservas(DIA1.plusDays(3), DIA1.plusDays(4)).collect(Collectors.toSet()),
+					reservas.getReservas(DIA1.plusDays(3), DIA1.plusDays(4)).collect(Collectors.toSet()));
+			reservas.cerrar();
+		} finally {
+			borrarDirectorio(directorio);
+		}
+	}
+
+	private static String insertar(IReservas reservas, Reserva reserva) {
+		try {
+			reservas.insertar(reserva);
+			return null;
+		} catch (OperationNotSupportedException e) {
+			return e.getMessage();
+		}
+	}
+
+	private static String borrar(IReservas reservas, Reserva reserva) {
+		try {
+			reservas.borrar(reserva);
+			return null;
+		} catch (OperationNotSupportedException e) {
+			return e.getMessage();
+		}
+	}
+
+}
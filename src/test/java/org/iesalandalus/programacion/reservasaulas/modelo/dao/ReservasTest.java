@@ -8,13 +8,18 @@ import static org.junit.Assert.fail;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
 
 import javax.naming.OperationNotSupportedException;
 
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Periodicidad;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
 import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
@@ -23,12 +28,12 @@ import org.junit.Test;
 
 public class ReservasTest {
 	
-	private static final String NOMBRE_PROFESOR1 = "Jos Ramn";
-	private static final String NOMBRE_PROFESOR2 = "Andrs";
+	private static final String NOMBRE_PROFESOR1 = "José Ramón";
+	private static final String NOMBRE_PROFESOR2 = "Andrés";
 	private static final String CORREO = "a@b.cc";
 	private static final String NOMBRE_AULA1 = "Aula 1";
 	private static final String NOMBRE_AULA2 = "Aula 2";
-	private static final String NOMBRE_SALON = "Saln de actos";
+	private static final String NOMBRE_SALON = "Salón de actos";
 	private static final int PUESTOS1 = 30;
 	private static final int PUESTOS2 = 50;
 	private static final int PUESTOS3 = 100;
@@ -40,8 +45,8 @@ public class ReservasTest {
 	private static final LocalDate DIA4 = LocalDate.of(DENTRO_DOS_MESES.getYear(), DENTRO_DOS_MESES.getMonthValue(), 2);
 	private static final LocalTime HORA1 = LocalTime.of(10, 0);
 	private static final LocalTime HORA2 = LocalTime.of(11, 0);
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcn.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepcón.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
 	
 	private static final Profesor PROFESOR1 = new Profesor(NOMBRE_PROFESOR1, CORREO);
 	private static final Profesor PROFESOR2 = new Profesor(NOMBRE_PROFESOR2, CORREO);
@@ -140,7 +145,7 @@ public class ReservasTest {
 			reservas.insertar(reserva);
 			fail(ERROR_EXCEPCION);
 		} catch (OperationNotSupportedException e) {
-			assertEquals("Ya se ha realizado una reserva por hora para este da y aula.", e.getMessage());
+			assertEquals("Ya se ha realizado una reserva por hora para este día y aula.", e.getMessage());
 			assertEquals(1, reservas.getNumReservas());
 		} 
 		reservas = new Reservas();
@@ -151,11 +156,46 @@ public class ReservasTest {
 			reservas.insertar(reserva);
 			fail(ERROR_EXCEPCION);
 		} catch (OperationNotSupportedException e) {
-			assertEquals("Ya se ha realizado una reserva por tramo para este da y aula.", e.getMessage());
+			assertEquals("Ya se ha realizado una reserva por tramo para este día y aula.", e.getMessage());
 			assertEquals(1, reservas.getNumReservas());
 		} 
 	}
 	
+	@Test
+	public void insertarDiferentePermanenciaOtraAulaTest() {
+		Reservas reservas = new Reservas();
+		try {
+			reservas.insertar(new Reserva(PROFESOR1, AULA1, PERMANENCIA3));
+			reservas.insertar(new Reserva(PROFESOR2, AULA2, PERMANENCIA4));
+			assertEquals(2, reservas.getNumReservas());
+			assertFalse(reservas.consultarDisponibilidad(AULA1, PERMANENCIA3));
+			assertFalse(reservas.consultarDisponibilidad(AULA2, PERMANENCIA4));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void borrarActualizaDisponibilidadTest() {
+		Reservas reservas = new Reservas();
+		try {
+			Reserva porHora = new Reserva(PROFESOR1, AULA3, PERMANENCIA3);
+			reservas.insertar(porHora);
+			reservas.borrar(porHora);
+			assertTrue(reservas.consultarDisponibilidad(AULA3, PERMANENCIA4));
+			reservas.insertar(new Reserva(PROFESOR2, AULA3, PERMANENCIA4));
+			assertFalse(reservas.consultarDisponibilidad(AULA3, PERMANENCIA4));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			reservas.consultarDisponibilidad(AULA3, PERMANENCIA3);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("Las reservas realizadas para ese aula y día son por tramo.", e.getMessage());
+		}
+	}
+
 	@Test
 	public void insertarReservaMesActualTest() {
 		Reservas reservas = new Reservas();
@@ -165,7 +205,7 @@ public class ReservasTest {
 			reservas.insertar(reserva);
 			fail(ERROR_EXCEPCION);
 		} catch (OperationNotSupportedException e) {
-			assertEquals("Slo se pueden hacer reservas para el mes que viene o posteriores.", e.getMessage());
+			assertEquals("Sólo se pueden hacer reservas para el mes que viene o posteriores.", e.getMessage());
 			assertEquals(0, reservas.getNumReservas());
 		} 
 	}
@@ -185,7 +225,7 @@ public class ReservasTest {
 			reservas.insertar(reserva);
 			fail(ERROR_EXCEPCION);
 		} catch (OperationNotSupportedException e) {
-			assertEquals("Esta reserva excede los puntos mximos por mes para dicho profesor.", e.getMessage());
+			assertEquals("Esta reserva excede los puntos máximos por mes para dicho profesor.", e.getMessage());
 			assertEquals(3, reservas.getNumReservas());
 		} 
 		try {
@@ -199,11 +239,37 @@ public class ReservasTest {
 			reservas.insertar(reserva);
 			fail(ERROR_EXCEPCION);
 		} catch (OperationNotSupportedException e) {
-			assertEquals("Esta reserva excede los puntos mximos por mes para dicho profesor.", e.getMessage());
+			assertEquals("Esta reserva excede los puntos máximos por mes para dicho profesor.", e.getMessage());
 			assertEquals(6, reservas.getNumReservas());
 		} 
 	}
 	
+	@Test
+	public void getPuntosGastadosTest() {
+		Reservas reservas = insertarCuatro();
+		YearMonth mes = YearMonth.from(DIA1);
+		// RESERVA1 y RESERVA2: 15 + 10 y 15 + 3; RESERVA3 y RESERVA4: 25 + 10 y 25 + 3
+		assertEquals(106f, reservas.getPuntosGastados(PROFESOR1, mes), 0f);
+		assertEquals(0f, reservas.getPuntosGastados(PROFESOR2, mes), 0f);
+		assertEquals(0f, reservas.getPuntosGastados(PROFESOR1, YearMonth.from(DIA3)), 0f);
+		try {
+			// Se devuelven los puntos al profesor de la reserva guardada
+			reservas.borrar(new Reserva(PROFESOR2, AULA1, PERMANENCIA1));
+			assertEquals(81f, reservas.getPuntosGastados(PROFESOR1, mes), 0f);
+			reservas.insertar(RESERVA5);
+			assertEquals(81f, reservas.getPuntosGastados(PROFESOR1, mes), 0f);
+			assertEquals(25f, reservas.getPuntosGastados(PROFESOR2, mes), 0f);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			reservas.getPuntosGastados(null, mes);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El profesor no puede ser nulo.", e.getMessage());
+		}
+	}
+
 	@Test
 	public void insertarRepetidaTest() {
 		Reservas reservas = new Reservas();
@@ -388,6 +454,21 @@ public class ReservasTest {
 		assertEquals(RESERVA3.toString(), representacion.get(2));
 		assertEquals(RESERVA4.toString(), representacion.get(3));
 	}
+
+	@Test
+	public void representarPaginaTest() {
+		Reservas reservas = insertarCuatro();
+		assertEquals(reservas.representar().subList(1, 3), reservas.representar(1, 2));
+		assertEquals(reservas.representar().subList(2, 4), reservas.representar(2, Integer.MAX_VALUE));
+		assertTrue(reservas.representar(4, 2).isEmpty());
+		assertTrue(reservas.representar(Integer.MAX_VALUE, 2).isEmpty());
+		try {
+			reservas.representar(0, -1);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El tamaño de la página no puede ser negativo.", e.getMessage());
+		}
+	}
 	
 	@Test
 	public void getReservasProfesorTest() {
@@ -413,6 +494,200 @@ public class ReservasTest {
 		assertEquals(0, reservasAula.size());
 	}
 	
+	@Test
+	public void getReservasAulaProfesorOrdenTest() throws OperationNotSupportedException {
+		// Se insertan antes las de días posteriores: se devuelven en el orden en que
+		// se realizaron, no por día
+		Reservas reservas = new Reservas();
+		reservas.insertar(RESERVA4);
+		reservas.insertar(RESERVA2);
+		reservas.insertar(RESERVA3);
+		reservas.insertar(RESERVA1);
+		List<Reserva> reservasAula = reservas.getReservasAula(AULA2);
+		assertEquals(2, reservasAula.size());
+		assertEquals(RESERVA4, reservasAula.get(0));
+		assertEquals(RESERVA3, reservasAula.get(1));
+		reservas.borrar(RESERVA2);
+		List<Reserva> reservasProfesor = reservas.getReservasProfesor(PROFESOR1);
+		assertEquals(3, reservasProfesor.size());
+		assertEquals(RESERVA4, reservasProfesor.get(0));
+		assertEquals(RESERVA3, reservasProfesor.get(1));
+		assertEquals(RESERVA1, reservasProfesor.get(2));
+		assertEquals(reservas.getReservas(), reservasProfesor);
+	}
+
+	@Test
+	public void getReservasEntreDiasTest() {
+		Reservas reservas = insertarCuatro();
+		List<Reserva> entreDias = reservas.getReservas(DIA1, DIA1).collect(Collectors.toList());
+		assertEquals(2, entreDias.size());
+		assertEquals(RESERVA1, entreDias.get(0));
+		assertEquals(RESERVA3, entreDias.get(1));
+		entreDias = reservas.getReservas(DIA1, DIA4).collect(Collectors.toList());
+		assertEquals(4, entreDias.size());
+		assertEquals(RESERVA2, entreDias.get(2));
+		assertEquals(RESERVA4, entreDias.get(3));
+		assertEquals(0, reservas.getReservas(DIA3, DIA4).count());
+		entreDias = reservas.getReservasAula(AULA1, DIA2, DIA3).collect(Collectors.toList());
+		assertEquals(1, entreDias.size());
+		assertEquals(RESERVA2, entreDias.get(0));
+		assertEquals(0, reservas.getReservasAula(AULA3, DIA1, DIA4).count());
+		assertEquals(4, reservas.getReservasProfesor(PROFESOR1, DIA1, DIA2).count());
+		assertEquals(0, reservas.getReservasProfesor(PROFESOR2, DIA1, DIA2).count());
+		try {
+			reservas.borrar(RESERVA1);
+			reservas.insertar(RESERVA5);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(1, reservas.getReservasProfesor(PROFESOR1, DIA1, DIA1).count());
+		assertEquals(RESERVA5, reservas.getReservasProfesor(PROFESOR2, DIA1, DIA2).findFirst().get());
+		assertEquals(RESERVA2, reservas.getReservas(DIA2, DIA2).findFirst().get());
+		try {
+			reservas.getReservas(DIA2, DIA1);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El último día no puede ser anterior al primero.", e.getMessage());
+		}
+		try {
+			reservas.getReservasAula(AULA1, null, DIA1);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se pueden consultar las reservas entre días nulos.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void borrarReservasAulaTest() {
+		Reservas reservas = insertarCuatro();
+		List<Reserva> borradas = reservas.borrarReservasAula(AULA1);
+		assertEquals(2, borradas.size());
+		assertEquals(RESERVA1, borradas.get(0));
+		assertEquals(RESERVA2, borradas.get(1));
+		assertEquals(2, reservas.getNumReservas());
+		assertNull(reservas.buscar(RESERVA1));
+		assertEquals(RESERVA3, reservas.getReservas().get(0));
+		assertEquals(RESERVA4, reservas.getReservas().get(1));
+		assertTrue(reservas.consultarDisponibilidad(AULA1, PERMANENCIA1));
+		assertEquals(RESERVA3.getPuntos() + RESERVA4.getPuntos(),
+				reservas.getPuntosGastados(PROFESOR1, YearMonth.from(DIA1)), 0f);
+		assertEquals(0, reservas.borrarReservasAula(AULA1).size());
+		assertEquals(0, reservas.borrarReservasAula(AULA3).size());
+		try {
+			reservas.insertar(RESERVA5);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			reservas.borrarReservasAula(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se pueden borrar las reservas de un aula nula.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void borrarReservasProfesorTest() {
+		Reservas reservas = insertarCuatro();
+		try {
+			reservas.insertar(new Reserva(PROFESOR2, AULA3, PERMANENCIA1));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		assertEquals(4, reservas.borrarReservasProfesor(PROFESOR1).size());
+		assertEquals(1, reservas.getNumReservas());
+		assertEquals(0f, reservas.getPuntosGastados(PROFESOR1, YearMonth.from(DIA1)), 0f);
+		assertEquals(0, reservas.getReservasAula(AULA1).size());
+		assertTrue(reservas.consultarDisponibilidad(AULA2, PERMANENCIA2));
+		assertEquals(0, reservas.borrarReservasProfesor(PROFESOR1).size());
+		assertEquals(1, reservas.borrarReservasProfesor(PROFESOR2).size());
+		assertEquals(0, reservas.getNumReservas());
+		try {
+			reservas.borrarReservasProfesor(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se pueden borrar las reservas de un profesor nulo.", e.getMessage());
+		}
+	}
+	
+	@Test
+	public void insertarPeriodicaValidoTest() {
+		Reservas reservas = new Reservas();
+		ReservaPeriodica serie = new ReservaPeriodica(PROFESOR1, AULA1, new PermanenciaPorHora(DIA1, HORA1),
+				Periodicidad.SEMANAL, DIA1.plusWeeks(3));
+		try {
+			List<Reserva> realizadas = reservas.insertarPeriodica(serie);
+			assertEquals(4, realizadas.size());
+			assertEquals(4, reservas.getNumReservas());
+			assertEquals(realizadas.get(3), reservas.buscar(realizadas.get(3)));
+			assertFalse(reservas.consultarDisponibilidad(AULA1, new PermanenciaPorHora(DIA1.plusWeeks(2), HORA1)));
+			float puntos = 0f;
+			for (Reserva r : realizadas)
+				puntos += r.getPuntos();
+			assertEquals(puntos, reservas.getPuntosGastados(PROFESOR1, YearMonth.from(DIA1)), 0f);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		try {
+			reservas.insertarPeriodica(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede realizar una reserva periódica nula.", e.getMessage());
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void insertarPeriodicaConflictosTest() {
+		Reservas reservas = new Reservas();
+		LocalDate tercerMartes = DIA1.plusWeeks(2);
+		try {
+			reservas.insertar(new Reserva(PROFESOR2, AULA1, new PermanenciaPorHora(tercerMartes, HORA1)));
+			reservas.insertar(new Reserva(PROFESOR2, AULA1, new PermanenciaPorHora(DIA1.plusWeeks(1), HORA2)));
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+		ReservaPeriodica serie = new ReservaPeriodica(PROFESOR1, AULA1, new PermanenciaPorTramo(DIA1, Tramo.TARDE),
+				Periodicidad.SEMANAL, DIA1.plusWeeks(3));
+		try {
+			reservas.insertarPeriodica(serie);
+			fail(ERROR_EXCEPCION);
+		} catch (ConflictosReservaPeriodicaException e) {
+			SortedMap<LocalDate, String> conflictos = e.getConflictos();
+			assertEquals(2, conflictos.size());
+			assertEquals(DIA1.plusWeeks(1), conflictos.firstKey());
+			assertEquals("Ya se ha realizado una reserva por hora para este día y aula.",
+					conflictos.get(tercerMartes));
+			assertEquals("No se ha realizado ninguna reserva de la serie: 2 días tienen conflictos.", e.getMessage());
+		}
+		// No se ha realizado ninguna reserva de la serie
+		assertEquals(2, reservas.getNumReservas());
+		assertEquals(0f, reservas.getPuntosGastados(PROFESOR1, YearMonth.from(DIA1)), 0f);
+	}
+
+	@Test
+	public void insertarPeriodicaPuntosTest() {
+		Reservas reservas = new Reservas();
+		// Cada reserva por tramo en el salón cuesta 60 puntos, así que en un mes
+		// sólo caben tres
+		ReservaPeriodica serie = new ReservaPeriodica(PROFESOR1, AULA3, new PermanenciaPorTramo(DIA1, Tramo.MANANA),
+				Periodicidad.SEMANAL, DIA1.plusWeeks(3));
+		try {
+			reservas.insertarPeriodica(serie);
+			fail(ERROR_EXCEPCION);
+		} catch (ConflictosReservaPeriodicaException e) {
+			assertEquals(1, e.getConflictos().size());
+			assertEquals("Esta reserva excede los puntos máximos por mes para dicho profesor.",
+					e.getConflictos().get(DIA1.plusWeeks(3)));
+		}
+		assertEquals(0, reservas.getNumReservas());
+		ReservaPeriodica pasada = new ReservaPeriodica(PROFESOR1, AULA1,
+				new PermanenciaPorTramo(LocalDate.now(), Tramo.MANANA), Periodicidad.QUINCENAL, LocalDate.now());
+		assertEquals("Sólo se pueden hacer reservas para el mes que viene o posteriores.",
+				reservas.comprobarPeriodica(pasada).get(LocalDate.now()));
+	}
+	
 	@Test
 	public void getReservasPermanenciaTest() {
 		Reservas reservas = insertarCuatro();
@@ -422,6 +697,8 @@ public class ReservasTest {
 		assertEquals(2, reservasPermanencia.size());
 		reservasPermanencia = reservas.getReservasPermanencia(PERMANENCIA3);
 		assertEquals(0, reservasPermanencia.size());
+		// Un día sin ninguna reserva
+		assertEquals(0, reservas.getReservasPermanencia(new PermanenciaPorHora(DIA3, HORA1)).size());
 	}
 	
 	@Test
@@ -7,10 +7,10 @@ import org.junit.Test;
 
 public class ProfesorTest {
 	
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
 	
-	private static final String NOMBRE = "Jos Ramn";
+	private static final String NOMBRE = "José Ramón";
 	private static final String CORREO = "joseramon.jimenez@iesalandalus.org";
 	private static final String TELEFONO = "950112233";
 	private static Profesor PROFESOR_CON_TELEFONO = new Profesor(NOMBRE, CORREO, TELEFONO);
@@ -64,7 +64,7 @@ public class ProfesorTest {
 			profesor = new Profesor("", CORREO);
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El nombre del profesor no puede estar vaco.", e.getMessage());
+			assertEquals("El nombre del profesor no puede estar vacío.", e.getMessage());
 			assertNull(profesor);
 		}
 		try {
@@ -78,7 +78,7 @@ public class ProfesorTest {
 			profesor = new Profesor(NOMBRE, "");
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El correo del profesor no es vlido.", e.getMessage());
+			assertEquals("El correo del profesor no es válido.", e.getMessage());
 			assertNull(profesor);
 		}
 	}
@@ -90,7 +90,7 @@ public class ProfesorTest {
 			profesor = new Profesor(NOMBRE, CORREO, "");
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El telfono del profesor no es vlido.", e.getMessage());
+			assertEquals("El teléfono del profesor no es válido.", e.getMessage());
 			assertNull(profesor);
 		}
 	}
@@ -131,7 +131,7 @@ public class ProfesorTest {
 	@Test
 	public void equalTest() {
 		Profesor profesor = new Profesor(NOMBRE, CORREO, TELEFONO);
-		Profesor profesor1 = new Profesor("Andrs", CORREO, TELEFONO);
+		Profesor profesor1 = new Profesor("Andrés", CORREO, TELEFONO);
 		assertNotEquals(profesor, null);
 		assertNotEquals(profesor, "");
 		assertEquals(profesor, profesor);
@@ -142,7 +142,7 @@ public class ProfesorTest {
 	@Test
 	public void hashCodeTest() {
 		Profesor profesor = new Profesor(NOMBRE, CORREO, TELEFONO);
-		Profesor profesor1 = new Profesor("Andrs", CORREO, TELEFONO);
+		Profesor profesor1 = new Profesor("Andrés", CORREO, TELEFONO);
 		assertEquals(profesor.hashCode(), profesor.hashCode());
 		assertEquals(PROFESOR_CON_TELEFONO.hashCode(), profesor.hashCode());
 		assertNotEquals(profesor.hashCode(), profesor1.hashCode());
@@ -150,8 +150,8 @@ public class ProfesorTest {
 	
 	@Test
 	public void toStringTest() {
-		assertEquals("[nombre=Jos Ramn, correo=joseramon.jimenez@iesalandalus.org, telefono=950112233]", PROFESOR_CON_TELEFONO.toString());
-		assertEquals("[nombre=Jos Ramn, correo=joseramon.jimenez@iesalandalus.org]", PROFESOR_SIN_TELEFONO.toString());
+		assertEquals("[nombre=José Ramón, correo=joseramon.jimenez@iesalandalus.org, telefono=950112233]", PROFESOR_CON_TELEFONO.toString());
+		assertEquals("[nombre=José Ramón, correo=joseramon.jimenez@iesalandalus.org]", PROFESOR_SIN_TELEFONO.toString());
 	}
 
 }
@@ -0,0 +1,114 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Permanencia;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+import org.junit.Test;
+
+public class ReservaPeriodicaTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	private static final LocalDate DIA = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+	private static final Profesor PROFESOR = new Profesor("José Ramón", "joseramon.jimenez@iesalandalus.org");
+	private static final Aula AULA = new Aula("Laboratorio", 20);
+	private static final Permanencia PERMANENCIA_POR_TRAMO = new PermanenciaPorTramo(DIA, Tramo.MANANA);
+	private static final Permanencia PERMANENCIA_POR_HORA = new PermanenciaPorHora(DIA, LocalTime.of(10, 0));
+
+	@Test
+	public void constructorValidoTest() {
+		try {
+			ReservaPeriodica serie = new ReservaPeriodica(PROFESOR, AULA, PERMANENCIA_POR_TRAMO,
+					Periodicidad.SEMANAL, DIA.plusWeeks(4));
+			assertEquals(PROFESOR, serie.getProfesor());
+			assertEquals(AULA, serie.getAula());
+			assertEquals(PERMANENCIA_POR_TRAMO, serie.getPermanencia());
+			assertEquals(Periodicidad.SEMANAL, serie.getPeriodicidad());
+			assertEquals(DIA.plusWeeks(4), serie.getFin());
+			new ReservaPeriodica(PROFESOR, AULA, PERMANENCIA_POR_TRAMO, Periodicidad.QUINCENAL, DIA);
+		} catch (IllegalArgumentException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void constructorNoValidoTest() {
+		try {
+			new ReservaPeriodica(null, AULA, PERMANENCIA_POR_TRAMO, Periodicidad.SEMANAL, DIA);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La reserva debe estar a nombre de un profesor.", e.getMessage());
+		}
+		try {
+			new ReservaPeriodica(PROFESOR, null, PERMANENCIA_POR_TRAMO, Periodicidad.SEMANAL, DIA);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La reserva debe ser para un aula concreta.", e.getMessage());
+		}
+		try {
+			new ReservaPeriodica(PROFESOR, AULA, null, Periodicidad.SEMANAL, DIA);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La reserva se debe hacer para una permanencia concreta.", e.getMessage());
+		}
+		try {
+			new ReservaPeriodica(PROFESOR, AULA, PERMANENCIA_POR_TRAMO, null, DIA);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La reserva periódica debe tener una periodicidad.", e.getMessage());
+		}
+		try {
+			new ReservaPeriodica(PROFESOR, AULA, PERMANENCIA_POR_TRAMO, Periodicidad.SEMANAL, null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La reserva periódica debe tener un día final.", e.getMessage());
+		}
+		try {
+			new ReservaPeriodica(PROFESOR, AULA, PERMANENCIA_POR_TRAMO, Periodicidad.SEMANAL, DIA.minusDays(1));
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El día final no puede ser anterior al de la primera reserva.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void getReservasTest() {
+		ReservaPeriodica serie = new ReservaPeriodica(PROFESOR, AULA, PERMANENCIA_POR_HORA, Periodicidad.SEMANAL,
+				DIA.plusWeeks(3).plusDays(6));
+		List<Reserva> reservas = serie.getReservas();
+		assertEquals(4, reservas.size());
+		assertSame(PERMANENCIA_POR_HORA, reservas.get(0).getPermanencia());
+		for (int i = 0; i < reservas.size(); i++) {
+			assertEquals(PROFESOR, reservas.get(i).getProfesor());
+			assertEquals(AULA, reservas.get(i).getAula());
+			assertEquals(new PermanenciaPorHora(DIA.plusWeeks(i), LocalTime.of(10, 0)),
+					reservas.get(i).getPermanencia());
+		}
+		serie = new ReservaPeriodica(PROFESOR, AULA, PERMANENCIA_POR_TRAMO, Periodicidad.QUINCENAL,
+				DIA.plusWeeks(4));
+		reservas = serie.getReservas();
+		assertEquals(3, reservas.size());
+		assertEquals(new PermanenciaPorTramo(DIA.plusWeeks(4), Tramo.MANANA), reservas.get(2).getPermanencia());
+		serie = new ReservaPeriodica(PROFESOR, AULA, PERMANENCIA_POR_TRAMO, Periodicidad.SEMANAL, DIA);
+		assertEquals(1, serie.getReservas().size());
+	}
+
+	@Test
+	public void periodicidadTest() {
+		assertEquals(7, Periodicidad.SEMANAL.getDias());
+		assertEquals(14, Periodicidad.QUINCENAL.getDias());
+		assertEquals("Semanal", Periodicidad.SEMANAL.toString());
+		assertEquals("Quincenal", Periodicidad.QUINCENAL.toString());
+	}
+
+}
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.fail;
 
 import java.time.LocalDate;
@@ -17,12 +18,12 @@ import org.junit.Test;
 
 public class ReservaTest {
 
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
 
-	private static final String NOMBRE_PROFESOR = "Jos Ramn";
+	private static final String NOMBRE_PROFESOR = "José Ramón";
 	private static final String CORREO = "joseramon.jimenez@iesalandalus.org";
-	private static final String NOMBRE_AULA = "Saln de actos";
+	private static final String NOMBRE_AULA = "Salón de actos";
 	private static final int PUESTOS = 30;
 	private static final LocalDate DIA = LocalDate.now().plusMonths(1);
 	private static final LocalTime HORA = LocalTime.now().minusMinutes(LocalTime.now().getMinute());
@@ -126,6 +127,15 @@ public class ReservaTest {
 		assertEquals(PERMANENCIA_POR_TRAMO, reserva.getPermanencia());
 	}
 
+	@Test
+	public void compartidoTest() {
+		Reserva reserva = new Reserva(PROFESOR, AULA, PERMANENCIA_POR_TRAMO);
+		Reserva reserva1 = new Reserva(reserva);
+		assertSame(PROFESOR, reserva1.getProfesor());
+		assertSame(AULA, reserva1.getAula());
+		assertSame(PERMANENCIA_POR_TRAMO, reserva1.getPermanencia());
+	}
+
 	@Test
 	public void equalTest() {
 		Reserva reserva = new Reserva(PROFESOR, AULA, PERMANENCIA_POR_TRAMO);
@@ -152,8 +162,8 @@ public class ReservaTest {
 	public void toStringTest() {
 		Reserva reserva = new Reserva(PROFESOR, AULA, PERMANENCIA_POR_TRAMO);
 		DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-		String cadenaEsperada = "[profesor=[nombre=Jos Ramn, correo=joseramon.jimenez@iesalandalus.org]"
-				+ ", aula=[nombre=Saln de actos, puestos=30], permanencia=[dia="+ DIA.format(formato) + ", tramo=Maana], puntos=25.0]";
+		String cadenaEsperada = "[profesor=[nombre=José Ramón, correo=joseramon.jimenez@iesalandalus.org]"
+				+ ", aula=[nombre=Salón de actos, puestos=30], permanencia=[dia="+ DIA.format(formato) + ", tramo=Mañana], puntos=25.0]";
 		assertEquals(cadenaEsperada, reserva.toString());
 	}
 }
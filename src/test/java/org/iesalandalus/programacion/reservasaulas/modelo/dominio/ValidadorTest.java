@@ -0,0 +1,84 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.dominio;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+public class ValidadorTest {
+
+	private static final Pattern ER_TELEFONO = Pattern.compile("^[69][0-9]{8}$");
+	private static final String CARACTERES_TELEFONO = "0123456789a ";
+
+	@Test
+	public void telefonoTest() {
+		assertTrue(Validador.esTelefonoValido("950112233"));
+		assertTrue(Validador.esTelefonoValido("600000000"));
+		assertFalse(Validador.esTelefonoValido(""));
+		assertFalse(Validador.esTelefonoValido("850112233"));
+		assertFalse(Validador.esTelefonoValido("95011223"));
+		assertFalse(Validador.esTelefonoValido("9501122334"));
+		assertFalse(Validador.esTelefonoValido("95011223a"));
+		assertFalse(Validador.esTelefonoValido("95011223²"));
+	}
+
+	@Test
+	public void telefonoComoExpresionRegularTest() {
+		Random aleatorio = new Random(42);
+		for (int i = 0; i < 100000; i++) {
+			StringBuilder telefono = new StringBuilder();
+			int longitud = 7 + aleatorio.nextInt(4);
+			for (int j = 0; j < longitud; j++) {
+				int c = j == 0 ? aleatorio.nextInt(4) : aleatorio.nextInt(CARACTERES_TELEFONO.length());
+				telefono.append(j == 0 ? "6982".charAt(c) : CARACTERES_TELEFONO.charAt(c));
+			}
+			assertEquals(ER_TELEFONO.matcher(telefono).matches(), Validador.esTelefonoValido(telefono.toString()));
+		}
+	}
+
+	@Test
+	public void correoTest() {
+		assertTrue(Validador.esCorreoValido("joseramon.jimenez@iesalandalus.org"));
+		assertTrue(Validador.esCorreoValido("a@a.a"));
+		assertFalse(Validador.esCorreoValido(""));
+		assertFalse(Validador.esCorreoValido("joseramon@iesalandalus"));
+		assertFalse(Validador.esCorreoValido("JoseRamon@iesalandalus.org"));
+		assertFalse(Validador.esCorreoValido("jose..ramon@iesalandalus.org"));
+	}
+
+	@Test
+	public void correoVariosHilosTest() throws Exception {
+		ExecutorService hilos = Executors.newFixedThreadPool(4);
+		List<Future<Boolean>> resultados = new ArrayList<Future<Boolean>>();
+		for (int i = 0; i < 8; i++) {
+			final int hilo = i;
+			resultados.add(hilos.submit(new Callable<Boolean>() {
+				public Boolean call() {
+					for (int j = 0; j < 10000; j++) {
+						boolean valido = (j + hilo) % 2 == 0;
+						String correo = valido ? "profesor" + j + "@iesalandalus.org" : "profesor" + j + "@";
+						if (Validador.esCorreoValido(correo) != valido)
+							return false;
+					}
+					return true;
+				}
+			}));
+		}
+		for (Future<Boolean> resultado : resultados)
+			assertTrue(resultado.get());
+		hilos.shutdown();
+		assertTrue(hilos.awaitTermination(10, TimeUnit.SECONDS));
+	}
+
+}
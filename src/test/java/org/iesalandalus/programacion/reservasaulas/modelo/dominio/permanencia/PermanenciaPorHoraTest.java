@@ -12,8 +12,8 @@ import org.junit.Test;
 
 public class PermanenciaPorHoraTest {
 
-	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
-	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+	private static final String ERROR_EXCEPCION = "DeberÃ­a haber saltado la excepciÃ³n.";
+	private static final String ERROR_NO_EXCEPCION = "No deberÃ­a haber saltado la excepciÃ³n.";
 	
 	private static final LocalDate DIA_LD = LocalDate.of(2018, 12, 1); 
 	private static final String DIA_STR = "02/12/2018";
@@ -105,7 +105,7 @@ public class PermanenciaPorHoraTest {
 			permanencia = new PermanenciaPorHora(dia, HORA_LT);
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El da de una permanencia no puede ser nulo.", e.getMessage());
+			assertEquals("El día de una permanencia no puede ser nulo.", e.getMessage());
 			assertNull(permanencia);
 		}
 		try {
@@ -113,7 +113,7 @@ public class PermanenciaPorHoraTest {
 			permanencia = new PermanenciaPorHora(dia, HORA_LT);
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El da de una permanencia no puede ser nulo.", e.getMessage());
+			assertEquals("El día de una permanencia no puede ser nulo.", e.getMessage());
 			assertNull(permanencia);
 		}
 		try {
@@ -121,7 +121,7 @@ public class PermanenciaPorHoraTest {
 			permanencia = new PermanenciaPorHora(dia, HORA_LT);
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El formato del da de la permanencia no es correcto.", e.getMessage());
+			assertEquals("El formato del día de la permanencia no es correcto.", e.getMessage());
 			assertNull(permanencia);
 		}
 		try {
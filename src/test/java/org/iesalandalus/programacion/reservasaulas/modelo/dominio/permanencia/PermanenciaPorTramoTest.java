@@ -11,8 +11,8 @@ import org.junit.Test;
 
 public class PermanenciaPorTramoTest {
 	
-	private static final String ERROR_EXCEPCION = "Debera haber saltado la excepcin.";
-	private static final String ERROR_NO_EXCEPCION = "No debera haber saltado la excepcin.";
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
 	
 	private static final LocalDate DIA_LD = LocalDate.of(2018, 12, 1); 
 	private static final String DIA_STR = "01/12/2018";
@@ -61,7 +61,7 @@ public class PermanenciaPorTramoTest {
 			permanencia = new PermanenciaPorTramo(dia, Tramo.MANANA);
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El da de una permanencia no puede ser nulo.", e.getMessage());
+			assertEquals("El día de una permanencia no puede ser nulo.", e.getMessage());
 			assertNull(permanencia);
 		}
 		try {
@@ -69,7 +69,7 @@ public class PermanenciaPorTramoTest {
 			permanencia = new PermanenciaPorTramo(dia, Tramo.MANANA);
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El da de una permanencia no puede ser nulo.", e.getMessage());
+			assertEquals("El día de una permanencia no puede ser nulo.", e.getMessage());
 			assertNull(permanencia);
 		}
 		try {
@@ -77,7 +77,7 @@ public class PermanenciaPorTramoTest {
 			permanencia = new PermanenciaPorTramo(dia, Tramo.MANANA);
 			fail(ERROR_EXCEPCION);
 		} catch (IllegalArgumentException e) {
-			assertEquals("El formato del da de la permanencia no es correcto.", e.getMessage());
+			assertEquals("El formato del día de la permanencia no es correcto.", e.getMessage());
 			assertNull(permanencia);
 		}
 	}
@@ -139,6 +139,6 @@ public class PermanenciaPorTramoTest {
 	
 	@Test
 	public void toStringTest() {
-		assertEquals("[dia=01/12/2018, tramo=Maana]", PERMANENCIA.toString());
+		assertEquals("[dia=01/12/2018, tramo=Mañana]", PERMANENCIA.toString());
 	}
 }
@@ -24,7 +24,7 @@ public class TramoTest {
 	
 	@Test
 	public void toStringValidoTest() {
-		assertEquals("Maana", Tramo.MANANA.toString());
+		assertEquals("Mañana", Tramo.MANANA.toString());
 		assertEquals("Tarde", Tramo.TARDE.toString());
 	}
 
@@ -0,0 +1,183 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+import org.junit.Test;
+
+public class ArchivoReservasTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final YearMonth MES_PASADO = YearMonth.now().minusMonths(1);
+	private static final YearMonth MES_ANTERIOR = MES_PASADO.minusMonths(1);
+	private static final YearMonth MES_SIGUIENTE = YearMonth.now().plusMonths(1);
+	private static final Aula AULA1 = new Aula("Aula 1", 30);
+	private static final Aula AULA2 = new Aula("Aula 2", 20);
+	private static final Profesor PROFESOR1 = new Profesor("José Ramón", "joseramon@gmail.com", "950112233");
+	private static final Profesor PROFESOR2 = new Profesor("Andrés", "andres@gmail.com");
+	private static final Reserva PASADA1 = new Reserva(PROFESOR1, AULA1,
+			new PermanenciaPorHora(MES_PASADO.atDay(3), LocalTime.of(9, 0)));
+	private static final Reserva PASADA2 = new Reserva(PROFESOR2, AULA2,
+			new PermanenciaPorTramo(MES_PASADO.atEndOfMonth(), Tramo.TARDE));
+	private static final Reserva ANTERIOR = new Reserva(PROFESOR2, AULA1,
+			new PermanenciaPorHora(MES_ANTERIOR.atDay(1), LocalTime.of(22, 0)));
+	private static final Reserva SIGUIENTE = new Reserva(PROFESOR1, AULA2,
+			new PermanenciaPorHora(MES_SIGUIENTE.atDay(1), LocalTime.of(10, 0)));
+
+	private static Path crearDirectorio() throws IOException {
+		return Files.createTempDirectory("archivo");
+	}
+
+	private static void borrar(Path directorio) throws IOException {
+		try (DirectoryStream<Path> ficheros = Files.newDirectoryStream(directorio)) {
+			for (Path f : ficheros)
+				Files.delete(f);
+		}
+		Files.delete(directorio);
+	}
+
+	@Test
+	public void archivarYConsultarTest() throws IOException {
+		Path directorio = crearDirectorio();
+		try {
+			ArchivoReservas archivo = new ArchivoReservas(directorio);
+			assertTrue(archivo.getMeses().isEmpty());
+			assertTrue(archivo.getReservas(MES_PASADO).isEmpty());
+			assertEquals(1, archivo.archivar(MES_PASADO, Arrays.asList(PASADA1)));
+			// Se vuelve a archivar el mes con una reserva repetida y otra nueva
+			assertEquals(2, archivo.archivar(MES_PASADO, Arrays.asList(PASADA1, PASADA2)));
+			assertEquals(1, archivo.archivar(MES_ANTERIOR, Arrays.asList(ANTERIOR)));
+			assertEquals(Arrays.asList(MES_ANTERIOR, MES_PASADO), new ArrayList<YearMonth>(archivo.getMeses()));
+			assertTrue(archivo.estaArchivado(MES_PASADO));
+			assertFalse(archivo.estaArchivado(MES_SIGUIENTE));
+
+			List<Reserva> pasadas = archivo.getReservas(MES_PASADO);
+			assertEquals(Arrays.asList(PASADA1, PASADA2), pasadas);
+			assertEquals(PROFESOR1, pasadas.get(0).getProfesor());
+			assertEquals("950112233", pasadas.get(0).getProfesor().getTelefono());
+			assertEquals(PASADA2.getPermanencia(), pasadas.get(1).getPermanencia());
+
+			assertEquals(Arrays.asList(ANTERIOR, PASADA1, PASADA2),
+					archivo.getReservas(MES_ANTERIOR.atDay(1), MES_PASADO.atEndOfMonth()));
+			assertEquals(Arrays.asList(PASADA1), archivo.getReservas(MES_PASADO.atDay(3), MES_PASADO.atDay(3)));
+			assertEquals(Arrays.asList(ANTERIOR, PASADA1),
+					archivo.getReservasAula(AULA1, MES_ANTERIOR.atDay(1), MES_PASADO.atEndOfMonth()));
+			assertEquals(Arrays.asList(ANTERIOR, PASADA2),
+					archivo.getReservasProfesor(PROFESOR2, MES_ANTERIOR.atDay(1), MES_PASADO.atEndOfMonth()));
+			assertEquals(PASADA2.getPuntos(), archivo.getPuntosGastados(PROFESOR2, MES_PASADO), 0.001f);
+			assertEquals(0f, archivo.getPuntosGastados(PROFESOR2, MES_SIGUIENTE), 0.001f);
+		} finally {
+			borrar(directorio);
+		}
+	}
+
+	@Test
+	public void archivarNoValidoTest() throws IOException {
+		Path directorio = crearDirectorio();
+		try {
+			try {
+				new ArchivoReservas(null);
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("El directorio del archivo no puede ser nulo.", e.getMessage());
+			}
+			ArchivoReservas archivo = new ArchivoReservas(directorio);
+			try {
+				archivo.archivar(MES_ANTERIOR, Arrays.asList(PASADA1));
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("Sólo se pueden archivar reservas del mes " + MES_ANTERIOR + ".", e.getMessage());
+			}
+			assertFalse(archivo.estaArchivado(MES_ANTERIOR));
+			try {
+				archivo.getReservas(MES_PASADO.atEndOfMonth(), MES_PASADO.atDay(1));
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("El último día no puede ser anterior al primero.", e.getMessage());
+			}
+			try {
+				archivo.getReservas((YearMonth) null);
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("El mes no puede ser nulo.", e.getMessage());
+			}
+			// Un segmento dañado no se acepta
+			archivo.archivar(MES_PASADO, Arrays.asList(PASADA1, PASADA2));
+			Path segmento = directorio.resolve("reservas-" + MES_PASADO + ".gz");
+			byte[] contenido = Files.readAllBytes(segmento);
+			contenido[contenido.length / 2] ^= 0x55;
+			try (OutputStream salida = Files.newOutputStream(segmento)) {
+				salida.write(contenido);
+			}
+			try {
+				archivo.getReservas(MES_PASADO);
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				// El CRC32 de GZIP no coincide
+			}
+		} finally {
+			borrar(directorio);
+		}
+	}
+
+	@Test
+	public void archivarModeloTest() throws IOException, OperationNotSupportedException {
+		Path directorio = crearDirectorio();
+		Path fichero = Files.createTempFile("diario", ".bin");
+		try {
+			ArchivoReservas archivo = new ArchivoReservas(directorio);
+			Diario diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario);
+			modelo.insertarAula(AULA1);
+			modelo.insertarAula(AULA2);
+			modelo.insertarProfesor(PROFESOR1);
+			modelo.insertarProfesor(PROFESOR2);
+			modelo.realizarReserva(SIGUIENTE);
+			// Las reservas pasadas sólo pueden llegar recuperándolas o cargándolas
+			modelo.cargar(modelo.getAulas(), modelo.getProfesores(), Arrays.asList(ANTERIOR, PASADA1, SIGUIENTE, PASADA2));
+			assertEquals(4, modelo.getNumReservas());
+
+			assertEquals(3, modelo.archivar(archivo));
+			assertEquals(Arrays.asList(SIGUIENTE), modelo.getReservas());
+			assertEquals(0f, modelo.getPuntosGastados(PROFESOR1, MES_PASADO), 0.001f);
+			assertTrue(modelo.consultarDisponibilidad(AULA1, PASADA1.getPermanencia()));
+			assertEquals(Arrays.asList(PASADA1, PASADA2), archivo.getReservas(MES_PASADO));
+			assertEquals(Arrays.asList(ANTERIOR), archivo.getReservas(MES_ANTERIOR));
+			assertEquals(0, modelo.archivar(archivo));
+			try {
+				modelo.archivar(null);
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("El archivo no puede ser nulo.", e.getMessage());
+			}
+			diario.cerrar();
+		} finally {
+			Files.delete(fichero);
+			borrar(directorio);
+		}
+	}
+
+}
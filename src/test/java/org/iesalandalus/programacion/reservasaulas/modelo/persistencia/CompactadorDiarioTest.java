@@ -0,0 +1,242 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulasConcurrente;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.junit.Test;
+
+public class CompactadorDiarioTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final LocalDate DIA = LocalDate.now().plusMonths(1).withDayOfMonth(1);
+	private static final Profesor PROFESOR = new Profesor("José Ramón", "joseramon@gmail.com");
+
+	private static void reservarYAnular(ModeloReservasAulas modelo, Aula aula, int veces)
+			throws OperationNotSupportedException {
+		for (int i = 0; i < veces; i++) {
+			Reserva reserva = new Reserva(PROFESOR, aula, new PermanenciaPorHora(DIA, LocalTime.of(8 + i % 14, 0)));
+			modelo.realizarReserva(reserva);
+			modelo.anularReserva(reserva);
+		}
+	}
+
+	@Test
+	public void constructorNoValidoTest() throws IOException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		Diario diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+		ModeloReservasAulas modelo = new ModeloReservasAulas(diario);
+		try {
+			new CompactadorDiario(null, diario, 1, 1);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El modelo no puede ser nulo.", e.getMessage());
+		}
+		try {
+			new CompactadorDiario(modelo, null, 1, 1);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El diario no puede ser nulo.", e.getMessage());
+		}
+		try {
+			new CompactadorDiario(modelo, diario, 0, 1);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El tamaño mínimo para compactar debe ser positivo.", e.getMessage());
+		}
+		try {
+			new CompactadorDiario(modelo, diario, 1, 0);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El intervalo de comprobación debe ser positivo.", e.getMessage());
+		} finally {
+			diario.cerrar();
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void compactarTest() throws IOException, OperationNotSupportedException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		try {
+			Diario diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario);
+			CompactadorDiario compactador = new CompactadorDiario(modelo, diario, 100000, 60000);
+			Aula aula = new Aula("Aula 1", 30);
+			modelo.insertarAula(aula);
+			modelo.insertarProfesor(PROFESOR);
+			reservarYAnular(modelo, aula, 100);
+			modelo.realizarReserva(new Reserva(PROFESOR, aula, new PermanenciaPorHora(DIA, LocalTime.of(12, 0))));
+			long antes = compactador.getTamanoDiario();
+			assertFalse(compactador.debeCompactar());
+			long despues = compactador.compactar();
+			compactador.detener();
+			assertEquals(1, compactador.getCompactaciones());
+			assertEquals(0, compactador.getErrores());
+			assertEquals(antes, compactador.getTamanoAntes());
+			assertEquals(despues, compactador.getTamanoDespues());
+			assertTrue(despues * 10 < antes);
+			assertTrue(compactador.getUltimaDuracion() > 0);
+			assertEquals(compactador.getUltimaDuracion(), compactador.getDuracionTotal());
+			assertTrue(compactador.toString().startsWith("Diario: " + despues + " bytes, compactaciones=1"));
+			diario.cerrar();
+			diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			modelo = new ModeloReservasAulas(diario);
+			assertEquals(1, modelo.getNumAulas());
+			assertEquals(1, modelo.getNumReservas());
+			diario.cerrar();
+		} finally {
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void compactarEnSegundoPlanoTest() throws Exception {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		try {
+			Diario diario = new Diario(fichero, PoliticaSincronizacion.AGRUPADA, 5);
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario);
+			CompactadorDiario compactador = new CompactadorDiario(modelo, diario, 4096, 1);
+			modelo.insertarProfesor(PROFESOR);
+			// Se escribe mientras el compactador trabaja
+			for (int i = 0; i < 200; i++) {
+				Aula aula = new Aula("Aula " + i, 30);
+				modelo.insertarAula(aula);
+				reservarYAnular(modelo, aula, 10);
+				if (i % 2 == 0)
+					modelo.borrarAula(aula);
+			}
+			for (int i = 0; i < 1000 && compactador.getCompactaciones() == 0; i++)
+				Thread.sleep(5);
+			compactador.detener();
+			assertTrue(compactador.getCompactaciones() > 0);
+			assertEquals(0, compactador.getErrores());
+			diario.cerrar();
+			diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			modelo = new ModeloReservasAulas(diario);
+			assertEquals(100, modelo.getNumAulas());
+			assertEquals(1, modelo.getNumProfesores());
+			assertEquals(0, modelo.getNumReservas());
+			diario.cerrar();
+		} finally {
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void compactarConInstantaneaTest() throws IOException, OperationNotSupportedException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		Path ficheroInstantanea = Files.createTempFile("instantanea", ".bin");
+		Files.delete(ficheroInstantanea);
+		try {
+			Instantanea instantanea = new Instantanea(ficheroInstantanea);
+			Diario diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario, instantanea);
+			CompactadorDiario compactador = new CompactadorDiario(modelo, diario, instantanea, 100000, 60000);
+			Aula aula = new Aula("Aula 1", 30);
+			modelo.insertarAula(aula);
+			modelo.insertarProfesor(PROFESOR);
+			reservarYAnular(modelo, aula, 100);
+			Reserva reserva = new Reserva(PROFESOR, aula, new PermanenciaPorHora(DIA, LocalTime.of(12, 0)));
+			modelo.realizarReserva(reserva);
+			long despues = compactador.compactar();
+			compactador.detener();
+			assertEquals(1, diario.getGeneracion());
+			assertEquals(1, instantanea.getGeneracion());
+			assertEquals(Files.size(ficheroInstantanea), compactador.getTamanoDespues());
+			// Sólo queda la marca
+			assertEquals(17, despues);
+			// Lo posterior a la instantánea queda en el diario
+			Aula otra = new Aula("Aula 2", 20);
+			modelo.insertarAula(otra);
+			modelo.anularReserva(reserva);
+			diario.cerrar();
+			diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			assertEquals(1, diario.getGeneracion());
+			try {
+				new ModeloReservasAulas(diario);
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertEquals("El diario empieza en una instantánea que hay que cargar antes.", e.getMessage());
+			}
+			modelo = new ModeloReservasAulas(diario, instantanea);
+			assertEquals(2, modelo.getNumAulas());
+			assertEquals(1, modelo.getNumProfesores());
+			assertEquals(0, modelo.getNumReservas());
+			diario.cerrar();
+			diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			ModeloReservasAulasConcurrente concurrente = new ModeloReservasAulasConcurrente(2, diario, instantanea);
+			assertEquals(2, concurrente.getNumAulas());
+			assertEquals(0, concurrente.getNumReservas());
+			diario.cerrar();
+		} finally {
+			Files.delete(fichero);
+			Files.deleteIfExists(ficheroInstantanea);
+		}
+	}
+
+	@Test
+	public void instantaneaSinDescartarTest() throws IOException, OperationNotSupportedException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		Path ficheroInstantanea = Files.createTempFile("instantanea", ".bin");
+		try {
+			Instantanea instantanea = new Instantanea(ficheroInstantanea);
+			Diario diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario);
+			Aula aula = new Aula("Aula 1", 30);
+			modelo.insertarAula(aula);
+			modelo.insertarProfesor(PROFESOR);
+			Reserva reserva = new Reserva(PROFESOR, aula, new PermanenciaPorHora(DIA, LocalTime.of(12, 0)));
+			modelo.realizarReserva(reserva);
+			Aula borrada = new Aula("Aula 2", 20);
+			modelo.insertarAula(borrada);
+			modelo.borrarAula(borrada);
+			// El programa termina tras guardar la instantánea y antes de descartar el diario
+			instantanea.guardar(modelo.getVersion(), diario.getGeneracion(), diario.getTamano());
+			modelo.anularReserva(reserva);
+			modelo.borrarAula(aula);
+			modelo.insertarAula(aula);
+			diario.cerrar();
+			diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			assertEquals(0, diario.getGeneracion());
+			// Sólo se reproducen las tres operaciones posteriores a la instantánea
+			modelo = new ModeloReservasAulas();
+			assertEquals(3, diario.reproducir(modelo, instantanea));
+			assertEquals(1, modelo.getNumAulas());
+			assertEquals(0, modelo.getNumReservas());
+			diario.cerrar();
+			// Una instantánea que no sale del diario no se puede usar con él
+			ModeloReservasAulas otro = new ModeloReservasAulas();
+			otro.insertarAula(aula);
+			instantanea.guardar(otro);
+			diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			try {
+				new ModeloReservasAulas(diario, instantanea);
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertEquals("La instantánea no corresponde al diario.", e.getMessage());
+			} finally {
+				diario.cerrar();
+			}
+		} finally {
+			Files.delete(fichero);
+			Files.deleteIfExists(ficheroInstantanea);
+		}
+	}
+
+}
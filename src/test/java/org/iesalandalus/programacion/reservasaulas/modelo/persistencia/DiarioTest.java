@@ -0,0 +1,452 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulasConcurrente;
+import org.iesalandalus.programacion.reservasaulas.modelo.VersionModelo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Periodicidad;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.ReservaPeriodica;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+import org.junit.Test;
+
+public class DiarioTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	private static final LocalDate DIA = LocalDate.now().plusMonths(1);
+	private static final Aula AULA1 = new Aula("Aula 1", 30);
+	private static final Aula AULA2 = new Aula("Aula 2", 20);
+	private static final Profesor PROFESOR1 = new Profesor("José Ramón", "joseramon@gmail.com", "950112233");
+	private static final Profesor PROFESOR2 = new Profesor("Andrés", "andres@gmail.com");
+	private static final Reserva RESERVA1 = new Reserva(PROFESOR1, AULA1, new PermanenciaPorHora(DIA, LocalTime.of(9, 0)));
+	private static final Reserva RESERVA2 = new Reserva(PROFESOR2, AULA2, new PermanenciaPorTramo(DIA, Tramo.TARDE));
+	private static final Reserva RESERVA3 = new Reserva(PROFESOR2, AULA1, new PermanenciaPorHora(DIA, LocalTime.of(10, 0)));
+
+	// Canal que escribe la mitad de cada bloque y falla mientras se le indique,
+	// como un disco que se llena a mitad de la escritura
+	private static class CanalDefectuoso extends FileChannel {
+
+		private final FileChannel canal;
+		private volatile boolean fallar;
+
+		CanalDefectuoso(FileChannel canal) {
+			this.canal = canal;
+		}
+
+		public int write(ByteBuffer src) throws IOException {
+			if (!fallar)
+				return canal.write(src);
+			ByteBuffer mitad = src.duplicate();
+			mitad.limit(mitad.position() + mitad.remaining() / 2);
+			canal.write(mitad);
+			throw new IOException("No queda espacio en el disco.");
+		}
+
+		public int read(ByteBuffer dst) throws IOException {
+			return canal.read(dst);
+		}
+
+		public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+			return canal.read(dsts, offset, length);
+		}
+
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			throw new IOException("No se usa.");
+		}
+
+		public long position() throws IOException {
+			return canal.position();
+		}
+
+		public FileChannel position(long newPosition) throws IOException {
+			canal.position(newPosition);
+			return this;
+		}
+
+		public long size() throws IOException {
+			return canal.size();
+		}
+
+		public FileChannel truncate(long size) throws IOException {
+			canal.truncate(size);
+			return this;
+		}
+
+		public void force(boolean metaData) throws IOException {
+			canal.force(metaData);
+		}
+
+		public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+			return canal.transferTo(position, count, target);
+		}
+
+		public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+			return canal.transferFrom(src, position, count);
+		}
+
+		public int read(ByteBuffer dst, long position) throws IOException {
+			return canal.read(dst, position);
+		}
+
+		public int write(ByteBuffer src, long position) throws IOException {
+			throw new IOException("No se usa.");
+		}
+
+		public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+			return canal.map(mode, position, size);
+		}
+
+		public FileLock lock(long position, long size, boolean shared) throws IOException {
+			return canal.lock(position, size, shared);
+		}
+
+		public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+			return canal.tryLock(position, size, shared);
+		}
+
+		protected void implCloseChannel() throws IOException {
+			canal.close();
+		}
+
+	}
+
+	// Diario cuyo canal es un CanalDefectuoso
+	private static class DiarioDefectuoso extends Diario {
+
+		private CanalDefectuoso canal;
+
+		DiarioDefectuoso(Path fichero, PoliticaSincronizacion politica, long intervalo) throws IOException {
+			super(fichero, politica, intervalo);
+		}
+
+		FileChannel abrir(Path fichero) throws IOException {
+			canal = new CanalDefectuoso(super.abrir(fichero));
+			return canal;
+		}
+
+		void fallar(boolean fallar) {
+			canal.fallar = fallar;
+		}
+
+	}
+
+	private ModeloReservasAulas llenar(Diario diario) throws IOException, OperationNotSupportedException {
+		ModeloReservasAulas modelo = new ModeloReservasAulas(diario);
+		modelo.insertarAula(AULA1);
+		modelo.insertarAula(AULA2);
+		modelo.insertarProfesor(PROFESOR1);
+		modelo.insertarProfesor(PROFESOR2);
+		modelo.realizarReserva(RESERVA1);
+		modelo.realizarReserva(RESERVA2);
+		modelo.realizarReserva(RESERVA3);
+		modelo.anularReserva(RESERVA3);
+		return modelo;
+	}
+
+	@Test
+	public void reproducirTest() throws IOException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		try {
+			for (PoliticaSincronizacion politica : PoliticaSincronizacion.values()) {
+				Files.write(fichero, new byte[0]);
+				Diario diario = new Diario(fichero, politica, 10);
+				llenar(diario);
+				diario.cerrar();
+				Diario reabierto = new Diario(fichero, politica, 10);
+				ModeloReservasAulas modelo = new ModeloReservasAulas(reabierto);
+				assertEquals(2, modelo.getNumAulas());
+				assertEquals(2, modelo.getNumProfesores());
+				assertEquals(2, modelo.getNumReservas());
+				assertEquals("950112233", modelo.buscarProfesor(PROFESOR1).getTelefono());
+				assertNotNull(modelo.buscarReserva(RESERVA2));
+				assertNull(modelo.buscarReserva(RESERVA3));
+				modelo.borrarAula(AULA2);
+				reabierto.cerrar();
+				reabierto = new Diario(fichero, politica, 10);
+				modelo = new ModeloReservasAulas(reabierto);
+				assertEquals(1, modelo.getNumAulas());
+				assertEquals(1, modelo.getNumReservas());
+				reabierto.cerrar();
+			}
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void registroIncompletoTest() throws IOException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		try {
+			Diario diario = new Diario(fichero, PoliticaSincronizacion.POR_OPERACION, 0);
+			llenar(diario);
+			diario.cerrar();
+			long tamano = Files.size(fichero);
+			// Se simula un fallo en mitad de la escritura del último registro
+			try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.WRITE)) {
+				canal.truncate(tamano - 3);
+			}
+			diario = new Diario(fichero, PoliticaSincronizacion.POR_OPERACION, 0);
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario);
+			// La anulación de la última reserva se ha perdido
+			assertEquals(3, modelo.getNumReservas());
+			modelo.insertarAula(new Aula("Aula 3", 10));
+			diario.cerrar();
+			diario = new Diario(fichero, PoliticaSincronizacion.POR_OPERACION, 0);
+			modelo = new ModeloReservasAulas(diario);
+			assertEquals(3, modelo.getNumAulas());
+			assertEquals(3, modelo.getNumReservas());
+			diario.cerrar();
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void reservaPeriodicaTest() throws IOException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		ReservaPeriodica serie = new ReservaPeriodica(PROFESOR1, AULA1, new PermanenciaPorHora(DIA, LocalTime.of(12, 0)),
+				Periodicidad.SEMANAL, DIA.plusWeeks(2));
+		try {
+			Diario diario = new Diario(fichero, PoliticaSincronizacion.POR_OPERACION, 0);
+			ModeloReservasAulas modelo = llenar(diario);
+			assertEquals(3, modelo.realizarReservaPeriodica(serie));
+			diario.cerrar();
+			diario = new Diario(fichero, PoliticaSincronizacion.POR_OPERACION, 0);
+			assertEquals(5, new ModeloReservasAulas(diario).getNumReservas());
+			diario.cerrar();
+			diario = new Diario(fichero, PoliticaSincronizacion.POR_OPERACION, 0);
+			assertEquals(5, new ModeloReservasAulasConcurrente(4, diario).getNumReservas());
+			diario.cerrar();
+			// La serie es un solo registro: si se corta, no se recupera ninguna
+			try (FileChannel canal = FileChannel.open(fichero, StandardOpenOption.WRITE)) {
+				canal.truncate(canal.size() - 3);
+			}
+			diario = new Diario(fichero, PoliticaSincronizacion.POR_OPERACION, 0);
+			assertEquals(2, new ModeloReservasAulas(diario).getNumReservas());
+			diario.cerrar();
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void longitudDanadaTest() throws IOException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		try {
+			Diario diario = new Diario(fichero, PoliticaSincronizacion.POR_OPERACION, 0);
+			llenar(diario);
+			diario.cerrar();
+			long tamano = Files.size(fichero);
+			// Un registro cuya longitud no cabe en el fichero no debe reservar memoria
+			try (DataOutputStream salida = new DataOutputStream(
+					Files.newOutputStream(fichero, StandardOpenOption.APPEND))) {
+				salida.writeInt(Integer.MAX_VALUE);
+				salida.writeInt(0);
+				salida.writeLong(0);
+			}
+			diario = new Diario(fichero, PoliticaSincronizacion.POR_OPERACION, 0);
+			ModeloReservasAulas modelo = new ModeloReservasAulas(diario);
+			assertEquals(2, modelo.getNumReservas());
+			assertEquals(tamano, Files.size(fichero));
+			diario.cerrar();
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void escrituraFallidaTest() throws IOException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		try {
+			for (PoliticaSincronizacion politica : new PoliticaSincronizacion[] {
+					PoliticaSincronizacion.POR_OPERACION, PoliticaSincronizacion.SISTEMA }) {
+				Files.write(fichero, new byte[0]);
+				DiarioDefectuoso diario = new DiarioDefectuoso(fichero, politica, 0);
+				ModeloReservasAulas modelo = llenar(diario);
+				long tamano = Files.size(fichero);
+				diario.fallar(true);
+				try {
+					modelo.realizarReserva(RESERVA3);
+					fail(ERROR_EXCEPCION);
+				} catch (UncheckedIOException e) {
+					assertEquals("No queda espacio en el disco.", e.getCause().getMessage());
+				}
+				// La reserva no se ha guardado y del registro no queda nada
+				assertNull(modelo.buscarReserva(RESERVA3));
+				assertEquals(2, modelo.getNumReservas());
+				assertEquals(tamano, Files.size(fichero));
+				try {
+					modelo.anularReserva(RESERVA1);
+					fail(ERROR_EXCEPCION);
+				} catch (UncheckedIOException e) {
+					assertNotNull(modelo.buscarReserva(RESERVA1));
+				}
+				try {
+					modelo.borrarAula(AULA2);
+					fail(ERROR_EXCEPCION);
+				} catch (UncheckedIOException e) {
+					assertNotNull(modelo.buscarAula(AULA2));
+					assertNotNull(modelo.buscarReserva(RESERVA2));
+				}
+				diario.fallar(false);
+				modelo.realizarReserva(RESERVA3);
+				diario.cerrar();
+				Diario reabierto = new Diario(fichero, politica, 0);
+				modelo = new ModeloReservasAulas(reabierto);
+				assertEquals(2, modelo.getNumAulas());
+				assertEquals(3, modelo.getNumReservas());
+				reabierto.cerrar();
+			}
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void sincronizacionFallidaTest() throws IOException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		try {
+			// El intervalo es tan largo que sólo se sincroniza a mano
+			DiarioDefectuoso diario = new DiarioDefectuoso(fichero, PoliticaSincronizacion.AGRUPADA, 3600000);
+			ModeloReservasAulas modelo = llenar(diario);
+			diario.sincronizar();
+			long tamano = Files.size(fichero);
+			modelo.insertarAula(new Aula("Aula 3", 10));
+			diario.fallar(true);
+			try {
+				diario.sincronizar();
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertEquals(tamano, Files.size(fichero));
+			}
+			// Mientras no se pueda escribir no se aceptan más operaciones
+			try {
+				modelo.insertarAula(new Aula("Aula 4", 10));
+				fail(ERROR_EXCEPCION);
+			} catch (UncheckedIOException e) {
+				assertNull(modelo.buscarAula(new Aula("Aula 4", 10)));
+			}
+			diario.fallar(false);
+			diario.sincronizar();
+			modelo.insertarAula(new Aula("Aula 4", 10));
+			diario.cerrar();
+			diario = new DiarioDefectuoso(fichero, PoliticaSincronizacion.AGRUPADA, 3600000);
+			modelo = new ModeloReservasAulas(diario);
+			assertEquals(4, modelo.getNumAulas());
+			diario.cerrar();
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void compactarTest() throws IOException {
+		Path fichero = Files.createTempFile("diario", ".bin");
+		try {
+			Diario diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			ModeloReservasAulas modelo = llenar(diario);
+			modelo.borrarAula(AULA2);
+			VersionModelo version = modelo.getVersion();
+			long posicion = diario.getTamano();
+			assertEquals(Files.size(fichero), posicion);
+			// Las operaciones posteriores a la posición se conservan
+			modelo.insertarAula(new Aula("Aula 3", 10));
+			long estado = diario.compactar(version.getAulas(), version.getProfesores(), version.getReservas(),
+					posicion);
+			assertTrue(estado < posicion);
+			assertEquals(Files.size(fichero), diario.getTamano());
+			modelo.realizarReserva(RESERVA3);
+			diario.cerrar();
+			diario = new Diario(fichero, PoliticaSincronizacion.SISTEMA, 0);
+			modelo = new ModeloReservasAulas(diario);
+			assertEquals(2, modelo.getNumAulas());
+			assertEquals(2, modelo.getNumProfesores());
+			assertEquals(2, modelo.getNumReservas());
+			assertNotNull(modelo.buscarReserva(RESERVA1));
+			assertNotNull(modelo.buscarReserva(RESERVA3));
+			assertEquals("950112233", modelo.buscarProfesor(PROFESOR1).getTelefono());
+			try {
+				diario.compactar(version.getAulas(), version.getProfesores(), version.getReservas(),
+						diario.getTamano() + 1);
+				fail(ERROR_EXCEPCION);
+			} catch (IllegalArgumentException e) {
+				assertEquals("La posición a compactar no es válida.", e.getMessage());
+			}
+			diario.cerrar();
+			try {
+				diario.compactar(version.getAulas(), version.getProfesores(), version.getReservas(), 0);
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertEquals("No se puede compactar un diario cerrado.", e.getMessage());
+			}
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void constructorNoValidoTest() throws IOException {
+		try {
+			new Diario(null, PoliticaSincronizacion.SISTEMA, 0);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El fichero del diario no puede ser nulo.", e.getMessage());
+		}
+		try {
+			new Diario(Paths.get("diario.bin"), PoliticaSincronizacion.AGRUPADA, 0);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El intervalo de sincronización debe ser positivo.", e.getMessage());
+		}
+		try {
+			new ModeloReservasAulas(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El diario no puede ser nulo.", e.getMessage());
+		}
+	}
+
+}
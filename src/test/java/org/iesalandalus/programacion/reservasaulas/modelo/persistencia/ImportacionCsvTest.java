@@ -0,0 +1,137 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.junit.Test;
+
+public class ImportacionCsvTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final LocalDate MES_SIGUIENTE = LocalDate.now().plusMonths(1);
+	private static final String DIA = LocalDate.of(MES_SIGUIENTE.getYear(), MES_SIGUIENTE.getMonthValue(), 1)
+			.format(DateTimeFormatter.ofPattern("dd/MM/uuuu"));
+
+	@Test
+	public void constructorNoValidoTest() {
+		try {
+			new ImportacionCsv(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El modelo en el que importar no puede ser nulo.", e.getMessage());
+		}
+		try {
+			new ImportacionCsv(new ModeloReservasAulas(), 0, 10);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El número de hilos debe ser positivo.", e.getMessage());
+		}
+		try {
+			new ImportacionCsv(new ModeloReservasAulas(), 2, 0);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El tamaño del bloque debe ser positivo.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void separarTest() {
+		assertEquals(Arrays.asList("Aula 1", "30"), Arrays.asList(ImportacionCsv.separar(" Aula 1 ; 30")));
+		assertEquals(Arrays.asList("Aula; \"grande\"", "", ""),
+				Arrays.asList(ImportacionCsv.separar("\"Aula; \"\"grande\"\"\";;")));
+		try {
+			ImportacionCsv.separar("\"Aula 1;30");
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("Hay unas comillas sin cerrar.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void importarConRechazadasTest() throws IOException {
+		IModeloReservasAulas modelo = new ModeloReservasAulas();
+		// Bloques de dos filas para que las filas se repartan entre varios bloques
+		ImportacionCsv importacion = new ImportacionCsv(modelo, 3, 2);
+		StringWriter informe = new StringWriter();
+		assertEquals(2, importacion.importarAulas(new StringReader(
+				"nombre;puestos\nAula 1;30\nAula 2;5\n\nAula 3;muchos\nAula 1;20\nSalón;100\n"), informe));
+		assertEquals(3, importacion.getNumRechazadas());
+		String[] rechazadas = informe.toString().split("\\R");
+		assertEquals("3;El número de puestos no es correcto.;Aula 2;5", rechazadas[0]);
+		assertEquals("5;Los puestos deben ser un número entero.;Aula 3;muchos", rechazadas[1]);
+		assertEquals("6;El aula ya existe.;Aula 1;20", rechazadas[2]);
+
+		informe = new StringWriter();
+		assertEquals(2, importacion.importarProfesores(new StringReader(
+				"nombre;correo;telefono\nJosé Ramón;jr@gmail.com;950112233\nAndrés;andres@gmail.com;\nMal;correo\n"),
+				informe));
+		assertEquals(1, importacion.getNumRechazadas());
+		assertEquals("950112233", modelo.buscarProfesor(new Profesor("José Ramón", "a@a.a")).getTelefono());
+
+		informe = new StringWriter();
+		assertEquals(2, importacion.importarReservas(new StringReader("profesor;aula;dia;franja\n" + "José Ramón;Aula 1;"
+				+ DIA + ";10:00\n" + "Andrés;Salón;" + DIA + ";TARDE\n" + "Andrés;Aula 1;" + DIA + ";MANANA\n"
+				+ "Nadie;Aula 1;" + DIA + ";11:00\n" + "Andrés;Aula 1;" + DIA + ";NOCHE\n"), informe));
+		assertEquals(3, importacion.getNumRechazadas());
+		rechazadas = informe.toString().split("\\R");
+		assertEquals("4;Ya se ha realizado una reserva por hora para este día y aula.;Andrés;Aula 1;" + DIA + ";MANANA",
+				rechazadas[0]);
+		assertEquals("5;El profesor introducido no existe.;Nadie;Aula 1;" + DIA + ";11:00", rechazadas[1]);
+		assertEquals("6;El tramo debe ser MANANA o TARDE.;Andrés;Aula 1;" + DIA + ";NOCHE", rechazadas[2]);
+		assertEquals(2, modelo.getNumReservas());
+	}
+
+	@Test
+	public void importarMuchasFilasTest() throws IOException {
+		IModeloReservasAulas modelo = new ModeloReservasAulas();
+		StringBuilder csv = new StringBuilder("nombre;puestos\n");
+		for (int i = 0; i < 20000; i++)
+			csv.append("Aula ").append(i).append(';').append(10 + i % 91).append('\n');
+		ImportacionCsv importacion = new ImportacionCsv(modelo, 4, 1000);
+		assertEquals(20000, importacion.importarAulas(new StringReader(csv.toString()), new StringWriter()));
+		assertEquals(0, importacion.getNumRechazadas());
+		assertEquals(20000, modelo.getNumAulas());
+		assertNotNull(modelo.buscarAula(new Aula("Aula 19999", 10)));
+	}
+
+	@Test
+	public void importarConErroresInesperadosTest() throws IOException {
+		ImportacionCsv importacion = new ImportacionCsv(new ModeloReservasAulas(), 2, 2);
+		final List<String> insertadas = new ArrayList<String>();
+		StringWriter informe = new StringWriter();
+		assertEquals(2, importacion.importar(new StringReader("nombre\nuno\nestado\nnulo\ndos\n"), informe,
+				new ImportacionCsv.Importador<String>() {
+					String leer(String[] campos) {
+						if (campos[0].equals("estado"))
+							throw new IllegalStateException("La fila no se puede leer.");
+						if (campos[0].equals("nulo"))
+							throw new NullPointerException();
+						return campos[0];
+					}
+
+					void insertar(String objeto) {
+						insertadas.add(objeto);
+					}
+				}));
+		assertEquals(Arrays.asList("uno", "dos"), insertadas);
+		assertEquals(2, importacion.getNumRechazadas());
+		String[] rechazadas = informe.toString().split("\\R");
+		assertEquals("3;La fila no se puede leer.;estado", rechazadas[0]);
+		assertEquals("4;java.lang.NullPointerException;nulo", rechazadas[1]);
+	}
+
+}
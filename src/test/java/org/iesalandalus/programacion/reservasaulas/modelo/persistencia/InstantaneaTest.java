@@ -0,0 +1,135 @@
+package org.iesalandalus.programacion.reservasaulas.modelo.persistencia;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.YearMonth;
+
+import javax.naming.OperationNotSupportedException;
+
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Aula;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Profesor;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorHora;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.PermanenciaPorTramo;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.permanencia.Tramo;
+import org.junit.Test;
+
+public class InstantaneaTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	private static final LocalDate DIA = LocalDate.now().plusMonths(1);
+	private static final Aula AULA1 = new Aula("Aula 1", 30);
+	private static final Aula AULA2 = new Aula("Aula Ñ", 20);
+	private static final Profesor PROFESOR1 = new Profesor("José Ramón", "joseramon@gmail.com", "950112233");
+	private static final Profesor PROFESOR2 = new Profesor("Andrés", "andres@gmail.com");
+	private static final Reserva RESERVA1 = new Reserva(PROFESOR1, AULA1, new PermanenciaPorHora(DIA, LocalTime.of(8, 0)));
+	private static final Reserva RESERVA2 = new Reserva(PROFESOR2, AULA2, new PermanenciaPorTramo(DIA, Tramo.TARDE));
+	private static final Reserva RESERVA3 = new Reserva(PROFESOR2, AULA1, new PermanenciaPorHora(DIA, LocalTime.of(22, 0)));
+
+	@Test
+	public void guardarCargarTest() throws IOException {
+		Path directorio = Files.createTempDirectory("instantanea");
+		Path fichero = directorio.resolve("modelo.bin");
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas();
+			modelo.insertarAula(AULA1);
+			modelo.insertarAula(AULA2);
+			modelo.insertarProfesor(PROFESOR1);
+			modelo.insertarProfesor(PROFESOR2);
+			modelo.realizarReserva(RESERVA1);
+			modelo.realizarReserva(RESERVA2);
+			modelo.realizarReserva(RESERVA3);
+			// La reserva se mantiene aunque su profesor ya no esté registrado
+			modelo.borrarProfesor(new Profesor(PROFESOR1));
+			modelo.realizarReserva(RESERVA1);
+			Instantanea instantanea = new Instantanea(fichero);
+			assertFalse(instantanea.existe());
+			instantanea.guardar(modelo);
+			assertTrue(instantanea.existe());
+
+			ModeloReservasAulas cargado = new ModeloReservasAulas();
+			assertEquals(3, instantanea.cargar(cargado));
+			assertEquals(modelo.getAulas(), cargado.getAulas());
+			assertEquals(1, cargado.getNumProfesores());
+			assertNull(cargado.buscarProfesor(PROFESOR1));
+			assertNull(cargado.buscarProfesor(PROFESOR2).getTelefono());
+			assertEquals(modelo.representarReservas(), cargado.representarReservas());
+			assertEquals(PROFESOR1.getTelefono(), cargado.buscarReserva(RESERVA1).getProfesor().getTelefono());
+			assertEquals(modelo.getPuntosGastados(PROFESOR2, YearMonth.from(DIA)),
+					cargado.getPuntosGastados(PROFESOR2, YearMonth.from(DIA)), 0f);
+			assertFalse(cargado.consultarDisponibilidad(AULA2, new PermanenciaPorTramo(DIA, Tramo.TARDE)));
+
+			// Al volver a guardar se sustituye la anterior sin dejar ficheros temporales
+			cargado.anularReserva(RESERVA2);
+			instantanea.guardar(cargado);
+			assertEquals(2, instantanea.cargar(new ModeloReservasAulas()));
+			int ficheros = 0;
+			try (DirectoryStream<Path> contenido = Files.newDirectoryStream(directorio)) {
+				for (Path p : contenido)
+					ficheros++;
+			}
+			assertEquals(1, ficheros);
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			Files.deleteIfExists(fichero);
+			Files.delete(directorio);
+		}
+	}
+
+	@Test
+	public void ficheroDanadoTest() throws IOException {
+		Path fichero = Files.createTempFile("instantanea", ".bin");
+		try {
+			ModeloReservasAulas modelo = new ModeloReservasAulas();
+			modelo.insertarAula(AULA1);
+			Instantanea instantanea = new Instantanea(fichero);
+			instantanea.guardar(modelo);
+			byte[] contenido = Files.readAllBytes(fichero);
+			contenido[contenido.length / 2] ^= 1;
+			Files.write(fichero, contenido);
+			ModeloReservasAulas cargado = new ModeloReservasAulas();
+			try {
+				instantanea.cargar(cargado);
+				fail(ERROR_EXCEPCION);
+			} catch (IOException e) {
+				assertEquals("El fichero no es una instantánea válida.", e.getMessage());
+				assertEquals(0, cargado.getNumAulas());
+			}
+		} catch (OperationNotSupportedException e) {
+			fail(ERROR_NO_EXCEPCION);
+		} finally {
+			Files.delete(fichero);
+		}
+	}
+
+	@Test
+	public void parametrosNoValidosTest() throws IOException {
+		try {
+			new Instantanea(null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("El fichero de la instantánea no puede ser nulo.", e.getMessage());
+		}
+		try {
+			new ModeloReservasAulas().cargar(null, null, null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("No se puede cargar el modelo a partir de colecciones nulas.", e.getMessage());
+		}
+	}
+
+}
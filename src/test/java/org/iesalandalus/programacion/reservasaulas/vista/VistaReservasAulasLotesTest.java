@@ -0,0 +1,89 @@
+package org.iesalandalus.programacion.reservasaulas.vista;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import org.iesalandalus.programacion.reservasaulas.controlador.ControladorReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulas;
+import org.junit.Test;
+
+public class VistaReservasAulasLotesTest {
+
+	private static final String ERROR_EXCEPCION = "Debería haber saltado la excepción.";
+	private static final LocalDate MES_SIGUIENTE = LocalDate.now().plusMonths(1);
+	private static final String DIA = LocalDate.of(MES_SIGUIENTE.getYear(), MES_SIGUIENTE.getMonthValue(), 1)
+			.format(DateTimeFormatter.ofPattern("dd/MM/uuuu"));
+
+	private static String[] ejecutar(IModeloReservasAulas modelo, String ordenes) {
+		StringWriter salida = new StringWriter();
+		VistaReservasAulasLotes vista = new VistaReservasAulasLotes(new StringReader(ordenes), salida);
+		new ControladorReservasAulas(modelo, vista).comenzar();
+		return salida.toString().split("\\R");
+	}
+
+	@Test
+	public void constructorNoValidoTest() {
+		try {
+			new VistaReservasAulasLotes(null, new StringWriter());
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La entrada de las órdenes no puede ser nula.", e.getMessage());
+		}
+		try {
+			new VistaReservasAulasLotes(new StringReader(""), null);
+			fail(ERROR_EXCEPCION);
+		} catch (IllegalArgumentException e) {
+			assertEquals("La salida de los resultados no puede ser nula.", e.getMessage());
+		}
+	}
+
+	@Test
+	public void ejecutarOrdenesTest() {
+		IModeloReservasAulas modelo = new ModeloReservasAulas();
+		String[] resultados = ejecutar(modelo,
+				"# Datos de prueba\n" + "INSERTAR_AULA;Aula 1;30\n" + "INSERTAR_PROFESOR;José Ramón;jr@gmail.com\n"
+						+ "\n" + "INSERTAR_RESERVA;José Ramón;Aula 1;" + DIA + ";10:00\n"
+						+ "INSERTAR_RESERVA;José Ramón;Aula 1;" + DIA + ";MANANA\n" + "CONSULTAR_DISPONIBILIDAD;Aula 1;"
+						+ DIA + ";11:00\n" + "BUSCAR_AULA;Aula 9\n" + "LISTAR_RESERVAS\n" + "BORRAR_AULA;Aula 1\n"
+						+ "SALIR\n" + "INSERTAR_AULA;Aula 2;20\n");
+		assertEquals(10, resultados.length);
+		assertEquals("{\"linea\":2,\"opcion\":\"INSERTAR_AULA\",\"resultado\":{\"nombre\":\"Aula 1\",\"puestos\":30}}",
+				resultados[0]);
+		assertTrue(resultados[2].startsWith("{\"linea\":5,\"opcion\":\"INSERTAR_RESERVA\",\"resultado\":{"));
+		assertEquals("{\"linea\":6,\"opcion\":\"INSERTAR_RESERVA\",\"error\":"
+				+ "\"Ya se ha realizado una reserva por hora para este día y aula.\"}", resultados[3]);
+		assertEquals("{\"linea\":7,\"opcion\":\"CONSULTAR_DISPONIBILIDAD\",\"resultado\":{\"disponible\":true}}",
+				resultados[4]);
+		assertEquals("{\"linea\":8,\"opcion\":\"BUSCAR_AULA\",\"resultado\":null}", resultados[5]);
+		assertTrue(resultados[6].contains("\"hora\":\"10:00\""));
+		assertEquals("{\"linea\":10,\"opcion\":\"BORRAR_AULA\",\"resultado\":{\"anuladas\":1}}", resultados[7]);
+		assertEquals("{\"linea\":11,\"opcion\":\"SALIR\",\"resultado\":null}", resultados[8]);
+		assertEquals("{\"ordenes\":9,\"errores\":1}", resultados[9]);
+		assertTrue(modelo.getAulas().isEmpty());
+	}
+
+	@Test
+	public void ordenesNoValidasTest() {
+		IModeloReservasAulas modelo = new ModeloReservasAulas();
+		String[] resultados = ejecutar(modelo, "BORRAR_TODO\n" + "INSERTAR_AULA;Aula 1\n"
+				+ "INSERTAR_AULA;Aula 1;muchos\n" + "INSERTAR_RESERVA;Nadie;Aula 1;" + DIA + ";TARDE\n"
+				+ "INSERTAR_PROFESOR;Andrés;andres@gmail.com;950112233\n" + "INSERTAR_AULA;Aula 1;20\n"
+				+ "INSERTAR_RESERVA;Andrés;Aula 1;" + DIA + ";NOCHE\n");
+		assertEquals("{\"linea\":1,\"opcion\":\"BORRAR_TODO\",\"error\":\"La opción BORRAR_TODO no existe.\"}",
+				resultados[0]);
+		assertTrue(resultados[1].endsWith("\"error\":\"Faltan datos en la orden.\"}"));
+		assertTrue(resultados[2].endsWith("\"error\":\"Los puestos deben ser un número entero.\"}"));
+		assertTrue(resultados[3].endsWith("\"error\":\"El profesor introducido no existe.\"}"));
+		assertTrue(resultados[4].contains("\"telefono\":\"950112233\""));
+		assertTrue(resultados[6].endsWith("\"error\":\"El tramo debe ser MANANA o TARDE.\"}"));
+		assertEquals("{\"ordenes\":7,\"errores\":5}", resultados[7]);
+	}
+
+}
@@ -0,0 +1,232 @@
+package org.iesalandalus.programacion.reservasaulas.vista.http;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.iesalandalus.programacion.reservasaulas.controlador.ControladorReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.IModeloReservasAulas;
+import org.iesalandalus.programacion.reservasaulas.modelo.ModeloReservasAulasConcurrente;
+import org.iesalandalus.programacion.reservasaulas.modelo.dominio.Reserva;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VistaReservasAulasHttpTest {
+
+	private static final String ERROR_NO_EXCEPCION = "No debería haber saltado la excepción.";
+
+	private static final int NUM_HILOS = 8;
+	private static final int NUM_AULAS = 4;
+	private static final int RESERVAS_POR_HILO = 20;
+	private static final String DIA = LocalDate.now().plusMonths(1).format(DateTimeFormatter.ofPattern("dd/MM/uuuu"));
+
+	private IModeloReservasAulas modelo;
+	private VistaReservasAulasHttp vista;
+
+	/**
+	 * Respuesta de una petición: el código y el cuerpo
+	 */
+	private static class Respuesta {
+		private int codigo;
+		private String cuerpo;
+	}
+
+	@Before
+	public void arrancar() throws IOException {
+		modelo = new ModeloReservasAulasConcurrente(4);
+		vista = new VistaReservasAulasHttp(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		new ControladorReservasAulas(modelo, vista);
+		vista.iniciar();
+	}
+
+	@After
+	public void detener() {
+		vista.salir();
+	}
+
+	private Respuesta pedir(String metodo, String ruta, String json) throws IOException {
+		URL url = new URL("http://localhost:" + vista.getPuerto() + ruta);
+		HttpURLConnection conexion = (HttpURLConnection) url.openConnection();
+		conexion.setRequestMethod(metodo);
+		if (json != null) {
+			conexion.setDoOutput(true);
+			conexion.setRequestProperty("Content-Type", "application/json");
+			OutputStream salida = conexion.getOutputStream();
+			salida.write(json.getBytes(StandardCharsets.UTF_8));
+			salida.close();
+		}
+		Respuesta respuesta = new Respuesta();
+		respuesta.codigo = conexion.getResponseCode();
+		InputStream entrada = respuesta.codigo < 400 ? conexion.getInputStream() : conexion.getErrorStream();
+		ByteArrayOutputStream cuerpo = new ByteArrayOutputStream();
+		if (entrada != null) {
+			byte[] bloque = new byte[1024];
+			int leidos;
+			while ((leidos = entrada.read(bloque)) != -1)
+				cuerpo.write(bloque, 0, leidos);
+			entrada.close();
+		}
+		respuesta.cuerpo = new String(cuerpo.toByteArray(), StandardCharsets.UTF_8);
+		return respuesta;
+	}
+
+	@Test
+	public void aulasTest() {
+		try {
+			assertEquals(201, pedir("POST", "/aulas", "{\"nombre\": \"Aula 1\", \"puestos\": 30}").codigo);
+			assertEquals(409, pedir("POST", "/aulas", "{\"nombre\": \"Aula 1\", \"puestos\": 30}").codigo);
+			assertEquals(400, pedir("POST", "/aulas", "{\"nombre\": \"Aula 2\", \"puestos\": \"muchos\"}").codigo);
+			assertEquals(400, pedir("POST", "/aulas", "{\"nombre\": \"Aula 2\"").codigo);
+			Respuesta respuesta = pedir("GET", "/aulas/Aula%201", null);
+			assertEquals(200, respuesta.codigo);
+			assertEquals("{\"nombre\":\"Aula 1\",\"puestos\":30}", respuesta.cuerpo);
+			assertEquals("[{\"nombre\":\"Aula 1\",\"puestos\":30}]", pedir("GET", "/aulas", null).cuerpo);
+			assertEquals(404, pedir("GET", "/aulas/Aula%202", null).codigo);
+			assertEquals(405, pedir("PUT", "/aulas/Aula%201", "{}").codigo);
+			assertEquals(204, pedir("DELETE", "/aulas/Aula%201", null).codigo);
+			assertEquals(409, pedir("DELETE", "/aulas/Aula%201", null).codigo);
+			assertEquals(404, pedir("GET", "/pasillos", null).codigo);
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void reservasTest() {
+		try {
+			assertEquals(201, pedir("POST", "/aulas", "{\"nombre\": \"Aula 1\", \"puestos\": 30}").codigo);
+			assertEquals(201, pedir("POST", "/profesores",
+					"{\"nombre\": \"José Ramón\", \"correo\": \"joseramon@gmail.com\", \"telefono\": \"950112233\"}").codigo);
+			String reserva = "{\"profesor\": \"José Ramón\", \"aula\": \"Aula 1\", \"dia\": \"" + DIA
+					+ "\", \"hora\": \"10:00\"}";
+			Respuesta respuesta = pedir("POST", "/reservas", reserva);
+			assertEquals(201, respuesta.codigo);
+			assertTrue(respuesta.cuerpo.contains("\"hora\":\"10:00\""));
+			assertEquals(409, pedir("POST", "/reservas", reserva).codigo);
+			assertEquals(404, pedir("POST", "/reservas",
+					"{\"profesor\": \"Andrés\", \"aula\": \"Aula 1\", \"dia\": \"" + DIA + "\", \"tramo\": \"TARDE\"}").codigo);
+			respuesta = pedir("POST", "/reservas",
+					"{\"profesor\": \"José Ramón\", \"aula\": \"Aula 1\", \"dia\": \"" + DIA + "\", \"tramo\": \"NOCHE\"}");
+			assertEquals(400, respuesta.codigo);
+			assertTrue(respuesta.cuerpo.contains("El tramo debe ser MANANA o TARDE."));
+			String consulta = "aula=Aula+1&dia=" + DIA + "&hora=10:00";
+			assertEquals("{\"disponible\":false}", pedir("GET", "/disponibilidad?" + consulta, null).cuerpo);
+			assertEquals(1, modelo.getReservas().size());
+			assertEquals("[]", pedir("GET", "/huecos?puestos=30&dia=" + DIA + "&hora=10:00&hasta=" + DIA, null).cuerpo);
+			assertEquals("[{\"aula\":{\"nombre\":\"Aula 1\",\"puestos\":30},\"dia\":\"" + DIA + "\",\"hora\":\"11:00\"}]",
+					pedir("GET", "/huecos?puestos=30&dia=" + DIA + "&hora=11:00", null).cuerpo);
+			assertTrue(pedir("GET", "/reservas?profesor=Jos%C3%A9+Ram%C3%B3n", null).cuerpo.startsWith("[{\"profesor\""));
+			assertTrue(pedir("GET", "/reservas?aula=Aula+1&desde=" + DIA + "&hasta=" + DIA, null).cuerpo.startsWith("[{\"profesor\""));
+			assertEquals(400, pedir("GET", "/reservas?desde=" + DIA + "&hasta=ayer", null).codigo);
+			assertEquals("{\"puntos\":18.0}", pedir("GET", "/puntos?profesor=Jos%C3%A9+Ram%C3%B3n&mes="
+					+ LocalDate.now().plusMonths(1).toString().substring(0, 7), null).cuerpo);
+			assertEquals(204, pedir("DELETE", "/reservas?profesor=Jos%C3%A9+Ram%C3%B3n&" + consulta, null).codigo);
+			assertEquals("{\"disponible\":true}", pedir("GET", "/disponibilidad?" + consulta, null).cuerpo);
+			assertEquals("[]", pedir("GET", "/reservas", null).cuerpo);
+			String serie = "{\"profesor\": \"José Ramón\", \"aula\": \"Aula 1\", \"dia\": \"" + DIA
+					+ "\", \"hora\": \"10:00\", \"periodicidad\": \"SEMANAL\", \"fin\": \"" + DIA + "\"}";
+			assertEquals("{\"reservas\":1}", pedir("POST", "/reservas/periodicas", serie).cuerpo);
+			respuesta = pedir("POST", "/reservas/periodicas", serie);
+			assertEquals(409, respuesta.codigo);
+			assertTrue(respuesta.cuerpo.contains("\"conflictos\":{\"" + DIA + "\":\"La reserva ya existe.\"}"));
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void errorInternoTest() {
+		try {
+			// Sin controlador cualquier petición falla con un error inesperado,
+			// que debe llegar al cliente como un 500 sin tumbar el servidor
+			vista.setControlador(null);
+			Respuesta respuesta = pedir("GET", "/aulas", null);
+			assertEquals(500, respuesta.codigo);
+			assertTrue(respuesta.cuerpo.contains("No se ha podido atender la petición."));
+			assertEquals(500, pedir("GET", "/profesores", null).codigo);
+		} catch (IOException e) {
+			fail(ERROR_NO_EXCEPCION);
+		}
+	}
+
+	@Test
+	public void cargaTest() throws IOException, InterruptedException {
+		for (int i = 0; i < NUM_AULAS; i++)
+			assertEquals(201, pedir("POST", "/aulas", "{\"nombre\": \"Aula " + i + "\", \"puestos\": 10}").codigo);
+		for (int i = 0; i < NUM_HILOS; i++)
+			assertEquals(201, pedir("POST", "/profesores",
+					"{\"nombre\": \"Profesor " + i + "\", \"correo\": \"p" + i + "@gmail.com\"}").codigo);
+		// Todos los hilos piden los mismos huecos en distinto orden, así que
+		// compiten por ellos
+		final List<String> huecos = new ArrayList<String>();
+		for (int i = 0; i < NUM_AULAS; i++)
+			for (int hora = 8; hora < 8 + RESERVAS_POR_HILO / NUM_AULAS + 1; hora++)
+				huecos.add("\"aula\": \"Aula " + i + "\", \"hora\": \"" + String.format("%02d:00", hora) + "\"");
+		final AtomicInteger realizadas = new AtomicInteger();
+		final AtomicInteger rechazadas = new AtomicInteger();
+		final AtomicInteger errores = new AtomicInteger();
+		final CountDownLatch salida = new CountDownLatch(1);
+		List<Thread> hilos = new ArrayList<Thread>();
+		for (int i = 0; i < NUM_HILOS; i++) {
+			final String profesor = "Profesor " + i;
+			final List<String> orden = new ArrayList<String>(huecos);
+			Collections.shuffle(orden);
+			Thread hilo = new Thread(new Runnable() {
+				public void run() {
+					try {
+						salida.await();
+						for (String hueco : orden.subList(0, RESERVAS_POR_HILO)) {
+							int codigo = pedir("POST", "/reservas", "{\"profesor\": \"" + profesor + "\", " + hueco
+									+ ", \"dia\": \"" + DIA + "\"}").codigo;
+							if (codigo == 201)
+								realizadas.incrementAndGet();
+							else if (codigo == 409)
+								rechazadas.incrementAndGet();
+							else
+								errores.incrementAndGet();
+						}
+					} catch (IOException | InterruptedException e) {
+						errores.incrementAndGet();
+					}
+				}
+			});
+			hilos.add(hilo);
+			hilo.start();
+		}
+		salida.countDown();
+		for (Thread hilo : hilos)
+			hilo.join();
+		assertEquals(0, errores.get());
+		assertEquals(NUM_HILOS * RESERVAS_POR_HILO, realizadas.get() + rechazadas.get());
+		List<Reserva> reservas = modelo.getReservas();
+		assertEquals(realizadas.get(), reservas.size());
+		assertTrue(reservas.size() <= huecos.size());
+		assertEquals(reservas.size(), new HashSet<Reserva>(reservas).size());
+		Set<String> enRespuesta = new HashSet<String>();
+		Respuesta listado = pedir("GET", "/reservas", null);
+		for (String reserva : listado.cuerpo.split("\\},\\{\"profesor\""))
+			enRespuesta.add(reserva);
+		assertEquals(reservas.size(), enRespuesta.size());
+	}
+
+}